@@ -11,8 +11,6 @@ import org.gearvrf.utility.Log;
 import org.joml.Matrix4f;
 import org.joml.Vector3f;
 
-import java.util.HashMap;
-
 class BondAnimator extends GVRBehavior implements IPickEvents
 {
     static private long TYPE_BOND_ANIMATOR = newComponentType(BondAnimator.class);
@@ -20,21 +18,21 @@ class BondAnimator extends GVRBehavior implements IPickEvents
     private float           mMinDist;
     private float           mMaxDist;
     private float           mCurDist;
-    private String          mElementName;
+    private int             mElement = -1;
     private Vector3f        mTargetPos = new Vector3f(0, 0, 0);
     private Vector3f        mCurPos = new Vector3f(0, 0, 0);
     private GVRSceneObject  mClosest = null;
     private GVRSceneObject  mTarget = null;
-    private HashMap<String, String> mMoleculeMap;
+    private BondTable<GVRSceneObject> mBonds;
     private SoundEffect mGoodSound;
     private SoundEffect mBadSound;
 
     public boolean         WrongAnswer = false;
 
-    BondAnimator(GVRContext ctx, HashMap<String, String> moleculeMap, SoundEffect good, SoundEffect bad)
+    BondAnimator(GVRContext ctx, BondTable<GVRSceneObject> bonds, SoundEffect good, SoundEffect bad)
     {
         super(ctx);
-        mMoleculeMap = moleculeMap;
+        mBonds = bonds;
         mGoodSound = good;
         mBadSound = bad;
         mType = TYPE_BOND_ANIMATOR;
@@ -45,7 +43,8 @@ class BondAnimator extends GVRBehavior implements IPickEvents
     public void setTarget(GVRSceneObject target)
     {
         mTarget = target;
-        mElementName = getElementName(target);
+        String elementName = getElementName(target);
+        mElement = (elementName != null) ? mBonds.getElement(elementName) : -1;
         WrongAnswer = false;
     }
 
@@ -56,58 +55,12 @@ class BondAnimator extends GVRBehavior implements IPickEvents
 
     public GVRSceneObject getBondPoint(GVRSceneObject srcObj)
     {
-        String name = srcObj.getName();
-        int i = name.indexOf("_");
-        if (i <= 0)
-        {
-            return null;
-        }
-        name = name.substring(0, i);
-        String partners = mMoleculeMap.get(name);
-        if (partners != null)
-        {
-            i = partners.indexOf(mElementName);
-            if (i >= 0)
-            {
-                String objName = partners.substring(i);
-                int j = objName.indexOf(" ");
-                if (j > 0)
-                {
-                    objName = objName.substring(0, j);
-                }
-                GVRSceneObject found = getOwnerObject().getSceneObjectByName(objName);
-                if (found != null)
-                {
-                    partners = partners.replace(objName, "").trim();
-                    if (partners.equals(""))
-                    {
-                        mMoleculeMap.remove(name);
-                    }
-                    else
-                    {
-                        mMoleculeMap.put(name, partners);
-                    }
-                    return found;
-                }
-            }
-        }
-        return null;
+        return mBonds.bond(srcObj, mElement);
     }
 
     static public String getElementName(GVRSceneObject srcObj)
     {
-        String name = srcObj.getName();
-        String elemName = null;
-
-        for (int i = 0; i < name.length(); ++i)
-        {
-            if ("0123456789".indexOf(name.charAt(i)) >= 0)
-            {
-                elemName = name.substring(0, i);
-                return elemName;
-            }
-        }
-        return null;
+        return BondTable.getElementName(srcObj.getName());
     }
 
     private void makeBond(GVRSceneObject sceneObj)
@@ -115,18 +68,14 @@ class BondAnimator extends GVRBehavior implements IPickEvents
         GVRSceneObject partner = getBondPoint(sceneObj);
         if (partner != null)
         {
-            String name = partner.getName();
-            if ((name != null) && name.startsWith(mElementName))
+            mTarget.setEnable(false);
+            partner.getRenderData().setEnable(true);
+            mTarget = null;
+            if (mGoodSound != null)
             {
-                mTarget.setEnable(false);
-                partner.getRenderData().setEnable(true);
-                mTarget = null;
-                if (mGoodSound != null)
-                {
-                    mGoodSound.play();
-                }
-                return;
+                mGoodSound.play();
             }
+            return;
         }
         if (mBadSound != null)
         {
@@ -0,0 +1,188 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf.bondage;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A molecule definition compiled against its loaded model. The definition maps
+ * each atom ("c1") to the scene objects it bonds with ("h1_Sphere.003 ...").
+ * Compiling resolves every bond site to its scene object through the model's
+ * {@link NameTrie} and groups the sites of each atom by element, so
+ * finding a bond point is a couple of array reads instead of string parsing
+ * and a subtree search. Consumed sites are tracked in a bitset. Generic in
+ * the object type so it can be checked without a GVRContext.
+ */
+class BondTable<T>
+{
+    private static final int[] NO_SITES = new int[0];
+
+    private final ArrayList<String>         mAtoms = new ArrayList<String>();
+    private final ArrayList<String>         mElements = new ArrayList<String>();
+    private final HashMap<T, Integer> mAtomOf = new HashMap<T, Integer>();
+    private Object[]            mSites = new Object[0];
+    private int[][][]           mSitesByElement = new int[0][][];
+    private final BitSet        mConsumed = new BitSet();
+
+    /**
+     * Compile {@code molecule} against the scene objects in {@code names}.
+     * Sites whose scene object is missing are kept so they still block the
+     * element they name, as the string lookup did.
+     */
+    BondTable(NameTrie<T> names, Map<String, String> molecule)
+    {
+        ArrayList<String[]> partnerLists = new ArrayList<String[]>();
+        ArrayList<T> atomObjects = new ArrayList<T>();
+        for (Map.Entry<String, String> entry : molecule.entrySet())
+        {
+            atomObjects.clear();
+            names.collectByPrefix(entry.getKey() + "_", atomObjects);
+            for (T obj : atomObjects)
+            {
+                mAtomOf.put(obj, mAtoms.size());
+            }
+            mAtoms.add(entry.getKey());
+            partnerLists.add(entry.getValue().trim().split("\\s+"));
+        }
+
+        int numSites = 0;
+        for (String[] partners : partnerLists)
+        {
+            numSites += partners.length;
+        }
+        mSites = new Object[numSites];
+        mSitesByElement = new int[mAtoms.size()][][];
+
+        int site = 0;
+        for (int atom = 0; atom < mAtoms.size(); ++atom)
+        {
+            ArrayList<ArrayList<Integer>> grouped = new ArrayList<ArrayList<Integer>>();
+            for (String partner : partnerLists.get(atom))
+            {
+                String element = getElementName(partner);
+                if (element == null)
+                {
+                    continue;
+                }
+                int e = elementIndex(element, true);
+                while (grouped.size() <= e)
+                {
+                    grouped.add(null);
+                }
+                if (grouped.get(e) == null)
+                {
+                    grouped.set(e, new ArrayList<Integer>());
+                }
+                mSites[site] = names.findByName(partner);
+                grouped.get(e).add(site++);
+            }
+            int[][] byElement = new int[grouped.size()][];
+            for (int e = 0; e < byElement.length; ++e)
+            {
+                ArrayList<Integer> sites = grouped.get(e);
+                byElement[e] = NO_SITES;
+                if (sites != null)
+                {
+                    byElement[e] = new int[sites.size()];
+                    for (int k = 0; k < byElement[e].length; ++k)
+                    {
+                        byElement[e][k] = sites.get(k);
+                    }
+                }
+            }
+            mSitesByElement[atom] = byElement;
+        }
+    }
+
+    /** Index of {@code element}, or -1 if no bond site of the molecule names it. */
+    int getElement(String element)
+    {
+        return elementIndex(element, false);
+    }
+
+    /**
+     * Consume the next free site of {@code element} on the atom {@code srcObj}
+     * belongs to.
+     *
+     * @return the scene object of the site, or null if there is none
+     */
+    @SuppressWarnings("unchecked")
+    T bond(T srcObj, int element)
+    {
+        Integer atom = mAtomOf.get(srcObj);
+        if ((atom == null) || (element < 0))
+        {
+            return null;
+        }
+        int[][] byElement = mSitesByElement[atom];
+        if (element >= byElement.length)
+        {
+            return null;
+        }
+        for (int site : byElement[element])
+        {
+            if (!mConsumed.get(site))
+            {
+                T found = (T) mSites[site];
+                if (found != null)
+                {
+                    mConsumed.set(site);
+                }
+                return found;
+            }
+        }
+        return null;
+    }
+
+    /** Number of bond sites not consumed yet. */
+    int getOpenSites()
+    {
+        return mSites.length - mConsumed.cardinality();
+    }
+
+    void reset()
+    {
+        mConsumed.clear();
+    }
+
+    /** Leading non-digit part of an object name ("h" for "h3_Sphere.005"). */
+    static String getElementName(String name)
+    {
+        for (int i = 0; i < name.length(); ++i)
+        {
+            char c = name.charAt(i);
+            if ((c >= '0') && (c <= '9'))
+            {
+                return name.substring(0, i);
+            }
+        }
+        return null;
+    }
+
+    private int elementIndex(String element, boolean add)
+    {
+        int e = mElements.indexOf(element);
+        if ((e < 0) && add)
+        {
+            mElements.add(element);
+            e = mElements.size() - 1;
+        }
+        return e;
+    }
+}
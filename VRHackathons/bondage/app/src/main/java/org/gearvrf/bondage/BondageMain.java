@@ -27,6 +27,8 @@ import org.gearvrf.GVRMain;
 import org.gearvrf.GVRRenderData;
 import org.gearvrf.GVRTexture;
 import org.gearvrf.GVRTransform;
+import org.gearvrf.demos.android.FrameStatsAndroid;
+import org.gearvrf.demos.util.FrameStats;
 import org.gearvrf.scene_objects.GVRSphereSceneObject;
 
 import android.media.AudioManager;
@@ -39,6 +41,7 @@ import org.gearvrf.utility.Log;
 import org.joml.Vector3f;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.concurrent.Future;
 
@@ -93,6 +96,10 @@ public class BondageMain extends GVRMain {
     private int mNumMatched = 0;
     private float mRotAngle = 0;
     private HashMap<String, String> mMoleculeMap = new HashMap<String, String>();
+    private SceneNameIndex mMoleculeNames = null;
+    // GL thread CPU time per frame, logged every 10 seconds
+    private final FrameStats mFrameStats = FrameStatsAndroid.cpuTimeToLogcat("bondage", 10);
+    private final ArrayList<GVRSceneObject> mMatches = new ArrayList<GVRSceneObject>();
 
     @Override
     public void onInit(GVRContext context)
@@ -139,7 +146,11 @@ public class BondageMain extends GVRMain {
             GVRSceneObject modelRoot = ctx.getAssetLoader().loadModel(fileName, mScene);
             GVRSceneObject.BoundingVolume bv = modelRoot.getBoundingVolume();
             GVRTransform trans = modelRoot.getTransform();
-            mBondAnimator = new BondAnimator(ctx, mMoleculeMap, mGoodSound, mBadSound);
+            mMoleculeNames = new SceneNameIndex(ctx);
+            modelRoot.attachComponent(mMoleculeNames);
+            makeMoleculeMap(fileName);
+            mBondAnimator = new BondAnimator(ctx, new BondTable<GVRSceneObject>(mMoleculeNames.getNames(), mMoleculeMap),
+                                             mGoodSound, mBadSound);
 
             trans.setScale(0.1f, 0.1f, 0.1f);
             trans.setPositionZ(-1.0f);
@@ -153,7 +164,6 @@ public class BondageMain extends GVRMain {
             mScene.addSceneObject(mElementGrid);
             mScene.getEventReceiver().addListener(mBondAnimator);
             mNumMatched = 0;
-            makeMoleculeMap(fileName);
             return modelRoot;
         }
         catch (IOException ex)
@@ -211,7 +221,7 @@ public class BondageMain extends GVRMain {
     @Override
     public void onStep()
     {
-        FPSCounter.tick();
+        mFrameStats.tick();
     }
 
     public void onTouchEvent(MotionEvent event)
@@ -253,14 +263,10 @@ public class BondageMain extends GVRMain {
             if (mNumMatched == 0)
             {
                 String elemName = BondAnimator.getElementName(sceneObj);
-                NameMatcher matcher = new NameMatcher(elemName);
                 Log.d("bondage", "Match " + elemName);
-                matcher.Match = null;
-                mMolecule.forAllDescendants(matcher);
-                GVRSceneObject match = matcher.Match;
+                GVRSceneObject match = findAtom(elemName);
                 if (match != null)
                 {
-                    String name = match.getName();
                     GVRRenderData rdata = match.getRenderData();
                     if (rdata != null)
                     {
@@ -275,13 +281,35 @@ public class BondageMain extends GVRMain {
         }
     }
 
+    /*
+     * An atom of the molecule whose name starts with elemName,
+     * skipping the model file node.
+     */
+    private GVRSceneObject findAtom(String elemName)
+    {
+        if ((elemName == null) || (mMoleculeNames == null))
+        {
+            return null;
+        }
+        mMatches.clear();
+        mMoleculeNames.collectByPrefix(elemName, mMatches);
+        for (GVRSceneObject obj : mMatches)
+        {
+            if (!obj.getName().endsWith(".obj"))
+            {
+                return obj;
+            }
+        }
+        return null;
+    }
+
     private void attachToCursor(GVRSceneObject elemObj)
     {
         float sf = 0.1f;
-        GVRSceneObject parent = elemObj.getParent();
+        ElementGrid grid = (ElementGrid) mElementGrid.getComponent(ElementGrid.getComponentType());
         elemObj.getTransform().setScale(sf, sf, sf);
 
-        parent.getParent().removeChildObject(elemObj);
+        grid.removeFromGrid(elemObj);
         elemObj.getTransform().setPosition(0, 0, 0);
         mHeadTracker.addChildObject(elemObj);
         elemObj.getComponent(GVRCollider.getComponentType()).setEnable(false);
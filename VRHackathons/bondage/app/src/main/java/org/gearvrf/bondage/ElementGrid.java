@@ -14,6 +14,9 @@ import org.gearvrf.GVRTransform;
 import org.gearvrf.scene_objects.GVRSphereSceneObject;
 import org.gearvrf.utility.Log;
 
+import java.util.ArrayList;
+import java.util.BitSet;
+
 public class ElementGrid extends GVRBehavior implements GVRSceneObject.SceneVisitor
 {
     static private long TYPE_ELEMENT_GRID = newComponentType(ElementGrid.class);
@@ -48,24 +51,32 @@ public class ElementGrid extends GVRBehavior implements GVRSceneObject.SceneVisi
                 owner.addChildObject(element);
             }
         }
-    }
-
-    private GVRSceneObject findEmptyGridSlot()
-    {
+        mSlots.clear();
+        mFreeSlots.clear();
         for (GVRSceneObject child : owner.children())
         {
             if (child.getChildrenCount() == 0)
             {
-                return child;
+                mFreeSlots.set(mSlots.size());
             }
+            mSlots.add(child);
         }
-        return null;
+    }
+
+    /*
+     * Free slots are kept in a bitset ordered like the grid,
+     * so the first empty slot is found without looking at the children.
+     */
+    private int findEmptyGridSlot()
+    {
+        return mFreeSlots.nextSetBit(0);
     }
 
     static public long getComponentType() { return TYPE_ELEMENT_GRID; }
 
     private float[][] mGridPositions;
-    private int mGridIndex = 0;
+    private final ArrayList<GVRSceneObject> mSlots = new ArrayList<GVRSceneObject>();
+    private final BitSet mFreeSlots = new BitSet();
 
     public void makeGrid(GVRSceneObject srcRoot)
     {
@@ -74,24 +85,39 @@ public class ElementGrid extends GVRBehavior implements GVRSceneObject.SceneVisi
 
     public void addToGrid(GVRSceneObject newElem)
     {
-        GVRSceneObject gridParent = findEmptyGridSlot();
-        if (gridParent != null)
+        int slot = findEmptyGridSlot();
+        if (slot >= 0)
         {
             GVRTransform trans = newElem.getTransform();
             trans.setPosition(0, 0, 0);
             trans.setScale(ELEMENT_SCALE, ELEMENT_SCALE, ELEMENT_SCALE);
-            gridParent.addChildObject(newElem);
+            mSlots.get(slot).addChildObject(newElem);
+            mFreeSlots.clear(slot);
+        }
+    }
+
+    /**
+     * Take an element out of its grid slot and make the slot available again.
+     */
+    public void removeFromGrid(GVRSceneObject elem)
+    {
+        GVRSceneObject gridParent = elem.getParent();
+        int slot = mSlots.indexOf(gridParent);
+        if (slot >= 0)
+        {
+            gridParent.removeChildObject(elem);
+            mFreeSlots.set(slot);
         }
     }
 
     public boolean visit(GVRSceneObject srcObj)
     {
         GVRRenderData srcRender = srcObj.getRenderData();
-        GVRSceneObject owner = getOwnerObject();
-        GVRSceneObject dstRoot = findEmptyGridSlot();
+        int slot = findEmptyGridSlot();
 
-        if ((srcRender != null) && (dstRoot != null))
+        if ((srcRender != null) && (slot >= 0))
         {
+            GVRSceneObject dstRoot = mSlots.get(slot);
             GVRContext ctx = srcObj.getGVRContext();
             GVRMaterial srcMtl = srcRender.getMaterial();
             GVRMesh srcMesh = srcRender.getMesh();
@@ -134,7 +160,7 @@ public class ElementGrid extends GVRBehavior implements GVRSceneObject.SceneVisi
             collider = new GVRSphereCollider(ctx);
             srcObj.attachComponent(collider);
             dstRoot.addChildObject(dstObj);
-            owner.addChildObject(dstRoot);
+            mFreeSlots.clear(slot);
             srcRender.setEnable(false);
         }
         return true;
@@ -0,0 +1,219 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf.bondage;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Prefix trie from names to objects. Lookups by exact name or name prefix
+ * cost the length of the key. Objects with the same name are kept in the
+ * order they were added. Knows nothing about scene objects, so the lookups
+ * can be exercised without a GVRContext.
+ */
+final class NameTrie<T>
+{
+    static private final char[] NO_KEYS = new char[0];
+    static private final Node[] NO_NODES = new Node[0];
+
+    private static final class Node
+    {
+        char[]  keys = NO_KEYS;
+        Node[]  next = NO_NODES;
+        ArrayList<Object> objects;
+        int     size;   // objects in this subtree
+
+        Node child(char c)
+        {
+            for (int i = 0; i < keys.length; ++i)
+            {
+                if (keys[i] == c)
+                {
+                    return next[i];
+                }
+            }
+            return null;
+        }
+
+        Node addChild(char c)
+        {
+            Node n = child(c);
+            if (n == null)
+            {
+                int len = keys.length;
+                char[] k = new char[len + 1];
+                Node[] m = new Node[len + 1];
+                System.arraycopy(keys, 0, k, 0, len);
+                System.arraycopy(next, 0, m, 0, len);
+                n = new Node();
+                k[len] = c;
+                m[len] = n;
+                keys = k;
+                next = m;
+            }
+            return n;
+        }
+
+        void removeChild(Node n)
+        {
+            int len = keys.length;
+            for (int i = 0; i < len; ++i)
+            {
+                if (next[i] == n)
+                {
+                    char[] k = new char[len - 1];
+                    Node[] m = new Node[len - 1];
+                    System.arraycopy(keys, 0, k, 0, i);
+                    System.arraycopy(next, 0, m, 0, i);
+                    System.arraycopy(keys, i + 1, k, i, len - i - 1);
+                    System.arraycopy(next, i + 1, m, i, len - i - 1);
+                    keys = k;
+                    next = m;
+                    return;
+                }
+            }
+        }
+    }
+
+    private Node        mRoot = new Node();
+    private final ArrayList<Node> mPath = new ArrayList<Node>();
+
+    /** Number of objects held. */
+    int size()
+    {
+        return mRoot.size;
+    }
+
+    void clear()
+    {
+        mRoot = new Node();
+    }
+
+    void add(String name, T obj)
+    {
+        Node n = mRoot;
+        ++n.size;
+        for (int i = 0; i < name.length(); ++i)
+        {
+            n = n.addChild(name.charAt(i));
+            ++n.size;
+        }
+        if (n.objects == null)
+        {
+            n.objects = new ArrayList<Object>(1);
+        }
+        n.objects.add(obj);
+    }
+
+    /** Remove {@code obj} from under {@code name}; empty branches are pruned. */
+    boolean remove(String name, T obj)
+    {
+        mPath.clear();
+        Node n = mRoot;
+        mPath.add(n);
+        for (int i = 0; (n != null) && (i < name.length()); ++i)
+        {
+            n = n.child(name.charAt(i));
+            mPath.add(n);
+        }
+        if ((n == null) || (n.objects == null) || !n.objects.remove(obj))
+        {
+            return false;
+        }
+        for (int i = mPath.size() - 1; i >= 0; --i)
+        {
+            Node p = mPath.get(i);
+            if ((--p.size == 0) && (i > 0))
+            {
+                mPath.get(i - 1).removeChild(p);
+            }
+        }
+        return true;
+    }
+
+    /** First object called {@code name}, or null. */
+    @SuppressWarnings("unchecked")
+    T findByName(String name)
+    {
+        Node n = find(name);
+        if ((n == null) || (n.objects == null) || n.objects.isEmpty())
+        {
+            return null;
+        }
+        return (T) n.objects.get(0);
+    }
+
+    /**
+     * Some object whose name starts with {@code prefix}, or null. Empty
+     * branches are pruned, so this descends at most one path of the trie.
+     */
+    @SuppressWarnings("unchecked")
+    T findByPrefix(String prefix)
+    {
+        Node n = find(prefix);
+        while ((n != null) && (n.size > 0))
+        {
+            if ((n.objects != null) && !n.objects.isEmpty())
+            {
+                return (T) n.objects.get(0);
+            }
+            n = n.next[0];
+        }
+        return null;
+    }
+
+    /**
+     * Append every object whose name starts with {@code prefix} to {@code out}.
+     *
+     * @return number of objects added
+     */
+    int collectByPrefix(String prefix, List<? super T> out)
+    {
+        Node n = find(prefix);
+        if (n == null)
+        {
+            return 0;
+        }
+        collect(n, out);
+        return n.size;
+    }
+
+    private Node find(String key)
+    {
+        Node n = mRoot;
+        for (int i = 0; (n != null) && (i < key.length()); ++i)
+        {
+            n = n.child(key.charAt(i));
+        }
+        return n;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void collect(Node n, List<? super T> out)
+    {
+        if (n.objects != null)
+        {
+            for (Object obj : n.objects)
+            {
+                out.add((T) obj);
+            }
+        }
+        for (Node c : n.next)
+        {
+            collect(c, out);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf.bondage;
+
+import org.gearvrf.GVRBehavior;
+import org.gearvrf.GVRContext;
+import org.gearvrf.GVRSceneObject;
+
+import java.util.List;
+
+/**
+ * Index of the names of the scene objects below its owner, kept in a
+ * {@link NameTrie}. Lookups by exact name or name prefix cost the length of
+ * the key instead of a walk over the hierarchy. The owner's subtree is indexed
+ * on attach; objects added or removed later go through {@link #addChildObject}
+ * and {@link #removeChildObject} so the index stays current. Objects with the
+ * same name are kept in the order they were indexed, so the first one is the
+ * one getSceneObjectByName would find.
+ */
+public class SceneNameIndex extends GVRBehavior implements GVRSceneObject.SceneVisitor
+{
+    static private long TYPE_SCENE_NAME_INDEX = newComponentType(SceneNameIndex.class);
+
+    private final NameTrie<GVRSceneObject> mNames = new NameTrie<GVRSceneObject>();
+    private boolean     mRemoving = false;
+
+    public SceneNameIndex(GVRContext ctx)
+    {
+        super(ctx);
+        mType = TYPE_SCENE_NAME_INDEX;
+    }
+
+    static public long getComponentType() { return TYPE_SCENE_NAME_INDEX; }
+
+    public void onAttach(GVRSceneObject owner)
+    {
+        mNames.clear();
+        owner.forAllDescendants(this);
+    }
+
+    public void onDetach(GVRSceneObject owner)
+    {
+        mNames.clear();
+    }
+
+    /** Number of indexed objects. */
+    public int size()
+    {
+        return mNames.size();
+    }
+
+    /**
+     * Add {@code child} to {@code parent} and index its subtree.
+     * {@code parent} must be below the owner of this index.
+     */
+    public void addChildObject(GVRSceneObject parent, GVRSceneObject child)
+    {
+        parent.addChildObject(child);
+        child.forAllDescendants(this);
+    }
+
+    /** Remove {@code child} from {@code parent} and drop its subtree from the index. */
+    public void removeChildObject(GVRSceneObject parent, GVRSceneObject child)
+    {
+        mRemoving = true;
+        child.forAllDescendants(this);
+        mRemoving = false;
+        parent.removeChildObject(child);
+    }
+
+    /** First indexed object called {@code name}, or null. */
+    public GVRSceneObject findByName(String name)
+    {
+        return mNames.findByName(name);
+    }
+
+    /** Some object whose name starts with {@code prefix}, or null. */
+    public GVRSceneObject findByPrefix(String prefix)
+    {
+        return mNames.findByPrefix(prefix);
+    }
+
+    /**
+     * Append every object whose name starts with {@code prefix} to {@code out}.
+     *
+     * @return number of objects added
+     */
+    public int collectByPrefix(String prefix, List<GVRSceneObject> out)
+    {
+        return mNames.collectByPrefix(prefix, out);
+    }
+
+    /** The underlying trie, for lookups that do not need the scene graph. */
+    NameTrie<GVRSceneObject> getNames()
+    {
+        return mNames;
+    }
+
+    public boolean visit(GVRSceneObject obj)
+    {
+        String name = obj.getName();
+        if ((name != null) && !name.isEmpty())
+        {
+            if (mRemoving)
+            {
+                mNames.remove(name, obj);
+            }
+            else
+            {
+                mNames.add(name, obj);
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,283 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf.bondage;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Checks BondTable against the string lookup BondAnimator.getBondPoint used
+ * before the table, kept below as {@link StringBonds}. Scene objects are
+ * stood in for by {@link Part}, looked up by name the way
+ * getSceneObjectByName walked the model.
+ */
+public class BondTableTest
+{
+    // none of these letters occurs in "_Sphere.", see sphereInANameIsNotASite
+    private static final String[] ELEMENTS = { "c", "o", "n", "f" };
+
+    static final class Part
+    {
+        final String name;
+
+        Part(String name)
+        {
+            this.name = name;
+        }
+
+        @Override
+        public String toString()
+        {
+            return name;
+        }
+    }
+
+    @Test
+    public void ethyleneBondsLikeTheStringLookup()
+    {
+        Map<String, String> molecule = new LinkedHashMap<String, String>();
+        molecule.put("c1", "h1_Sphere.003 h2_Sphere.001 c2_Sphere.002");
+        molecule.put("c2", "h4_Sphere.004 h3_Sphere.005 c1_Sphere");
+        molecule.put("h1", "c1_Sphere");
+        molecule.put("h2", "c1_Sphere");
+        molecule.put("h3", "c2_Sphere.002");
+        molecule.put("h4", "c2_Sphere.002");
+        List<Part> model = parts("C2H4.obj", "c1_Sphere", "c2_Sphere.002", "h1_Sphere.003",
+                                 "h2_Sphere.001", "h4_Sphere.004", "h3_Sphere.005");
+
+        Random random = new Random(41);
+        for (int run = 0; run < 200; ++run)
+        {
+            compare(model, molecule, new String[] { "c", "h", "o" }, random, 30);
+        }
+    }
+
+    @Test
+    public void randomMoleculesBondLikeTheStringLookup()
+    {
+        Random random = new Random(4141);
+        for (int run = 0; run < 500; ++run)
+        {
+            List<Part> model = new ArrayList<Part>();
+            model.add(new Part("molecule.obj"));
+            List<String> atoms = new ArrayList<String>();
+            int[] perElement = new int[ELEMENTS.length];
+            int suffix = 0;
+            for (int i = 0, n = 1 + random.nextInt(12); i < n; ++i)
+            {
+                int e = random.nextInt(ELEMENTS.length);
+                String atom = ELEMENTS[e] + (++perElement[e]);
+                atoms.add(atom);
+                model.add(new Part(String.format("%s_Sphere.%03d", atom, ++suffix)));
+            }
+
+            Map<String, String> molecule = new LinkedHashMap<String, String>();
+            for (String atom : atoms)
+            {
+                StringBuilder partners = new StringBuilder();
+                for (int k = 0, n = 1 + random.nextInt(4); k < n; ++k)
+                {
+                    String site;
+                    if (random.nextInt(8) == 0)
+                    {
+                        // a site the model does not have
+                        site = String.format("%s99_Sphere.%03d",
+                                             ELEMENTS[random.nextInt(ELEMENTS.length)], ++suffix);
+                    }
+                    else
+                    {
+                        Part partner = model.get(1 + random.nextInt(atoms.size()));
+                        site = String.format("%s_%03d", partner.name, ++suffix);
+                        // the bond point is its own object, named after the partner
+                        model.add(new Part(site));
+                    }
+                    partners.append(k > 0 ? " " : "").append(site);
+                }
+                molecule.put(atom, partners.toString());
+            }
+            compare(model, molecule, ELEMENTS, random, 40);
+        }
+    }
+
+    /*
+     * The string lookup searched the partner list for the bare element name,
+     * so an "h" site listed after any other site was never found: the "h" of
+     * "Sphere" matched first. The table looks sites up by element.
+     */
+    @Test
+    public void sphereInANameIsNotASite()
+    {
+        Map<String, String> molecule = new HashMap<String, String>();
+        molecule.put("o1", "c1_Sphere.002 h1_Sphere.003");
+        List<Part> model = parts("o1_Sphere.001", "c1_Sphere.002", "h1_Sphere.003");
+        BondTable<Part> table = new BondTable<Part>(index(model), molecule);
+
+        assertNull(new StringBonds(model, molecule).bond(model.get(0), "h"));
+        assertSame(model.get(2), table.bond(model.get(0), table.getElement("h")));
+    }
+
+    @Test
+    public void resetFreesEverySite()
+    {
+        Map<String, String> molecule = new HashMap<String, String>();
+        molecule.put("c1", "o1_Sphere.002 o2_Sphere.003");
+        List<Part> model = parts("c1_Sphere.001", "o1_Sphere.002", "o2_Sphere.003");
+        BondTable<Part> table = new BondTable<Part>(index(model), molecule);
+        int o = table.getElement("o");
+
+        assertEquals(2, table.getOpenSites());
+        assertSame(model.get(1), table.bond(model.get(0), o));
+        assertSame(model.get(2), table.bond(model.get(0), o));
+        assertNull(table.bond(model.get(0), o));
+        assertEquals(0, table.getOpenSites());
+
+        table.reset();
+        assertEquals(2, table.getOpenSites());
+        assertSame(model.get(1), table.bond(model.get(0), o));
+    }
+
+    @Test
+    public void elementNameIsTheLeadingLetters()
+    {
+        assertEquals("h", BondTable.getElementName("h3_Sphere.005"));
+        assertEquals("cl", BondTable.getElementName("cl12"));
+        assertNull(BondTable.getElementName("Sphere"));
+    }
+
+    /*
+     * Bond random atoms with random elements, as a player would, and check
+     * both implementations hand out the same object every time.
+     */
+    private static void compare(List<Part> model, Map<String, String> molecule, String[] elements,
+                                Random random, int moves)
+    {
+        BondTable<Part> table = new BondTable<Part>(index(model), molecule);
+        StringBonds reference = new StringBonds(model, molecule);
+        for (int move = 0; move < moves; ++move)
+        {
+            Part source = model.get(random.nextInt(model.size()));
+            String element = elements[random.nextInt(elements.length)];
+            Part expected = reference.bond(source, element);
+            assertSame(molecule + ": " + source + " + " + element,
+                       expected, table.bond(source, table.getElement(element)));
+        }
+    }
+
+    private static List<Part> parts(String... names)
+    {
+        List<Part> parts = new ArrayList<Part>();
+        for (String name : names)
+        {
+            parts.add(new Part(name));
+        }
+        return parts;
+    }
+
+    private static NameTrie<Part> index(List<Part> model)
+    {
+        NameTrie<Part> names = new NameTrie<Part>();
+        for (Part part : model)
+        {
+            names.add(part.name, part);
+        }
+        return names;
+    }
+
+    /** BondAnimator.getBondPoint and makeBond as they were before BondTable. */
+    static final class StringBonds
+    {
+        private final List<Part> mModel;
+        private final HashMap<String, String> mMoleculeMap;
+
+        StringBonds(List<Part> model, Map<String, String> molecule)
+        {
+            mModel = model;
+            mMoleculeMap = new HashMap<String, String>(molecule);
+        }
+
+        Part bond(Part srcObj, String elementName)
+        {
+            Part partner = getBondPoint(srcObj, elementName);
+            if ((partner != null) && partner.name.startsWith(elementName))
+            {
+                return partner;
+            }
+            return null;
+        }
+
+        private Part getBondPoint(Part srcObj, String elementName)
+        {
+            String name = srcObj.name;
+            int i = name.indexOf("_");
+            if (i <= 0)
+            {
+                return null;
+            }
+            name = name.substring(0, i);
+            String partners = mMoleculeMap.get(name);
+            if (partners != null)
+            {
+                i = partners.indexOf(elementName);
+                if (i >= 0)
+                {
+                    String objName = partners.substring(i);
+                    int j = objName.indexOf(" ");
+                    if (j > 0)
+                    {
+                        objName = objName.substring(0, j);
+                    }
+                    Part found = getSceneObjectByName(objName);
+                    if (found != null)
+                    {
+                        partners = partners.replace(objName, "").trim();
+                        if (partners.equals(""))
+                        {
+                            mMoleculeMap.remove(name);
+                        }
+                        else
+                        {
+                            mMoleculeMap.put(name, partners);
+                        }
+                        return found;
+                    }
+                }
+            }
+            return null;
+        }
+
+        private Part getSceneObjectByName(String name)
+        {
+            for (Part part : mModel)
+            {
+                if (part.name.equals(name))
+                {
+                    return part;
+                }
+            }
+            return null;
+        }
+    }
+}
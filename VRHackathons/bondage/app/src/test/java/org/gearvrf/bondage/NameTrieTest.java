@@ -0,0 +1,305 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf.bondage;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * NameTrie against the hierarchy walks it replaces: getSceneObjectByName for
+ * exact names and a visitor over every descendant for prefixes. The benchmark
+ * builds a 50k-node hierarchy named like the molecule models.
+ */
+public class NameTrieTest
+{
+    private static final int NODES = 50000;
+    private static final int QUERIES = 50;
+    private static final int RUNS = 9;
+    private static final String[] ELEMENTS = { "c", "h", "o", "n", "cl", "na" };
+
+    // keeps the timed work from being optimised away
+    private static volatile int blackhole;
+
+    /* Stands in for a scene object: a name and children. */
+    static final class Node
+    {
+        final String name;
+        final List<Node> children = new ArrayList<Node>();
+
+        Node(String name)
+        {
+            this.name = name;
+        }
+
+        /** Depth first, the order getSceneObjectByName searches in. */
+        Node findByName(String name)
+        {
+            for (Node child : children)
+            {
+                if (name.equals(child.name))
+                {
+                    return child;
+                }
+                Node found = child.findByName(name);
+                if (found != null)
+                {
+                    return found;
+                }
+            }
+            return null;
+        }
+
+        void collectByPrefix(String prefix, List<Node> out)
+        {
+            for (Node child : children)
+            {
+                if (child.name.startsWith(prefix))
+                {
+                    out.add(child);
+                }
+                child.collectByPrefix(prefix, out);
+            }
+        }
+
+        void addTo(NameTrie<Node> names)
+        {
+            for (Node child : children)
+            {
+                names.add(child.name, child);
+                child.addTo(names);
+            }
+        }
+    }
+
+    @Test
+    public void emptyTrieFindsNothing()
+    {
+        NameTrie<Node> names = new NameTrie<Node>();
+        assertEquals(0, names.size());
+        assertNull(names.findByName("c1"));
+        assertNull(names.findByPrefix(""));
+        assertEquals(0, names.collectByPrefix("c", new ArrayList<Node>()));
+    }
+
+    @Test
+    public void duplicateNamesKeepTheirOrder()
+    {
+        NameTrie<Node> names = new NameTrie<Node>();
+        Node first = new Node("c1");
+        Node second = new Node("c1");
+        names.add("c1", first);
+        names.add("c1", second);
+        assertSame(first, names.findByName("c1"));
+
+        assertTrue(names.remove("c1", first));
+        assertSame(second, names.findByName("c1"));
+        assertFalse(names.remove("c1", first));
+    }
+
+    @Test
+    public void removingTheLastObjectPrunesItsBranch()
+    {
+        NameTrie<Node> names = new NameTrie<Node>();
+        Node atom = new Node("cl1_Sphere");
+        names.add(atom.name, atom);
+        names.add("c1", new Node("c1"));
+
+        assertTrue(names.remove(atom.name, atom));
+        assertEquals(1, names.size());
+        assertNull(names.findByPrefix("cl"));
+        assertEquals("c1", names.findByPrefix("c").name);
+    }
+
+    @Test
+    public void matchesTheHierarchyWalk()
+    {
+        Random random = new Random(42);
+        Node root = hierarchy(random, 5000);
+        NameTrie<Node> names = new NameTrie<Node>();
+        root.addTo(names);
+        List<Node> all = new ArrayList<Node>();
+        root.collectByPrefix("", all);
+        assertEquals(all.size(), names.size());
+
+        for (Node node : all)
+        {
+            assertSame(node.name, root.findByName(node.name), names.findByName(node.name));
+        }
+        assertNull(names.findByName("c1_Sphere.99999"));
+
+        List<Node> expected = new ArrayList<Node>();
+        List<Node> actual = new ArrayList<Node>();
+        for (String prefix : new String[] { "", "c", "c1", "c1_", "cl", "h2", "na3_Sphere.0", "x" })
+        {
+            expected.clear();
+            actual.clear();
+            root.collectByPrefix(prefix, expected);
+            assertEquals(expected.size(), names.collectByPrefix(prefix, actual));
+            assertEquals(prefix, sorted(expected), sorted(actual));
+            Node any = names.findByPrefix(prefix);
+            assertTrue(prefix, expected.isEmpty() ? any == null : any.name.startsWith(prefix));
+        }
+
+        // remove a random half and check again
+        Collections.shuffle(all, random);
+        for (Node node : all.subList(0, all.size() / 2))
+        {
+            assertTrue(names.remove(node.name, node));
+        }
+        List<Node> kept = all.subList(all.size() / 2, all.size());
+        assertEquals(kept.size(), names.size());
+        for (Node node : kept)
+        {
+            actual.clear();
+            names.collectByPrefix(node.name, actual);
+            assertTrue(actual.contains(node));
+        }
+    }
+
+    @Test
+    public void lookupsOnFiftyThousandNodes()
+    {
+        Random random = new Random(50000);
+        Node root = hierarchy(random, NODES);
+        List<Node> all = new ArrayList<Node>();
+        root.collectByPrefix("", all);
+
+        long start = System.nanoTime();
+        NameTrie<Node> names = new NameTrie<Node>();
+        root.addTo(names);
+        long buildNanos = System.nanoTime() - start;
+        assertEquals(NODES, names.size());
+
+        String[] queries = new String[QUERIES];
+        String[] prefixes = new String[QUERIES];
+        for (int i = 0; i < QUERIES; ++i)
+        {
+            String name = all.get(random.nextInt(all.size())).name;
+            queries[i] = name;
+            prefixes[i] = name.substring(0, name.indexOf('_') + 1);
+        }
+
+        long[] walkNanos = new long[RUNS];
+        long[] trieNanos = new long[RUNS];
+        long[] visitNanos = new long[RUNS];
+        long[] collectNanos = new long[RUNS];
+        List<Node> out = new ArrayList<Node>();
+        int sink = 0;
+        for (int run = 0; run < RUNS; ++run)
+        {
+            start = System.nanoTime();
+            for (String query : queries)
+            {
+                sink += root.findByName(query).name.length();
+            }
+            walkNanos[run] = (System.nanoTime() - start) / QUERIES;
+
+            start = System.nanoTime();
+            for (String query : queries)
+            {
+                sink += names.findByName(query).name.length();
+            }
+            trieNanos[run] = (System.nanoTime() - start) / QUERIES;
+
+            start = System.nanoTime();
+            for (String prefix : prefixes)
+            {
+                out.clear();
+                root.collectByPrefix(prefix, out);
+                sink += out.size();
+            }
+            visitNanos[run] = (System.nanoTime() - start) / QUERIES;
+
+            start = System.nanoTime();
+            for (String prefix : prefixes)
+            {
+                out.clear();
+                sink += names.collectByPrefix(prefix, out);
+            }
+            collectNanos[run] = (System.nanoTime() - start) / QUERIES;
+        }
+        blackhole = sink;
+
+        long walk = median(walkNanos);
+        long trie = median(trieNanos);
+        long visit = median(visitNanos);
+        long collect = median(collectNanos);
+        System.out.println(String.format(Locale.US,
+                "%d nodes, built in %.1f ms: exact name %.2f us trie vs %.2f us walk, "
+                + "atom prefix %.2f us trie vs %.2f us visitor, median of %d",
+                NODES, buildNanos / 1e6, trie / 1e3, walk / 1e3, collect / 1e3, visit / 1e3, RUNS));
+        assertTrue("exact lookup " + trie + " ns vs walk " + walk + " ns", trie * 10 < walk);
+        assertTrue("prefix lookup " + collect + " ns vs visitor " + visit + " ns", collect * 10 < visit);
+    }
+
+    /*
+     * A molecule-like hierarchy of count nodes: atoms such as "c12_Sphere.0042"
+     * under a model node, with a few levels of grouping below some of them.
+     */
+    private static Node hierarchy(Random random, int count)
+    {
+        Node root = new Node("root");
+        List<Node> parents = new ArrayList<Node>();
+        Node model = new Node("molecule.obj");
+        root.children.add(model);
+        parents.add(model);
+        int[] perElement = new int[ELEMENTS.length];
+        for (int i = 1; i < count; ++i)
+        {
+            int e = random.nextInt(ELEMENTS.length);
+            int atom = random.nextInt(3) == 0 ? ++perElement[e] : 1 + random.nextInt(perElement[e] + 1);
+            Node node = new Node(String.format(Locale.US, "%s%d_Sphere.%04d", ELEMENTS[e], atom, i));
+            parents.get(random.nextInt(parents.size())).children.add(node);
+            parents.add(node);
+        }
+        return root;
+    }
+
+    private static List<Node> sorted(List<Node> nodes)
+    {
+        List<Node> copy = new ArrayList<Node>(nodes);
+        Collections.sort(copy, new Comparator<Node>()
+        {
+            public int compare(Node a, Node b)
+            {
+                int byName = a.name.compareTo(b.name);
+                return (byName != 0) ? byName
+                                     : Integer.compare(System.identityHashCode(a), System.identityHashCode(b));
+            }
+        });
+        return copy;
+    }
+
+    private static long median(long[] values)
+    {
+        long[] copy = values.clone();
+        Arrays.sort(copy);
+        return copy[copy.length / 2];
+    }
+}
@@ -18,21 +18,18 @@ package org.gearvrf.gvr360Photo;
 import java.io.File;
 import java.io.FilenameFilter;
 import java.util.ArrayList;
+import java.util.HashSet;
 
 public class FilterFiles implements FilenameFilter {
 
-    private ArrayList<String> myExtension;
+    private HashSet<String> myExtension = new HashSet<String>();
     public FilterFiles(ArrayList<String> sExtension){
-        myExtension = sExtension;
+        if (sExtension != null)
+            myExtension.addAll(sExtension);
     }
     @Override
     public boolean accept(File directory, String fileName) {
-        if(myExtension != null)
-        for(String tExtension : myExtension) {
-            if (fileName.endsWith(tExtension)) {
-                return true;
-            }
-        }
-        return false;
+        int dot = fileName.lastIndexOf('.');
+        return (dot >= 0) && myExtension.contains(fileName.substring(dot));
     }
 }
@@ -80,4 +80,10 @@ public class Minimal360PhotoActivity extends GVRActivity implements
     protected void onResume() {
         super.onResume();
     }
+
+    @Override
+    protected void onDestroy() {
+        script.shutdown();
+        super.onDestroy();
+    }
 }
@@ -16,6 +16,7 @@
 package org.gearvrf.gvr360Photo;
 
 import android.content.res.AssetFileDescriptor;
+import android.graphics.Bitmap;
 import android.graphics.Color;
 import android.media.AudioManager;
 import android.media.MediaPlayer;
@@ -29,8 +30,10 @@ import java.util.ArrayList;
 import java.util.concurrent.Future;
 
 import org.gearvrf.GVRAndroidResource;
+import org.gearvrf.GVRBitmapTexture;
 import org.gearvrf.GVRContext;
 import org.gearvrf.GVREyePointeeHolder;
+import org.gearvrf.GVRMaterial;
 import org.gearvrf.GVRMesh;
 import org.gearvrf.GVRMeshEyePointee;
 import org.gearvrf.GVRPicker;
@@ -39,8 +42,6 @@ import org.gearvrf.GVRScene;
 import org.gearvrf.GVRMain;
 import org.gearvrf.GVRSceneObject;
 import org.gearvrf.GVRTexture;
-import org.gearvrf.animation.GVRAnimation;
-import org.gearvrf.animation.GVRRotationByAxisAnimation;
 import org.gearvrf.scene_objects.GVRSphereSceneObject;
 import org.gearvrf.scene_objects.GVRVideoSceneObject;
 import org.gearvrf.utility.Log;
@@ -52,13 +53,35 @@ public class Minimal360PhotoScript extends GVRMain {
     GVRContext gContext;
 
     private final String sEnvironmentPath = Environment.getExternalStorageDirectory().getPath();
-    ArrayList<String> photoNames = new ArrayList<String>();
     ArrayList<GVRSceneObject> photoSceneArray = new ArrayList<GVRSceneObject>();
+    // library index still to be uploaded for each photo, -1 once its texture is set
+    ArrayList<Integer> pendingPhotos = new ArrayList<Integer>();
+    // library index shown by each photo
+    ArrayList<Integer> pagePhotos = new ArrayList<Integer>();
     GVRSceneObject currentShown = null;
+    // the zoomed photo, the texture it had before its full-size one, and whether that is shown
+    int zoomedPhoto = -1;
+    GVRTexture zoomedThumbnail = null;
+    boolean zoomedFullSize = false;
     final String photoDirectory = "DCIM/Camera";
     int photoIndex = 0;
     boolean mIsSingleTapped = false;
 
+    // photos per page, and the decoded size and count kept for the page and its neighbours
+    static final int PAGE_SIZE = 30;
+    static final int PHOTO_WIDTH = 512;
+    static final int MAX_RESIDENT_PHOTOS = 3 * PAGE_SIZE;
+    // the zoomed photo is about 4x the size of the others, so it is decoded in
+    // full, up to the largest texture the GPU takes
+    static final int FULL_PHOTO_WIDTH = 4096;
+    // bitmaps turned into textures per frame, to spread the uploads
+    static final int MAX_UPLOADS_PER_FRAME = 2;
+    volatile PhotoLibrary<Bitmap> mLibrary;
+    // one frame mesh shared by every photo of every page
+    GVRMesh mPhotoFrame;
+    boolean mPageShown = false;
+    volatile boolean mNextPageRequested = false;
+
     private SoundPool   mAudioEngine;
     private SoundEffect mPopSound;
 
@@ -90,73 +113,45 @@ public class Minimal360PhotoScript extends GVRMain {
         extensions.add(".jpg");
         extensions.add(".jpeg");
 
-
-        CardReader cRObject = new CardReader(sEnvironmentPath + "/" + photoDirectory + "/", extensions);
-        File list[] = cRObject.getModels();
-
-        if (list != null)
-            for (File aPhoto : list) {
-                photoNames.add(aPhoto.getName());
-            }
-
-        Log.d("", "Photos found count" + Integer.toString(photoNames.size()));
+        mLibrary = new PhotoLibrary<Bitmap>(new File(sEnvironmentPath + "/" + photoDirectory), extensions,
+                PhotoLibrary.BITMAP_DECODER, PHOTO_WIDTH, MAX_RESIDENT_PHOTOS, FULL_PHOTO_WIDTH);
+        mLibrary.start();
     }
 
-
-    void showAnimation(){
-        GVRAnimation animation;
-        ArrayList<GVRAnimation> aAnimation = new ArrayList<GVRAnimation>();
-
-        for (int i = 0; i < photoSceneArray.size(); i++) {
-            animation = new GVRRotationByAxisAnimation(photoSceneArray.get(i), 2, 360, 0, 1, 0).start(gContext.getAnimationEngine());
-            //animation.setRepeatMode(1);
-            animation.setRepeatCount(-1);
-
-            aAnimation.add(animation);
-        }
-
-        for (int i = 0; i < photoSceneArray.size(); i++) {
-            while (!aAnimation.get(i).isFinished()) {
-            }
-        }
-
-        for (int i = 0; i < photoSceneArray.size(); i++) {
-            gContext.getAnimationEngine().stop(aAnimation.get(i));
-        }
-
-        aAnimation.clear();
+    /*
+     * Stop the decoding thread and drop its bitmaps. Called when the activity
+     * is destroyed.
+     */
+    void shutdown(){
+        PhotoLibrary<Bitmap> library = mLibrary;
+        if(library != null)
+            library.stop();
     }
 
-    void loadPhotos(){
-
-        showAnimation();
 
+    void loadPhotos(){
 
         // Removing Ealier Photos from Scene
         for(GVRSceneObject remov : photoSceneArray)
             scene.removeSceneObject(remov);
 
         photoSceneArray.clear();
+        pendingPhotos.clear();
+        pagePhotos.clear();
 
-        for(int i = 0; i < 30; i++){
-
-            if(photoIndex < photoNames.size()) {
-                Future<GVRTexture> photoTexture = null;
-                try {
-                    Log.d("", "Loading photo " + photoNames.get(photoIndex));
-                    photoTexture = gContext.loadFutureTexture(new GVRAndroidResource(sEnvironmentPath + "/" + photoDirectory + "/" + photoNames.get(photoIndex)));
+        int photoCount = mLibrary.getCount();
+        mLibrary.request(photoIndex, PAGE_SIZE);
+        for(int i = 0; i < PAGE_SIZE; i++){
 
-                } catch (IOException e) {
-                    Log.e("", "Unable to load texture");
-                    e.printStackTrace();
-                }
+            if(photoIndex < photoCount) {
+                Log.d("", "Loading photo " + mLibrary.getName(photoIndex));
 
-
-                GVRSceneObject frame = new GVRSceneObject(gContext, gContext.createQuad(15.0f, 10.0f), null);
-                GVRSphereSceneObject sphereObject = new GVRSphereSceneObject(gContext, true, photoTexture);
+                if(mPhotoFrame == null)
+                    mPhotoFrame = gContext.createQuad(15.0f, 10.0f);
+                GVRSceneObject sphereObject = new GVRSceneObject(gContext, mPhotoFrame);
+                sphereObject.getRenderData().setMaterial(new GVRMaterial(gContext));
 
                 sphereObject.getTransform().setScale(0.5f, 0.5f, 0.5f);
-                sphereObject.getRenderData().setMesh(frame.getRenderData().getMesh());
 
                 GVREyePointeeHolder playPauseHolder = new GVREyePointeeHolder(gContext);
                 playPauseHolder.addPointee(new GVRMeshEyePointee(gContext, sphereObject.getRenderData().getMesh()));
@@ -165,9 +160,11 @@ public class Minimal360PhotoScript extends GVRMain {
 
 
                 photoSceneArray.add(i, sphereObject);
+                pendingPhotos.add(i, photoIndex);
+                pagePhotos.add(i, photoIndex);
 
                 photoIndex++;
-                photoIndex %= photoNames.size();
+                photoIndex %= photoCount;
             }
         }
     }
@@ -248,8 +245,6 @@ public class Minimal360PhotoScript extends GVRMain {
 
         getNamesOfPhotos();
         addSkyBox();
-        loadPhotos();
-        showPhotos();
         addHeadTracker();
         scene.bindShaders();
     }
@@ -278,9 +273,77 @@ public class Minimal360PhotoScript extends GVRMain {
         }
     }
 
+    /*
+     * Give the photos of the page the textures the library has decoded so far.
+     */
+    void updatePhotoTextures(){
+        int uploads = 0;
+        for(int i = 0; (i < pendingPhotos.size()) && (uploads < MAX_UPLOADS_PER_FRAME); i++){
+            int index = pendingPhotos.get(i);
+            if(index < 0)
+                continue;
+            Bitmap bitmap = mLibrary.getBitmap(index);
+            if(bitmap != null){
+                GVRTexture texture = new GVRBitmapTexture(gContext, bitmap);
+                photoSceneArray.get(i).getRenderData().getMaterial().setMainTexture(texture);
+                pendingPhotos.set(i, -1);
+                uploads++;
+            }
+        }
+    }
+
+    void zoomIn(int i){
+        zoomedPhoto = i;
+        zoomedThumbnail = null;
+        zoomedFullSize = false;
+        mLibrary.requestFullSize(pagePhotos.get(i));
+    }
+
+    void zoomOut(){
+        if(zoomedFullSize){
+            if(zoomedThumbnail != null)
+                photoSceneArray.get(zoomedPhoto).getRenderData().getMaterial().setMainTexture(zoomedThumbnail);
+            else
+                pendingPhotos.set(zoomedPhoto, pagePhotos.get(zoomedPhoto));
+        }
+        zoomedPhoto = -1;
+        zoomedThumbnail = null;
+        zoomedFullSize = false;
+        mLibrary.requestFullSize(-1);
+    }
+
+    /*
+     * Swap the zoomed photo's texture for the full-size one once it is decoded.
+     */
+    void updateZoomedTexture(){
+        if(zoomedPhoto < 0 || zoomedFullSize)
+            return;
+        Bitmap bitmap = mLibrary.getFullSizeBitmap(pagePhotos.get(zoomedPhoto));
+        if(bitmap == null)
+            return;
+        GVRMaterial material = photoSceneArray.get(zoomedPhoto).getRenderData().getMaterial();
+        zoomedThumbnail = material.getMainTexture();
+        // keep a late thumbnail from replacing it
+        pendingPhotos.set(zoomedPhoto, -1);
+        material.setMainTexture(new GVRBitmapTexture(gContext, bitmap));
+        zoomedFullSize = true;
+    }
+
     @Override
     public void onStep() {
 
+        if(mLibrary.isScanned() && (!mPageShown || mNextPageRequested)){
+            mPageShown = true;
+            mNextPageRequested = false;
+            currentShown = null;
+            zoomOut();
+            loadPhotos();
+            showPhotos();
+            scene.bindShaders();
+        }
+        updatePhotoTextures();
+        updateZoomedTexture();
+
         if(mIsSingleTapped){
             mIsSingleTapped = false;
 
@@ -301,6 +364,7 @@ public class Minimal360PhotoScript extends GVRMain {
                         }
 
                         currentShown = null;
+                        zoomOut();
                         showBackPhotos(i);
                         scene.bindShaders();
                     }else {
@@ -314,6 +378,7 @@ public class Minimal360PhotoScript extends GVRMain {
                         }
 
                         currentShown = photoSceneArray.get(i);
+                        zoomIn(i);
                         hidePhotos(i);
                     }
                 }
@@ -332,8 +397,7 @@ public class Minimal360PhotoScript extends GVRMain {
     public void onSwipe(MotionEvent e, VRTouchPadGestureDetector.SwipeDirection swipeDirection,
                         float velocityX, float velocityY) {
         Log.d("", "On Swipe Received");
-        loadPhotos();
-        showPhotos();
+        mNextPageRequested = true;
     }
 
     public boolean onScroll(MotionEvent arg0, MotionEvent arg1, float arg2, float arg3) {
@@ -0,0 +1,324 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf.gvr360Photo;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+
+import org.gearvrf.utility.Log;
+
+/**
+ * The photos of one directory, listed and decoded on a worker thread.
+ * <p>
+ * The directory is scanned once and the sorted index is kept. The caller says
+ * which page of photos is on screen with {@link #request}; the worker then
+ * decodes that page, the next page and the previous one, in that order, at a
+ * reduced resolution. At most {@code maxResident} decoded photos are kept: a
+ * request drops every bitmap that is not among its first {@code maxResident}
+ * photos before anything new is decoded.
+ * <p>
+ * One photo at a time can also be asked for at full size with
+ * {@link #requestFullSize}, for when it is looked at up close. It is decoded
+ * ahead of any prefetching, in full colour and at most {@code fullWidth}
+ * wide, and kept on top of the reduced ones until another photo or none is
+ * asked for.
+ * <p>
+ * Photos are whatever the {@link Decoder} makes of a file, a {@link Bitmap}
+ * with {@link #BITMAP_DECODER}. A dropped photo is only forgotten, never
+ * recycled, since a texture made from it may still be using it.
+ */
+public class PhotoLibrary<T> {
+
+    /** Turns a file into a photo, downsampled to at most {@code maxWidth}. */
+    public interface Decoder<T> {
+        T decode(File file, int maxWidth, Bitmap.Config config);
+    }
+
+    public static final Decoder<Bitmap> BITMAP_DECODER = new Decoder<Bitmap>() {
+        @Override
+        public Bitmap decode(File file, int maxWidth, Bitmap.Config config) {
+            BitmapFactory.Options options = new BitmapFactory.Options();
+            options.inJustDecodeBounds = true;
+            BitmapFactory.decodeFile(file.getPath(), options);
+            int sampleSize = 1;
+            while ((options.outWidth / (sampleSize * 2)) >= maxWidth) {
+                sampleSize *= 2;
+            }
+            options.inJustDecodeBounds = false;
+            options.inSampleSize = sampleSize;
+            options.inPreferredConfig = config;
+            return BitmapFactory.decodeFile(file.getPath(), options);
+        }
+    };
+
+    private static final String TAG = "PhotoLibrary";
+
+    private final File mDirectory;
+    private final ArrayList<String> mExtensions;
+    private final Decoder<T> mDecoder;
+    private final int mMaxWidth;
+    private final int mMaxResident;
+    private final int mFullWidth;
+
+    private final Object mLock = new Object();
+    private File[] mPhotos = null;
+    private final HashMap<Integer, T> mResident = new HashMap<Integer, T>();
+    private int[] mWanted = new int[0];
+    private int mGeneration = 0;
+    private int mFullIndex = -1;
+    private boolean mFullDecoded = false;
+    private T mFullBitmap = null;
+    private boolean mStopped = false;
+    private Thread mWorker;
+
+    public PhotoLibrary(File directory, ArrayList<String> extensions, Decoder<T> decoder,
+                        int maxWidth, int maxResident, int fullWidth) {
+        mDirectory = directory;
+        mExtensions = extensions;
+        mDecoder = decoder;
+        mMaxWidth = maxWidth;
+        mMaxResident = maxResident;
+        mFullWidth = fullWidth;
+    }
+
+    /** Start scanning the directory in the background. */
+    public void start() {
+        mWorker = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                scan();
+                decodeLoop();
+            }
+        }, TAG);
+        mWorker.setDaemon(true);
+        mWorker.start();
+    }
+
+    public void stop() {
+        synchronized (mLock) {
+            mStopped = true;
+            mResident.clear();
+            mFullBitmap = null;
+            mLock.notifyAll();
+        }
+    }
+
+    public boolean isScanned() {
+        synchronized (mLock) {
+            return mPhotos != null;
+        }
+    }
+
+    /** Number of photos found, 0 until the scan is done. */
+    public int getCount() {
+        synchronized (mLock) {
+            return (mPhotos != null) ? mPhotos.length : 0;
+        }
+    }
+
+    public String getName(int index) {
+        synchronized (mLock) {
+            return mPhotos[index].getName();
+        }
+    }
+
+    /** The decoded photo, or null if it has not been decoded yet. */
+    public T getBitmap(int index) {
+        synchronized (mLock) {
+            return mResident.get(index);
+        }
+    }
+
+    /**
+     * Decode photo {@code index} at full size next, replacing the previous
+     * full-size photo; -1 drops it.
+     */
+    public void requestFullSize(int index) {
+        synchronized (mLock) {
+            if (index != mFullIndex) {
+                mFullIndex = index;
+                mFullDecoded = false;
+                mFullBitmap = null;
+                mLock.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * The full-size photo asked for with {@link #requestFullSize}, or null
+     * while it is being decoded, if it could not be or if another one was
+     * asked for.
+     */
+    public T getFullSizeBitmap(int index) {
+        synchronized (mLock) {
+            return (index == mFullIndex) ? mFullBitmap : null;
+        }
+    }
+
+    public int getResidentCount() {
+        synchronized (mLock) {
+            return mResident.size();
+        }
+    }
+
+    /**
+     * Show {@code count} photos starting at {@code first}, wrapping around the
+     * end of the library, and prefetch the pages either side of them.
+     */
+    public void request(int first, int count) {
+        synchronized (mLock) {
+            int total = (mPhotos != null) ? mPhotos.length : 0;
+            mWanted = prefetchOrder(first, count, total, mMaxResident);
+            HashSet<Integer> keep = new HashSet<Integer>();
+            for (int index : mWanted) {
+                keep.add(index);
+            }
+            mResident.keySet().retainAll(keep);
+            ++mGeneration;
+            mLock.notifyAll();
+        }
+    }
+
+    /**
+     * Photo indices in the order they should be decoded: the page itself,
+     * then the next page, then the previous page from its end backwards.
+     * Duplicates are dropped and at most {@code limit} indices are returned.
+     */
+    static int[] prefetchOrder(int first, int count, int total, int limit) {
+        if ((total <= 0) || (count <= 0) || (limit <= 0)) {
+            return new int[0];
+        }
+        int[] order = new int[Math.min(limit, total)];
+        boolean[] seen = new boolean[total];
+        int n = 0;
+        int base = ((first % total) + total) % total;
+        for (int pass = 0; (pass < 3) && (n < order.length); ++pass) {
+            for (int i = 0; (i < count) && (n < order.length); ++i) {
+                int offset;
+                if (pass == 0) {
+                    offset = i;
+                } else if (pass == 1) {
+                    offset = count + i;
+                } else {
+                    offset = -1 - i;
+                }
+                int index = (((base + offset) % total) + total) % total;
+                if (!seen[index]) {
+                    seen[index] = true;
+                    order[n++] = index;
+                }
+            }
+        }
+        return Arrays.copyOf(order, n);
+    }
+
+    private void scan() {
+        CardReader reader = new CardReader(mDirectory.getPath() + "/", mExtensions);
+        File[] list = reader.getModels();
+        if (list == null) {
+            list = new File[0];
+        }
+        Arrays.sort(list);
+        Log.d(TAG, "Photos found count %d", list.length);
+        synchronized (mLock) {
+            mPhotos = list;
+            mLock.notifyAll();
+        }
+    }
+
+    private void decodeLoop() {
+        while (true) {
+            int index;
+            int generation;
+            boolean full;
+            File file;
+            synchronized (mLock) {
+                index = -1;
+                full = false;
+                while (!mStopped) {
+                    if ((mFullIndex >= 0) && !mFullDecoded && (mPhotos != null)) {
+                        index = mFullIndex;
+                        full = true;
+                        break;
+                    }
+                    for (int wanted : mWanted) {
+                        if (!mResident.containsKey(wanted)) {
+                            index = wanted;
+                            break;
+                        }
+                    }
+                    if (index >= 0) {
+                        break;
+                    }
+                    try {
+                        mLock.wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (mStopped) {
+                    return;
+                }
+                generation = mGeneration;
+                file = mPhotos[index];
+            }
+
+            T bitmap = null;
+            try {
+                bitmap = full ? mDecoder.decode(file, mFullWidth, Bitmap.Config.ARGB_8888)
+                              : mDecoder.decode(file, mMaxWidth, Bitmap.Config.RGB_565);
+            } catch (RuntimeException e) {
+                Log.e(TAG, "Cannot decode %s: %s", file.getName(), e.getMessage());
+            } catch (OutOfMemoryError e) {
+                Log.e(TAG, "Out of memory decoding %s", file.getName());
+            }
+
+            synchronized (mLock) {
+                if (mStopped) {
+                    return;
+                }
+                if (full) {
+                    // a failed full-size decode leaves the reduced photo on screen
+                    if ((index == mFullIndex) && !mFullDecoded) {
+                        mFullBitmap = bitmap;
+                        mFullDecoded = true;
+                    }
+                    continue;
+                }
+                if ((generation != mGeneration) && !isWanted(index)) {
+                    continue;
+                }
+                // a broken file keeps a null slot so it is not retried forever
+                mResident.put(index, bitmap);
+            }
+        }
+    }
+
+    private boolean isWanted(int index) {
+        for (int wanted : mWanted) {
+            if (wanted == index) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,339 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf.gvr360Photo;
+
+import android.graphics.Bitmap;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Semaphore;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs the library over a folder of empty files with a decoder that records
+ * what it is asked for and hands back a {@link Photo} per decode, so the
+ * decode order and the photos kept can be checked without decoding anything.
+ */
+public class PhotoLibraryTest {
+
+    private static final int PHOTOS = 100;
+    private static final int PAGE = 30;
+    private static final int WIDTH = 512;
+    private static final int MAX_RESIDENT = Minimal360PhotoScript.MAX_RESIDENT_PHOTOS;
+    private static final int FULL_WIDTH = 4096;
+    private static final long TIMEOUT_MILLIS = 5000;
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    private RecordingDecoder decoder;
+    private PhotoLibrary<Photo> library;
+
+    @Before
+    public void setUp() throws IOException {
+        for (int i = 0; i < PHOTOS; ++i) {
+            temp.newFile(name(i));
+        }
+        temp.newFile("notes.txt");
+        ArrayList<String> extensions = new ArrayList<String>();
+        extensions.add(".jpg");
+        decoder = new RecordingDecoder();
+        library = new PhotoLibrary<Photo>(temp.getRoot(), extensions, decoder, WIDTH, MAX_RESIDENT, FULL_WIDTH);
+    }
+
+    @After
+    public void tearDown() {
+        library.stop();
+        decoder.open();
+    }
+
+    @Test
+    public void prefetchOrderIsPageThenNextThenPreviousBackwards() {
+        int[] expected = new int[25];
+        for (int i = 0; i < 10; ++i) {
+            expected[i] = (95 + i) % 100;
+            expected[10 + i] = 5 + i;
+        }
+        for (int i = 0; i < 5; ++i) {
+            expected[20 + i] = 94 - i;
+        }
+        assertArrayEquals(expected, PhotoLibrary.prefetchOrder(95, 10, 100, 25));
+        assertArrayEquals(new int[] {2, 0, 1}, PhotoLibrary.prefetchOrder(2, 3, 3, 10));
+        assertEquals(0, PhotoLibrary.prefetchOrder(0, 30, 0, 60).length);
+    }
+
+    @Test
+    public void shippedCapHoldsThePageAndBothNeighbours() {
+        int[] order = PhotoLibrary.prefetchOrder(30, PAGE, PHOTOS, MAX_RESIDENT);
+        assertEquals(3 * PAGE, order.length);
+        // the previous page is last, from photo 29 back to photo 0
+        assertEquals(29, order[2 * PAGE]);
+        assertEquals(0, order[3 * PAGE - 1]);
+    }
+
+    @Test
+    public void pageIsDecodedBeforeItsNeighbours() throws InterruptedException {
+        decoder.open();
+        startAndScan();
+        library.request(10, PAGE);
+
+        List<String> expected = new ArrayList<String>();
+        for (int i = 10; i < 70; ++i) {
+            expected.add(reduced(i));
+        }
+        for (int i = 9; i >= -20; --i) {
+            expected.add(reduced((i + PHOTOS) % PHOTOS));
+        }
+        assertEquals(expected, decoder.await(MAX_RESIDENT));
+        awaitResident(MAX_RESIDENT);
+        for (int i = 80; i < 170; ++i) {
+            Photo photo = library.getBitmap(i % PHOTOS);
+            assertNotNull("photo " + i % PHOTOS, photo);
+            assertEquals(name(i % PHOTOS), photo.name);
+        }
+    }
+
+    @Test
+    public void residentPhotosStayWithinTheCap() throws InterruptedException {
+        decoder.open();
+        startAndScan();
+        library.request(10, PAGE);
+        decoder.await(MAX_RESIDENT);
+        awaitResident(MAX_RESIDENT);
+        ArrayList<WeakReference<Photo>> dropped = new ArrayList<WeakReference<Photo>>();
+        for (int i = 0; i < 10; ++i) {
+            dropped.add(new WeakReference<Photo>(library.getBitmap(i)));
+        }
+        Photo kept = library.getBitmap(80);
+
+        // 10..69 and 80..99 are kept, 70..79 are new and 0..9 are dropped for them
+        library.request(40, PAGE);
+        List<String> calls = decoder.await(MAX_RESIDENT + 10);
+        List<String> expected = new ArrayList<String>();
+        for (int i = 70; i < 80; ++i) {
+            expected.add(reduced(i));
+        }
+        assertEquals(expected, calls.subList(MAX_RESIDENT, calls.size()));
+        awaitResident(MAX_RESIDENT);
+        assertSame(kept, library.getBitmap(80));
+        for (int i = 0; i < 10; ++i) {
+            assertNull(library.getBitmap(i));
+        }
+        // nothing in the library holds on to the dropped photos any more
+        awaitCollected(dropped);
+        assertEquals(MAX_RESIDENT, decoder.liveCount());
+    }
+
+    @Test
+    public void fullSizePhotoJumpsTheQueue() throws InterruptedException {
+        startAndScan();
+        library.request(0, PAGE);
+        decoder.allow(1);
+        decoder.awaitEntered(2);
+
+        // photo 1 is already being decoded by then, photo 2 is not
+        library.requestFullSize(50);
+        decoder.open();
+        List<String> calls = decoder.await(3);
+        assertEquals(reduced(0), calls.get(0));
+        assertEquals(reduced(1), calls.get(1));
+        assertEquals(full(50), calls.get(2));
+        // the full-size photo is on top of the cap
+        decoder.await(MAX_RESIDENT + 1);
+        awaitResident(MAX_RESIDENT);
+        assertEquals(full(50), library.getFullSizeBitmap(50).name);
+    }
+
+    @Test
+    public void fullSizePhotoIsDecodedOncePerRequest() throws InterruptedException {
+        decoder.open();
+        startAndScan();
+        library.requestFullSize(7);
+        decoder.await(1);
+        library.requestFullSize(7);
+        library.requestFullSize(-1);
+        library.requestFullSize(8);
+        List<String> calls = decoder.await(2);
+        assertEquals(full(7), calls.get(0));
+        assertEquals(full(8), calls.get(1));
+        assertNull(library.getFullSizeBitmap(7));
+        Thread.sleep(100);
+        assertEquals(2, decoder.calls().size());
+    }
+
+    @Test
+    public void stopDropsEverythingAndEndsDecoding() throws InterruptedException {
+        startAndScan();
+        library.request(0, PAGE);
+        decoder.allow(5);
+        decoder.await(5);
+
+        library.stop();
+        assertEquals(0, library.getResidentCount());
+        decoder.open();
+        Thread.sleep(100);
+        // at most the decode already waiting on the gate gets through
+        assertTrue(decoder.calls().size() <= 6);
+        assertEquals(0, library.getResidentCount());
+    }
+
+    private void startAndScan() throws InterruptedException {
+        library.start();
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (!library.isScanned()) {
+            assertTrue("scan timed out", System.currentTimeMillis() < deadline);
+            Thread.sleep(1);
+        }
+        assertEquals(PHOTOS, library.getCount());
+    }
+
+    /** The last decode is recorded just before it is stored. */
+    private void awaitResident(int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (library.getResidentCount() < count) {
+            assertTrue("resident photos timed out", System.currentTimeMillis() < deadline);
+            Thread.sleep(1);
+        }
+        Thread.sleep(20);
+        assertEquals(count, library.getResidentCount());
+    }
+
+    private static String name(int index) {
+        return String.format(Locale.US, "p%03d.jpg", index);
+    }
+
+    private static String reduced(int index) {
+        return name(index) + "@" + WIDTH + "/" + Bitmap.Config.RGB_565;
+    }
+
+    private static String full(int index) {
+        return name(index) + "@" + FULL_WIDTH + "/" + Bitmap.Config.ARGB_8888;
+    }
+
+    private static void awaitCollected(List<WeakReference<Photo>> photos) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        for (WeakReference<Photo> photo : photos) {
+            while (photo.get() != null) {
+                assertTrue("dropped photo still referenced", System.currentTimeMillis() < deadline);
+                System.gc();
+                Thread.sleep(10);
+            }
+        }
+    }
+
+    /** Stands in for a decoded bitmap. */
+    private static final class Photo {
+        final String name;
+
+        Photo(String name) {
+            this.name = name;
+        }
+    }
+
+    /** Records each decode after taking a permit and returns a new photo for it. */
+    private static final class RecordingDecoder implements PhotoLibrary.Decoder<Photo> {
+        private final Semaphore permits = new Semaphore(0);
+        private final List<String> calls = new ArrayList<String>();
+        private final List<WeakReference<Photo>> photos = new ArrayList<WeakReference<Photo>>();
+        private int entered;
+
+        @Override
+        public Photo decode(File file, int maxWidth, Bitmap.Config config) {
+            synchronized (calls) {
+                ++entered;
+                calls.notifyAll();
+            }
+            permits.acquireUninterruptibly();
+            String name = file.getName() + "@" + maxWidth + "/" + config;
+            Photo photo = new Photo(maxWidth == WIDTH ? file.getName() : name);
+            synchronized (calls) {
+                calls.add(name);
+                photos.add(new WeakReference<Photo>(photo));
+                calls.notifyAll();
+            }
+            return photo;
+        }
+
+        /** Photos it made that are still referenced, after collecting the rest. */
+        int liveCount() throws InterruptedException {
+            System.gc();
+            Thread.sleep(10);
+            int live = 0;
+            synchronized (calls) {
+                for (WeakReference<Photo> photo : photos) {
+                    if (photo.get() != null) {
+                        ++live;
+                    }
+                }
+            }
+            return live;
+        }
+
+        void allow(int count) {
+            permits.release(count);
+        }
+
+        void open() {
+            permits.release(Integer.MAX_VALUE / 2);
+        }
+
+        List<String> calls() {
+            synchronized (calls) {
+                return new ArrayList<String>(calls);
+            }
+        }
+
+        /** Wait for {@code count} decodes to have started, finished or not. */
+        void awaitEntered(int count) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+            synchronized (calls) {
+                while (entered < count) {
+                    long left = deadline - System.currentTimeMillis();
+                    assertTrue("expected " + count + " decodes to start, got " + entered, left > 0);
+                    calls.wait(left);
+                }
+            }
+        }
+
+        List<String> await(int count) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+            synchronized (calls) {
+                while (calls.size() < count) {
+                    long left = deadline - System.currentTimeMillis();
+                    assertTrue("expected " + count + " decodes, got " + calls, left > 0);
+                    calls.wait(left);
+                }
+                return new ArrayList<String>(calls);
+            }
+        }
+    }
+}
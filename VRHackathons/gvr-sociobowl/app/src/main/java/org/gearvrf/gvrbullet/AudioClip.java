@@ -7,17 +7,19 @@ package org.gearvrf.gvrbullet;
 
 import android.content.Context;
 import android.media.AudioManager;
-import android.media.SoundPool;
-import android.media.SoundPool.OnLoadCompleteListener;
+
+import org.gearvrf.demos.android.SoundPoolVoices;
+import org.gearvrf.demos.util.VoiceManager;
 
 public class AudioClip {
 
+    private static final int MAX_VOICES = 10;
+    // ignore identical one-shots fired again within this window
+    private static final long MIN_REPEAT_MILLIS = 80;
+
     private static AudioClip instance;
-    private boolean loaded = false;
-    private int priority;
+    private final SoundPoolVoices voices;
 
-    private Context context;
-    private SoundPool soundPool;
     private static int uiStrikeIn10SoundID;
     private static int bowlingPinsHitsSoundID;
     private static int clapSoundID;
@@ -25,69 +27,50 @@ public class AudioClip {
 
     public static synchronized AudioClip getInstance(Context androidContext) {
         if (instance == null) {
-            instance = new AudioClip(10, AudioManager.STREAM_MUSIC, 0, androidContext);
+            instance = new AudioClip(MAX_VOICES, AudioManager.STREAM_MUSIC, androidContext);
         }
         return instance;
     }
 
-    private AudioClip(int maxStreams, int streamType, int srcQuality, Context context) {
-
-        this.context = context;
-
-        soundPool = new SoundPool(maxStreams, streamType, srcQuality);
-        soundPool.setOnLoadCompleteListener(new OnLoadCompleteListener() {
-            @Override
-            public void onLoadComplete(SoundPool soundPool, int sampleId, int status) {
-                loaded = true;
-            }
-        });
-
+    private AudioClip(int maxStreams, int streamType, Context context) {
+        voices = new SoundPoolVoices(context, maxStreams, streamType, MIN_REPEAT_MILLIS);
         loadinSounds();
-
     }
 
     public int playSound(int soundID, float leftVolume, float rightVolume) {
-        int streamID = 0;
-        if (loaded) {
-            streamID = soundPool.play(soundID, leftVolume, rightVolume, 1, 0, 1f);
-            priority = priority++;
-        }
+        return playSound(soundID, leftVolume, rightVolume, VoiceManager.DEFAULT_PRIORITY);
+    }
 
-        return streamID;
+    public int playSound(int soundID, float leftVolume, float rightVolume, int priority) {
+        return voices.play(soundID, leftVolume, rightVolume, priority, false);
     }
 
     public int playLoop(int soundID, float leftVolume, float rightVolume) {
-        int streamID = 0;
-        if (loaded) {
-            streamID = soundPool.play(soundID, leftVolume, rightVolume, 1, -1, 1f);
-            priority = priority++;
-        }
-        return streamID;
+        return playLoop(soundID, leftVolume, rightVolume, VoiceManager.DEFAULT_PRIORITY);
     }
 
-    public void pauseSound(int streamID) {
-        // If the stream is not playing (e.g. is stopped or was previously paused), calling this function will have no effect.
-        soundPool.pause(streamID);
+    public int playLoop(int soundID, float leftVolume, float rightVolume, int priority) {
+        return voices.play(soundID, leftVolume, rightVolume, priority, true);
     }
 
     public void stopSound(int streamID) {
         // If the stream is not playing, it will have no effect.
-        soundPool.stop(streamID);
+        voices.stop(streamID);
     }
 
     public void autoPause() {
-        soundPool.autoPause();
+        voices.autoPause();
     }
 
     public void autoResume() {
-        soundPool.autoResume();
+        voices.autoResume();
     }
 
     private void loadinSounds() {
-        uiStrikeIn10SoundID = soundPool.load(context, R.raw.strike_in_10_pin_bowling_game, 1);
-        bowlingPinsHitsSoundID = soundPool.load(context, R.raw.bowling_pins_being_hit, 1);
-        clapSoundID = soundPool.load(context, R.raw.clap, 1);
-        ballRollingSoundID = soundPool.load(context, R.raw.rolling, 1);
+        uiStrikeIn10SoundID = voices.load(R.raw.strike_in_10_pin_bowling_game);
+        bowlingPinsHitsSoundID = voices.load(R.raw.bowling_pins_being_hit);
+        clapSoundID = voices.load(R.raw.clap);
+        ballRollingSoundID = voices.load(R.raw.rolling);
 
 
     }
@@ -0,0 +1,73 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf.gvrbullet;
+
+import java.util.ArrayList;
+
+import org.gearvrf.GVRSceneObject;
+import org.siprop.bullet.RigidBody;
+import org.siprop.bullet.util.IntObjectMap;
+
+/**
+ * Links the rigid bodies of one physics world to the scene objects that draw
+ * them. Bindings are kept in a flat list for linear walks and indexed by body
+ * id, so the per-frame sync resolves a transform record with one unboxed
+ * lookup. The shape type is cached to avoid chasing geometry.shape per body.
+ */
+final class BodyBindings {
+
+    static final class Binding {
+        final RigidBody body;
+        final GVRSceneObject sceneObject;
+        final int shapeType;
+
+        Binding(RigidBody body, GVRSceneObject sceneObject) {
+            this.body = body;
+            this.sceneObject = sceneObject;
+            this.shapeType = body.geometry.shape.getType();
+        }
+    }
+
+    private final ArrayList<Binding> bindings = new ArrayList<Binding>();
+    private final IntObjectMap<Binding> byBodyId = new IntObjectMap<Binding>();
+
+    void bind(RigidBody body, GVRSceneObject sceneObject) {
+        Binding binding = new Binding(body, sceneObject);
+        Binding old = byBodyId.put(body.id, binding);
+        if (old != null) {
+            bindings.remove(old);
+        }
+        bindings.add(binding);
+    }
+
+    /** The binding for {@code bodyId}, or null for bodies without a scene object. */
+    Binding find(int bodyId) {
+        return byBodyId.get(bodyId);
+    }
+
+    int size() {
+        return bindings.size();
+    }
+
+    Binding get(int index) {
+        return bindings.get(index);
+    }
+
+    void clear() {
+        bindings.clear();
+        byBodyId.clear();
+    }
+}
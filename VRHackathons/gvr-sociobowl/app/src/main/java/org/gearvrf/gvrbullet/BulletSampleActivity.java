@@ -21,6 +21,8 @@ public class BulletSampleActivity extends GVRActivity implements
         OnTouchPadGestureListener {
     private long lastDownTime;
     BulletSampleMain viewManager;
+    // false steps physics inline on the GL thread: adb shell am start --ez physics_thread false
+    static final String EXTRA_PHYSICS_THREAD = "physics_thread";
     private long mLatestTap = 0;
     private static final int TAP_INTERVAL = 300;
     private VRTouchPadGestureDetector mDetector = null;
@@ -35,7 +37,8 @@ public class BulletSampleActivity extends GVRActivity implements
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
-        viewManager = new BulletSampleMain(this);
+        viewManager = new BulletSampleMain(this,
+                getIntent().getBooleanExtra(EXTRA_PHYSICS_THREAD, true));
         mDetector = new VRTouchPadGestureDetector(this);
 
 
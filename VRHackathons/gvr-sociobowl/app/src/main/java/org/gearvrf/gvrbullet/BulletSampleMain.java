@@ -27,11 +27,13 @@ import org.gearvrf.utility.Log;
 import org.joml.Quaternionf;
 import org.joml.Vector3f;
 import org.siprop.bullet.Bullet;
+import org.siprop.bullet.CommandBuffer;
 import org.siprop.bullet.Geometry;
 import org.siprop.bullet.MotionState;
 import org.siprop.bullet.PhysicsWorld;
 import org.siprop.bullet.RigidBody;
 import org.siprop.bullet.Transform;
+import org.siprop.bullet.TransformBuffer;
 import org.siprop.bullet.shape.CylinderShape;
 import org.siprop.bullet.shape.SphereShape;
 import org.siprop.bullet.shape.StaticPlaneShape;
@@ -59,7 +61,21 @@ public class BulletSampleMain extends GVRMain {
     private Bullet mBullet = null;
     RigidBody sphereBody = null;
     Map<GVRSceneObject, Vector3f> objectMap = new HashMap<GVRSceneObject, Vector3f>();
-    private Map<RigidBody, GVRSceneObject> rigidBodiesSceneMap = new HashMap<RigidBody, GVRSceneObject>();
+    private final BodyBindings mBindings = new BodyBindings();
+    // 4 walls, 10 pins and the ball, with room to spare
+    private TransformBuffer mTransforms = new TransformBuffer(32);
+    private TransformBuffer mPreviousTransforms = new TransformBuffer(32);
+    private static final float PHYSICS_STEP = 1.0f / 60.0f;
+    private static final int MAX_PHYSICS_SUBSTEPS = 4;
+    private final PhysicsScheduler mScheduler = new PhysicsScheduler(PHYSICS_STEP,
+            MAX_PHYSICS_SUBSTEPS, PhysicsScheduler.SYSTEM_CLOCK);
+    private final Random mRandom = new Random();
+    // step the world on its own thread instead of inline in onStep
+    private final boolean mThreadedPhysics;
+    private volatile PhysicsThread mPhysicsThread;
+    private float mBallSpeed;
+    private int mBallLane;
+    private final CommandBuffer mCommands = new CommandBuffer(8);
     private static final float CYLINDER_MASS = 50.0f;
     private static final float SPHERE_MASS = 80.0f;
     float speed = 0.0f;
@@ -88,7 +104,6 @@ public class BulletSampleMain extends GVRMain {
     Integer totalScore = 0;
     float minX = 0.25f;
     float maxX = 0.50f;
-    float finalX = 0.50f;
     float angle = 2f;
     float aspeed = 2f;
     float delta = 2.0f;
@@ -121,8 +136,9 @@ public class BulletSampleMain extends GVRMain {
 
     BulletSampleActivity mActivity;
 
-    BulletSampleMain(BulletSampleActivity activity) {
+    BulletSampleMain(BulletSampleActivity activity, boolean threadedPhysics) {
         mActivity = activity;
+        mThreadedPhysics = threadedPhysics;
     }
 
 
@@ -170,73 +186,149 @@ public class BulletSampleMain extends GVRMain {
             sphereObject.getTransform().setRotationByAxis(angle, 1f, 0f, 0f);
             angle += aspeed;
 
-            mBullet.doSimulation(1.0f / 60.0f, 10);
-            //mBullet.setActive(sphereBody, true);
-            mBullet.setActivePhysicsWorldAll(physicsWorld.id, true);
-            mBullet.applyCentralImpulse(sphereBody, new Vector3(0.0f, 0.0f, -(this.speed)));
-
-            Random rand = new Random();
-            finalX = rand.nextFloat() * (maxX - minX) + minX;
-            if (left < 5)
-                mBullet.applyCentralImpulse(sphereBody, new Vector3(finalX, 0.0f, -(this.speed)));
-            else if (right < 5)
-                mBullet.applyCentralImpulse(sphereBody, new Vector3(-finalX, 0.0f, -(this.speed)));
-            else
-                mBullet.applyCentralImpulse(sphereBody, new Vector3(0.0f, 0.0f, -(this.speed)));
-
-            for (RigidBody body : rigidBodiesSceneMap.keySet()) {
-                if (body.geometry.shape.getType() == ShapeType.SPHERE_SHAPE_PROXYTYPE
-                        || body.geometry.shape.getType() == ShapeType.CYLINDER_SHAPE_PROXYTYPE) {
-                    rigidBodiesSceneMap
-                            .get(body)
-                            .getTransform()
-                            .setPosition(
-                                    body.motionState.resultSimulation.originPoint.x,
-                                    body.motionState.resultSimulation.originPoint.y,
-                                    body.motionState.resultSimulation.originPoint.z);
+            if (mThreadedPhysics) {
+                // never blocks; keeps drawing the last snapshot until a newer one lands
+                PhysicsThread physicsThread = mPhysicsThread;
+                TransformBuffer latest = physicsThread != null ? physicsThread.latest() : null;
+                if (latest != null) {
+                    syncScene(latest, null, 1.0f);
+                }
+                return;
+            }
+
+            if (mScheduler.advance(mPhysicsStep) == 0 && mTransforms.getCount() == 0) {
+                return;
+            }
+            syncScene(mTransforms, mPreviousTransforms, mScheduler.getAlpha());
+        }
+    }
+
+    /*
+     * Move the ball and pins to the given physics state and run the game
+     * logic on it. With a previous state, objects are drawn alpha of the way
+     * from it; scoring and the camera switch always use the newest one.
+     */
+    private void syncScene(TransformBuffer transforms, TransformBuffer previous, float alpha) {
+        for (int i = 0; i < transforms.getCount(); ++i) {
+            BodyBindings.Binding binding = mBindings.find(transforms.getId(i));
+            if (binding == null) {
+                continue;
+            }
+            final RigidBody body = binding.body;
+            final GVRSceneObject sceneObject = binding.sceneObject;
+            final int shapeType = binding.shapeType;
+            final float x = transforms.getX(i);
+            final float y = transforms.getY(i);
+            final float z = transforms.getZ(i);
+
+            if (shapeType == ShapeType.SPHERE_SHAPE_PROXYTYPE
+                    || shapeType == ShapeType.CYLINDER_SHAPE_PROXYTYPE) {
+                if (previous != null && i < previous.getCount() && previous.getId(i) == body.id) {
+                    sceneObject.getTransform().setPosition(
+                            lerp(previous.getX(i), x, alpha),
+                            lerp(previous.getY(i), y, alpha),
+                            lerp(previous.getZ(i), z, alpha));
+                } else {
+                    sceneObject.getTransform().setPosition(x, y, z);
                 }
-                if (body.geometry.shape.getType() == ShapeType.CYLINDER_SHAPE_PROXYTYPE) {
-                    if (body.motionState.resultSimulation.originPoint.y < 1.9f) {
-                        Quaternionf quaternion = new Quaternionf();
-                        Float value = (Float) rigidBodiesSceneMap.get(body).getTag();
-                        if(value == null) {
-                            value = 20.0f * body.motionState.resultSimulation.originPoint.x;
-                            rigidBodiesSceneMap.get(body).setTag(value);
-                            rigidBodiesSceneMap.get(body).getTransform().setRotation(1.0f,0.0f,0.0f,0.0f);
-                            rigidBodiesSceneMap.get(body).getTransform().rotateByAxis(90.0f, 1.0f, 0.0f, 0.0f);
-                            rigidBodiesSceneMap.get(body).getTransform().rotateByAxis(value, 0.0f, 1.0f, 0.0f);
-                            count++;
-                            totalScore++;
-
-                            if (count == 10) {
-                                scoreDisplayObject.setText("STRIKE!!!\n Total Score:" + totalScore +"\n\n Back Key to Play Again");
-                                if (!audioPlayed || !clapPlayed) {
-                                    AudioClip.getInstance(mGVRContext.getContext()).playSound(AudioClip.clapSoundID(),10,10);
-                                    audioPlayed = true;
-                                    clapPlayed = true;
-                                }
+            }
+            if (shapeType == ShapeType.CYLINDER_SHAPE_PROXYTYPE) {
+                if (y < 1.9f) {
+                    Float value = (Float) sceneObject.getTag();
+                    if(value == null) {
+                        value = 20.0f * x;
+                        sceneObject.setTag(value);
+                        sceneObject.getTransform().setRotation(1.0f,0.0f,0.0f,0.0f);
+                        sceneObject.getTransform().rotateByAxis(90.0f, 1.0f, 0.0f, 0.0f);
+                        sceneObject.getTransform().rotateByAxis(value, 0.0f, 1.0f, 0.0f);
+                        count++;
+                        totalScore++;
+
+                        if (count == 10) {
+                            scoreDisplayObject.setText("STRIKE!!!\n Total Score:" + totalScore +"\n\n Back Key to Play Again");
+                            if (!audioPlayed || !clapPlayed) {
+                                AudioClip.getInstance(mGVRContext.getContext()).playSound(AudioClip.clapSoundID(),10,10);
+                                audioPlayed = true;
+                                clapPlayed = true;
                             }
-                            else {
-                                scoreDisplayObject.setText("SCORE:" + count + "\nTotal Score:" + totalScore + "\n\n Back Key to Play Again");
-                                if (!audioPlayed) {
-                                    AudioClip.getInstance(mGVRContext.getContext()).playSound(AudioClip.bowlingPinsHitSoundID(), 10, 10);
-                                    audioPlayed = true;
-                                }
+                        }
+                        else {
+                            scoreDisplayObject.setText("SCORE:" + count + "\nTotal Score:" + totalScore + "\n\n Back Key to Play Again");
+                            if (!audioPlayed) {
+                                AudioClip.getInstance(mGVRContext.getContext()).playSound(AudioClip.bowlingPinsHitSoundID(), 10, 10);
+                                audioPlayed = true;
                             }
-
                         }
+
                     }
                 }
-                if (!cameraChanged && body.geometry.shape.getType() == ShapeType.SPHERE_SHAPE_PROXYTYPE) {
-                    if (body == sphereBody && (body.motionState.resultSimulation.originPoint.z < -105)) {
-                        cameraChanged = true;
-                        mainCameraRig.getTransform().setPosition(body.motionState.resultSimulation.originPoint.x, body.motionState.resultSimulation.originPoint.y+15, -105);
-                    }
+            }
+            if (!cameraChanged && shapeType == ShapeType.SPHERE_SHAPE_PROXYTYPE) {
+                if (body == sphereBody && (z < -105)) {
+                    cameraChanged = true;
+                    mainCameraRig.getTransform().setPosition(x, y+15, -105);
                 }
             }
         }
     }
 
+    /*
+     * One fixed physics step: push the ball, then simulate into out. Only the
+     * ball is woken; pins it hits are activated by the collision itself. Runs
+     * on whichever thread owns the world, which also owns mBallSpeed and
+     * mBallLane.
+     */
+    private void stepPhysics(float seconds, TransformBuffer out) {
+        mCommands.setActive(sphereBody, true);
+        mCommands.applyCentralImpulse(sphereBody, 0.0f, 0.0f, -mBallSpeed);
+
+        float lateral = mRandom.nextFloat() * (maxX - minX) + minX;
+        mCommands.applyCentralImpulse(sphereBody, mBallLane * lateral, 0.0f, -mBallSpeed);
+        mBullet.flush(mCommands);
+
+        mBullet.doSimulation(physicsWorld, seconds, 1, out);
+    }
+
+    // inline mode: keep the previous state around for interpolation
+    private final PhysicsScheduler.Stepper mPhysicsStep = new PhysicsScheduler.Stepper() {
+        @Override
+        public void step(float seconds) {
+            TransformBuffer previous = mPreviousTransforms;
+            mPreviousTransforms = mTransforms;
+            mTransforms = previous;
+            stepPhysics(seconds, mTransforms);
+        }
+    };
+
+    // threaded mode
+    private final PhysicsThread.Simulation mPhysicsSimulation = new PhysicsThread.Simulation() {
+        @Override
+        public void step(float seconds, TransformBuffer out) {
+            stepPhysics(seconds, out);
+        }
+    };
+
+    /* Hands the throw parameters to the physics thread before its next step. */
+    private final class Launch implements PhysicsThread.Command {
+        private final float mSpeed;
+        private final int mLane;
+
+        Launch(float speed, int lane) {
+            mSpeed = speed;
+            mLane = lane;
+        }
+
+        @Override
+        public void execute() {
+            mBallSpeed = mSpeed;
+            mBallLane = mLane;
+        }
+    }
+
+    private static float lerp(float from, float to, float t) {
+        return from + (to - from) * t;
+    }
+
     private GVRSceneObject quadWithTexture(float width, float height,
             String texture) {
         FutureWrapper<GVRMesh> futureMesh = new FutureWrapper<GVRMesh>(
@@ -276,7 +368,7 @@ public class BulletSampleMain extends GVRMain {
         cylinderSceneObject.getTransform().setPosition(x,y,z);
 
         scene.addSceneObject(cylinderSceneObject);
-        rigidBodiesSceneMap.put(cylinderBody,cylinderSceneObject);
+        mBindings.bind(cylinderBody, cylinderSceneObject);
 
     }
 
@@ -301,7 +393,7 @@ public class BulletSampleMain extends GVRMain {
         //mBullet.setActive(sphereBody, true);
         objectMap.put(sphereObject, new Vector3f(x,y,z));
         scene.addSceneObject(sphereObject);
-        rigidBodiesSceneMap.put(sphereBody, sphereObject);
+        mBindings.bind(sphereBody, sphereObject);
     }
 
     public void addDisplaySphere(GVRScene scene, float radius, float x, float y, float z, float mass)  {
@@ -344,12 +436,28 @@ public class BulletSampleMain extends GVRMain {
             else
                 this.speed = 5;
 
+            // ball drifts towards the centre when moved off it
+            final int lane = left < 5 ? 1 : (right < 5 ? -1 : 0);
+
             //sphereObjectFake.getRenderData().setRenderMask(0);
             scene.removeSceneObject(sphereObjectFake);
-            applyForce = true;
             addSphere(scene, 1.32f, sphereObjectFake.getTransform().getPositionX(),
                     sphereObjectFake.getTransform().getPositionY(),
                     sphereObjectFake.getTransform().getPositionZ(), SPHERE_MASS);
+            if (mThreadedPhysics) {
+                PhysicsThread physicsThread = new PhysicsThread(mPhysicsSimulation, PHYSICS_STEP,
+                        mTransforms.getCapacity());
+                physicsThread.post(new Launch(this.speed, lane));
+                physicsThread.start();
+                mPhysicsThread = physicsThread;
+            } else {
+                mBallSpeed = this.speed;
+                mBallLane = lane;
+                mScheduler.reset();
+                mTransforms.clear();
+                mPreviousTransforms.clear();
+            }
+            applyForce = true;
             if (cameraDisplayed) {
                 mCameraObject.getRenderData().getMaterial().setOpacity( 0.0f );
                 cameraDisplayed = false;
@@ -393,6 +501,18 @@ public class BulletSampleMain extends GVRMain {
     }
 
     public void onTap() {
+        PhysicsScheduler scheduler = mScheduler;
+        if (mPhysicsThread != null) {
+            // the world is torn down below, the physics thread must be gone first
+            mPhysicsThread.shutdown();
+            scheduler = mPhysicsThread.getScheduler();
+            mPhysicsThread = null;
+        }
+        if (applyForce) {
+            Log.d(TAG, "physics: " + scheduler.getSimulatedSeconds() + " s simulated over "
+                    + scheduler.getWallSeconds() + " s wall, drift " + scheduler.getDriftSeconds()
+                    + " s (" + scheduler.getDroppedSeconds() + " s dropped)");
+        }
         applyForce = false;
         //scene.removeSceneObject(mContainer);
         //scene.clear();
@@ -402,12 +522,15 @@ public class BulletSampleMain extends GVRMain {
         scene.removeSceneObject(sidewallScene2);
         scene.removeSceneObject(sphereObjectFake);
 
-        for (RigidBody body : rigidBodiesSceneMap.keySet()) {
-            if (body.geometry.shape.getType() == ShapeType.SPHERE_SHAPE_PROXYTYPE
-                    || body.geometry.shape.getType() == ShapeType.CYLINDER_SHAPE_PROXYTYPE) {
-                scene.removeSceneObject(rigidBodiesSceneMap.get(body));
+        for (int i = 0; i < mBindings.size(); ++i) {
+            BodyBindings.Binding binding = mBindings.get(i);
+            if (binding.shapeType == ShapeType.SPHERE_SHAPE_PROXYTYPE
+                    || binding.shapeType == ShapeType.CYLINDER_SHAPE_PROXYTYPE) {
+                scene.removeSceneObject(binding.sceneObject);
             }
         }
+        // the next world hands out its body ids from scratch
+        mBindings.clear();
         createPhysicsScene();
     }
 
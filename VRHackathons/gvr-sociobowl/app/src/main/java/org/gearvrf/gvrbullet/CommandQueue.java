@@ -0,0 +1,70 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gearvrf.gvrbullet;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Unbounded lock-free multi-producer, single-consumer queue. Any thread may
+ * {@link #offer}; only the owning consumer thread may {@link #poll}. Producers
+ * never wait on each other or on the consumer: an offer is one atomic swap of
+ * the head plus a volatile link.
+ */
+final class CommandQueue<T> {
+
+    private static final class Node<T> {
+        T value;
+        volatile Node<T> next;
+
+        Node(T value) {
+            this.value = value;
+        }
+    }
+
+    private final AtomicReference<Node<T>> mHead;
+    private Node<T> mTail;
+
+    CommandQueue() {
+        Node<T> stub = new Node<T>(null);
+        mHead = new AtomicReference<Node<T>>(stub);
+        mTail = stub;
+    }
+
+    void offer(T value) {
+        if (value == null) {
+            throw new NullPointerException("value");
+        }
+        Node<T> node = new Node<T>(value);
+        Node<T> previous = mHead.getAndSet(node);
+        previous.next = node;
+    }
+
+    /**
+     * @return the oldest value, or null when the queue is empty or the newest
+     * offer has not finished linking yet
+     */
+    T poll() {
+        Node<T> next = mTail.next;
+        if (next == null) {
+            return null;
+        }
+        T value = next.value;
+        next.value = null;
+        mTail = next;
+        return value;
+    }
+}
@@ -0,0 +1,132 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf.gvrbullet;
+
+/**
+ * Fixed-timestep driver for the physics world. Wall time since the previous
+ * frame goes into an accumulator that is drained in whole steps of
+ * {@code fixedStep}, at most {@code maxSubSteps} per frame; whatever is left
+ * over becomes the {@link #getAlpha() interpolation factor} between the last
+ * two physics states. When the cap is hit the backlog is dropped rather than
+ * carried, so one slow frame cannot snowball, and the dropped time shows up as
+ * {@link #getDriftSeconds() drift}. The clock is injected so the logic can be
+ * driven by a fake one.
+ */
+final class PhysicsScheduler {
+
+    interface Clock {
+        long nanoTime();
+    }
+
+    interface Stepper {
+        void step(float seconds);
+    }
+
+    static final Clock SYSTEM_CLOCK = new Clock() {
+        @Override
+        public long nanoTime() {
+            return System.nanoTime();
+        }
+    };
+
+    private final Clock mClock;
+    private final long mStepNanos;
+    private final float mStepSeconds;
+    private final int mMaxSubSteps;
+
+    private boolean mStarted;
+    private long mLastNanos;
+    private long mAccumulatorNanos;
+    private long mWallNanos;
+    private long mSimulatedNanos;
+    private long mDroppedNanos;
+
+    PhysicsScheduler(float fixedStep, int maxSubSteps, Clock clock) {
+        if (fixedStep <= 0 || maxSubSteps < 1) {
+            throw new IllegalArgumentException("fixedStep and maxSubSteps must be positive");
+        }
+        mClock = clock;
+        mStepNanos = (long) (fixedStep * 1e9);
+        mStepSeconds = fixedStep;
+        mMaxSubSteps = maxSubSteps;
+    }
+
+    /**
+     * Forget the previous frame time and all counters. The next
+     * {@link #advance} only starts the clock and does not step.
+     */
+    void reset() {
+        mStarted = false;
+        mAccumulatorNanos = 0;
+        mWallNanos = 0;
+        mSimulatedNanos = 0;
+        mDroppedNanos = 0;
+    }
+
+    /**
+     * Run as many fixed steps as the time since the last call allows.
+     *
+     * @return number of steps run this frame
+     */
+    int advance(Stepper stepper) {
+        final long now = mClock.nanoTime();
+        if (!mStarted) {
+            mStarted = true;
+            mLastNanos = now;
+            return 0;
+        }
+        final long frameNanos = Math.max(0, now - mLastNanos);
+        mLastNanos = now;
+        mWallNanos += frameNanos;
+        mAccumulatorNanos += frameNanos;
+
+        int steps = 0;
+        while (mAccumulatorNanos >= mStepNanos && steps < mMaxSubSteps) {
+            stepper.step(mStepSeconds);
+            mAccumulatorNanos -= mStepNanos;
+            mSimulatedNanos += mStepNanos;
+            ++steps;
+        }
+        if (mAccumulatorNanos >= mStepNanos) {
+            long backlog = mAccumulatorNanos - mAccumulatorNanos % mStepNanos;
+            mDroppedNanos += backlog;
+            mAccumulatorNanos -= backlog;
+        }
+        return steps;
+    }
+
+    /** How far between the previous and the current physics state the frame lies, 0..1. */
+    float getAlpha() {
+        return (float) mAccumulatorNanos / mStepNanos;
+    }
+
+    double getWallSeconds() {
+        return mWallNanos / 1e9;
+    }
+
+    double getSimulatedSeconds() {
+        return mSimulatedNanos / 1e9;
+    }
+
+    /** Wall time not (yet) simulated: dropped backlog plus the pending remainder. */
+    double getDriftSeconds() {
+        return (mWallNanos - mSimulatedNanos) / 1e9;
+    }
+
+    double getDroppedSeconds() {
+        return mDroppedNanos / 1e9;
+    }
+}
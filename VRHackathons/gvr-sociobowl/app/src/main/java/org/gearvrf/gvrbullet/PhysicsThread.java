@@ -0,0 +1,111 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gearvrf.gvrbullet;
+
+import java.util.concurrent.locks.LockSupport;
+
+import org.siprop.bullet.TransformBuffer;
+
+/**
+ * Steps a physics world on its own thread at a fixed rate, so simulation cost
+ * stays off the GL thread. While it runs, this thread is the only one that
+ * may touch the native world: other threads {@link #post} commands, which are
+ * executed before the next step, and read results through {@link #latest()},
+ * which never blocks.
+ */
+final class PhysicsThread extends Thread {
+
+    interface Command {
+        void execute();
+    }
+
+    interface Simulation {
+        /** Advance the world by {@code seconds} and write every body into {@code out}. */
+        void step(float seconds, TransformBuffer out);
+    }
+
+    private static final String TAG = "PhysicsThread";
+    private static final int MAX_SUBSTEPS = 4;
+
+    private final Simulation mSimulation;
+    private final long mStepNanos;
+    private final PhysicsScheduler mScheduler;
+    private final CommandQueue<Command> mCommands = new CommandQueue<Command>();
+    private final TripleBuffer<TransformBuffer> mSnapshots;
+    private volatile boolean mRunning = true;
+
+    private final PhysicsScheduler.Stepper mStepper = new PhysicsScheduler.Stepper() {
+        @Override
+        public void step(float seconds) {
+            Command command;
+            while ((command = mCommands.poll()) != null) {
+                command.execute();
+            }
+            mSimulation.step(seconds, mSnapshots.writeSlot());
+            mSnapshots.publish();
+        }
+    };
+
+    PhysicsThread(Simulation simulation, float fixedStep, int maxBodies) {
+        super(TAG);
+        mSimulation = simulation;
+        mStepNanos = (long) (fixedStep * 1e9);
+        mScheduler = new PhysicsScheduler(fixedStep, MAX_SUBSTEPS, PhysicsScheduler.SYSTEM_CLOCK);
+        mSnapshots = new TripleBuffer<TransformBuffer>(new TransformBuffer(maxBodies),
+                new TransformBuffer(maxBodies), new TransformBuffer(maxBodies));
+    }
+
+    /** Run {@code command} on the physics thread before the next step. Any thread. */
+    void post(Command command) {
+        mCommands.offer(command);
+    }
+
+    /** Newest published body transforms, or null before the first step. Single reader. */
+    TransformBuffer latest() {
+        return mSnapshots.latest();
+    }
+
+    /** Stop stepping and wait for the thread to exit; the world is then safe to touch again. */
+    void shutdown() {
+        mRunning = false;
+        LockSupport.unpark(this);
+        boolean interrupted = false;
+        while (isAlive()) {
+            try {
+                join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    PhysicsScheduler getScheduler() {
+        return mScheduler;
+    }
+
+    @Override
+    public void run() {
+        mScheduler.reset();
+        while (mRunning) {
+            mScheduler.advance(mStepper);
+            LockSupport.parkNanos((long) ((1.0f - mScheduler.getAlpha()) * mStepNanos));
+        }
+    }
+}
@@ -0,0 +1,67 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gearvrf.gvrbullet;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hands the newest of a stream of values from one producer thread to one
+ * consumer thread without either side blocking. The producer fills
+ * {@link #writeSlot()} and {@link #publish() publishes} it; the consumer
+ * calls {@link #latest()}. Each side owns one of the three slots at all
+ * times and the third is exchanged atomically, so the consumer never sees a
+ * slot the producer is still writing.
+ */
+final class TripleBuffer<T> {
+
+    private static final int INDEX_MASK = 3;
+    private static final int FRESH = 4;
+
+    private final Object[] mSlots;
+    private final AtomicInteger mShared = new AtomicInteger(1);
+    private int mWriteIndex = 0; // producer only
+    private int mReadIndex = 2;  // consumer only
+    private boolean mHasValue;   // consumer only
+
+    TripleBuffer(T first, T second, T third) {
+        mSlots = new Object[] { first, second, third };
+    }
+
+    /** Producer: the slot to fill before the next {@link #publish()}. */
+    @SuppressWarnings("unchecked")
+    T writeSlot() {
+        return (T) mSlots[mWriteIndex];
+    }
+
+    /** Producer: make the filled slot the newest value. */
+    void publish() {
+        mWriteIndex = mShared.getAndSet(mWriteIndex | FRESH) & INDEX_MASK;
+    }
+
+    /**
+     * Consumer: the newest published value, or null if nothing has been
+     * published yet. The returned slot stays valid until the next call.
+     */
+    @SuppressWarnings("unchecked")
+    T latest() {
+        if ((mShared.get() & FRESH) != 0) {
+            mReadIndex = mShared.getAndSet(mReadIndex) & INDEX_MASK;
+            mHasValue = true;
+        }
+        return mHasValue ? (T) mSlots[mReadIndex] : null;
+    }
+}
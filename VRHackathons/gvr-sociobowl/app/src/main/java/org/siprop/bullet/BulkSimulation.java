@@ -0,0 +1,45 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.siprop.bullet;
+
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+
+/**
+ * Native entry points that move a whole step across JNI at once, for a
+ * libbullet that has them; see {@link Bullet#setBulkSimulation}. The
+ * prebuilt libbullet.so of this sample only reports bodies one callback at
+ * a time, so without an implementation {@link Bullet} fills the same
+ * records from those callbacks.
+ */
+public interface BulkSimulation {
+
+	/**
+	 * Step world {@code worldId} and write the transform of every body, in
+	 * the {@link TransformBuffer} record layout, to {@code transforms} and
+	 * {@code ids}, at most {@code capacity} of them.
+	 *
+	 * @return number of bodies in the world, written or not
+	 */
+	int doSimulationBulk(int worldId, float execTime, int count,
+			FloatBuffer transforms, IntBuffer ids, int capacity);
+
+	/**
+	 * Apply the first {@code count} records of {@code commands}, in the
+	 * {@link CommandBuffer} record layout, in order.
+	 */
+	void flushCommands(ByteBuffer commands, int count);
+}
@@ -14,7 +14,6 @@ subject to the following restrictions:
 */
 package org.siprop.bullet;
 
-import java.util.HashMap;
 import java.util.Map;
 
 import org.siprop.bullet.interfaces.Constraint;
@@ -22,6 +21,7 @@ import org.siprop.bullet.interfaces.DynamicsWorld;
 import org.siprop.bullet.interfaces.ResultSimulationCallback;
 import org.siprop.bullet.interfaces.Shape;
 import org.siprop.bullet.interfaces.Solver;
+import org.siprop.bullet.util.IntObjectMap;
 import org.siprop.bullet.util.Vector3;
 
 import android.util.Log;
@@ -30,9 +30,15 @@ import android.util.Log;
 public class Bullet {
 
 	
-	private Map<Integer, PhysicsWorld> physicsWorlds = new HashMap<Integer, PhysicsWorld>();
-	private Map<Integer, Geometry> geometries = new HashMap<Integer, Geometry>();
-	private Map<Integer, RigidBody> rigidBodies = new HashMap<Integer, RigidBody>();
+	private IntObjectMap<PhysicsWorld> physicsWorlds = new IntObjectMap<PhysicsWorld>();
+	private IntObjectMap<Geometry> geometries = new IntObjectMap<Geometry>();
+	private IntObjectMap<RigidBody> rigidBodies = new IntObjectMap<RigidBody>();
+
+	// see doSimulation(..., TransformBuffer) and flush(CommandBuffer)
+	private BulkSimulation bulkSimulation;
+	private TransformBuffer resultTarget;
+	private final Vector3 commandArg = new Vector3();
+	private final Vector3 commandPoint = new Vector3();
 	
 	// PhysicsWorld
 	private PhysicsWorld defaultPhysicsWorld;
@@ -45,7 +51,7 @@ public class Bullet {
 	}
 	
 	public Map<Integer, PhysicsWorld> getPhysicsWorlds() {
-		return physicsWorlds;
+		return physicsWorlds.asMap();
 	}
 	public PhysicsWorld getPhysicsWorld(int id) {
 		return physicsWorlds.get(id);
@@ -103,7 +109,7 @@ public class Bullet {
 
 	// Geometry
 	public Map<Integer, Geometry> getGeometries() {
-		return geometries;
+		return geometries.asMap();
 	}
 	public Geometry getGeometry(int id) {
 		return geometries.get(id);
@@ -128,6 +134,9 @@ public class Bullet {
 	
 	
 	// RigidBody
+	public RigidBody getRigidBody(int id) {
+		return rigidBodies.get(id);
+	}
 	public RigidBody createAndAddRigidBody(Geometry geometry,
 										   MotionState motionState) {
 		return createAndAddRigidBody(defaultPhysicsWorld, geometry, motionState);
@@ -235,7 +244,7 @@ public class Bullet {
 	}
 	public Map<Integer, RigidBody> doSimulation(PhysicsWorld physicsWorld, float execTime, int count) {
 		doSimulationNative(physicsWorld.id, execTime, count);
-		return rigidBodies;
+		return rigidBodies.asMap();
 	}
 	public Map<Integer, RigidBody> doSimulationWithCallback(ResultSimulationCallback resultCallback, float execTime, int count) {
 		return doSimulationWithCallback(resultCallback, defaultPhysicsWorld, execTime, count);
@@ -243,12 +252,101 @@ public class Bullet {
 	public Map<Integer, RigidBody> doSimulationWithCallback(ResultSimulationCallback resultCallback, PhysicsWorld physicsWorld, float execTime, int count) {
 		doSimulationNative(physicsWorld.id, execTime, count);
 		if(resultCallback != null) {
-			resultCallback.resultSimulation(rigidBodies);
+			resultCallback.resultSimulation(rigidBodies.asMap());
 		}
-		return rigidBodies;
+		return rigidBodies.asMap();
 	}
 	private native int doSimulationNative(int worldId, float execTime, int count); 
 
+	/**
+	 * Native entry points for {@link #doSimulation(PhysicsWorld, float, int,
+	 * TransformBuffer)} and {@link #flush}, or null to go through the per-body
+	 * callbacks and natives.
+	 */
+	public void setBulkSimulation(BulkSimulation bulkSimulation) {
+		this.bulkSimulation = bulkSimulation;
+	}
+
+	/**
+	 * Step the world and collect every body transform into {@code out}, so
+	 * callers read flat records instead of the RigidBody map. One native call
+	 * with a {@link BulkSimulation}, which leaves the bodies' MotionState as
+	 * it was; one callback per body without.
+	 *
+	 * @return number of bodies written
+	 */
+	public int doSimulation(float execTime, int count, TransformBuffer out) {
+		return doSimulation(defaultPhysicsWorld, execTime, count, out);
+	}
+	public int doSimulation(PhysicsWorld physicsWorld, float execTime, int count, TransformBuffer out) {
+		out.clear();
+		if (bulkSimulation != null) {
+			out.setWritten(bulkSimulation.doSimulationBulk(physicsWorld.id, execTime, count,
+					out.getTransforms(), out.getIds(), out.getCapacity()));
+			return out.getCount();
+		}
+		resultTarget = out;
+		try {
+			doSimulationNative(physicsWorld.id, execTime, count);
+		} finally {
+			resultTarget = null;
+		}
+		return out.getCount();
+	}
+
+	/**
+	 * Apply every queued command in order and empty the queue. One native
+	 * call with a {@link BulkSimulation}, one per command without.
+	 */
+	public void flush(CommandBuffer commands) {
+		if (bulkSimulation != null) {
+			bulkSimulation.flushCommands(commands.getRecords(), commands.size());
+			commands.clear();
+			return;
+		}
+		for (int i = 0, n = commands.size(); i < n; ++i) {
+			replay(commands, i);
+		}
+		commands.clear();
+	}
+
+	private void replay(CommandBuffer commands, int i) {
+		final int worldId = commands.getPhysicsWorldId(i);
+		final int bodyId = commands.getRigidBodyId(i);
+		commandArg.x = commands.getArg(i, 0);
+		commandArg.y = commands.getArg(i, 1);
+		commandArg.z = commands.getArg(i, 2);
+		commandPoint.x = commands.getArg(i, 3);
+		commandPoint.y = commands.getArg(i, 4);
+		commandPoint.z = commands.getArg(i, 5);
+
+		switch (commands.getOp(i)) {
+		case CommandBuffer.APPLY_FORCE:
+			applyForce(worldId, bodyId, commandArg, commandPoint);
+			break;
+		case CommandBuffer.APPLY_TORQUE:
+			applyTorque(worldId, bodyId, commandArg);
+			break;
+		case CommandBuffer.APPLY_CENTRAL_IMPULSE:
+			applyCentralImpulse(worldId, bodyId, commandArg);
+			break;
+		case CommandBuffer.APPLY_TORQUE_IMPULSE:
+			applyTorqueImpulse(worldId, bodyId, commandArg);
+			break;
+		case CommandBuffer.APPLY_IMPULSE:
+			applyImpulse(worldId, bodyId, commandArg, commandPoint);
+			break;
+		case CommandBuffer.CLEAR_FORCES:
+			clearForces(worldId, bodyId);
+			break;
+		case CommandBuffer.SET_ACTIVE:
+			setActive(worldId, bodyId, commandArg.x != 0);
+			break;
+		default:
+			Log.d("Bullet", "unknown command " + commands.getOp(i));
+		}
+	}
+
 	private void resultSimulation(int rigidBodyID, int shapeType, float[] rot, float[] pos, float[] shapeOption) {
 		RigidBody body = rigidBodies.get(rigidBodyID);
 		if(body == null) {
@@ -263,6 +361,9 @@ public class Bullet {
 			Log.d("resultSimulation", "pos is " + pos.length);
 			return;
 		}
+		if(resultTarget != null) {
+			resultTarget.put(rigidBodyID, rot, pos);
+		}
 		body.motionState.resultSimulation.basis.xx = rot[0];
 		body.motionState.resultSimulation.basis.xy = rot[1];
 		body.motionState.resultSimulation.basis.xz = rot[2];
@@ -0,0 +1,138 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.siprop.bullet;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Queue of force, impulse and activation commands that {@link Bullet#flush}
+ * applies in order. Game code can record commands while it walks its objects
+ * and have them applied at one point of the frame; recording does not
+ * allocate, the buffer only grows when it is full.
+ * <p>
+ * The commands are records of {@link #RECORD_BYTES} bytes in a direct
+ * buffer in native byte order, so a {@link BulkSimulation} can apply them
+ * all in one native call:
+ * <pre>
+ *   int   op, at {@link #OP}
+ *   int   physics world id, at {@link #WORLD_ID}
+ *   int   rigid body id, at {@link #BODY_ID}
+ *   float[6] at {@link #ARGS_OFFSET}: the force, torque or impulse
+ *         (x = 1 for SET_ACTIVE true), then the application point, zero
+ *         when unused
+ * </pre>
+ */
+public class CommandBuffer {
+
+	public static final int APPLY_FORCE = 1;
+	public static final int APPLY_TORQUE = 2;
+	public static final int APPLY_CENTRAL_IMPULSE = 3;
+	public static final int APPLY_TORQUE_IMPULSE = 4;
+	public static final int APPLY_IMPULSE = 5;
+	public static final int CLEAR_FORCES = 6;
+	public static final int SET_ACTIVE = 7;
+
+	public static final int ARGS = 6;
+
+	public static final int OP = 0;
+	public static final int WORLD_ID = 4;
+	public static final int BODY_ID = 8;
+	public static final int ARGS_OFFSET = 12;
+	public static final int RECORD_BYTES = ARGS_OFFSET + 4 * ARGS;
+
+	private ByteBuffer records;
+	private int count;
+
+	public CommandBuffer(int initialCapacity) {
+		records = allocate(Math.max(1, initialCapacity));
+	}
+
+	public int size() {
+		return count;
+	}
+	public boolean isEmpty() {
+		return count == 0;
+	}
+	public void clear() {
+		count = 0;
+	}
+
+	public void applyForce(RigidBody body, float x, float y, float z, float px, float py, float pz) {
+		record(APPLY_FORCE, body, x, y, z, px, py, pz);
+	}
+	public void applyTorque(RigidBody body, float x, float y, float z) {
+		record(APPLY_TORQUE, body, x, y, z, 0, 0, 0);
+	}
+	public void applyCentralImpulse(RigidBody body, float x, float y, float z) {
+		record(APPLY_CENTRAL_IMPULSE, body, x, y, z, 0, 0, 0);
+	}
+	public void applyTorqueImpulse(RigidBody body, float x, float y, float z) {
+		record(APPLY_TORQUE_IMPULSE, body, x, y, z, 0, 0, 0);
+	}
+	public void applyImpulse(RigidBody body, float x, float y, float z, float px, float py, float pz) {
+		record(APPLY_IMPULSE, body, x, y, z, px, py, pz);
+	}
+	public void clearForces(RigidBody body) {
+		record(CLEAR_FORCES, body, 0, 0, 0, 0, 0, 0);
+	}
+	public void setActive(RigidBody body, boolean isActive) {
+		record(SET_ACTIVE, body, isActive ? 1 : 0, 0, 0, 0, 0, 0);
+	}
+
+	public int getOp(int index) {
+		return records.getInt(index * RECORD_BYTES + OP);
+	}
+	public int getPhysicsWorldId(int index) {
+		return records.getInt(index * RECORD_BYTES + WORLD_ID);
+	}
+	public int getRigidBodyId(int index) {
+		return records.getInt(index * RECORD_BYTES + BODY_ID);
+	}
+	/** Float argument {@code arg} (0..5) of command {@code index}. */
+	public float getArg(int index, int arg) {
+		return records.getFloat(index * RECORD_BYTES + ARGS_OFFSET + 4 * arg);
+	}
+
+	/** The records for a bulk flush; the first {@link #size()} are queued. */
+	public ByteBuffer getRecords() {
+		return records;
+	}
+
+	private void record(int op, RigidBody body, float x, float y, float z, float px, float py, float pz) {
+		if (count * RECORD_BYTES == records.capacity()) {
+			ByteBuffer larger = allocate(2 * count);
+			records.clear();
+			larger.put(records);
+			larger.clear();
+			records = larger;
+		}
+		final int base = count * RECORD_BYTES;
+		records.putInt(base + OP, op);
+		records.putInt(base + WORLD_ID, body.physicsWorldId);
+		records.putInt(base + BODY_ID, body.id);
+		records.putFloat(base + ARGS_OFFSET, x);
+		records.putFloat(base + ARGS_OFFSET + 4, y);
+		records.putFloat(base + ARGS_OFFSET + 8, z);
+		records.putFloat(base + ARGS_OFFSET + 12, px);
+		records.putFloat(base + ARGS_OFFSET + 16, py);
+		records.putFloat(base + ARGS_OFFSET + 20, pz);
+		++count;
+	}
+
+	private static ByteBuffer allocate(int commands) {
+		return ByteBuffer.allocateDirect(commands * RECORD_BYTES).order(ByteOrder.nativeOrder());
+	}
+}
@@ -0,0 +1,122 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.siprop.bullet;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+
+/**
+ * Caller-owned destination for the body transforms of a simulation step.
+ * The records live in direct buffers in native byte order, so a
+ * {@link BulkSimulation} can write a whole step in one native call; without
+ * one, the per-body result callback fills the same records. Readers index
+ * the records instead of walking the RigidBody map and its MotionState
+ * objects, and nothing is allocated per step.
+ * <p>
+ * Record layout, {@link #STRIDE} floats per body in {@link #getTransforms()}:
+ * <pre>
+ *   [0..2]  origin x, y, z
+ *   [3..11] basis, row major (xx xy xz yx yy yz zx zy zz)
+ * </pre>
+ * The body id of record {@code i} is int {@code i} of {@link #getIds()}.
+ */
+public class TransformBuffer {
+
+	public static final int ORIGIN = 0;
+	public static final int BASIS = 3;
+	public static final int STRIDE = 12;
+
+	private final int capacity;
+	private final FloatBuffer transforms;
+	private final IntBuffer ids;
+	private int count;
+	private int dropped;
+
+	public TransformBuffer(int capacity) {
+		this.capacity = capacity;
+		transforms = ByteBuffer.allocateDirect(capacity * STRIDE * 4)
+				.order(ByteOrder.nativeOrder()).asFloatBuffer();
+		ids = ByteBuffer.allocateDirect(capacity * 4)
+				.order(ByteOrder.nativeOrder()).asIntBuffer();
+	}
+
+	public int getCapacity() {
+		return capacity;
+	}
+
+	/** Number of bodies written by the last step. */
+	public int getCount() {
+		return count;
+	}
+	/** Bodies that did not fit during the last step. */
+	public int getDropped() {
+		return dropped;
+	}
+
+	public int getId(int index) {
+		return ids.get(index);
+	}
+	public float getX(int index) {
+		return transforms.get(index * STRIDE + ORIGIN);
+	}
+	public float getY(int index) {
+		return transforms.get(index * STRIDE + ORIGIN + 1);
+	}
+	public float getZ(int index) {
+		return transforms.get(index * STRIDE + ORIGIN + 2);
+	}
+	/** Basis element {@code row * 3 + column} of body {@code index}. */
+	public float getBasis(int index, int element) {
+		return transforms.get(index * STRIDE + BASIS + element);
+	}
+
+	/** Records for a bulk step to write, {@link #getCapacity()} of them. */
+	public FloatBuffer getTransforms() {
+		return transforms;
+	}
+	/** Body ids for a bulk step to write, one per record. */
+	public IntBuffer getIds() {
+		return ids;
+	}
+
+	public void clear() {
+		count = 0;
+		dropped = 0;
+	}
+
+	/** After a bulk step: it wrote {@code total} bodies, as many as fit. */
+	void setWritten(int total) {
+		count = Math.min(total, capacity);
+		dropped = total - count;
+	}
+
+	void put(int id, float[] rot, float[] pos) {
+		if (count == capacity) {
+			++dropped;
+			return;
+		}
+		final int base = count * STRIDE;
+		transforms.put(base + ORIGIN, pos[0]);
+		transforms.put(base + ORIGIN + 1, pos[1]);
+		transforms.put(base + ORIGIN + 2, pos[2]);
+		for (int i = 0; i < 9; ++i) {
+			transforms.put(base + BASIS + i, rot[i]);
+		}
+		ids.put(count, id);
+		++count;
+	}
+}
@@ -0,0 +1,237 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.siprop.bullet.util;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Open-addressing map from native object ids to their Java peers. Keys are
+ * plain {@code int}s and never boxed, so per-frame lookups by id stay
+ * allocation free. {@link #asMap()} gives a read-only {@link Map} view for
+ * readers such as {@link org.siprop.bullet.interfaces.ResultSimulationCallback}.
+ * Null values are not stored.
+ */
+public class IntObjectMap<V> {
+
+	private static final float LOAD_FACTOR = 0.5f;
+
+	private int[] keys;
+	private Object[] values;
+	private int size;
+	private int modCount;
+	private final Map<Integer, V> view = new MapView();
+
+	public IntObjectMap() {
+		this(16);
+	}
+	public IntObjectMap(int expectedSize) {
+		int capacity = 1;
+		while (capacity * LOAD_FACTOR < expectedSize) {
+			capacity <<= 1;
+		}
+		allocate(Math.max(capacity, 4));
+	}
+
+	@SuppressWarnings("unchecked")
+	public V get(int key) {
+		final int mask = keys.length - 1;
+		for (int i = hash(key) & mask; values[i] != null; i = (i + 1) & mask) {
+			if (keys[i] == key) {
+				return (V) values[i];
+			}
+		}
+		return null;
+	}
+
+	public boolean containsKey(int key) {
+		return get(key) != null;
+	}
+
+	@SuppressWarnings("unchecked")
+	public V put(int key, V value) {
+		if (value == null) {
+			return remove(key);
+		}
+		final int mask = keys.length - 1;
+		int i = hash(key) & mask;
+		for (; values[i] != null; i = (i + 1) & mask) {
+			if (keys[i] == key) {
+				V old = (V) values[i];
+				values[i] = value;
+				return old;
+			}
+		}
+		keys[i] = key;
+		values[i] = value;
+		++modCount;
+		if (++size > keys.length * LOAD_FACTOR) {
+			rehash(keys.length << 1);
+		}
+		return null;
+	}
+
+	@SuppressWarnings("unchecked")
+	public V remove(int key) {
+		final int mask = keys.length - 1;
+		int i = hash(key) & mask;
+		for (; values[i] != null; i = (i + 1) & mask) {
+			if (keys[i] == key) {
+				break;
+			}
+		}
+		if (values[i] == null) {
+			return null;
+		}
+		V old = (V) values[i];
+		values[i] = null;
+		--size;
+		++modCount;
+
+		// shift the rest of the probe run back so lookups never stop early
+		for (int j = (i + 1) & mask; values[j] != null; j = (j + 1) & mask) {
+			int home = hash(keys[j]) & mask;
+			boolean movable = i <= j ? (home <= i || home > j) : (home <= i && home > j);
+			if (movable) {
+				keys[i] = keys[j];
+				values[i] = values[j];
+				values[j] = null;
+				i = j;
+			}
+		}
+		return old;
+	}
+
+	public int size() {
+		return size;
+	}
+	public boolean isEmpty() {
+		return size == 0;
+	}
+	public void clear() {
+		for (int i = 0; i < values.length; ++i) {
+			values[i] = null;
+		}
+		size = 0;
+		++modCount;
+	}
+
+	/**
+	 * @return a live, read-only view keyed by boxed ids
+	 */
+	public Map<Integer, V> asMap() {
+		return view;
+	}
+
+	private class MapView extends AbstractMap<Integer, V> {
+		private final Set<Map.Entry<Integer, V>> entries = new AbstractSet<Map.Entry<Integer, V>>() {
+			@Override
+			public Iterator<Map.Entry<Integer, V>> iterator() {
+				return new EntryIterator();
+			}
+			@Override
+			public int size() {
+				return size;
+			}
+		};
+
+		@Override
+		public V get(Object key) {
+			return key instanceof Integer ? IntObjectMap.this.get(((Integer) key).intValue()) : null;
+		}
+		@Override
+		public boolean containsKey(Object key) {
+			return get(key) != null;
+		}
+		@Override
+		public int size() {
+			return size;
+		}
+		@Override
+		public Set<Map.Entry<Integer, V>> entrySet() {
+			return entries;
+		}
+	}
+
+	private class EntryIterator implements Iterator<Map.Entry<Integer, V>> {
+		private final int expectedModCount = modCount;
+		private int next = advance(0);
+		private int last = -1;
+
+		private int advance(int from) {
+			while (from < values.length && values[from] == null) {
+				++from;
+			}
+			return from;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return next < values.length;
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public Map.Entry<Integer, V> next() {
+			if (modCount != expectedModCount) {
+				throw new ConcurrentModificationException();
+			}
+			if (next >= values.length) {
+				throw new NoSuchElementException();
+			}
+			last = next;
+			next = advance(next + 1);
+			return new AbstractMap.SimpleImmutableEntry<Integer, V>(keys[last], (V) values[last]);
+		}
+
+		@Override
+		public void remove() {
+			throw new UnsupportedOperationException();
+		}
+	}
+
+	private void allocate(int capacity) {
+		keys = new int[capacity];
+		values = new Object[capacity];
+	}
+
+	private void rehash(int capacity) {
+		final int[] oldKeys = keys;
+		final Object[] oldValues = values;
+		allocate(capacity);
+		final int mask = capacity - 1;
+		for (int k = 0; k < oldValues.length; ++k) {
+			if (oldValues[k] != null) {
+				int i = hash(oldKeys[k]) & mask;
+				while (values[i] != null) {
+					i = (i + 1) & mask;
+				}
+				keys[i] = oldKeys[k];
+				values[i] = oldValues[k];
+			}
+		}
+	}
+
+	private static int hash(int key) {
+		// native ids are mostly small and sequential, spread them over the table
+		int h = key * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+}
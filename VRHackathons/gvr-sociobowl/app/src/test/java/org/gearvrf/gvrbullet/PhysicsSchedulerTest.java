@@ -0,0 +1,148 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf.gvrbullet;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class PhysicsSchedulerTest {
+
+    // 1/64 s is exact in both float and nanoseconds
+    private static final float STEP = 1.0f / 64.0f;
+    private static final long STEP_NANOS = 15625000L;
+    private static final long MILLIS = 1000000L;
+
+    private FakeClock clock;
+    private CountingStepper stepper;
+    private PhysicsScheduler scheduler;
+
+    @Before
+    public void setUp() {
+        clock = new FakeClock();
+        stepper = new CountingStepper();
+        scheduler = new PhysicsScheduler(STEP, 4, clock);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void stepMustBePositive() {
+        new PhysicsScheduler(0, 4, clock);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void subStepsMustBePositive() {
+        new PhysicsScheduler(STEP, 0, clock);
+    }
+
+    @Test
+    public void firstFrameOnlyStartsTheClock() {
+        clock.now = 5000 * MILLIS;
+        assertEquals(0, scheduler.advance(stepper));
+        assertEquals(0, stepper.steps);
+        assertEquals(0, scheduler.getWallSeconds(), 0);
+    }
+
+    @Test
+    public void fixedStepsIndependentOfFrameRate() {
+        scheduler.advance(stepper);
+        // 90 Hz frames for one second
+        for (int frame = 0; frame < 90; ++frame) {
+            clock.now += 1000000000L / 90;
+            scheduler.advance(stepper);
+        }
+        assertEquals(63, stepper.steps);
+        assertEquals(STEP, stepper.lastSeconds, 0);
+        assertEquals(stepper.steps * STEP_NANOS / 1e9, scheduler.getSimulatedSeconds(), 1e-9);
+        assertEquals(scheduler.getWallSeconds() - scheduler.getSimulatedSeconds(),
+                scheduler.getDriftSeconds(), 1e-9);
+        assertEquals(0, scheduler.getDroppedSeconds(), 0);
+    }
+
+    @Test
+    public void alphaIsTheLeftoverFraction() {
+        scheduler.advance(stepper);
+        clock.now += STEP_NANOS + STEP_NANOS / 4;
+        assertEquals(1, scheduler.advance(stepper));
+        assertEquals(0.25f, scheduler.getAlpha(), 1e-6f);
+
+        clock.now += STEP_NANOS / 2;
+        assertEquals(0, scheduler.advance(stepper));
+        assertEquals(0.75f, scheduler.getAlpha(), 1e-6f);
+
+        clock.now += STEP_NANOS / 4;
+        assertEquals(1, scheduler.advance(stepper));
+        assertEquals(0, scheduler.getAlpha(), 1e-6f);
+    }
+
+    @Test
+    public void slowFrameIsCappedAndTheBacklogDropped() {
+        scheduler.advance(stepper);
+        clock.now += 10 * STEP_NANOS + STEP_NANOS / 2;
+        assertEquals(4, scheduler.advance(stepper));
+        assertEquals(6 * STEP_NANOS / 1e9, scheduler.getDroppedSeconds(), 1e-9);
+        assertEquals(0.5f, scheduler.getAlpha(), 1e-6f);
+
+        // the next normal frame does not try to catch up
+        clock.now += STEP_NANOS;
+        assertEquals(1, scheduler.advance(stepper));
+        assertEquals(scheduler.getDroppedSeconds() + scheduler.getAlpha() * STEP_NANOS / 1e9,
+                scheduler.getDriftSeconds(), 1e-6);
+    }
+
+    @Test
+    public void clockGoingBackDoesNotStep() {
+        clock.now = 100 * MILLIS;
+        scheduler.advance(stepper);
+        clock.now = 50 * MILLIS;
+        assertEquals(0, scheduler.advance(stepper));
+        assertEquals(0, scheduler.getWallSeconds(), 0);
+    }
+
+    @Test
+    public void resetForgetsTheLastFrame() {
+        scheduler.advance(stepper);
+        clock.now += 3 * STEP_NANOS;
+        scheduler.advance(stepper);
+
+        scheduler.reset();
+        clock.now += 1000 * MILLIS;
+        assertEquals(0, scheduler.advance(stepper));
+        assertEquals(0, scheduler.getSimulatedSeconds(), 0);
+        assertEquals(0, scheduler.getDriftSeconds(), 0);
+        assertEquals(0, scheduler.getAlpha(), 0);
+    }
+
+    private static final class FakeClock implements PhysicsScheduler.Clock {
+        long now;
+
+        @Override
+        public long nanoTime() {
+            return now;
+        }
+    }
+
+    private static final class CountingStepper implements PhysicsScheduler.Stepper {
+        int steps;
+        float lastSeconds;
+
+        @Override
+        public void step(float seconds) {
+            ++steps;
+            lastSeconds = seconds;
+        }
+    }
+}
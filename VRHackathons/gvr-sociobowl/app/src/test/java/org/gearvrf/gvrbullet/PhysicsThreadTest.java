@@ -0,0 +1,259 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf.gvrbullet;
+
+import org.junit.Test;
+import org.siprop.bullet.TransformBuffer;
+import org.siprop.bullet.TransformBuffers;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Runs the physics thread's hand-off structures with real producers and
+ * consumers on separate threads. Every value written carries its generation
+ * in each field, so a slot read while it is being rewritten shows up as a
+ * mix of generations.
+ */
+public class PhysicsThreadTest {
+
+    private static final int GENERATIONS = 2000000;
+    private static final int SLOT_SIZE = 64;
+    private static final long TIMEOUT_MILLIS = 30000;
+
+    @Test
+    public void tripleBufferStartsEmpty() {
+        TripleBuffer<long[]> buffer = new TripleBuffer<long[]>(new long[1], new long[1], new long[1]);
+        assertNull(buffer.latest());
+
+        buffer.writeSlot()[0] = 7;
+        buffer.publish();
+        assertEquals(7, buffer.latest()[0]);
+        // nothing newer: the same slot again
+        assertEquals(7, buffer.latest()[0]);
+    }
+
+    @Test
+    public void tripleBufferNeverHandsOutAPartialWrite() throws InterruptedException {
+        final TripleBuffer<long[]> buffer = new TripleBuffer<long[]>(
+                new long[SLOT_SIZE], new long[SLOT_SIZE], new long[SLOT_SIZE]);
+        final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+        Thread producer = new Thread("producer") {
+            @Override
+            public void run() {
+                for (long generation = 1; generation <= GENERATIONS; ++generation) {
+                    Arrays.fill(buffer.writeSlot(), generation);
+                    buffer.publish();
+                }
+            }
+        };
+        producer.setUncaughtExceptionHandler(recorder(failure));
+        producer.start();
+
+        long last = 0;
+        long reads = 0;
+        while (last < GENERATIONS) {
+            long[] slot = buffer.latest();
+            if (slot == null) {
+                continue;
+            }
+            long generation = slot[0];
+            for (int i = 1; i < SLOT_SIZE; ++i) {
+                if (slot[i] != generation) {
+                    fail("torn read: generation " + generation + " and " + slot[i] + " in one slot");
+                }
+            }
+            assertTrue("went back from " + last + " to " + generation, generation >= last);
+            last = generation;
+            ++reads;
+        }
+        producer.join(TIMEOUT_MILLIS);
+        assertNull(failure.get());
+        assertTrue(reads > 0);
+    }
+
+    @Test
+    public void commandQueueKeepsEachProducersOrder() throws InterruptedException {
+        final int producers = 4;
+        final int perProducer = 250000;
+        final CommandQueue<long[]> queue = new CommandQueue<long[]>();
+        final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+        Thread[] threads = new Thread[producers];
+        for (int p = 0; p < producers; ++p) {
+            final int producer = p;
+            threads[p] = new Thread("producer " + p) {
+                @Override
+                public void run() {
+                    for (int i = 0; i < perProducer; ++i) {
+                        queue.offer(new long[] { producer, i });
+                    }
+                }
+            };
+            threads[p].setUncaughtExceptionHandler(recorder(failure));
+            threads[p].start();
+        }
+
+        int[] next = new int[producers];
+        int received = 0;
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (received < producers * perProducer) {
+            long[] command = queue.poll();
+            if (command == null) {
+                assertTrue("queue stalled at " + received, System.currentTimeMillis() < deadline);
+                continue;
+            }
+            int producer = (int) command[0];
+            assertEquals("producer " + producer + " out of order", next[producer], command[1]);
+            ++next[producer];
+            ++received;
+        }
+        for (Thread thread : threads) {
+            thread.join(TIMEOUT_MILLIS);
+        }
+        assertNull(queue.poll());
+        assertNull(failure.get());
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void commandQueueRejectsNull() {
+        new CommandQueue<Object>().offer(null);
+    }
+
+    @Test
+    public void physicsThreadPublishesWholeSteps() throws InterruptedException {
+        final int bodies = 16;
+        final StandInSimulation simulation = new StandInSimulation(bodies);
+        // a short step so the run covers thousands of them
+        final PhysicsThread physics = new PhysicsThread(simulation, 0.0005f, bodies);
+        final int posters = 2;
+        final int perPoster = 20000;
+        final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+        physics.setUncaughtExceptionHandler(recorder(failure));
+        physics.start();
+
+        Thread[] threads = new Thread[posters];
+        for (int p = 0; p < posters; ++p) {
+            threads[p] = new Thread("poster " + p) {
+                @Override
+                public void run() {
+                    for (int i = 0; i < perPoster; ++i) {
+                        physics.post(simulation.command);
+                    }
+                }
+            };
+            threads[p].setUncaughtExceptionHandler(recorder(failure));
+            threads[p].start();
+        }
+
+        // the test thread plays the GL thread
+        float last = 0;
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (simulation.executed.get() < posters * perPoster || last < 1000) {
+            assertTrue("physics thread stalled", System.currentTimeMillis() < deadline);
+            TransformBuffer latest = physics.latest();
+            if (latest == null) {
+                continue;
+            }
+            assertEquals(bodies, latest.getCount());
+            float generation = latest.getX(0);
+            for (int i = 0; i < bodies; ++i) {
+                assertEquals(i, latest.getId(i));
+                assertStep(generation, latest, i);
+            }
+            assertTrue("went back from " + last + " to " + generation, generation >= last);
+            last = generation;
+        }
+        physics.shutdown();
+        assertTrue(!physics.isAlive());
+        for (Thread thread : threads) {
+            thread.join(TIMEOUT_MILLIS);
+        }
+
+        assertNull(failure.get());
+        assertSame(physics, simulation.commandThread);
+        assertSame(physics, simulation.stepThread);
+        assertTrue(physics.getScheduler().getSimulatedSeconds() > 0);
+    }
+
+    private static void assertStep(float generation, TransformBuffer buffer, int index) {
+        if (buffer.getX(index) != generation || buffer.getY(index) != generation
+                || buffer.getZ(index) != generation) {
+            fail("torn read: body " + index + " not from step " + generation);
+        }
+        for (int element = 0; element < 9; ++element) {
+            if (buffer.getBasis(index, element) != generation) {
+                fail("torn read: basis of body " + index + " not from step " + generation);
+            }
+        }
+    }
+
+    private static Thread.UncaughtExceptionHandler recorder(final AtomicReference<Throwable> failure) {
+        return new Thread.UncaughtExceptionHandler() {
+            @Override
+            public void uncaughtException(Thread thread, Throwable e) {
+                failure.compareAndSet(null, e);
+            }
+        };
+    }
+
+    /*
+     * Stands in for the native world: every step writes its generation into
+     * every field of every body. Records which threads ran commands and steps.
+     */
+    private static final class StandInSimulation implements PhysicsThread.Simulation {
+        final AtomicInteger executed = new AtomicInteger();
+        volatile Thread commandThread;
+        volatile Thread stepThread;
+
+        private final int mBodies;
+        private final float[] mRot = new float[9];
+        private final float[] mPos = new float[3];
+        // only touched on the physics thread, like the real world
+        private float mGeneration;
+
+        final PhysicsThread.Command command = new PhysicsThread.Command() {
+            @Override
+            public void execute() {
+                commandThread = Thread.currentThread();
+                executed.incrementAndGet();
+            }
+        };
+
+        StandInSimulation(int bodies) {
+            mBodies = bodies;
+        }
+
+        @Override
+        public void step(float seconds, TransformBuffer out) {
+            stepThread = Thread.currentThread();
+            ++mGeneration;
+            Arrays.fill(mRot, mGeneration);
+            Arrays.fill(mPos, mGeneration);
+            out.clear();
+            for (int i = 0; i < mBodies; ++i) {
+                TransformBuffers.put(out, i, mRot, mPos);
+            }
+        }
+    }
+}
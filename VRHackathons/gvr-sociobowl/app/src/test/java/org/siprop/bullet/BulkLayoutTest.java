@@ -0,0 +1,154 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.siprop.bullet;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks the records that a {@link BulkSimulation} reads and writes, at the
+ * offsets the class docs give, the way native code would address them.
+ */
+public class BulkLayoutTest {
+
+	private static final float[] ROT = {1, 2, 3, 4, 5, 6, 7, 8, 9};
+
+	@Test
+	public void transformRecordsAreNativeAndFlat() {
+		TransformBuffer buffer = new TransformBuffer(4);
+		FloatBuffer transforms = buffer.getTransforms();
+		IntBuffer ids = buffer.getIds();
+		assertTrue(transforms.isDirect());
+		assertTrue(ids.isDirect());
+		assertEquals(ByteOrder.nativeOrder(), transforms.order());
+		assertEquals(ByteOrder.nativeOrder(), ids.order());
+		assertEquals(4 * 12, transforms.capacity());
+		assertEquals(4, ids.capacity());
+
+		buffer.put(7, ROT, new float[] {10, 11, 12});
+		buffer.put(9, ROT, new float[] {20, 21, 22});
+		assertEquals(2, buffer.getCount());
+		assertEquals(9, ids.get(1));
+		assertEquals(20, transforms.get(12), 0);
+		assertEquals(22, transforms.get(14), 0);
+		for (int i = 0; i < 9; ++i) {
+			assertEquals(ROT[i], transforms.get(12 + 3 + i), 0);
+		}
+	}
+
+	@Test
+	public void recordsWrittenByABulkStepReadBack() {
+		TransformBuffer buffer = new TransformBuffer(3);
+		// what doSimulationBulk does: record i at float 12 * i
+		FloatBuffer transforms = buffer.getTransforms();
+		IntBuffer ids = buffer.getIds();
+		for (int i = 0; i < 3; ++i) {
+			ids.put(i, 100 + i);
+			for (int f = 0; f < TransformBuffer.STRIDE; ++f) {
+				transforms.put(i * 12 + f, 1000 * i + f);
+			}
+		}
+		buffer.setWritten(3);
+
+		assertEquals(3, buffer.getCount());
+		assertEquals(0, buffer.getDropped());
+		assertEquals(102, buffer.getId(2));
+		assertEquals(2000, buffer.getX(2), 0);
+		assertEquals(2001, buffer.getY(2), 0);
+		assertEquals(2002, buffer.getZ(2), 0);
+		assertEquals(2003, buffer.getBasis(2, 0), 0);
+		assertEquals(2011, buffer.getBasis(2, 8), 0);
+	}
+
+	@Test
+	public void bodiesBeyondTheCapacityAreDropped() {
+		TransformBuffer buffer = new TransformBuffer(2);
+		buffer.setWritten(5);
+		assertEquals(2, buffer.getCount());
+		assertEquals(3, buffer.getDropped());
+
+		buffer.clear();
+		for (int i = 0; i < 3; ++i) {
+			buffer.put(i, ROT, new float[] {0, 0, 0});
+		}
+		assertEquals(2, buffer.getCount());
+		assertEquals(1, buffer.getDropped());
+	}
+
+	@Test
+	public void commandRecordsAreNativeAndFlat() {
+		assertEquals(36, CommandBuffer.RECORD_BYTES);
+		CommandBuffer commands = new CommandBuffer(4);
+		commands.applyImpulse(body(3, 41), 1, 2, 3, 4, 5, 6);
+		commands.setActive(body(3, 42), true);
+
+		ByteBuffer records = commands.getRecords();
+		assertTrue(records.isDirect());
+		assertEquals(ByteOrder.nativeOrder(), records.order());
+		assertEquals(0, records.position());
+		assertEquals(2, commands.size());
+
+		assertEquals(CommandBuffer.APPLY_IMPULSE, records.getInt(0));
+		assertEquals(3, records.getInt(4));
+		assertEquals(41, records.getInt(8));
+		for (int arg = 0; arg < 6; ++arg) {
+			assertEquals(arg + 1, records.getFloat(12 + 4 * arg), 0);
+		}
+		assertEquals(CommandBuffer.SET_ACTIVE, records.getInt(36));
+		assertEquals(42, records.getInt(36 + 8));
+		assertEquals(1, records.getFloat(36 + 12), 0);
+		assertEquals(0, records.getFloat(36 + 16), 0);
+	}
+
+	@Test
+	public void growingKeepsTheQueuedRecords() {
+		CommandBuffer commands = new CommandBuffer(1);
+		ByteBuffer first = commands.getRecords();
+		for (int i = 0; i < 5; ++i) {
+			commands.applyCentralImpulse(body(1, i), i, -i, 0.5f);
+		}
+		ByteBuffer records = commands.getRecords();
+		assertTrue(records.capacity() >= 5 * CommandBuffer.RECORD_BYTES);
+		assertEquals(ByteOrder.nativeOrder(), records.order());
+		assertEquals(0, records.position());
+		for (int i = 0; i < 5; ++i) {
+			assertEquals(CommandBuffer.APPLY_CENTRAL_IMPULSE, commands.getOp(i));
+			assertEquals(i, commands.getRigidBodyId(i));
+			assertEquals(-i, records.getFloat(i * 36 + 16), 0);
+		}
+
+		commands.clear();
+		assertTrue(commands.isEmpty());
+		commands.clearForces(body(1, 9));
+		assertSame(records, commands.getRecords());
+		assertTrue(first != records);
+		assertEquals(CommandBuffer.CLEAR_FORCES, records.getInt(0));
+	}
+
+	private static RigidBody body(int world, int id) {
+		RigidBody body = new RigidBody();
+		body.physicsWorldId = world;
+		body.id = id;
+		return body;
+	}
+}
@@ -0,0 +1,156 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.siprop.bullet;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+import java.util.Locale;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Java-to-native transitions per step of the two ways a step reaches the
+ * game: libbullet.so's, one call to step plus one callback per body with
+ * three new float arrays and one call per command, against a
+ * {@link BulkSimulation}, one call each way. The native side is played by
+ * Java here, so the transitions are counted, not timed; the times printed
+ * are the Java side of each path.
+ */
+public class JniCrossingBenchmark {
+
+	private static final int RUNS = 2000;
+	private static final int COMMANDS = 3;
+	private static final int[] BODIES = {16, 256, 4096};
+
+	// keeps the timed work from being optimised away
+	private static volatile float blackhole;
+
+	@Test
+	public void crossingsPerStep() {
+		// warm up both paths before timing
+		measure(256, false);
+		for (int bodies : BODIES) {
+			measure(bodies, true);
+		}
+	}
+
+	private static void measure(int bodies, boolean print) {
+		World world = new World(bodies);
+		TransformBuffer out = new TransformBuffer(bodies);
+		CommandBuffer commands = new CommandBuffer(COMMANDS);
+		RigidBody ball = new RigidBody();
+
+		long[] perBody = new long[RUNS];
+		long[] bulk = new long[RUNS];
+		float sink = 0;
+		for (int run = 0; run < RUNS; ++run) {
+			world.crossings = 0;
+			long start = System.nanoTime();
+			for (int i = 0; i < COMMANDS; ++i) {
+				world.applyCentralImpulse(0, ball.id, new float[] {0, 0, -run});
+			}
+			world.stepPerBody(out);
+			perBody[run] = System.nanoTime() - start;
+			assertEquals(1 + bodies + COMMANDS, world.crossings);
+			sink += out.getX(run % bodies);
+
+			world.crossings = 0;
+			start = System.nanoTime();
+			for (int i = 0; i < COMMANDS; ++i) {
+				commands.applyCentralImpulse(ball, 0, 0, -run);
+			}
+			world.flushCommands(commands.getRecords(), commands.size());
+			commands.clear();
+			out.clear();
+			out.setWritten(world.doSimulationBulk(0, 1 / 60.0f, 1,
+					out.getTransforms(), out.getIds(), out.getCapacity()));
+			bulk[run] = System.nanoTime() - start;
+			assertEquals(2, world.crossings);
+			sink += out.getX(run % bodies);
+		}
+
+		blackhole = sink;
+		Arrays.sort(perBody);
+		Arrays.sort(bulk);
+		if (print) {
+			System.out.println(String.format(Locale.US,
+					"%d bodies, %d commands: per-body %d crossings %.1f us, bulk 2 crossings %.1f us, median of %d",
+					bodies, COMMANDS, 1 + bodies + COMMANDS, perBody[RUNS / 2] / 1e3,
+					bulk[RUNS / 2] / 1e3, RUNS));
+		}
+	}
+
+	/** Plays the native side of both paths and counts the transitions. */
+	private static final class World implements BulkSimulation {
+		final float[] state;
+		final int bodies;
+		int crossings;
+
+		World(int bodies) {
+			this.bodies = bodies;
+			state = new float[bodies * TransformBuffer.STRIDE];
+			for (int i = 0; i < state.length; ++i) {
+				state[i] = i;
+			}
+		}
+
+		/** doSimulationNative, then resultSimulation for every body. */
+		void stepPerBody(TransformBuffer out) {
+			++crossings;
+			out.clear();
+			for (int body = 0; body < bodies; ++body) {
+				int base = body * TransformBuffer.STRIDE;
+				float[] rot = Arrays.copyOfRange(state, base + TransformBuffer.BASIS, base + TransformBuffer.STRIDE);
+				float[] pos = Arrays.copyOfRange(state, base, base + 3);
+				float[] shapeOption = new float[9];
+				++crossings;
+				out.put(body, rot, pos);
+				blackhole = shapeOption[0];
+			}
+		}
+
+		void applyCentralImpulse(int worldId, int bodyId, float[] impulse) {
+			++crossings;
+			state[bodyId * TransformBuffer.STRIDE + 2] += impulse[2];
+		}
+
+		@Override
+		public int doSimulationBulk(int worldId, float execTime, int count,
+				FloatBuffer transforms, IntBuffer ids, int capacity) {
+			++crossings;
+			int written = Math.min(bodies, capacity);
+			transforms.clear();
+			transforms.put(state, 0, written * TransformBuffer.STRIDE);
+			for (int body = 0; body < written; ++body) {
+				ids.put(body, body);
+			}
+			return bodies;
+		}
+
+		@Override
+		public void flushCommands(ByteBuffer commands, int count) {
+			++crossings;
+			for (int i = 0; i < count; ++i) {
+				int base = i * CommandBuffer.RECORD_BYTES;
+				int body = commands.getInt(base + CommandBuffer.BODY_ID);
+				state[body * TransformBuffer.STRIDE + 2] += commands.getFloat(base + CommandBuffer.ARGS_OFFSET + 8);
+			}
+		}
+	}
+}
@@ -12,23 +12,23 @@
  * See the License for the specific language governing permissions and
  * limitations under the License.
  */
+package org.siprop.bullet;
 
+/**
+ * Lets tests outside this package fill a {@link TransformBuffer} the way the
+ * simulation callback or a bulk step does, without a native world.
+ */
+public final class TransformBuffers {
 
-package org.gearvrf.multilight;
-
-import android.util.Log;
+	private TransformBuffers() {
+	}
 
-public class FPSCounter {
-    private static int frames = 0;
-    private static long startTimeMillis = 0;
-    private static final long interval = 10000;
+	public static void put(TransformBuffer buffer, int id, float[] rot, float[] pos) {
+		buffer.put(id, rot, pos);
+	}
 
-    public static void tick() {
-        ++frames;
-        if (System.currentTimeMillis() - startTimeMillis >= interval) {
-            Log.v("", "FPS : " + frames / (interval / 1000.0f));
-            frames = 0;
-            startTimeMillis = System.currentTimeMillis();
-        }
-    }
+	/** What {@link Bullet} does after a bulk step reported {@code total} bodies. */
+	public static void setWritten(TransformBuffer buffer, int total) {
+		buffer.setWritten(total);
+	}
 }
@@ -0,0 +1,131 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.siprop.bullet.util;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Looking up 10,000 bodies by native id once per step, the way the result
+ * callback finds each body's peer, in an {@link IntObjectMap} against the
+ * {@code HashMap<Integer, ...>} the registries used before. Prints the median
+ * time and heap allocation per lookup, and the bytes each registry allocates
+ * while it is filled.
+ */
+public class IntObjectMapBenchmark {
+
+	private static final int BODIES = 10000;
+	private static final int STEPS = 50;
+	private static final int RUNS = 21;
+
+	// keeps the timed work from being optimised away
+	private static volatile int blackhole;
+
+	@Test
+	public void lookupOfTenThousandBodies() {
+		Object[] bodies = new Object[BODIES];
+		int[] ids = new int[BODIES];
+		for (int i = 0; i < BODIES; ++i) {
+			bodies[i] = new Object();
+			// native ids count up from 1, most of them past the boxing cache
+			ids[i] = i + 1;
+		}
+
+		long allocated = allocatedBytes();
+		IntObjectMap<Object> primitive = new IntObjectMap<Object>();
+		for (int i = 0; i < BODIES; ++i) {
+			primitive.put(ids[i], bodies[i]);
+		}
+		long primitiveFill = allocatedBytes() - allocated;
+
+		allocated = allocatedBytes();
+		Map<Integer, Object> boxed = new HashMap<Integer, Object>();
+		for (int i = 0; i < BODIES; ++i) {
+			boxed.put(ids[i], bodies[i]);
+		}
+		long boxedFill = allocatedBytes() - allocated;
+
+		for (int i = 0; i < BODIES; ++i) {
+			assertSame(bodies[i], primitive.get(ids[i]));
+			assertSame(bodies[i], boxed.get(ids[i]));
+		}
+
+		// warm up both paths before measuring
+		measure(primitive, null, ids);
+		measure(null, boxed, ids);
+		double[] primitiveLookup = measure(primitive, null, ids);
+		double[] boxedLookup = measure(null, boxed, ids);
+
+		System.out.println(String.format(Locale.US,
+				"%d bodies: IntObjectMap %.1f ns %.2f bytes per lookup, %d bytes to fill;"
+						+ " HashMap<Integer> %.1f ns %.2f bytes per lookup, %d bytes to fill; median of %d x %d steps",
+				BODIES, primitiveLookup[0], primitiveLookup[1], primitiveFill,
+				boxedLookup[0], boxedLookup[1], boxedFill, RUNS, STEPS));
+
+		if (allocatedBytes() >= 0) {
+			assertTrue("IntObjectMap lookups allocate", primitiveLookup[1] < 0.01);
+		}
+	}
+
+	/** Median ns and bytes per lookup, over {@link #RUNS} runs of {@link #STEPS} steps. */
+	private static double[] measure(IntObjectMap<Object> primitive, Map<Integer, Object> boxed, int[] ids) {
+		long[] nanos = new long[RUNS];
+		long[] bytes = new long[RUNS];
+		int sink = 0;
+		for (int run = 0; run < RUNS; ++run) {
+			long allocated = allocatedBytes();
+			long start = System.nanoTime();
+			for (int step = 0; step < STEPS; ++step) {
+				if (primitive != null) {
+					for (int id : ids) {
+						sink += primitive.get(id).hashCode();
+					}
+				} else {
+					for (int id : ids) {
+						sink += boxed.get(id).hashCode();
+					}
+				}
+			}
+			nanos[run] = System.nanoTime() - start;
+			bytes[run] = allocatedBytes() - allocated;
+		}
+		blackhole = sink;
+		Arrays.sort(nanos);
+		Arrays.sort(bytes);
+		double lookups = (double) STEPS * ids.length;
+		return new double[] {nanos[RUNS / 2] / lookups, bytes[RUNS / 2] / lookups};
+	}
+
+	/** Bytes this thread has allocated so far, or -1 if the JVM cannot tell. */
+	private static long allocatedBytes() {
+		java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+		if (!(threads instanceof com.sun.management.ThreadMXBean)) {
+			return -1;
+		}
+		com.sun.management.ThreadMXBean sunThreads = (com.sun.management.ThreadMXBean) threads;
+		if (!sunThreads.isThreadAllocatedMemorySupported() || !sunThreads.isThreadAllocatedMemoryEnabled()) {
+			return -1;
+		}
+		return sunThreads.getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+}
@@ -0,0 +1,179 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.siprop.bullet.util;
+
+import org.junit.Test;
+
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class IntObjectMapTest {
+
+	@Test
+	public void putGetAndReplace() {
+		IntObjectMap<String> map = new IntObjectMap<String>();
+		assertNull(map.put(1, "a"));
+		assertNull(map.put(-7, "b"));
+		assertEquals("a", map.put(1, "c"));
+
+		assertEquals(2, map.size());
+		assertEquals("c", map.get(1));
+		assertEquals("b", map.get(-7));
+		assertNull(map.get(2));
+		assertTrue(map.containsKey(-7));
+		assertFalse(map.containsKey(2));
+	}
+
+	@Test
+	public void boxedReadsMatchIntReads() {
+		IntObjectMap<String> map = new IntObjectMap<String>();
+		Map<Integer, String> view = map.asMap();
+		map.put(42, "x");
+
+		assertEquals("x", view.get(Integer.valueOf(42)));
+		assertTrue(view.containsKey(Integer.valueOf(42)));
+		assertNull(view.get("42"));
+		assertEquals(1, view.size());
+		assertSame(view, map.asMap());
+
+		map.remove(42);
+		assertTrue(view.isEmpty());
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void mapViewIsNotWritable() {
+		new IntObjectMap<String>().asMap().put(Integer.valueOf(1), "a");
+	}
+
+	@Test
+	public void intKeysAndIntegerValuesAreNotAmbiguous() {
+		// put(int, V) used to compete with the boxed Map.put here
+		IntObjectMap<Integer> map = new IntObjectMap<Integer>();
+		int key = 7;
+		int value = 8;
+		map.put(key, value);
+		assertEquals(Integer.valueOf(8), map.get(key));
+	}
+
+	@Test
+	public void puttingNullRemoves() {
+		IntObjectMap<String> map = new IntObjectMap<String>();
+		map.put(3, "a");
+		assertEquals("a", map.put(3, null));
+		assertEquals(0, map.size());
+		assertNull(map.get(3));
+	}
+
+	@Test
+	public void removalKeepsCollidingKeysReachable() {
+		// a small table and many keys force long probe runs that wrap around
+		IntObjectMap<Integer> map = new IntObjectMap<Integer>(2);
+		for (int key = 0; key < 64; ++key) {
+			map.put(key * 1024, key);
+		}
+		for (int key = 0; key < 64; key += 2) {
+			assertEquals(Integer.valueOf(key), map.remove(key * 1024));
+		}
+		assertEquals(32, map.size());
+		for (int key = 0; key < 64; ++key) {
+			if (key % 2 == 0) {
+				assertNull(map.get(key * 1024));
+			} else {
+				assertEquals(Integer.valueOf(key), map.get(key * 1024));
+			}
+		}
+	}
+
+	@Test
+	public void matchesHashMapUnderRandomOperations() {
+		Random random = new Random(34);
+		IntObjectMap<Integer> map = new IntObjectMap<Integer>();
+		HashMap<Integer, Integer> expected = new HashMap<Integer, Integer>();
+
+		for (int step = 0; step < 200000; ++step) {
+			int key = random.nextInt(2000) - 1000;
+			switch (random.nextInt(3)) {
+			case 0:
+				assertEquals(expected.put(key, step), map.put(key, step));
+				break;
+			case 1:
+				assertEquals(expected.remove(key), map.remove(key));
+				break;
+			default:
+				assertEquals(expected.get(key), map.get(key));
+				break;
+			}
+			assertEquals(expected.size(), map.size());
+		}
+		assertEquals(expected, new HashMap<Integer, Integer>(map.asMap()));
+		assertEquals(expected.entrySet(), map.asMap().entrySet());
+	}
+
+	@Test
+	public void iterationSeesEveryEntryOnce() {
+		IntObjectMap<String> map = new IntObjectMap<String>();
+		for (int key = 0; key < 100; ++key) {
+			map.put(key, "v" + key);
+		}
+		int seen = 0;
+		long keySum = 0;
+		for (Map.Entry<Integer, String> entry : map.asMap().entrySet()) {
+			assertEquals("v" + entry.getKey(), entry.getValue());
+			keySum += entry.getKey();
+			++seen;
+		}
+		assertEquals(100, seen);
+		assertEquals(99 * 100 / 2, keySum);
+	}
+
+	@Test
+	public void modificationDuringIterationIsDetected() {
+		IntObjectMap<String> map = new IntObjectMap<String>();
+		map.put(1, "a");
+		map.put(2, "b");
+		Iterator<Map.Entry<Integer, String>> it = map.asMap().entrySet().iterator();
+		it.next();
+		map.put(3, "c");
+		try {
+			it.next();
+			fail("no ConcurrentModificationException");
+		} catch (ConcurrentModificationException expected) {
+		}
+	}
+
+	@Test
+	public void clearEmptiesTheMap() {
+		IntObjectMap<Object> map = new IntObjectMap<Object>();
+		Object value = new Object();
+		map.put(5, value);
+		map.clear();
+		assertEquals(0, map.size());
+		assertNull(map.get(5));
+		assertTrue(map.isEmpty());
+		assertFalse(map.asMap().entrySet().iterator().hasNext());
+		map.put(5, value);
+		assertSame(value, map.get(5));
+	}
+}
@@ -17,79 +17,59 @@ package com.gearvrf.fasteater;
 
 import android.content.Context;
 import android.media.AudioManager;
-import android.media.SoundPool;
-import android.media.SoundPool.OnLoadCompleteListener;
+
+import org.gearvrf.demos.android.SoundPoolVoices;
+import org.gearvrf.demos.util.VoiceManager;
 
 public class AudioClip {
 
+    private static final int MAX_VOICES = 10;
+    // ignore identical one-shots fired again within this window
+    private static final long MIN_REPEAT_MILLIS = 80;
+
     private static AudioClip instance = null;
-    private boolean plays = false;
-    private boolean loaded = false;
-    private int priority;
+    private final SoundPoolVoices voices;
 
-    private Context context;
-    private SoundPool soundPool;
     private static int uiSoundDrinkID, uiSoundBGID, uiSoundEatID, uiSoundGrenadeID;
 
     public static synchronized AudioClip getInstance(Context androidContext) {
         if (instance == null) {
-            instance = new AudioClip(10, AudioManager.STREAM_MUSIC, 0, androidContext);
+            instance = new AudioClip(MAX_VOICES, AudioManager.STREAM_MUSIC, androidContext);
         }
         return instance;
     }
 
-    private AudioClip(int maxStreams, int streamType, int srcQuality, Context context) {
-        this.context = context;
-        soundPool = new SoundPool(maxStreams, streamType, srcQuality);
-        soundPool.setOnLoadCompleteListener(new OnLoadCompleteListener() {
-            @Override
-            public void onLoadComplete(SoundPool soundPool, int sampleId, int status) {
-                loaded = true;
-            }
-        });
+    private AudioClip(int maxStreams, int streamType, Context context) {
+        voices = new SoundPoolVoices(context, maxStreams, streamType, MIN_REPEAT_MILLIS);
         loadinSounds();
     }
 
     public int playSound(int soundID, float leftVolume, float rightVolume) {
-        int streamID = 0;
-        if (loaded) {
-            streamID = soundPool.play(soundID, leftVolume, rightVolume, 1, 0, 1f);
-            priority = priority++;
-            plays = true;
-        }
+        return playSound(soundID, leftVolume, rightVolume, VoiceManager.DEFAULT_PRIORITY);
+    }
 
-        return streamID;
+    public int playSound(int soundID, float leftVolume, float rightVolume, int priority) {
+        return voices.play(soundID, leftVolume, rightVolume, priority, false);
     }
 
     public int playLoop(int soundID, float leftVolume, float rightVolume) {
-        int streamID = 0;
-        if (loaded) {
-            streamID = soundPool.play(soundID, leftVolume, rightVolume, 1, -1, 1f);
-            priority = priority++;
-            plays = true;
-        }
-        return streamID;
+        return playLoop(soundID, leftVolume, rightVolume, VoiceManager.DEFAULT_PRIORITY);
     }
 
-    public void pauseSound(int streamID) {
-        if (plays) {
-            soundPool.pause(streamID);
-            plays = false;
-        }
+    public int playLoop(int soundID, float leftVolume, float rightVolume, int priority) {
+        return voices.play(soundID, leftVolume, rightVolume, priority, true);
     }
 
     public void stopSound(int streamID) {
-        if (plays) {
-            soundPool.stop(streamID);
-            plays = false;
-        }
+        // If the stream is not playing, it will have no effect.
+        voices.stop(streamID);
     }
 
     private void loadinSounds() {
-        uiSoundBGID = soundPool.load(context, R.raw.citymusic, 1);
-        uiSoundEatID = soundPool.load(context, R.raw.splat, 1);
-        uiSoundDrinkID = soundPool.load(context, R.raw.slrup, 1);
-        uiSoundGrenadeID = soundPool.load(context, R.raw.bomb, 1);
+        uiSoundBGID = voices.load(R.raw.citymusic);
+        uiSoundEatID = voices.load(R.raw.splat);
+        uiSoundDrinkID = voices.load(R.raw.slrup);
+        uiSoundGrenadeID = voices.load(R.raw.bomb);
     }
 
     public static int getUISoundBGID() {
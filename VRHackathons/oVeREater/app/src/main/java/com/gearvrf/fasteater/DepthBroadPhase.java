@@ -0,0 +1,79 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gearvrf.fasteater;
+
+import java.util.List;
+
+/**
+ * One-axis sweep and prune for flying items. Everything travels along +Z
+ * towards the player, so keeping the list ordered by depth turns "which items
+ * can touch the mouth" into a binary search for a depth window, and items
+ * that have flown past the camera collect at the end of the list. Only the
+ * items in the window need the exact {@code isColliding} test.
+ */
+public final class DepthBroadPhase {
+
+    private DepthBroadPhase() {
+    }
+
+    /**
+     * Order {@code items} by increasing depth. Insertion sort: the order barely
+     * changes between frames, so this is close to a single linear pass.
+     */
+    public static void sortByDepth(List<FlyingItem> items) {
+        for (int i = 1, n = items.size(); i < n; i++) {
+            FlyingItem item = items.get(i);
+            float z = item.getPositionZ();
+            int j = i - 1;
+            while (j >= 0 && items.get(j).getPositionZ() > z) {
+                items.set(j + 1, items.get(j));
+                j--;
+            }
+            items.set(j + 1, item);
+        }
+    }
+
+    /**
+     * Index of the first item at depth {@code z} or beyond in a list sorted by
+     * {@link #sortByDepth}; {@code items.size()} if there is none.
+     */
+    public static int firstAtOrBeyond(List<FlyingItem> items, float z) {
+        int low = 0;
+        int high = items.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (items.get(mid).getPositionZ() < z) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Add every item with depth in [{@code minZ}, {@code maxZ}] to {@code out}.
+     */
+    public static void query(List<FlyingItem> items, float minZ, float maxZ, List<FlyingItem> out) {
+        for (int i = firstAtOrBeyond(items, minZ), n = items.size(); i < n; i++) {
+            FlyingItem item = items.get(i);
+            if (item.getPositionZ() > maxZ) {
+                break;
+            }
+            out.add(item);
+        }
+    }
+}
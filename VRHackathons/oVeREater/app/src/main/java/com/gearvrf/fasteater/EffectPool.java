@@ -0,0 +1,133 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gearvrf.fasteater;
+
+import org.gearvrf.GVRContext;
+import org.gearvrf.GVRMaterial;
+import org.gearvrf.GVRRenderData;
+import org.gearvrf.GVRRenderData.GVRRenderingOrder;
+import org.gearvrf.GVRSceneObject;
+import org.gearvrf.GVRTexture;
+import org.gearvrf.utility.Log;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.Future;
+
+/**
+ * A fixed set of flipbook quads for hit effects. Playing an effect takes a
+ * free slot (or the one closest to finishing), points its
+ * {@link ImageFrameAnimation} at cached frames from a {@link FlipbookCache}
+ * and moves it to the hit; {@link #update} then only swaps textures, so
+ * several simultaneous hits create no objects and decode nothing.
+ */
+public class EffectPool {
+    private static final String TAG = Log.tag(EffectPool.class);
+
+    private static final class Slot {
+        final GVRSceneObject object;
+        final GVRMaterial material;
+        final ImageFrameAnimation animation;
+        float elapsed;
+        boolean active;
+
+        Slot(GVRSceneObject object, GVRMaterial material, ImageFrameAnimation animation) {
+            this.object = object;
+            this.material = material;
+            this.animation = animation;
+        }
+    }
+
+    private final GVRSceneObject parent;
+    private final FlipbookCache flipbooks;
+    private final float duration;
+    private final Slot[] slots;
+
+    /**
+     * @param context   current context
+     * @param parent    scene object effects are attached to while they play
+     * @param flipbooks source of the effect frames
+     * @param size      number of effects that can play at once
+     * @param duration  length of one effect, in seconds
+     */
+    public EffectPool(GVRContext context, GVRSceneObject parent, FlipbookCache flipbooks,
+                      int size, float duration) {
+        this.parent = parent;
+        this.flipbooks = flipbooks;
+        this.duration = duration;
+        this.slots = new Slot[size];
+
+        for (int i = 0; i < size; i++) {
+            GVRSceneObject object = new GVRSceneObject(context, 1.0f, 1.0f);
+            GVRRenderData renderData = object.getRenderData();
+            GVRMaterial material = new GVRMaterial(context);
+            renderData.setMaterial(material);
+            renderData.setRenderingOrder(GVRRenderingOrder.TRANSPARENT);
+            slots[i] = new Slot(object, material, new ImageFrameAnimation(material, duration, null));
+        }
+    }
+
+    /**
+     * Play the flipbook in {@code assetName} at (x, y, z).
+     */
+    public void play(String assetName, float x, float y, float z) {
+        final List<Future<GVRTexture>> frames;
+        try {
+            frames = flipbooks.get(assetName);
+        } catch (IOException e) {
+            Log.e(TAG, "Error loading animation", e);
+            return;
+        }
+
+        Slot slot = slots[0];
+        for (Slot candidate : slots) {
+            if (!candidate.active) {
+                slot = candidate;
+                break;
+            }
+            if (candidate.elapsed > slot.elapsed) {
+                slot = candidate;
+            }
+        }
+
+        if (!slot.active) {
+            parent.addChildObject(slot.object);
+            slot.active = true;
+        }
+        slot.elapsed = 0.0f;
+        slot.object.getTransform().setPosition(x, y, z);
+        slot.animation.rewind(frames);
+        slot.animation.seek(slot.material, 0.0f);
+    }
+
+    /**
+     * Advance every playing effect; finished ones are detached and freed.
+     */
+    public void update(float seconds) {
+        for (Slot slot : slots) {
+            if (!slot.active) {
+                continue;
+            }
+            slot.elapsed += seconds;
+            if (slot.elapsed >= duration) {
+                parent.removeChildObject(slot.object);
+                slot.active = false;
+            } else {
+                slot.animation.seek(slot.material, slot.elapsed / duration);
+            }
+        }
+    }
+}
@@ -11,7 +11,6 @@ import org.gearvrf.GVRAndroidResource;
 import org.gearvrf.GVRBitmapTexture;
 import org.gearvrf.GVRCollider;
 import org.gearvrf.GVRContext;
-import org.gearvrf.GVRMaterial;
 import org.gearvrf.GVRMesh;
 import org.gearvrf.GVRMeshCollider;
 import org.gearvrf.GVRRenderData;
@@ -21,7 +20,6 @@ import org.gearvrf.GVRSceneObject;
 import org.gearvrf.GVRScript;
 import org.gearvrf.GVRTexture;
 import org.gearvrf.GVRTransform;
-import org.gearvrf.ZipLoader;
 import org.gearvrf.animation.GVRAnimation;
 import org.gearvrf.animation.GVRAnimationEngine;
 import org.gearvrf.animation.GVRRelativeMotionAnimation;
@@ -47,8 +45,6 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Timer;
-import java.util.TimerTask;
 import java.util.concurrent.Future;
 
 public class FEViewManager extends GVRScript {
@@ -65,11 +61,28 @@ public class FEViewManager extends GVRScript {
     private RigidBody boxBody;
     private Boolean gameStart = false;
     private Map<RigidBody, GVRSceneObject> rigidBodiesSceneMap = new HashMap<RigidBody, GVRSceneObject>();
-    private Timer timer;
+    private FlyingItemPool mItemPool;
+    private static final int PREWARM_ITEMS_PER_TYPE = 8;
+    private FlipbookCache mFlipbooks;
+    private EffectPool mEffects;
+    private static final String EXPLODE_FLIPBOOK = "explode_.zip";
+    private static final String SPLAT_FLIPBOOK = "splat.zip";
+    private static final int MAX_EFFECTS = 6;
+    private static final float EFFECT_DURATION = 1.5f;
+    private final List<FlyingItem> mCandidates = new ArrayList<FlyingItem>();
+    private final List<FlyingItem> mHits = new ArrayList<FlyingItem>();
+    // the mouth sits 2 units in front of the camera; items are a couple of units deep
+    private static final float MOUTH_OFFSET_Z = -2.0f;
+    private static final float MOUTH_DEPTH_MARGIN = 3.0f;
+    private static final float CHOMP_SECONDS = 0.2f;
+    private Future<GVRTexture> mMouthOpenTexture, mMouthCloseTexture;
+    private boolean mMouthOpen = true;
+    private float mChompSecondsLeft = 0;
     private GameStateMachine gameState;
     private GVRSceneObject homeButton, pauseButton, timerButton;
     private Player ovrEater;
     private Boolean isBGAudioOnce = false;
+    private int bgStreamID;
 
 	private GVRSceneObject asyncSceneObject(GVRContext context, String meshName, String textureName)
 			throws IOException {
@@ -103,11 +116,27 @@ public class FEViewManager extends GVRScript {
         AudioClip.getInstance(context.getContext());
 
         ovrEater = new Player();
+        mItemPool = new FlyingItemPool(context, PREWARM_ITEMS_PER_TYPE);
+        try {
+            mSpawnTable = SpawnTable.load(context.getContext().getAssets().open(SPAWN_TABLE));
+        } catch (IOException e) {
+            Log.e(TAG, "using the built-in spawn table: %s", e.getMessage());
+            mSpawnTable = new SpawnTable();
+        }
 
         mainSceneObject = new GVRSceneObject(context);
         mMainScene.addSceneObject(mainSceneObject);
         mMainScene.getMainCameraRig().getTransform().setPosition(0.0f, 6.0f, 8.0f);
 
+        mMouthOpenTexture = context.loadFutureTexture(new GVRAndroidResource(context, "mouth_open.png"));
+        mMouthCloseTexture = context.loadFutureTexture(new GVRAndroidResource(context, "mouth_close.png"));
+
+        // decode the hit flipbooks now rather than on the first hit
+        mFlipbooks = new FlipbookCache(context);
+        mFlipbooks.get(EXPLODE_FLIPBOOK);
+        mFlipbooks.get(SPLAT_FLIPBOOK);
+        mEffects = new EffectPool(context, mainSceneObject, mFlipbooks, MAX_EFFECTS, EFFECT_DURATION);
+
         GVRMesh mesh = context.loadMesh(new GVRAndroidResource(context,
                 "space_sphere.obj"));
 
@@ -198,122 +227,100 @@ public class FEViewManager extends GVRScript {
 		return object;
 	}
 
-    private int MAX_THROW = 15;
+    private static final String SPAWN_TABLE = "spawn_table.json";
+    private SpawnTable mSpawnTable;
+    private WaveScheduler mWaves;
+
+    // throwing runs on the frame loop; touch handlers only ask for it to start
+    private volatile boolean mThrowRequested = false;
+    private boolean mThrowing = false;
+    private long mLastFrameNanos = 0;
 
     private void _throwObject()
     {
-        Timer timer = new Timer();
-        TimerTask task = new TimerTask()
-        {
-            public void run() {
-                try {
-                    int num_throw = Helper.randomNextInt(MAX_THROW);
-                    for(int i = 0; i < num_throw; i++) {
-                        throwAnObject();
-                    }
-                } catch (IOException e) {
-                    e.printStackTrace();
-                }
-            }
-        };
-        int THROW_OBJECT_RATE_MIN = 1 * 1000;
-        int THROW_OBJECT_RATE_MAX = 4 * 1000;
-        int THROW_OBJECT_DELAY_MIN = 1 * 1000;
-        int THROW_OBJECT_DELAY_MAX = 4 * 1000;
-        timer.scheduleAtFixedRate(task,
-                Helper.randomInRange(THROW_OBJECT_DELAY_MIN, THROW_OBJECT_DELAY_MAX),
-                Helper.randomInRange(THROW_OBJECT_RATE_MIN, THROW_OBJECT_RATE_MAX));
-
-        //timeElapsed = System.currentTimeMillis();
+        mThrowRequested = true;
+    }
+
+    private void stopThrowing() {
+        mThrowRequested = false;
+        mThrowing = false;
     }
 
-    private int MIN_GAME_WIDTH = -10;
-    private int MAX_GAME_WIDTH = 10;
-    private int MIN_GAME_HEIGHT_START = 5;
-    private int MAX_GAME_HEIGHT_START = 7;
-    private int MIN_GAME_HEIGHT_REACH = 5;
-    private int MAX_GAME_HEIGHT_REACH = 7;
-    private int MIN_SPEED = 2;
-    private int MAX_SPEED = 0;
-
-    private String[][] OverEatObjects = new String[][]{
-            { "hotdog.obj", "hotdog.png", "hotdog" },
-            { "hamburger.obj", "hamburger.png", "hamburger" },
-            { "bomb.obj", "bomb.png", "bomb" },
-            { "sodacan.obj", "sodacan.png", "sodacan" }
+    private final WaveScheduler.Spawner mSpawner = new WaveScheduler.Spawner() {
+        @Override
+        public void spawn(ItemType type, float x, float y, float z, float velocityZ) {
+            throwAnObject(type, x, y, z, velocityZ);
+        }
     };
 
-    public void throwAnObject() throws IOException {
+    /*
+     * Called once per frame: start a new wave schedule when asked to, then let
+     * it spawn whatever is due this frame.
+     */
+    private void updateThrowing(float frameSeconds) {
+        if (mThrowRequested && !mThrowing) {
+            mThrowing = true;
+            long seed = System.nanoTime();
+            mWaves = new WaveScheduler(mSpawnTable, seed);
+            Log.d(TAG, "new wave schedule, seed %d", seed);
+        }
+        if (!mThrowing) {
+            return;
+        }
+
+        final int createdBefore = mItemPool.getCreatedCount();
+        mWaves.update(frameSeconds, mObjects.size(), mSpawner);
+        if (mItemPool.getCreatedCount() != createdBefore) {
+            Log.d(TAG, "item pool grew by %d, %d in flight",
+                    mItemPool.getCreatedCount() - createdBefore, mObjects.size());
+        }
+    }
+
+    private float frameSeconds() {
+        final long now = System.nanoTime();
+        final float seconds = mLastFrameNanos == 0 ? 0.0f : (now - mLastFrameNanos) / 1e9f;
+        mLastFrameNanos = now;
+        // a long stall (pause, loading) should not teleport everything
+        return Math.min(seconds, 0.1f);
+    }
+
+    private void recycle(FlyingItem item) {
+        mainSceneObject.removeChildObject(item.getSceneObject());
+        mItemPool.recycle(item);
+    }
+
+    public void throwAnObject(ItemType type, float x, float y, float z, float velocityZ) {
         if(!ovrEater.isDead()) {
-            int rand_index = Helper.randomNextInt(OverEatObjects.length);
-            GVRSceneObject object = asyncSceneObject(mGVRContext, OverEatObjects[rand_index][0], OverEatObjects[rand_index][1]);
-            FlyingItem item = new FlyingItem(OverEatObjects[rand_index][2], object);
-            object.getTransform().setPosition(
-                    Helper.randomInRangeFloat(MIN_GAME_WIDTH, MAX_GAME_WIDTH),
-                    Helper.randomInRangeFloat(MIN_GAME_HEIGHT_START, MAX_GAME_HEIGHT_START),
-                    -20);
-            mainSceneObject.addChildObject(object);
+            FlyingItem item = mItemPool.obtain(type);
+            item.launch(x, y, z, velocityZ);
+            mainSceneObject.addChildObject(item.getSceneObject());
             mObjects.add(item);
-
-            relativeMotionAnimation(object,
-                    Helper.randomInRange(MIN_SPEED, MAX_SPEED),
-                    0,
-                    0,
-                    -(object.getTransform().getPositionZ() - 10));
         }
     }
 
 	@Override
 	public void onStep() {
+        final float frameSeconds = frameSeconds();
+        mEffects.update(frameSeconds);
         if(ovrEater.isDead() && gameState.getStatus() == GameStateMachine.GameStatus.STATE_GAME_IN_PROGRESS) {
             playerDead();
         } else if(gameState.getStatus() == GameStateMachine.GameStatus.STATE_GAME_IN_PROGRESS) {
+            updateThrowing(frameSeconds);
             for (int i = 0; i < mObjects.size(); i++) {
-                try {
-                    headTracker.getRenderData().getMaterial().setMainTexture(
-                            mGVRContext.loadFutureTexture(new GVRAndroidResource(mGVRContext, "mouth_open.png")));
-                } catch (IOException e) {
-                    e.printStackTrace();
-                }
-                if (mObjects.get(i) != null && mObjects.get(i).getSceneObject().getRenderData().getMesh() != null) {
-                    if (mObjects.get(i).getSceneObject().isColliding(headTracker)) {
-                        //Log.e(TAG, "mObjects.get(i).getName: Penke " + mObjects.get(i).getName() + "score" + ovrEater.getCurrentScore());
-                        if (mObjects.get(i).getName().compareTo("bomb") == 0) {
-                            animateTextures("explode_.zip", mObjects.get(i).getSceneObject());
-                            ovrEater.loseALife();
-                            AudioClip.getInstance(mGVRContext.getContext()).
-                                    playSound(AudioClip.getUISoundGrenadeID(), 1.0f, 1.0f);
-                            Log.e(TAG, "remaining Lives Penke " + ovrEater.getNumLivesRemaining());
-                        } else if (mObjects.get(i).getName().compareTo("hamburger") == 0) {
-                            animateTextures("splat.zip", mObjects.get(i).getSceneObject());
-                            AudioClip.getInstance(mGVRContext.getContext()).
-                                    playSound(AudioClip.getUISoundEatID(), 1.0f, 1.0f);
-                            ovrEater.incrementScore(50);
-                        } else if (mObjects.get(i).getName().compareTo("hotdog") == 0) {
-                            ovrEater.incrementScore(30);
-                        } else if (mObjects.get(i).getName().compareTo("sodacan") == 0) {
-                            AudioClip.getInstance(mGVRContext.getContext()).
-                                    playSound(AudioClip.getUISoundDrinkID(), 1.0f, 1.0f);
-                            ovrEater.incrementScore(10);
-                        }
-                        scoreTextMessageObject.setText(String.format("%03d", ovrEater.getCurrentScore()));
-                        livesTextMessageObject.setText("Lives: " + ovrEater.getNumLivesRemaining());
-                        mainSceneObject.removeChildObject(mObjects.get(i).getSceneObject());
-                        mObjects.remove(i);
-                        try {
-                            headTracker.getRenderData().getMaterial().setMainTexture(
-                                    mGVRContext.loadFutureTexture(new GVRAndroidResource(mGVRContext, "mouth_close.png")));
-                        } catch (IOException e) {
-                            e.printStackTrace();
-                        }
-                    } else if (mObjects.get(i).getSceneObject().getTransform().getPositionZ() >
-                            mMainScene.getMainCameraRig().getTransform().getPositionZ()) {
-                        mainSceneObject.removeChildObject(mObjects.get(i).getSceneObject());
-                        mObjects.remove(i);
-                    }
-
-                }
+                mObjects.get(i).advance(frameSeconds);
+            }
+            detectCollisions();
+            for (int i = 0; i < mHits.size(); i++) {
+                onItemEaten(mHits.get(i));
             }
+            if (!mHits.isEmpty()) {
+                scoreTextMessageObject.setText(String.format("%03d", ovrEater.getCurrentScore()));
+                livesTextMessageObject.setText("Lives: " + ovrEater.getNumLivesRemaining());
+                mChompSecondsLeft = CHOMP_SECONDS;
+            } else {
+                mChompSecondsLeft -= frameSeconds;
+            }
+            setMouthOpen(mChompSecondsLeft <= 0);
 
             mMainScene.getMainCameraRig()
                     .getTransform()
@@ -324,39 +331,78 @@ public class FEViewManager extends GVRScript {
         }
 	}
 
-    private void animateTextures(String assetName, GVRSceneObject object) {
-        try {
-            List<Future<GVRTexture>> loaderTextures = ZipLoader.load(mGVRContext,
-                    assetName, new ZipLoader.ZipEntryProcessor<Future<GVRTexture>>() {
-                        @Override
-                        public Future<GVRTexture> getItem(GVRContext context, GVRAndroidResource
-                                resource) {
-                            return context.loadFutureTexture(resource);
-                        }
-                    });
-
-            GVRSceneObject loadingObject = new GVRSceneObject(mGVRContext, 1.0f, 1.0f);
-
-            GVRRenderData renderData = loadingObject.getRenderData();
-            GVRMaterial loadingMaterial = new GVRMaterial(mGVRContext);
-            renderData.setMaterial(loadingMaterial);
-            renderData.setRenderingOrder(GVRRenderingOrder.TRANSPARENT);
-            loadingMaterial.setMainTexture(loaderTextures.get(0));
-            GVRAnimation animation = new ImageFrameAnimation(loadingMaterial, 1.5f,
-                    loaderTextures);
-            animation.setRepeatMode(GVRRepeatMode.ONCE);
-            animation.setRepeatCount(-1);
-            animation.start(mGVRContext.getAnimationEngine());
-
-            loadingObject.getTransform().setPosition(
-                    object.getTransform().getPositionX(),
-                    object.getTransform().getPositionY(),
-                    object.getTransform().getPositionZ()
-            );
-            mainSceneObject.addChildObject(loadingObject);
-        } catch (IOException e) {
-            Log.e(TAG, "Error loading animation", e);
+    /*
+     * Broad phase on depth, then the exact test on the few items near the
+     * mouth. Hits are only collected here and handled by the caller once the
+     * list is no longer being walked; items that flew past the camera are
+     * recycled.
+     */
+    private void detectCollisions() {
+        mHits.clear();
+        if (headTracker == null) {
+            return;
         }
+        DepthBroadPhase.sortByDepth(mObjects);
+
+        final float cameraZ = mMainScene.getMainCameraRig().getTransform().getPositionZ();
+        for (int i = mObjects.size() - 1; i >= 0 && mObjects.get(i).getPositionZ() > cameraZ; i--) {
+            recycle(mObjects.remove(i));
+        }
+
+        final float mouthZ = cameraZ + MOUTH_OFFSET_Z;
+        mCandidates.clear();
+        DepthBroadPhase.query(mObjects, mouthZ - MOUTH_DEPTH_MARGIN, mouthZ + MOUTH_DEPTH_MARGIN, mCandidates);
+        for (int i = 0; i < mCandidates.size(); i++) {
+            FlyingItem item = mCandidates.get(i);
+            GVRSceneObject object = item.getSceneObject();
+            if (object.getRenderData().getMesh() != null && object.isColliding(headTracker)) {
+                mHits.add(item);
+            }
+        }
+        mObjects.removeAll(mHits);
+    }
+
+    private void onItemEaten(FlyingItem item) {
+        switch (item.getType()) {
+            case BOMB:
+                animateTextures(EXPLODE_FLIPBOOK, item.getSceneObject());
+                ovrEater.loseALife();
+                AudioClip.getInstance(mGVRContext.getContext()).
+                        playSound(AudioClip.getUISoundGrenadeID(), 1.0f, 1.0f);
+                Log.e(TAG, "remaining Lives Penke " + ovrEater.getNumLivesRemaining());
+                break;
+            case HAMBURGER:
+                animateTextures(SPLAT_FLIPBOOK, item.getSceneObject());
+                AudioClip.getInstance(mGVRContext.getContext()).
+                        playSound(AudioClip.getUISoundEatID(), 1.0f, 1.0f);
+                ovrEater.incrementScore(50);
+                break;
+            case HOTDOG:
+                ovrEater.incrementScore(30);
+                break;
+            case SODACAN:
+                AudioClip.getInstance(mGVRContext.getContext()).
+                        playSound(AudioClip.getUISoundDrinkID(), 1.0f, 1.0f);
+                ovrEater.incrementScore(10);
+                break;
+        }
+        recycle(item);
+    }
+
+    // the mouth texture only changes when the mouth actually opens or closes
+    private void setMouthOpen(boolean open) {
+        if (headTracker == null || open == mMouthOpen) {
+            return;
+        }
+        mMouthOpen = open;
+        headTracker.getRenderData().getMaterial().setMainTexture(
+                open ? mMouthOpenTexture : mMouthCloseTexture);
+    }
+
+    private void animateTextures(String assetName, GVRSceneObject object) {
+        GVRTransform transform = object.getTransform();
+        mEffects.play(assetName, transform.getPositionX(), transform.getPositionY(),
+                transform.getPositionZ());
     }
 
     private void playerDead() {
@@ -370,19 +416,15 @@ public class FEViewManager extends GVRScript {
         tapTOStart = setInfoMessage("Game Over   " + String
                 .format("Score : %d", ovrEater.getCurrentScore()) + "Click Back Button to Play Again");
         mainSceneObject.addChildObject(tapTOStart);
-        if(timer != null)
-            timer.cancel();
+        stopThrowing();
     }
 
     private void showMouthPointer(Boolean enable) {
         if(enable) {
             // add head-tracking pointer
-            try {
-                headTracker = new GVRSceneObject(mGVRContext, new FutureWrapper<GVRMesh>(mGVRContext.createQuad(0.5f, 0.5f)),
-                        mGVRContext.loadFutureTexture(new GVRAndroidResource(mGVRContext, "mouth_open.png")));
-            } catch (IOException e) {
-                e.printStackTrace();
-            }
+            headTracker = new GVRSceneObject(mGVRContext, new FutureWrapper<GVRMesh>(mGVRContext.createQuad(0.5f, 0.5f)),
+                    mMouthOpenTexture);
+            mMouthOpen = true;
             headTracker.getTransform().setPosition(0.0f, 0.0f, -2.0f);
             headTracker.getRenderData().setDepthTest(false);
             headTracker.getRenderData().setRenderingOrder(100000);
@@ -436,7 +478,7 @@ public class FEViewManager extends GVRScript {
                 gameState.setStatus(GameStateMachine.GameStatus.STATE_GAME_IN_PROGRESS);
 
                 if(!isBGAudioOnce) {
-                    AudioClip.getInstance(mGVRContext.getContext()).
+                    bgStreamID = AudioClip.getInstance(mGVRContext.getContext()).
                             playLoop(AudioClip.getUISoundBGID(), 0.8f, 0.4f);
                     isBGAudioOnce = true;
                 }
@@ -455,7 +497,7 @@ public class FEViewManager extends GVRScript {
                 _throwObject();
 			} else if(ovrEater.isDead()) {
                 AudioClip.getInstance(mGVRContext.getContext()).
-                        stopSound(AudioClip.getUISoundBGID());
+                        stopSound(bgStreamID);
                 showMouthPointer(false);
                 gameState.setStatus(GameStateMachine.GameStatus.STATE_GAME_END);
             }
@@ -0,0 +1,133 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gearvrf.fasteater;
+
+import org.gearvrf.GVRAndroidResource;
+import org.gearvrf.GVRContext;
+import org.gearvrf.GVRTexture;
+import org.gearvrf.ZipLoader;
+import org.gearvrf.utility.Log;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Flipbook frames keyed by zip asset name. Each zip is decoded once per
+ * session and its texture list shared by every effect that plays it. Callers
+ * asking for an asset another thread is decoding wait for that decode
+ * instead of starting their own; a failed decode is forgotten so the next
+ * call tries again.
+ */
+public class FlipbookCache {
+    private static final String TAG = Log.tag(FlipbookCache.class);
+
+    /** Decodes the frames of one zip asset. */
+    interface Loader {
+        List<Future<GVRTexture>> load(String assetName) throws IOException;
+    }
+
+    private final Loader loader;
+    private final Map<String, FutureTask<List<Future<GVRTexture>>>> frames =
+            new HashMap<String, FutureTask<List<Future<GVRTexture>>>>();
+    private final Map<String, Integer> decodeCounts = new HashMap<String, Integer>();
+
+    private static final ZipLoader.ZipEntryProcessor<Future<GVRTexture>> TEXTURE_LOADER =
+            new ZipLoader.ZipEntryProcessor<Future<GVRTexture>>() {
+                @Override
+                public Future<GVRTexture> getItem(GVRContext context, GVRAndroidResource resource) {
+                    return context.loadFutureTexture(resource);
+                }
+            };
+
+    public FlipbookCache(final GVRContext context) {
+        this(new Loader() {
+            @Override
+            public List<Future<GVRTexture>> load(String assetName) throws IOException {
+                return ZipLoader.load(context, assetName, TEXTURE_LOADER);
+            }
+        });
+    }
+
+    FlipbookCache(Loader loader) {
+        this.loader = loader;
+    }
+
+    /**
+     * The frames of {@code assetName}, decoding the zip on first use.
+     */
+    public List<Future<GVRTexture>> get(final String assetName) throws IOException {
+        FutureTask<List<Future<GVRTexture>>> task;
+        synchronized (frames) {
+            task = frames.get(assetName);
+            if (task == null) {
+                task = new FutureTask<List<Future<GVRTexture>>>(
+                        new Callable<List<Future<GVRTexture>>>() {
+                            @Override
+                            public List<Future<GVRTexture>> call() throws IOException {
+                                return decode(assetName);
+                            }
+                        });
+                frames.put(assetName, task);
+            }
+        }
+        // does nothing if another caller is already decoding it
+        task.run();
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("interrupted loading " + assetName);
+        } catch (ExecutionException e) {
+            synchronized (frames) {
+                if (frames.get(assetName) == task) {
+                    frames.remove(assetName);
+                }
+            }
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw (Error) cause;
+        }
+    }
+
+    /** How many times {@code assetName} has been unzipped; 1 once it is cached. */
+    public int getDecodeCount(String assetName) {
+        synchronized (decodeCounts) {
+            Integer count = decodeCounts.get(assetName);
+            return count == null ? 0 : count;
+        }
+    }
+
+    private List<Future<GVRTexture>> decode(String assetName) throws IOException {
+        synchronized (decodeCounts) {
+            Integer count = decodeCounts.get(assetName);
+            decodeCounts.put(assetName, count == null ? 1 : count + 1);
+        }
+        List<Future<GVRTexture>> textures = loader.load(assetName);
+        Log.d(TAG, "decoded %s, %d frames", assetName, textures.size());
+        return textures;
+    }
+}
@@ -17,8 +17,11 @@ public class FlyingItem {
     private String name;
     private String assetFilename;
 
+    private ItemType type;
     private GVRSceneObject object;
     private ItemStatus currentStatus;
+    private float velocityZ;
+    private float positionZ;
 
     public FlyingItem(String name, GVRSceneObject object) {
         this.name = name;
@@ -26,6 +29,15 @@ public class FlyingItem {
         this.currentStatus = ItemStatus.HIDDEN;
     }
 
+    public FlyingItem(ItemType type, GVRSceneObject object) {
+        this(type.getDisplayName(), object);
+        this.type = type;
+    }
+
+    public ItemType getType() {
+        return type;
+    }
+
     public String getName() {
         return name;
     }
@@ -42,6 +54,45 @@ public class FlyingItem {
         this.object = object;
     }
 
+    /** Speed towards the camera, in units per second. */
+    public float getVelocityZ() {
+        return velocityZ;
+    }
+
+    public void setVelocityZ(float velocityZ) {
+        this.velocityZ = velocityZ;
+    }
+
+    /** Place the item at the start of its flight path. */
+    public void launch(float x, float y, float z, float velocityZ) {
+        object.getTransform().setPosition(x, y, z);
+        this.positionZ = z;
+        this.velocityZ = velocityZ;
+    }
+
+    /** Move the item along its flight path by {@code seconds} worth of motion. */
+    public void advance(float seconds) {
+        positionZ += velocityZ * seconds;
+        object.getTransform().setPositionZ(positionZ);
+    }
+
+    /** Depth along the flight path, kept on the Java side for the broad phase. */
+    public float getPositionZ() {
+        return positionZ;
+    }
+
+    /** Depth only, the scene object is left where it is. For tests. */
+    void setPositionZ(float positionZ) {
+        this.positionZ = positionZ;
+    }
+
+    /** Back to the state of a new item, hidden and at rest, for reuse. */
+    public void reset() {
+        currentStatus = ItemStatus.HIDDEN;
+        velocityZ = 0.0f;
+        positionZ = 0.0f;
+    }
+
     public ItemStatus getCurrentStatus() {
         return currentStatus;
     }
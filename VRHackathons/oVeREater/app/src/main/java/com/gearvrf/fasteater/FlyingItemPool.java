@@ -0,0 +1,125 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gearvrf.fasteater;
+
+import org.gearvrf.GVRAndroidResource;
+import org.gearvrf.GVRContext;
+import org.gearvrf.GVRMesh;
+import org.gearvrf.GVRSceneObject;
+import org.gearvrf.GVRTexture;
+import org.gearvrf.utility.Log;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.concurrent.Future;
+
+/**
+ * Per-type pool of {@link FlyingItem}s. Every item of a type shares one mesh
+ * and one texture, loaded once; scene objects are created up front and handed
+ * back with {@link #recycle} once an item is eaten or has flown past, so a
+ * burst of spawns does not allocate scene objects or reload assets.
+ */
+public class FlyingItemPool {
+    private static final String TAG = Log.tag(FlyingItemPool.class);
+
+    /** Makes a new item of a type, scene object and all. */
+    interface Factory {
+        FlyingItem create(ItemType type);
+    }
+
+    private final Factory factory;
+    private final EnumMap<ItemType, ArrayDeque<FlyingItem>> free =
+            new EnumMap<ItemType, ArrayDeque<FlyingItem>>(ItemType.class);
+
+    private int created;
+    private int reused;
+
+    /**
+     * @param context        current context
+     * @param prewarmPerType number of items of every type to create up front
+     */
+    public FlyingItemPool(GVRContext context, int prewarmPerType) throws IOException {
+        this(new SceneObjectFactory(context), prewarmPerType);
+    }
+
+    FlyingItemPool(Factory factory, int prewarmPerType) {
+        this.factory = factory;
+        for (ItemType type : ItemType.values()) {
+            ArrayDeque<FlyingItem> items = new ArrayDeque<FlyingItem>(prewarmPerType);
+            for (int i = 0; i < prewarmPerType; i++) {
+                items.push(factory.create(type));
+            }
+            free.put(type, items);
+        }
+    }
+
+    /**
+     * Take an item of {@code type}, creating one only if the pool ran dry. The
+     * caller attaches its scene object to the scene.
+     */
+    public FlyingItem obtain(ItemType type) {
+        FlyingItem item = free.get(type).poll();
+        if (item == null) {
+            item = factory.create(type);
+            created++;
+        } else {
+            reused++;
+        }
+        item.setCurrentStatus(FlyingItem.ItemStatus.IN_MOTION);
+        return item;
+    }
+
+    /**
+     * Return an item to the pool. The caller detaches its scene object first.
+     */
+    public void recycle(FlyingItem item) {
+        item.reset();
+        free.get(item.getType()).push(item);
+    }
+
+    /** Items created after construction because the pool was empty. */
+    public int getCreatedCount() {
+        return created;
+    }
+
+    public int getReusedCount() {
+        return reused;
+    }
+
+    /** Items sharing one mesh and one texture per type, loaded up front. */
+    private static final class SceneObjectFactory implements Factory {
+        private final GVRContext context;
+        private final EnumMap<ItemType, Future<GVRMesh>> meshes =
+                new EnumMap<ItemType, Future<GVRMesh>>(ItemType.class);
+        private final EnumMap<ItemType, Future<GVRTexture>> textures =
+                new EnumMap<ItemType, Future<GVRTexture>>(ItemType.class);
+
+        SceneObjectFactory(GVRContext context) throws IOException {
+            this.context = context;
+            for (ItemType type : ItemType.values()) {
+                meshes.put(type, context.loadFutureMesh(new GVRAndroidResource(context, type.getMeshName())));
+                textures.put(type, context.loadFutureTexture(new GVRAndroidResource(context, type.getTextureName())));
+            }
+        }
+
+        @Override
+        public FlyingItem create(ItemType type) {
+            GVRSceneObject object = new GVRSceneObject(context, meshes.get(type), textures.get(type));
+            return new FlyingItem(type, object);
+        }
+    }
+}
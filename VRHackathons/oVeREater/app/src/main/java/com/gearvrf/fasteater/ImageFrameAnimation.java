@@ -12,7 +12,7 @@ import java.util.concurrent.Future;
  * Created by siva.penke on 7/31/2016.
  */
 public class ImageFrameAnimation extends GVRAnimation {
-    private final List<Future<GVRTexture>> animationTextures;
+    private List<Future<GVRTexture>> animationTextures;
     private int lastFileIndex = -1;
 
     /**
@@ -26,6 +26,24 @@ public class ImageFrameAnimation extends GVRAnimation {
         animationTextures = texturesForAnimation;
     }
 
+    /**
+     * Switch to another set of frames and forget the last frame shown, so the
+     * same instance can play again.
+     */
+    public void rewind(List<Future<GVRTexture>> texturesForAnimation) {
+        animationTextures = texturesForAnimation;
+        lastFileIndex = -1;
+    }
+
+    /**
+     * Show the frame for {@code ratio} (0..1) on {@code material} directly,
+     * for callers that drive the flipbook from their own clock instead of an
+     * animation engine.
+     */
+    public void seek(GVRMaterial material, float ratio) {
+        animate(material, ratio);
+    }
+
     @Override
     protected void animate(GVRHybridObject target, float ratio) {
         final int size = animationTextures.size();
@@ -0,0 +1,49 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gearvrf.fasteater;
+
+/**
+ * The kinds of food (and bombs) thrown at the player, with the assets each one
+ * is drawn from.
+ */
+public enum ItemType {
+    HOTDOG("hotdog.obj", "hotdog.png", "hotdog"),
+    HAMBURGER("hamburger.obj", "hamburger.png", "hamburger"),
+    BOMB("bomb.obj", "bomb.png", "bomb"),
+    SODACAN("sodacan.obj", "sodacan.png", "sodacan");
+
+    private final String meshName;
+    private final String textureName;
+    private final String displayName;
+
+    ItemType(String meshName, String textureName, String displayName) {
+        this.meshName = meshName;
+        this.textureName = textureName;
+        this.displayName = displayName;
+    }
+
+    public String getMeshName() {
+        return meshName;
+    }
+
+    public String getTextureName() {
+        return textureName;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+}
@@ -0,0 +1,160 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gearvrf.fasteater;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.EnumMap;
+
+/**
+ * Difficulty settings for {@link WaveScheduler}: how often items are thrown
+ * over the course of a game, which kinds, from where and how fast. Loaded from
+ * a JSON asset so waves can be tuned without touching code:
+ * <pre>
+ * {
+ *   "startDelay": 1.5,
+ *   "maxConcurrent": 25,
+ *   "maxPerFrame": 2,
+ *   "rate": [[0, 1.5], [60, 3], [180, 5]],
+ *   "weights": { "hotdog": 1, "hamburger": 1, "bomb": 1, "sodacan": 1 },
+ *   "width": [-10, 10],
+ *   "height": [5, 7],
+ *   "depth": [-20, 10],
+ *   "flightSeconds": [2, 4]
+ * }
+ * </pre>
+ * {@code rate} is a piecewise-linear curve of items per second against
+ * seconds into the game, held flat after the last point. Missing keys keep
+ * their {@link #SpawnTable() default}, including item types left out of
+ * {@code weights}; a weight of 0 stops that type from spawning.
+ */
+public class SpawnTable {
+
+    float startDelay = 1.5f;
+    int maxConcurrent = 25;
+    int maxPerFrame = 2;
+    float[] rateTimes = { 0, 60, 180 };
+    float[] rates = { 1.5f, 3.0f, 5.0f };
+    final EnumMap<ItemType, Float> weights = new EnumMap<ItemType, Float>(ItemType.class);
+    float minX = -10, maxX = 10;
+    float minY = 5, maxY = 7;
+    float startZ = -20, endZ = 10;
+    float minFlightSeconds = 2, maxFlightSeconds = 4;
+
+    /** The built-in table, roughly the pace of the original timer bursts. */
+    public SpawnTable() {
+        for (ItemType type : ItemType.values()) {
+            weights.put(type, 1.0f);
+        }
+    }
+
+    public static SpawnTable load(InputStream stream) throws IOException {
+        try {
+            return parse(new JSONObject(readAll(stream)));
+        } catch (JSONException e) {
+            throw new IOException("bad spawn table: " + e.getMessage());
+        } finally {
+            stream.close();
+        }
+    }
+
+    /** Items per second {@code seconds} into the game. */
+    public float rateAt(float seconds) {
+        if (seconds <= rateTimes[0]) {
+            return rates[0];
+        }
+        for (int i = 1; i < rateTimes.length; i++) {
+            if (seconds < rateTimes[i]) {
+                float t = (seconds - rateTimes[i - 1]) / (rateTimes[i] - rateTimes[i - 1]);
+                return rates[i - 1] + (rates[i] - rates[i - 1]) * t;
+            }
+        }
+        return rates[rates.length - 1];
+    }
+
+    private static SpawnTable parse(JSONObject json) throws JSONException {
+        SpawnTable table = new SpawnTable();
+        table.startDelay = (float) json.optDouble("startDelay", table.startDelay);
+        table.maxConcurrent = json.optInt("maxConcurrent", table.maxConcurrent);
+        table.maxPerFrame = Math.max(1, json.optInt("maxPerFrame", table.maxPerFrame));
+
+        JSONArray rate = json.optJSONArray("rate");
+        if (rate != null && rate.length() > 0) {
+            table.rateTimes = new float[rate.length()];
+            table.rates = new float[rate.length()];
+            for (int i = 0; i < rate.length(); i++) {
+                JSONArray point = rate.getJSONArray(i);
+                table.rateTimes[i] = (float) point.getDouble(0);
+                table.rates[i] = (float) point.getDouble(1);
+                if (i > 0 && table.rateTimes[i] <= table.rateTimes[i - 1]) {
+                    throw new JSONException("rate times must increase");
+                }
+            }
+        }
+
+        JSONObject weights = json.optJSONObject("weights");
+        if (weights != null) {
+            for (ItemType type : ItemType.values()) {
+                table.weights.put(type,
+                        (float) weights.optDouble(type.getDisplayName(), table.weights.get(type)));
+            }
+        }
+
+        float[] range = new float[2];
+        if (readRange(json, "width", range)) {
+            table.minX = range[0];
+            table.maxX = range[1];
+        }
+        if (readRange(json, "height", range)) {
+            table.minY = range[0];
+            table.maxY = range[1];
+        }
+        if (readRange(json, "depth", range)) {
+            table.startZ = range[0];
+            table.endZ = range[1];
+        }
+        if (readRange(json, "flightSeconds", range)) {
+            table.minFlightSeconds = range[0];
+            table.maxFlightSeconds = range[1];
+        }
+        return table;
+    }
+
+    private static boolean readRange(JSONObject json, String key, float[] out) throws JSONException {
+        JSONArray array = json.optJSONArray(key);
+        if (array == null) {
+            return false;
+        }
+        out[0] = (float) array.getDouble(0);
+        out[1] = (float) array.getDouble(1);
+        return true;
+    }
+
+    private static String readAll(InputStream stream) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+        int read;
+        while ((read = stream.read(buffer)) != -1) {
+            bytes.write(buffer, 0, read);
+        }
+        return bytes.toString("UTF-8");
+    }
+}
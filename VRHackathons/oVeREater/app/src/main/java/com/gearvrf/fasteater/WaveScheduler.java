@@ -0,0 +1,119 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gearvrf.fasteater;
+
+import java.util.Random;
+
+/**
+ * Decides when and what to throw, one frame at a time. The rate curve of a
+ * {@link SpawnTable} is integrated over frame time and whole items are spawned
+ * as the total crosses each integer, at most {@code maxPerFrame} per frame and
+ * never more than {@code maxConcurrent} in flight, so waves ramp up smoothly
+ * instead of arriving as one-frame bursts. All randomness comes from one seeded
+ * generator: the same seed and the same frame times replay the same session.
+ */
+public class WaveScheduler {
+
+    public interface Spawner {
+        void spawn(ItemType type, float x, float y, float z, float velocityZ);
+    }
+
+    private static final ItemType[] ITEM_TYPES = ItemType.values();
+
+    private final SpawnTable table;
+    private final long seed;
+    private final Random random;
+    private final float[] cumulativeWeights = new float[ITEM_TYPES.length];
+    private float elapsed;
+    private float pending;
+    private int spawned;
+
+    public WaveScheduler(SpawnTable table, long seed) {
+        this.table = table;
+        this.seed = seed;
+        this.random = new Random(seed);
+
+        float total = 0;
+        for (int i = 0; i < ITEM_TYPES.length; i++) {
+            Float weight = table.weights.get(ITEM_TYPES[i]);
+            total += weight != null ? Math.max(0, weight) : 0;
+            cumulativeWeights[i] = total;
+        }
+        if (total <= 0) {
+            // nothing usable configured, fall back to an even mix
+            for (int i = 0; i < ITEM_TYPES.length; i++) {
+                cumulativeWeights[i] = i + 1;
+            }
+        }
+    }
+
+    /**
+     * Advance the clock by one frame and spawn whatever is due.
+     *
+     * @param frameSeconds time since the previous frame
+     * @param inFlight     items currently in the air
+     * @param spawner      receives each new item
+     * @return number of items spawned this frame
+     */
+    public int update(float frameSeconds, int inFlight, Spawner spawner) {
+        elapsed += frameSeconds;
+        if (elapsed < table.startDelay) {
+            return 0;
+        }
+        pending += table.rateAt(elapsed - table.startDelay) * frameSeconds;
+
+        final int budget = Math.min(table.maxPerFrame, table.maxConcurrent - inFlight);
+        int count = 0;
+        while (pending >= 1 && count < budget) {
+            spawnOne(spawner);
+            pending -= 1;
+            count++;
+        }
+        // do not let a full sky or a long frame bank a burst for later
+        pending = Math.min(pending, table.maxPerFrame);
+        spawned += count;
+        return count;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    /** Seconds of game time seen so far, including the start delay. */
+    public float getElapsedSeconds() {
+        return elapsed;
+    }
+
+    public int getSpawnedCount() {
+        return spawned;
+    }
+
+    private void spawnOne(Spawner spawner) {
+        float pick = random.nextFloat() * cumulativeWeights[cumulativeWeights.length - 1];
+        int index = 0;
+        while (index < cumulativeWeights.length - 1 && pick >= cumulativeWeights[index]) {
+            index++;
+        }
+        float x = lerp(table.minX, table.maxX, random.nextFloat());
+        float y = lerp(table.minY, table.maxY, random.nextFloat());
+        float flight = lerp(table.minFlightSeconds, table.maxFlightSeconds, random.nextFloat());
+        spawner.spawn(ITEM_TYPES[index], x, y, table.startZ, (table.endZ - table.startZ) / flight);
+    }
+
+    private static float lerp(float from, float to, float t) {
+        return from + (to - from) * t;
+    }
+}
@@ -14,7 +14,6 @@ subject to the following restrictions:
 */
 package org.siprop.bullet;
 
-import java.util.HashMap;
 import java.util.Map;
 
 import org.siprop.bullet.interfaces.Constraint;
@@ -22,6 +21,7 @@ import org.siprop.bullet.interfaces.DynamicsWorld;
 import org.siprop.bullet.interfaces.ResultSimulationCallback;
 import org.siprop.bullet.interfaces.Shape;
 import org.siprop.bullet.interfaces.Solver;
+import org.siprop.bullet.util.IntObjectMap;
 import org.siprop.bullet.util.Vector3;
 
 import android.util.Log;
@@ -30,9 +30,9 @@ import android.util.Log;
 public class Bullet {
 
 	
-	private Map<Integer, PhysicsWorld> physicsWorlds = new HashMap<Integer, PhysicsWorld>();
-	private Map<Integer, Geometry> geometries = new HashMap<Integer, Geometry>();
-	private Map<Integer, RigidBody> rigidBodies = new HashMap<Integer, RigidBody>();
+	private IntObjectMap<PhysicsWorld> physicsWorlds = new IntObjectMap<PhysicsWorld>();
+	private IntObjectMap<Geometry> geometries = new IntObjectMap<Geometry>();
+	private IntObjectMap<RigidBody> rigidBodies = new IntObjectMap<RigidBody>();
 	
 	// PhysicsWorld
 	private PhysicsWorld defaultPhysicsWorld;
@@ -45,7 +45,7 @@ public class Bullet {
 	}
 	
 	public Map<Integer, PhysicsWorld> getPhysicsWorlds() {
-		return physicsWorlds;
+		return physicsWorlds.asMap();
 	}
 	public PhysicsWorld getPhysicsWorld(int id) {
 		return physicsWorlds.get(id);
@@ -103,7 +103,7 @@ public class Bullet {
 
 	// Geometry
 	public Map<Integer, Geometry> getGeometries() {
-		return geometries;
+		return geometries.asMap();
 	}
 	public Geometry getGeometry(int id) {
 		return geometries.get(id);
@@ -235,7 +235,7 @@ public class Bullet {
 	}
 	public Map<Integer, RigidBody> doSimulation(PhysicsWorld physicsWorld, float execTime, int count) {
 		doSimulationNative(physicsWorld.id, execTime, count);
-		return rigidBodies;
+		return rigidBodies.asMap();
 	}
 	public Map<Integer, RigidBody> doSimulationWithCallback(ResultSimulationCallback resultCallback, float execTime, int count) {
 		return doSimulationWithCallback(resultCallback, defaultPhysicsWorld, execTime, count);
@@ -243,9 +243,9 @@ public class Bullet {
 	public Map<Integer, RigidBody> doSimulationWithCallback(ResultSimulationCallback resultCallback, PhysicsWorld physicsWorld, float execTime, int count) {
 		doSimulationNative(physicsWorld.id, execTime, count);
 		if(resultCallback != null) {
-			resultCallback.resultSimulation(rigidBodies);
+			resultCallback.resultSimulation(rigidBodies.asMap());
 		}
-		return rigidBodies;
+		return rigidBodies.asMap();
 	}
 	private native int doSimulationNative(int worldId, float execTime, int count); 
 
@@ -0,0 +1,127 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gearvrf.fasteater;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class DepthBroadPhaseTest {
+
+    private static final int RUNS = 200;
+    private static final int FRAMES = 60;
+
+    @Test
+    public void emptyListHasNoCandidates() {
+        List<FlyingItem> items = new ArrayList<FlyingItem>();
+        DepthBroadPhase.sortByDepth(items);
+        assertEquals(0, DepthBroadPhase.firstAtOrBeyond(items, 0));
+
+        List<FlyingItem> out = new ArrayList<FlyingItem>();
+        DepthBroadPhase.query(items, -1, 1, out);
+        assertTrue(out.isEmpty());
+    }
+
+    @Test
+    public void windowBoundsAreInclusive() {
+        List<FlyingItem> items = items(-2, -1, 0, 1, 2);
+        List<FlyingItem> out = new ArrayList<FlyingItem>();
+        DepthBroadPhase.query(items, -1, 1, out);
+        assertEquals(3, out.size());
+        assertEquals(-1, out.get(0).getPositionZ(), 0);
+        assertEquals(1, out.get(2).getPositionZ(), 0);
+    }
+
+    @Test
+    public void equalDepthsAreAllFound() {
+        List<FlyingItem> items = items(3, 1, 1, 1, 0);
+        DepthBroadPhase.sortByDepth(items);
+        assertEquals(1, DepthBroadPhase.firstAtOrBeyond(items, 1));
+
+        List<FlyingItem> out = new ArrayList<FlyingItem>();
+        DepthBroadPhase.query(items, 1, 1, out);
+        assertEquals(3, out.size());
+    }
+
+    /*
+     * Items fly towards the camera at their own speeds, so the order changes
+     * a little each frame, like in the game. Every frame the window query has
+     * to return exactly what a scan of the whole list returns.
+     */
+    @Test
+    public void matchesBruteForceWhileItemsFly() {
+        Random random = new Random(39);
+        List<FlyingItem> candidates = new ArrayList<FlyingItem>();
+        for (int run = 0; run < RUNS; ++run) {
+            List<FlyingItem> items = new ArrayList<FlyingItem>();
+            int count = random.nextInt(60);
+            for (int i = 0; i < count; ++i) {
+                FlyingItem item = new FlyingItem("item" + i, null);
+                // a coarse grid makes equal depths common
+                item.setPositionZ(random.nextBoolean()
+                        ? random.nextInt(30) - 20 : random.nextFloat() * 30 - 20);
+                item.setVelocityZ(random.nextFloat() * 15 + 5);
+                items.add(item);
+            }
+
+            for (int frame = 0; frame < FRAMES; ++frame) {
+                for (FlyingItem item : items) {
+                    item.setPositionZ(item.getPositionZ() + item.getVelocityZ() / 60);
+                }
+                DepthBroadPhase.sortByDepth(items);
+                assertSorted(items);
+
+                float minZ = random.nextFloat() * 30 - 20;
+                float maxZ = minZ + random.nextFloat() * 4;
+                candidates.clear();
+                DepthBroadPhase.query(items, minZ, maxZ, candidates);
+                assertEquals("run " + run + " frame " + frame,
+                        bruteForce(items, minZ, maxZ), candidates);
+            }
+        }
+    }
+
+    private static void assertSorted(List<FlyingItem> items) {
+        for (int i = 1; i < items.size(); ++i) {
+            assertTrue(items.get(i - 1).getPositionZ() <= items.get(i).getPositionZ());
+        }
+    }
+
+    private static List<FlyingItem> bruteForce(List<FlyingItem> items, float minZ, float maxZ) {
+        List<FlyingItem> found = new ArrayList<FlyingItem>();
+        for (FlyingItem item : items) {
+            if (item.getPositionZ() >= minZ && item.getPositionZ() <= maxZ) {
+                found.add(item);
+            }
+        }
+        return found;
+    }
+
+    private static List<FlyingItem> items(float... depths) {
+        List<FlyingItem> items = new ArrayList<FlyingItem>();
+        for (int i = 0; i < depths.length; ++i) {
+            FlyingItem item = new FlyingItem("item" + i, null);
+            item.setPositionZ(depths[i]);
+            items.add(item);
+        }
+        return items;
+    }
+}
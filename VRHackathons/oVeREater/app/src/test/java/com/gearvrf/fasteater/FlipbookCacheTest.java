@@ -0,0 +1,146 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gearvrf.fasteater;
+
+import org.gearvrf.GVRTexture;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class FlipbookCacheTest {
+
+    private static final int THREADS = 8;
+
+    @Test
+    public void eachAssetIsDecodedOnce() throws IOException {
+        CountingLoader loader = new CountingLoader();
+        FlipbookCache cache = new FlipbookCache(loader);
+
+        List<Future<GVRTexture>> explosion = cache.get("explosion.zip");
+        for (int i = 0; i < 100; ++i) {
+            assertSame(explosion, cache.get("explosion.zip"));
+            cache.get("splash.zip");
+        }
+        assertEquals(1, loader.count("explosion.zip"));
+        assertEquals(1, loader.count("splash.zip"));
+        assertEquals(1, cache.getDecodeCount("explosion.zip"));
+        assertEquals(1, cache.getDecodeCount("splash.zip"));
+        assertEquals(0, cache.getDecodeCount("smoke.zip"));
+    }
+
+    @Test
+    public void concurrentRequestsShareOneDecode() throws Exception {
+        final CountingLoader loader = new CountingLoader();
+        loader.gate = new CountDownLatch(1);
+        final FlipbookCache cache = new FlipbookCache(loader);
+        final CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService threads = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<List<Future<GVRTexture>>>> results = new ArrayList<Future<List<Future<GVRTexture>>>>();
+            for (int i = 0; i < THREADS; ++i) {
+                results.add(threads.submit(new Callable<List<Future<GVRTexture>>>() {
+                    @Override
+                    public List<Future<GVRTexture>> call() throws Exception {
+                        start.await();
+                        return cache.get("explosion.zip");
+                    }
+                }));
+            }
+            start.countDown();
+            // hold the first decode until every other caller has had time to ask
+            assertTrue(loader.entered.await(5, TimeUnit.SECONDS));
+            Thread.sleep(50);
+            loader.gate.countDown();
+
+            List<Future<GVRTexture>> first = results.get(0).get(5, TimeUnit.SECONDS);
+            for (Future<List<Future<GVRTexture>>> result : results) {
+                assertSame(first, result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            threads.shutdownNow();
+        }
+        assertEquals(1, loader.count("explosion.zip"));
+        assertEquals(1, cache.getDecodeCount("explosion.zip"));
+    }
+
+    @Test
+    public void failedDecodeIsTriedAgain() throws IOException {
+        CountingLoader loader = new CountingLoader();
+        loader.failures = 1;
+        FlipbookCache cache = new FlipbookCache(loader);
+        try {
+            cache.get("explosion.zip");
+            fail("first decode should fail");
+        } catch (IOException e) {
+            assertEquals("no explosion.zip", e.getMessage());
+        }
+        List<Future<GVRTexture>> explosion = cache.get("explosion.zip");
+        assertSame(explosion, cache.get("explosion.zip"));
+        assertEquals(2, loader.count("explosion.zip"));
+    }
+
+    /** Counts the decodes of each asset and hands back an empty frame list. */
+    private static final class CountingLoader implements FlipbookCache.Loader {
+        final Map<String, Integer> counts = new HashMap<String, Integer>();
+        final CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch gate;
+        int failures;
+
+        @Override
+        public List<Future<GVRTexture>> load(String assetName) throws IOException {
+            synchronized (counts) {
+                Integer count = counts.get(assetName);
+                counts.put(assetName, count == null ? 1 : count + 1);
+                if (failures > 0) {
+                    --failures;
+                    throw new IOException("no " + assetName);
+                }
+            }
+            entered.countDown();
+            if (gate != null) {
+                try {
+                    gate.await();
+                } catch (InterruptedException e) {
+                    throw new IOException("interrupted");
+                }
+            }
+            return new ArrayList<Future<GVRTexture>>();
+        }
+
+        int count(String assetName) {
+            synchronized (counts) {
+                Integer count = counts.get(assetName);
+                return count == null ? 0 : count;
+            }
+        }
+    }
+}
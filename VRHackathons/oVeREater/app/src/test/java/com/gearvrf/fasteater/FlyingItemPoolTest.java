@@ -0,0 +1,190 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gearvrf.fasteater;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Locale;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class FlyingItemPoolTest {
+
+    private static final int PREWARM = 8;
+    private static final int SESSION_FRAMES = 5 * 60 * 60;
+
+    @Test
+    public void recycledItemComesBackReset() {
+        CountingFactory factory = new CountingFactory();
+        FlyingItemPool pool = new FlyingItemPool(factory, PREWARM);
+
+        FlyingItem item = pool.obtain(ItemType.BOMB);
+        assertEquals(ItemType.BOMB, item.getType());
+        assertTrue(item.isInMotion());
+        item.setVelocityZ(12.5f);
+        item.setPositionZ(4.0f);
+        item.setCurrentStatus(FlyingItem.ItemStatus.ARRIVED_AT_CAMERA);
+
+        pool.recycle(item);
+        assertTrue(item.isHidden());
+        assertEquals(0.0f, item.getVelocityZ(), 0);
+        assertEquals(0.0f, item.getPositionZ(), 0);
+
+        assertSame(item, pool.obtain(ItemType.BOMB));
+        assertTrue(item.isInMotion());
+        assertEquals(0.0f, item.getVelocityZ(), 0);
+        assertEquals(0.0f, item.getPositionZ(), 0);
+        assertEquals("bomb", item.getName());
+        assertEquals(0, pool.getCreatedCount());
+        assertEquals(2, pool.getReusedCount());
+    }
+
+    @Test
+    public void poolGrowsOnlyWhenDry() {
+        CountingFactory factory = new CountingFactory();
+        FlyingItemPool pool = new FlyingItemPool(factory, 2);
+        assertEquals(2 * ItemType.values().length, factory.count);
+
+        FlyingItem first = pool.obtain(ItemType.HOTDOG);
+        FlyingItem second = pool.obtain(ItemType.HOTDOG);
+        FlyingItem third = pool.obtain(ItemType.HOTDOG);
+        assertNotSame(first, third);
+        assertNotSame(second, third);
+        assertEquals(1, pool.getCreatedCount());
+        assertEquals(2 * ItemType.values().length + 1, factory.count);
+
+        // the grown item stays in the pool
+        pool.recycle(first);
+        pool.recycle(second);
+        pool.recycle(third);
+        for (int i = 0; i < 3; ++i) {
+            assertEquals(ItemType.HOTDOG, pool.obtain(ItemType.HOTDOG).getType());
+        }
+        assertEquals(1, pool.getCreatedCount());
+        // other types are kept apart
+        assertEquals(ItemType.SODACAN, pool.obtain(ItemType.SODACAN).getType());
+        assertEquals(1, pool.getCreatedCount());
+    }
+
+    /**
+     * Plays the same five-minute session three times on one pool. The first
+     * run grows the pool to the most items of each type ever in the air and
+     * the second warms up the code; the third, the steady state, must neither
+     * create an item nor allocate.
+     */
+    @Test
+    public void steadyStateSpawningAllocatesNothing() {
+        CountingFactory factory = new CountingFactory();
+        FlyingItemPool pool = new FlyingItemPool(factory, PREWARM);
+        Session warmUp = new Session(pool);
+        warmUp.play();
+        int grown = pool.getCreatedCount();
+        new Session(pool).play();
+        allocatedBytes();
+
+        Session steady = new Session(pool);
+        int itemsBefore = factory.count;
+        long allocated = allocatedBytes();
+        long start = System.nanoTime();
+        steady.play();
+        long nanos = System.nanoTime() - start;
+        long bytes = allocatedBytes() - allocated;
+
+        assertTrue(steady.spawns > 100);
+        assertEquals(warmUp.spawns, steady.spawns);
+        assertEquals(itemsBefore, factory.count);
+        assertEquals(grown, pool.getCreatedCount());
+        System.out.println(String.format(Locale.US,
+                "%d spawns in %d frames: pool grew by %d over %d prewarmed in the first session, "
+                        + "then %.0f ns per frame and %d bytes in all",
+                steady.spawns, SESSION_FRAMES, grown, PREWARM * ItemType.values().length,
+                (double) nanos / SESSION_FRAMES, allocated >= 0 ? bytes : -1));
+        if (allocated >= 0) {
+            // the JIT may still allocate a few hundred bytes while it compiles;
+            // one object per spawn would be at least 16 bytes each
+            assertTrue("steady-state spawning allocated " + bytes + " bytes", bytes < 8 * steady.spawns);
+        }
+    }
+
+    /** The game's frame loop without the scene: spawn, fly, recycle. */
+    private static final class Session implements WaveScheduler.Spawner {
+        private final FlyingItemPool pool;
+        private final SpawnTable table = new SpawnTable();
+        private final WaveScheduler waves = new WaveScheduler(table, 1234);
+        private final ArrayList<FlyingItem> inFlight = new ArrayList<FlyingItem>(table.maxConcurrent);
+        int spawns;
+
+        Session(FlyingItemPool pool) {
+            this.pool = pool;
+        }
+
+        void play() {
+            final float frameSeconds = 1 / 60.0f;
+            for (int frame = 0; frame < SESSION_FRAMES; ++frame) {
+                spawns += waves.update(frameSeconds, inFlight.size(), this);
+                for (int i = inFlight.size() - 1; i >= 0; --i) {
+                    FlyingItem item = inFlight.get(i);
+                    item.setPositionZ(item.getPositionZ() + item.getVelocityZ() * frameSeconds);
+                    if (item.getPositionZ() >= table.endZ) {
+                        inFlight.remove(i);
+                        pool.recycle(item);
+                    }
+                }
+            }
+            for (FlyingItem item : inFlight) {
+                pool.recycle(item);
+            }
+            inFlight.clear();
+        }
+
+        @Override
+        public void spawn(ItemType type, float x, float y, float z, float velocityZ) {
+            FlyingItem item = pool.obtain(type);
+            item.setPositionZ(z);
+            item.setVelocityZ(velocityZ);
+            inFlight.add(item);
+        }
+    }
+
+    /** Items without a scene object, counted. */
+    private static final class CountingFactory implements FlyingItemPool.Factory {
+        int count;
+
+        @Override
+        public FlyingItem create(ItemType type) {
+            ++count;
+            return new FlyingItem(type, null);
+        }
+    }
+
+    /** Bytes this thread has allocated so far, or -1 if the JVM cannot tell. */
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (!(threads instanceof com.sun.management.ThreadMXBean)) {
+            return -1;
+        }
+        com.sun.management.ThreadMXBean sunThreads = (com.sun.management.ThreadMXBean) threads;
+        if (!sunThreads.isThreadAllocatedMemorySupported() || !sunThreads.isThreadAllocatedMemoryEnabled()) {
+            return -1;
+        }
+        return sunThreads.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}
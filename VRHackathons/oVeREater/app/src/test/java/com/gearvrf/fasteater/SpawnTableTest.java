@@ -0,0 +1,105 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gearvrf.fasteater;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class SpawnTableTest {
+
+    @Test
+    public void shippedTableIsTheBuiltInOne() throws IOException {
+        SpawnTable table = SpawnTable.load(new FileInputStream("src/main/assets/spawn_table.json"));
+        assertSameTable(new SpawnTable(), table);
+    }
+
+    @Test
+    public void emptyTableKeepsEveryDefault() throws IOException {
+        assertSameTable(new SpawnTable(), load("{}"));
+    }
+
+    @Test
+    public void partialWeightsKeepTheOtherDefaults() throws IOException {
+        SpawnTable table = load("{ \"weights\": { \"bomb\": 3, \"sodacan\": 0 } }");
+        assertEquals(3.0f, table.weights.get(ItemType.BOMB), 0);
+        assertEquals(0.0f, table.weights.get(ItemType.SODACAN), 0);
+        assertEquals(1.0f, table.weights.get(ItemType.HOTDOG), 0);
+        assertEquals(1.0f, table.weights.get(ItemType.HAMBURGER), 0);
+    }
+
+    @Test
+    public void missingFieldsKeepTheirDefaults() throws IOException {
+        SpawnTable defaults = new SpawnTable();
+        SpawnTable table = load("{ \"maxPerFrame\": 4, \"height\": [1, 2], \"rate\": [[0, 1], [30, 2]] }");
+        assertEquals(4, table.maxPerFrame);
+        assertEquals(1.0f, table.minY, 0);
+        assertEquals(2.0f, table.maxY, 0);
+        assertArrayEquals(new float[] { 0, 30 }, table.rateTimes, 0);
+        assertArrayEquals(new float[] { 1, 2 }, table.rates, 0);
+
+        assertEquals(defaults.startDelay, table.startDelay, 0);
+        assertEquals(defaults.maxConcurrent, table.maxConcurrent);
+        assertEquals(defaults.weights, table.weights);
+        assertEquals(defaults.minX, table.minX, 0);
+        assertEquals(defaults.maxX, table.maxX, 0);
+        assertEquals(defaults.startZ, table.startZ, 0);
+        assertEquals(defaults.endZ, table.endZ, 0);
+        assertEquals(defaults.minFlightSeconds, table.minFlightSeconds, 0);
+        assertEquals(defaults.maxFlightSeconds, table.maxFlightSeconds, 0);
+    }
+
+    @Test
+    public void atLeastOneSpawnPerFrame() throws IOException {
+        assertEquals(1, load("{ \"maxPerFrame\": 0 }").maxPerFrame);
+    }
+
+    @Test(expected = IOException.class)
+    public void rateTimesMustIncrease() throws IOException {
+        load("{ \"rate\": [[0, 1], [0, 2]] }");
+    }
+
+    @Test(expected = IOException.class)
+    public void malformedJsonIsAnIOException() throws IOException {
+        load("{ \"weights\": ");
+    }
+
+    private static SpawnTable load(String json) throws IOException {
+        return SpawnTable.load(new ByteArrayInputStream(json.getBytes("UTF-8")));
+    }
+
+    private static void assertSameTable(SpawnTable expected, SpawnTable table) {
+        assertEquals(expected.startDelay, table.startDelay, 0);
+        assertEquals(expected.maxConcurrent, table.maxConcurrent);
+        assertEquals(expected.maxPerFrame, table.maxPerFrame);
+        assertArrayEquals(expected.rateTimes, table.rateTimes, 0);
+        assertArrayEquals(expected.rates, table.rates, 0);
+        assertEquals(expected.weights, table.weights);
+        assertEquals(expected.minX, table.minX, 0);
+        assertEquals(expected.maxX, table.maxX, 0);
+        assertEquals(expected.minY, table.minY, 0);
+        assertEquals(expected.maxY, table.maxY, 0);
+        assertEquals(expected.startZ, table.startZ, 0);
+        assertEquals(expected.endZ, table.endZ, 0);
+        assertEquals(expected.minFlightSeconds, table.minFlightSeconds, 0);
+        assertEquals(expected.maxFlightSeconds, table.maxFlightSeconds, 0);
+    }
+}
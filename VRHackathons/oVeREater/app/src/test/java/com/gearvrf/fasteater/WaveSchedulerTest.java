@@ -0,0 +1,157 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.gearvrf.fasteater;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class WaveSchedulerTest {
+
+    private static final int SESSION_FRAMES = 5 * 60 * 60;
+
+    @Test
+    public void sameSeedAndFramesReplayTheSameSession() {
+        float[] frames = jitteryFrames(7, SESSION_FRAMES);
+        List<String> first = play(new WaveScheduler(new SpawnTable(), 1234), frames);
+        List<String> second = play(new WaveScheduler(new SpawnTable(), 1234), frames);
+
+        assertTrue(first.size() > 100);
+        assertEquals(first, second);
+    }
+
+    @Test
+    public void otherSeedPlaysAnotherSession() {
+        float[] frames = jitteryFrames(7, SESSION_FRAMES);
+        assertFalse(play(new WaveScheduler(new SpawnTable(), 1234), frames)
+                .equals(play(new WaveScheduler(new SpawnTable(), 1235), frames)));
+    }
+
+    @Test
+    public void nothingBeforeTheStartDelay() {
+        SpawnTable table = new SpawnTable();
+        table.startDelay = 2;
+        WaveScheduler waves = new WaveScheduler(table, 1);
+        Recorder recorder = new Recorder();
+        for (int frame = 0; frame < 119; ++frame) {
+            assertEquals(0, waves.update(1 / 60.0f, 0, recorder));
+        }
+        assertEquals(0, waves.getSpawnedCount());
+        assertEquals(119 / 60.0f, waves.getElapsedSeconds(), 1e-4f);
+    }
+
+    @Test
+    public void spawnCountFollowsTheRate() {
+        SpawnTable table = new SpawnTable();
+        table.startDelay = 0;
+        table.rateTimes = new float[] { 0 };
+        table.rates = new float[] { 2 };
+        WaveScheduler waves = new WaveScheduler(table, 1);
+        Recorder recorder = new Recorder();
+        for (int frame = 0; frame < 100 * 60; ++frame) {
+            waves.update(1 / 60.0f, 0, recorder);
+        }
+        assertEquals(200, waves.getSpawnedCount(), 1);
+        assertEquals(waves.getSpawnedCount(), recorder.log.size());
+    }
+
+    @Test
+    public void longFrameDoesNotBurst() {
+        SpawnTable table = new SpawnTable();
+        table.startDelay = 0;
+        table.maxPerFrame = 2;
+        WaveScheduler waves = new WaveScheduler(table, 1);
+        Recorder recorder = new Recorder();
+        assertEquals(2, waves.update(10, 0, recorder));
+        // the rest of the long frame was not banked
+        assertTrue(waves.update(1 / 60.0f, 0, recorder) <= 2);
+        assertTrue(waves.update(1 / 60.0f, 0, recorder) == 0);
+    }
+
+    @Test
+    public void fullSkySpawnsNothing() {
+        SpawnTable table = new SpawnTable();
+        table.startDelay = 0;
+        table.maxConcurrent = 3;
+        WaveScheduler waves = new WaveScheduler(table, 1);
+        Recorder recorder = new Recorder();
+        assertEquals(0, waves.update(10, 3, recorder));
+        assertEquals(1, waves.update(10, 2, recorder));
+    }
+
+    @Test
+    public void itemsStayInsideTheConfiguredVolume() {
+        SpawnTable table = new SpawnTable();
+        table.weights.put(ItemType.BOMB, 0.0f);
+        WaveScheduler waves = new WaveScheduler(table, 99);
+        final List<ItemType> types = new ArrayList<ItemType>();
+        final SpawnTable limits = table;
+        WaveScheduler.Spawner checker = new WaveScheduler.Spawner() {
+            @Override
+            public void spawn(ItemType type, float x, float y, float z, float velocityZ) {
+                types.add(type);
+                assertTrue(x >= limits.minX && x <= limits.maxX);
+                assertTrue(y >= limits.minY && y <= limits.maxY);
+                assertEquals(limits.startZ, z, 0);
+                float flight = (limits.endZ - limits.startZ) / velocityZ;
+                assertTrue(flight >= limits.minFlightSeconds - 1e-4f
+                        && flight <= limits.maxFlightSeconds + 1e-4f);
+            }
+        };
+        float[] frames = jitteryFrames(3, SESSION_FRAMES);
+        for (float frame : frames) {
+            waves.update(frame, 0, checker);
+        }
+        assertTrue(types.size() > 100);
+        assertFalse(types.contains(ItemType.BOMB));
+        assertTrue(types.contains(ItemType.HOTDOG));
+    }
+
+    /* Frame times around 60 Hz with occasional hitches, the same every time for a seed. */
+    private static float[] jitteryFrames(long seed, int count) {
+        Random random = new Random(seed);
+        float[] frames = new float[count];
+        for (int i = 0; i < count; ++i) {
+            frames[i] = random.nextInt(50) == 0 ? 0.05f : 1 / 60.0f + (random.nextFloat() - 0.5f) * 0.004f;
+        }
+        return frames;
+    }
+
+    private static List<String> play(WaveScheduler waves, float[] frames) {
+        Recorder recorder = new Recorder();
+        for (int i = 0; i < frames.length; ++i) {
+            recorder.frame = i;
+            waves.update(frames[i], 0, recorder);
+        }
+        return recorder.log;
+    }
+
+    private static final class Recorder implements WaveScheduler.Spawner {
+        final List<String> log = new ArrayList<String>();
+        int frame;
+
+        @Override
+        public void spawn(ItemType type, float x, float y, float z, float velocityZ) {
+            log.add(frame + " " + type + " " + x + " " + y + " " + z + " " + velocityZ);
+        }
+    }
+}
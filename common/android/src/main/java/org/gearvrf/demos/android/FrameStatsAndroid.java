@@ -0,0 +1,62 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf.demos.android;
+
+import android.os.Debug;
+import android.util.Log;
+
+import org.gearvrf.demos.util.FrameStats;
+
+/**
+ * The Android pieces of {@link FrameStats}: a clock that counts the CPU time
+ * of the calling thread and a sink that writes to logcat.
+ */
+public final class FrameStatsAndroid {
+
+    /** CPU time of the calling thread; negative where the platform cannot tell. */
+    public static final FrameStats.Clock THREAD_CPU_CLOCK = new FrameStats.Clock() {
+        @Override
+        public long nanoTime() {
+            return Debug.threadCpuTimeNanos();
+        }
+    };
+
+    /** Writes one line per interval to logcat. */
+    public static class LogcatSink implements FrameStats.Sink {
+        private final String mTag;
+
+        public LogcatSink(String tag) {
+            mTag = tag;
+        }
+
+        @Override
+        public void write(FrameStats stats) {
+            Log.i(mTag, stats.toString());
+        }
+    }
+
+    private FrameStatsAndroid() {
+    }
+
+    /**
+     * Stats of the CPU time the calling thread spends per frame, logged under
+     * {@code tag} every {@code flushSeconds}. Call {@link FrameStats#tick()}
+     * once per frame, on the thread to be measured.
+     */
+    public static FrameStats cpuTimeToLogcat(String tag, float flushSeconds) {
+        return new FrameStats(new LogcatSink(tag), flushSeconds, THREAD_CPU_CLOCK);
+    }
+}
@@ -0,0 +1,123 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf.demos.android;
+
+import android.content.Context;
+import android.content.res.AssetFileDescriptor;
+import android.media.MediaMetadataRetriever;
+import android.media.SoundPool;
+import android.media.SoundPool.OnLoadCompleteListener;
+import android.os.SystemClock;
+import android.util.Log;
+
+import org.gearvrf.demos.util.VoiceManager;
+import org.gearvrf.demos.util.VoicePool;
+
+import java.io.IOException;
+
+/**
+ * A SoundPool whose voices are handed out by a {@link VoiceManager}. Samples
+ * loaded through {@link #load} report their load state to the manager, and
+ * their length is read from the resource so that a one-shot keeps its voice
+ * exactly as long as it plays.
+ */
+public class SoundPoolVoices {
+    private static final String TAG = "SoundPoolVoices";
+
+    private final Context context;
+    private final SoundPool soundPool;
+    private final VoiceManager voices;
+
+    public SoundPoolVoices(Context context, int maxVoices, int streamType, long minRepeatMillis) {
+        this.context = context;
+        soundPool = new SoundPool(maxVoices, streamType, 0);
+        voices = new VoiceManager(new VoicePool() {
+            @Override
+            public int play(int sampleId, float leftVolume, float rightVolume, int priority, int loop, float rate) {
+                return soundPool.play(sampleId, leftVolume, rightVolume, priority, loop, rate);
+            }
+
+            @Override
+            public void stop(int streamId) {
+                soundPool.stop(streamId);
+            }
+        }, maxVoices, minRepeatMillis);
+        soundPool.setOnLoadCompleteListener(new OnLoadCompleteListener() {
+            @Override
+            public void onLoadComplete(SoundPool soundPool, int sampleId, int status) {
+                voices.onSampleLoaded(sampleId, status == 0);
+            }
+        });
+    }
+
+    /**
+     * Start loading a raw resource.
+     *
+     * @return the sample id to play it with
+     */
+    public int load(int resourceId) {
+        final int sampleId = soundPool.load(context, resourceId, 1);
+        voices.setSampleDuration(sampleId, durationMillis(resourceId));
+        return sampleId;
+    }
+
+    /**
+     * @return the stream id, or 0 if the sample is not loaded yet, was
+     * played too recently or no voice could be found
+     */
+    public int play(int sampleId, float leftVolume, float rightVolume, int priority, boolean loop) {
+        return voices.play(sampleId, leftVolume, rightVolume, priority, loop, SystemClock.uptimeMillis());
+    }
+
+    /** Stop a stream and give its voice back. Has no effect on a finished stream. */
+    public void stop(int streamId) {
+        voices.stop(streamId);
+    }
+
+    public void autoPause() {
+        soundPool.autoPause();
+    }
+
+    public void autoResume() {
+        soundPool.autoResume();
+    }
+
+    private long durationMillis(int resourceId) {
+        AssetFileDescriptor afd = null;
+        MediaMetadataRetriever retriever = new MediaMetadataRetriever();
+        try {
+            afd = context.getResources().openRawResourceFd(resourceId);
+            if (afd == null) {
+                return 0;
+            }
+            retriever.setDataSource(afd.getFileDescriptor(), afd.getStartOffset(), afd.getLength());
+            String duration = retriever.extractMetadata(MediaMetadataRetriever.METADATA_KEY_DURATION);
+            return (duration != null) ? Long.parseLong(duration) : 0;
+        } catch (RuntimeException e) {
+            Log.w(TAG, "cannot read the length of resource 0x" + Integer.toHexString(resourceId));
+            return 0;
+        } finally {
+            retriever.release();
+            if (afd != null) {
+                try {
+                    afd.close();
+                } catch (IOException e) {
+                    // nothing left to do with it
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,148 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf.demos.gvrf;
+
+import android.content.res.Resources;
+import android.util.Log;
+
+import org.gearvrf.GVRAndroidResource;
+import org.gearvrf.GVRContext;
+import org.gearvrf.GVRImportSettings;
+import org.gearvrf.GVRIndexBuffer;
+import org.gearvrf.GVRMesh;
+import org.gearvrf.demos.util.MeshFile;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.FloatBuffer;
+import java.util.EnumSet;
+
+/**
+ * Binary cache for imported meshes. The first import of an asset writes its
+ * positions, normals, texture coordinates and indices to a {@link MeshFile}
+ * in the application cache directory; later launches map that file and pass
+ * the mapped buffers straight to the mesh instead of parsing the source and
+ * regenerating normals. The file name is derived from a hash of the source
+ * bytes and the import settings, so editing either one invalidates the entry.
+ */
+public final class MeshCache {
+    private static final String TAG = "MeshCache";
+
+    private MeshCache() {
+    }
+
+    /**
+     * Load a mesh from the assets folder, going through the cache.
+     *
+     * @param gvrContext current context
+     * @param assetName  name of the mesh in the assets folder
+     * @param settings   import settings passed to the asset loader on a miss
+     * @return the loaded mesh
+     */
+    public static GVRMesh loadMesh(GVRContext gvrContext, String assetName,
+                                   EnumSet<GVRImportSettings> settings) throws IOException {
+        return loadMesh(gvrContext, new GVRAndroidResource(gvrContext, assetName), assetName,
+                gvrContext.getContext().getAssets().open(assetName), settings);
+    }
+
+    /**
+     * Load a mesh from a raw resource, going through the cache.
+     *
+     * @param gvrContext current context
+     * @param resourceId raw resource id of the mesh
+     * @param settings   import settings passed to the asset loader on a miss
+     * @return the loaded mesh
+     */
+    public static GVRMesh loadMesh(GVRContext gvrContext, int resourceId,
+                                   EnumSet<GVRImportSettings> settings) throws IOException {
+        final Resources resources = gvrContext.getContext().getResources();
+        return loadMesh(gvrContext, new GVRAndroidResource(gvrContext, resourceId),
+                resources.getResourceEntryName(resourceId), resources.openRawResource(resourceId),
+                settings);
+    }
+
+    private static GVRMesh loadMesh(GVRContext gvrContext, GVRAndroidResource resource, String name,
+                                    InputStream source, EnumSet<GVRImportSettings> settings)
+            throws IOException {
+        final long start = System.nanoTime();
+        final File file = new File(gvrContext.getContext().getCacheDir(),
+                MeshFile.key(source, settings.toString()) + ".mesh");
+
+        GVRMesh mesh = lookup(gvrContext, name, file, start);
+        if (mesh == null) {
+            mesh = gvrContext.getAssetLoader().loadMesh(resource, settings);
+            store(name, mesh, file, start);
+        }
+        return mesh;
+    }
+
+    private static GVRMesh lookup(GVRContext gvrContext, String name, File file, long start) {
+        if (!file.exists()) {
+            return null;
+        }
+        try {
+            GVRMesh mesh = toMesh(gvrContext, MeshFile.map(file));
+            Log.d(TAG, name + " mapped from cache in " + elapsedMillis(start) + " ms");
+            return mesh;
+        } catch (IOException e) {
+            Log.w(TAG, "discarding unreadable cache entry " + file.getName(), e);
+            file.delete();
+            return null;
+        }
+    }
+
+    private static void store(String name, GVRMesh mesh, File file, long start) {
+        Log.d(TAG, name + " imported in " + elapsedMillis(start) + " ms");
+        try {
+            MeshFile.write(file, mesh.getVertices(), mesh.getNormals(), mesh.getTexCoords(),
+                    mesh.getIndices());
+        } catch (IOException e) {
+            Log.w(TAG, "could not cache " + name, e);
+            file.delete();
+        }
+    }
+
+    /** Mesh whose vertex and index buffers are filled from the mapped file directly. */
+    private static GVRMesh toMesh(GVRContext gvrContext, MeshFile file) {
+        final FloatBuffer normals = file.getNormals();
+        final FloatBuffer texCoords = file.getTexCoords();
+        String descriptor = "float3 a_position";
+        if (normals != null) {
+            descriptor += " float3 a_normal";
+        }
+        if (texCoords != null) {
+            descriptor += " float2 a_texcoord";
+        }
+
+        GVRMesh mesh = new GVRMesh(gvrContext, descriptor);
+        mesh.setFloatVec("a_position", file.getPositions());
+        if (normals != null) {
+            mesh.setFloatVec("a_normal", normals);
+        }
+        if (texCoords != null) {
+            mesh.setFloatVec("a_texcoord", texCoords);
+        }
+        GVRIndexBuffer indices = new GVRIndexBuffer(gvrContext, 2, file.getIndexCount());
+        indices.setShortVec(file.getIndices());
+        mesh.setIndexBuffer(indices);
+        return mesh;
+    }
+
+    private static float elapsedMillis(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1000000.0f;
+    }
+}
@@ -0,0 +1,80 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf.demos.gvrf;
+
+import org.gearvrf.GVRContext;
+import org.gearvrf.GVRMesh;
+import org.gearvrf.demos.util.SphereGeometry;
+import org.gearvrf.demos.util.SphereGeometryCache;
+
+import java.util.HashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Shared sphere meshes for panoramas, with the triangles and texture
+ * coordinates of GVRSphereSceneObject. The geometry of each (stacks, slices,
+ * facing, UV layout) is generated once by {@link SphereGeometry} and each
+ * context gets one {@link GVRMesh} per key that every sphere can share.
+ * {@link #prefetch} generates the geometry on a worker thread, so the GL
+ * thread only has to copy the arrays into the mesh.
+ */
+public final class SphereMeshCache {
+
+    private static final SphereGeometryCache sGeometry = new SphereGeometryCache(
+            Executors.newSingleThreadExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread thread = new Thread(r, "SphereMeshCache");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            }));
+    private static final HashMap<String, GVRMesh> sMeshes = new HashMap<String, GVRMesh>();
+    private static GVRContext sMeshContext;
+
+    private SphereMeshCache() {
+    }
+
+    /**
+     * Shared mesh for the sphere, generating it if nobody has. Meshes belong
+     * to one context; switching contexts drops them.
+     */
+    public static synchronized GVRMesh getMesh(GVRContext gvrContext, int stacks, int slices,
+                                               boolean facingOut, SphereGeometry.UvLayout layout) {
+        if (sMeshContext != gvrContext) {
+            sMeshes.clear();
+            sMeshContext = gvrContext;
+        }
+        final String key = stacks + "x" + slices + (facingOut ? "out" : "in") + layout;
+        GVRMesh mesh = sMeshes.get(key);
+        if (mesh == null) {
+            SphereGeometry sphere = sGeometry.get(stacks, slices, facingOut, layout);
+            mesh = new GVRMesh(gvrContext, "float3 a_position float2 a_texcoord float3 a_normal");
+            mesh.setVertices(sphere.positions);
+            mesh.setNormals(sphere.normals);
+            mesh.setTexCoords(sphere.texCoords);
+            mesh.setIndices(sphere.indices);
+            sMeshes.put(key, mesh);
+        }
+        return mesh;
+    }
+
+    /** Start generating the sphere's geometry on a worker thread. */
+    public static void prefetch(int stacks, int slices, boolean facingOut, SphereGeometry.UvLayout layout) {
+        sGeometry.prefetch(stacks, slices, facingOut, layout);
+    }
+}
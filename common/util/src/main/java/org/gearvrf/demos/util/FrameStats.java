@@ -0,0 +1,284 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf.demos.util;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Locale;
+
+/**
+ * Frame timing telemetry. Frame times go into a log-linear histogram of
+ * microseconds, 64 sub-buckets per power of two, so any recorded value is
+ * reported within about 1.6% whatever its magnitude. Every flush interval the
+ * percentiles, the maximum and the number of frames over the 90 Hz and 60 Hz
+ * budgets are handed to a {@link Sink} and the histogram starts over.
+ * Recording only updates counters; nothing is allocated per frame.
+ * <p>
+ * Frame times are read from a {@link Clock}. With a clock that counts the
+ * CPU time of the calling thread, {@link #tick()} from the GL thread records
+ * the CPU work of each frame, leaving out the time spent waiting for vsync;
+ * with {@link #WALL_CLOCK} it records frame-to-frame intervals instead.
+ */
+public class FrameStats {
+    public static final long BUDGET_90HZ_NANOS = 11111111;
+    public static final long BUDGET_60HZ_NANOS = 16666667;
+
+    /** Source of frame times. */
+    public interface Clock {
+        /** Nanoseconds from an arbitrary origin, or a negative value if not available. */
+        long nanoTime();
+    }
+
+    public static final Clock WALL_CLOCK = new Clock() {
+        @Override
+        public long nanoTime() {
+            return System.nanoTime();
+        }
+    };
+
+    /** Receives the statistics of one flush interval. */
+    public interface Sink {
+        void write(FrameStats stats);
+    }
+
+    /**
+     * Appends one CSV line per interval to a file. Stops writing after the
+     * first I/O error, which {@link #getError()} then returns.
+     */
+    public static class FileSink implements Sink {
+        private final File mFile;
+        private Writer mWriter;
+        private IOException mError;
+
+        public FileSink(File file) {
+            mFile = file;
+        }
+
+        @Override
+        public void write(FrameStats stats) {
+            if (mError != null) {
+                return;
+            }
+            try {
+                if (mWriter == null) {
+                    boolean header = !mFile.exists() || (mFile.length() == 0);
+                    mWriter = new FileWriter(mFile, true);
+                    if (header) {
+                        mWriter.write("frames,seconds,p50_ms,p95_ms,p99_ms,max_ms,over_11ms,over_16ms\n");
+                    }
+                }
+                mWriter.write(String.format(Locale.US, "%d,%.3f,%.3f,%.3f,%.3f,%.3f,%d,%d\n",
+                        stats.getCount(), stats.getIntervalSeconds(),
+                        stats.getPercentileMillis(50), stats.getPercentileMillis(95),
+                        stats.getPercentileMillis(99), stats.getMaxMillis(),
+                        stats.getOverBudget90(), stats.getOverBudget60()));
+                mWriter.flush();
+            } catch (IOException e) {
+                mError = e;
+                close();
+            }
+        }
+
+        public IOException getError() {
+            return mError;
+        }
+
+        public void close() {
+            if (mWriter != null) {
+                try {
+                    mWriter.close();
+                } catch (IOException e) {
+                }
+                mWriter = null;
+            }
+        }
+    }
+
+    private static final int SUB_BITS = 7;
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+    private static final int HALF_COUNT = SUB_COUNT >> 1;
+    private static final int MAX_SHIFT = 30;
+    private static final long MAX_MICROS = (1L << (MAX_SHIFT + SUB_BITS)) - 1;
+
+    private final int[] mCounts = new int[SUB_COUNT + MAX_SHIFT * HALF_COUNT];
+    private final Sink mSink;
+    private final long mFlushNanos;
+    private final Clock mClock;
+    private int mCount;
+    private long mMaxNanos;
+    private int mOver90;
+    private int mOver60;
+    private long mIntervalStart = -1;
+    private long mIntervalNanos;
+    private long mLastTick = -1;
+    private long mFrameStart = -1;
+
+    /**
+     * @param sink          receives the statistics, or null to only collect them
+     * @param flushSeconds  length of an interval in wall time, 0 to never flush automatically
+     * @param clock         what a frame time is measured in
+     */
+    public FrameStats(Sink sink, float flushSeconds, Clock clock) {
+        mSink = sink;
+        mFlushNanos = (long) (flushSeconds * 1e9);
+        mClock = clock;
+    }
+
+    /**
+     * Record how far the clock advanced since the previous tick; call once
+     * per frame from the same thread.
+     */
+    public void tick() {
+        long now = mClock.nanoTime();
+        if ((now >= 0) && (mLastTick >= 0)) {
+            record(now - mLastTick);
+        }
+        mLastTick = now;
+        flushIfDue();
+    }
+
+    /** Start timing one frame's work. */
+    public void beginFrame() {
+        mFrameStart = mClock.nanoTime();
+    }
+
+    /** Record the clock time since {@link #beginFrame()}. */
+    public void endFrame() {
+        long now = mClock.nanoTime();
+        if ((now >= 0) && (mFrameStart >= 0)) {
+            record(now - mFrameStart);
+        }
+        mFrameStart = -1;
+        flushIfDue();
+    }
+
+    public void record(long nanos) {
+        if (nanos < 0) {
+            return;
+        }
+        ++mCounts[bucketOf(Math.min(nanos / 1000, MAX_MICROS))];
+        ++mCount;
+        if (nanos > mMaxNanos) {
+            mMaxNanos = nanos;
+        }
+        if (nanos > BUDGET_90HZ_NANOS) {
+            ++mOver90;
+        }
+        if (nanos > BUDGET_60HZ_NANOS) {
+            ++mOver60;
+        }
+    }
+
+    /** Hand the current interval to the sink and start a new one. */
+    public void flush() {
+        long now = System.nanoTime();
+        mIntervalNanos = (mIntervalStart >= 0) ? now - mIntervalStart : 0;
+        if ((mSink != null) && (mCount > 0)) {
+            mSink.write(this);
+        }
+        reset();
+        mIntervalStart = now;
+    }
+
+    public void reset() {
+        for (int i = 0; i < mCounts.length; ++i) {
+            mCounts[i] = 0;
+        }
+        mCount = 0;
+        mMaxNanos = 0;
+        mOver90 = 0;
+        mOver60 = 0;
+    }
+
+    public int getCount() {
+        return mCount;
+    }
+
+    public int getOverBudget90() {
+        return mOver90;
+    }
+
+    public int getOverBudget60() {
+        return mOver60;
+    }
+
+    public float getMaxMillis() {
+        return mMaxNanos / 1e6f;
+    }
+
+    /** Wall time length of the interval last flushed. */
+    public float getIntervalSeconds() {
+        return mIntervalNanos / 1e9f;
+    }
+
+    /**
+     * Smallest recorded frame time that {@code percent} of the frames do not
+     * exceed, as the upper edge of its bucket and never above the maximum.
+     */
+    public float getPercentileMillis(double percent) {
+        if (mCount == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(percent / 100.0 * mCount);
+        rank = Math.max(1, Math.min(rank, mCount));
+        long seen = 0;
+        for (int i = 0; i < mCounts.length; ++i) {
+            seen += mCounts[i];
+            if (seen >= rank) {
+                return Math.min(highestInBucket(i) * 1000, mMaxNanos) / 1e6f;
+            }
+        }
+        return getMaxMillis();
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.US,
+                "frames %d (%.1f FPS) p50 %.2f ms p95 %.2f ms p99 %.2f ms max %.2f ms, over 11.1 ms %d, over 16.6 ms %d",
+                mCount, (mIntervalNanos > 0) ? mCount / (mIntervalNanos / 1e9f) : 0.0f,
+                getPercentileMillis(50), getPercentileMillis(95), getPercentileMillis(99),
+                getMaxMillis(), mOver90, mOver60);
+    }
+
+    private void flushIfDue() {
+        long now = System.nanoTime();
+        if (mIntervalStart < 0) {
+            mIntervalStart = now;
+        } else if ((mFlushNanos > 0) && (now - mIntervalStart >= mFlushNanos)) {
+            flush();
+        }
+    }
+
+    static int bucketOf(long micros) {
+        if (micros < SUB_COUNT) {
+            return (int) micros;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(micros) - (SUB_BITS - 1);
+        return SUB_COUNT + (shift - 1) * HALF_COUNT + (int) (micros >> shift) - HALF_COUNT;
+    }
+
+    static long highestInBucket(int bucket) {
+        if (bucket < SUB_COUNT) {
+            return bucket;
+        }
+        int k = bucket - SUB_COUNT;
+        int shift = k / HALF_COUNT + 1;
+        long sub = k % HALF_COUNT + HALF_COUNT;
+        return ((sub + 1) << shift) - 1;
+    }
+}
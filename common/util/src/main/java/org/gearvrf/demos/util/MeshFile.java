@@ -0,0 +1,205 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf.demos.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.nio.FloatBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Flat binary file holding the positions, normals, texture coordinates and
+ * 16-bit indices of one mesh, in native byte order after a six-int header.
+ * {@link #map} maps the file and hands out views of the mapping, so the data
+ * goes to the mesh without being copied into Java arrays. No Android or GVRf
+ * dependency, the mesh cache of the samples is built on top of it.
+ */
+public final class MeshFile {
+
+    private static final int MAGIC = 0x4D455348; // "MESH"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 6 * 4;
+
+    private final FloatBuffer positions;
+    private final FloatBuffer normals;
+    private final FloatBuffer texCoords;
+    private final CharBuffer indices;
+
+    private MeshFile(FloatBuffer positions, FloatBuffer normals, FloatBuffer texCoords,
+                     CharBuffer indices) {
+        this.positions = positions;
+        this.normals = normals;
+        this.texCoords = texCoords;
+        this.indices = indices;
+    }
+
+    /**
+     * Cache key of a source file: SHA-1 of its bytes, the import settings and
+     * the file format version, in hex. Closes {@code source}.
+     */
+    public static String key(InputStream source, String settings) throws IOException {
+        final MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            source.close();
+            throw new IOException(e);
+        }
+
+        try {
+            byte[] buffer = new byte[16 * 1024];
+            int read;
+            while ((read = source.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        } finally {
+            source.close();
+        }
+        digest.update(settings.getBytes("UTF-8"));
+        digest.update((byte) VERSION);
+
+        StringBuilder key = new StringBuilder();
+        for (byte b : digest.digest()) {
+            key.append(String.format("%02x", b));
+        }
+        return key.toString();
+    }
+
+    /**
+     * Write a mesh. {@code normals} and {@code texCoords} may be null.
+     */
+    public static void write(File file, float[] positions, float[] normals, float[] texCoords,
+                             char[] indices) throws IOException {
+        normals = nonNull(normals);
+        texCoords = nonNull(texCoords);
+        final int size = HEADER_BYTES
+                + 4 * (positions.length + normals.length + texCoords.length)
+                + 2 * indices.length;
+        ByteBuffer buffer = ByteBuffer.allocate(size).order(ByteOrder.nativeOrder());
+        buffer.putInt(MAGIC).putInt(VERSION)
+                .putInt(positions.length).putInt(normals.length)
+                .putInt(texCoords.length).putInt(indices.length);
+        buffer.asFloatBuffer().put(positions).put(normals).put(texCoords);
+        buffer.position(size - 2 * indices.length);
+        buffer.asCharBuffer().put(indices);
+        buffer.rewind();
+
+        RandomAccessFile out = new RandomAccessFile(file, "rw");
+        try {
+            out.setLength(0);
+            out.getChannel().write(buffer);
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Map a file written by {@link #write}. The mapping outlives the file
+     * handle, which is closed before returning.
+     *
+     * @throws IOException if the file is not a complete mesh file
+     */
+    public static MeshFile map(File file) throws IOException {
+        RandomAccessFile in = new RandomAccessFile(file, "r");
+        try {
+            FileChannel channel = in.getChannel();
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            buffer.order(ByteOrder.nativeOrder());
+
+            if (buffer.remaining() < HEADER_BYTES || buffer.getInt() != MAGIC
+                    || buffer.getInt() != VERSION) {
+                throw new IOException("bad header");
+            }
+            final int positionCount = buffer.getInt();
+            final int normalCount = buffer.getInt();
+            final int texCoordCount = buffer.getInt();
+            final int indexCount = buffer.getInt();
+            final long expected = HEADER_BYTES
+                    + 4L * ((long) positionCount + normalCount + texCoordCount)
+                    + 2L * indexCount;
+            if (positionCount < 0 || normalCount < 0 || texCoordCount < 0 || indexCount < 0
+                    || buffer.capacity() != expected) {
+                throw new IOException("truncated entry");
+            }
+
+            int offset = HEADER_BYTES;
+            FloatBuffer positions = floats(buffer, offset, positionCount);
+            offset += 4 * positionCount;
+            FloatBuffer normals = (normalCount > 0) ? floats(buffer, offset, normalCount) : null;
+            offset += 4 * normalCount;
+            FloatBuffer texCoords = (texCoordCount > 0) ? floats(buffer, offset, texCoordCount) : null;
+            offset += 4 * texCoordCount;
+            return new MeshFile(positions, normals, texCoords, chars(buffer, offset, indexCount));
+        } finally {
+            in.close();
+        }
+    }
+
+    /** Three floats per vertex, read-only view of the mapping. */
+    public FloatBuffer getPositions() {
+        return positions.duplicate();
+    }
+
+    /** Three floats per vertex, or null if the mesh has no normals. */
+    public FloatBuffer getNormals() {
+        return (normals != null) ? normals.duplicate() : null;
+    }
+
+    /** Two floats per vertex, or null if the mesh has no texture coordinates. */
+    public FloatBuffer getTexCoords() {
+        return (texCoords != null) ? texCoords.duplicate() : null;
+    }
+
+    public CharBuffer getIndices() {
+        return indices.duplicate();
+    }
+
+    public int getVertexCount() {
+        return positions.capacity() / 3;
+    }
+
+    public int getIndexCount() {
+        return indices.capacity();
+    }
+
+    private static FloatBuffer floats(ByteBuffer buffer, int offset, int count) {
+        return slice(buffer, offset, 4 * count).asFloatBuffer();
+    }
+
+    private static CharBuffer chars(ByteBuffer buffer, int offset, int count) {
+        return slice(buffer, offset, 2 * count).asCharBuffer();
+    }
+
+    private static ByteBuffer slice(ByteBuffer buffer, int offset, int bytes) {
+        ByteBuffer view = buffer.duplicate();
+        view.limit(offset + bytes);
+        view.position(offset);
+        // slice() forgets the byte order
+        return view.slice().order(ByteOrder.nativeOrder());
+    }
+
+    private static float[] nonNull(float[] array) {
+        return array != null ? array : new float[0];
+    }
+}
@@ -0,0 +1,187 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf.demos.util;
+
+/**
+ * Positions, normals, texture coordinates and 16-bit indices of a UV sphere
+ * of radius 1, made by the pure {@link #generate} function.
+ * <p>
+ * The triangles, their winding and their texture coordinates are those of
+ * GVRSphereSceneObject, so a panorama looks the same on either: stack 0 is
+ * the north pole at v = 0, and seen from inside u grows with the angle from
+ * +X towards +Z. Unlike GVRSphereSceneObject, triangles share their vertices:
+ * each inner ring is stored once with a seam vertex, and only the pole keeps
+ * one vertex per slice for its own u. A 72 x 144 sphere has 10,583 vertices
+ * instead of 41,184.
+ */
+public final class SphereGeometry {
+
+    public enum UvLayout {
+        /** Full equirectangular image, v = 0 at the north pole. */
+        EQUIRECTANGULAR,
+        /** Same, for images stored bottom row first. */
+        EQUIRECTANGULAR_FLIPPED_V
+    }
+
+    public final int stacks;
+    public final int slices;
+    public final boolean facingOut;
+    public final UvLayout layout;
+
+    public final float[] positions;
+    public final float[] normals;
+    public final float[] texCoords;
+    public final char[] indices;
+
+    private SphereGeometry(int stacks, int slices, boolean facingOut, UvLayout layout,
+                           int vertexCount, int indexCount) {
+        this.stacks = stacks;
+        this.slices = slices;
+        this.facingOut = facingOut;
+        this.layout = layout;
+        positions = new float[3 * vertexCount];
+        normals = new float[3 * vertexCount];
+        texCoords = new float[2 * vertexCount];
+        indices = new char[indexCount];
+    }
+
+    public int getVertexCount() {
+        return positions.length / 3;
+    }
+
+    /** Vertices a sphere needs, to check a size against the 16-bit indices. */
+    public static int vertexCount(int stacks, int slices) {
+        return 2 * slices + (stacks - 1) * (slices + 1);
+    }
+
+    /**
+     * Generate a sphere. Pure: the same arguments always give equal arrays.
+     *
+     * @param stacks    rings from pole to pole, at least 2
+     * @param slices    segments around the Y axis, at least 3
+     * @param facingOut whether the triangles and normals face outwards, for a
+     *                  sphere seen from outside, or inwards, for a panorama
+     * @param layout    how the image is laid out on the sphere
+     */
+    public static SphereGeometry generate(int stacks, int slices, boolean facingOut, UvLayout layout) {
+        if ((stacks < 2) || (slices < 3)) {
+            throw new IllegalArgumentException("sphere needs at least 2 stacks and 3 slices");
+        }
+        if (layout == null) {
+            throw new IllegalArgumentException("no UV layout");
+        }
+        final int vertexCount = vertexCount(stacks, slices);
+        if (vertexCount > 65536) {
+            throw new IllegalArgumentException("sphere has too many vertices for 16-bit indices");
+        }
+        final SphereGeometry sphere = new SphereGeometry(stacks, slices, facingOut, layout,
+                vertexCount, 6 * slices * (stacks - 1));
+
+        // the angles are computed the way GVRSphereSceneObject computes them,
+        // so that both give the same floats
+        final double[] sinPhi = new double[slices + 1];
+        final double[] cosPhi = new double[slices + 1];
+        final float[] u = new float[slices + 1];
+        for (int slice = 0; slice <= slices; ++slice) {
+            float percentage = (float) slice / slices;
+            double phi = percentage * 2.0 * Math.PI;
+            sinPhi[slice] = Math.sin(phi);
+            cosPhi[slice] = Math.cos(phi);
+            u[slice] = facingOut ? 1 - percentage : percentage;
+        }
+
+        int vertex = 0;
+        // north pole, one vertex per slice
+        for (int slice = 0; slice < slices; ++slice) {
+            sphere.vertex(vertex++, 0.0f, cosPhi[slice], sinPhi[slice], (u[slice] + u[slice + 1]) / 2.0f);
+        }
+        // inner rings, with the first column repeated at u = 1 for the seam
+        for (int stack = 1; stack < stacks; ++stack) {
+            float percentage = (float) stack / stacks;
+            for (int slice = 0; slice <= slices; ++slice) {
+                sphere.vertex(vertex++, percentage, cosPhi[slice], sinPhi[slice], u[slice]);
+            }
+        }
+        // south pole
+        for (int slice = 0; slice < slices; ++slice) {
+            sphere.vertex(vertex++, 1.0f, cosPhi[slice], sinPhi[slice], (u[slice] + u[slice + 1]) / 2.0f);
+        }
+
+        final int southPole = slices + (stacks - 1) * (slices + 1);
+        int index = 0;
+        for (int slice = 0; slice < slices; ++slice) {
+            int v0 = ring(slices, 1, slice);
+            if (facingOut) {
+                index = sphere.triangle(index, v0 + 1, v0, slice);
+            } else {
+                index = sphere.triangle(index, v0, v0 + 1, slice);
+            }
+        }
+        for (int stack = 1; stack < stacks - 1; ++stack) {
+            for (int slice = 0; slice < slices; ++slice) {
+                int v0 = ring(slices, stack, slice);
+                int v2 = ring(slices, stack + 1, slice);
+                if (facingOut) {
+                    index = sphere.triangle(index, v0, v0 + 1, v2);
+                    index = sphere.triangle(index, v2, v0 + 1, v2 + 1);
+                } else {
+                    index = sphere.triangle(index, v0, v2, v0 + 1);
+                    index = sphere.triangle(index, v2, v2 + 1, v0 + 1);
+                }
+            }
+        }
+        for (int slice = 0; slice < slices; ++slice) {
+            int v0 = ring(slices, stacks - 1, slice);
+            if (facingOut) {
+                index = sphere.triangle(index, v0, v0 + 1, southPole + slice);
+            } else {
+                index = sphere.triangle(index, v0 + 1, v0, southPole + slice);
+            }
+        }
+        return sphere;
+    }
+
+    /** Index of a vertex of inner ring {@code stack}. */
+    private static int ring(int slices, int stack, int slice) {
+        return slices + (stack - 1) * (slices + 1) + slice;
+    }
+
+    private void vertex(int i, float stackPercentage, double cosPhi, double sinPhi, float s) {
+        final double theta = stackPercentage * Math.PI;
+        final double sinTheta = Math.sin(theta);
+        final float x = (float) (sinTheta * cosPhi);
+        final float y = (float) Math.cos(theta);
+        final float z = (float) (sinTheta * sinPhi);
+        final float sign = facingOut ? 1.0f : -1.0f;
+
+        positions[3 * i] = x;
+        positions[3 * i + 1] = y;
+        positions[3 * i + 2] = z;
+        normals[3 * i] = sign * x;
+        normals[3 * i + 1] = sign * y;
+        normals[3 * i + 2] = sign * z;
+        texCoords[2 * i] = s;
+        texCoords[2 * i + 1] = (layout == UvLayout.EQUIRECTANGULAR_FLIPPED_V)
+                ? 1.0f - stackPercentage : stackPercentage;
+    }
+
+    private int triangle(int index, int v0, int v1, int v2) {
+        indices[index] = (char) v0;
+        indices[index + 1] = (char) v1;
+        indices[index + 2] = (char) v2;
+        return index + 3;
+    }
+}
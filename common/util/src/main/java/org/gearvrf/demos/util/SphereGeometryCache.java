@@ -0,0 +1,98 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf.demos.util;
+
+import java.util.HashMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Sphere geometry generated once per (stacks, slices, facing, UV layout) and
+ * shared from then on. {@link #prefetch} hands the generation to an
+ * executor, so it can overlap with loading the texture; {@link #get} waits
+ * for it, or generates the sphere on the calling thread if the executor has
+ * not started on it yet.
+ */
+public final class SphereGeometryCache {
+
+    private final Executor executor;
+    private final HashMap<String, FutureTask<SphereGeometry>> geometry =
+            new HashMap<String, FutureTask<SphereGeometry>>();
+
+    /** @param executor runs the generation asked for by {@link #prefetch} */
+    public SphereGeometryCache(Executor executor) {
+        this.executor = executor;
+    }
+
+    /** Geometry of the sphere, generating it if nobody has. */
+    public SphereGeometry get(int stacks, int slices, boolean facingOut, SphereGeometry.UvLayout layout) {
+        FutureTask<SphereGeometry> task = task(stacks, slices, facingOut, layout, false);
+        // does nothing if the executor got to it first
+        task.run();
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return SphereGeometry.generate(stacks, slices, facingOut, layout);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    /** Start generating the sphere on the executor, if nobody has. */
+    public void prefetch(int stacks, int slices, boolean facingOut, SphereGeometry.UvLayout layout) {
+        task(stacks, slices, facingOut, layout, true);
+    }
+
+    /** Whether the sphere was asked for, generated or not. */
+    public synchronized boolean contains(int stacks, int slices, boolean facingOut,
+                                         SphereGeometry.UvLayout layout) {
+        return geometry.containsKey(key(stacks, slices, facingOut, layout));
+    }
+
+    private FutureTask<SphereGeometry> task(final int stacks, final int slices, final boolean facingOut,
+                                            final SphereGeometry.UvLayout layout, boolean background) {
+        FutureTask<SphereGeometry> task;
+        synchronized (this) {
+            String key = key(stacks, slices, facingOut, layout);
+            task = geometry.get(key);
+            if (task != null) {
+                return task;
+            }
+            task = new FutureTask<SphereGeometry>(new Callable<SphereGeometry>() {
+                @Override
+                public SphereGeometry call() {
+                    return SphereGeometry.generate(stacks, slices, facingOut, layout);
+                }
+            });
+            geometry.put(key, task);
+        }
+        if (background) {
+            executor.execute(task);
+        }
+        return task;
+    }
+
+    private static String key(int stacks, int slices, boolean facingOut, SphereGeometry.UvLayout layout) {
+        return stacks + "x" + slices + (facingOut ? "out" : "in") + layout;
+    }
+}
@@ -0,0 +1,195 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf.demos.util;
+
+import java.util.Arrays;
+
+/**
+ * Allocates a fixed budget of voices on top of a {@link VoicePool}.
+ * <p>
+ * Each sample has its own load state, so a sound is only refused while that
+ * particular sample is still loading. When every voice is busy the voice with
+ * the lowest priority is stolen, the oldest one first; a request whose
+ * priority is lower than every playing voice is dropped instead. Identical
+ * one-shots played again within {@code minRepeatMillis} are ignored, which
+ * keeps hover sounds triggered every frame from flooding the pool.
+ * <p>
+ * SoundPool does not report when a one-shot finishes, so a one-shot voice is
+ * considered free again once the length of its sample has passed, as given to
+ * {@link #setSampleDuration}; {@link #UNKNOWN_DURATION_MILLIS} is assumed for
+ * a sample whose length could not be read. Loops hold their voice until they
+ * are stopped.
+ */
+public class VoiceManager {
+
+    public static final int DEFAULT_PRIORITY = 1;
+    public static final long UNKNOWN_DURATION_MILLIS = 1000;
+
+    private static final long NEVER = Long.MIN_VALUE;
+
+    private final VoicePool pool;
+    private final long minRepeatMillis;
+
+    // one entry per voice, a stream id of 0 marks a free voice
+    private final int[] streamIds;
+    private final int[] sampleIds;
+    private final int[] priorities;
+    private final long[] startTimes;
+    private final boolean[] looping;
+
+    // indexed by sample id
+    private boolean[] loaded = new boolean[16];
+    private long[] lastPlayed = new long[16];
+    private long[] durations = new long[16];
+
+    public VoiceManager(VoicePool pool, int maxVoices, long minRepeatMillis) {
+        if (maxVoices <= 0) {
+            throw new IllegalArgumentException("maxVoices must be positive");
+        }
+        this.pool = pool;
+        this.minRepeatMillis = minRepeatMillis;
+
+        streamIds = new int[maxVoices];
+        sampleIds = new int[maxVoices];
+        priorities = new int[maxVoices];
+        startTimes = new long[maxVoices];
+        looping = new boolean[maxVoices];
+        Arrays.fill(lastPlayed, NEVER);
+    }
+
+    public synchronized void onSampleLoaded(int sampleId, boolean success) {
+        ensureSampleCapacity(sampleId);
+        loaded[sampleId] = success;
+    }
+
+    /** Length of a sample when played at normal rate, 0 if unknown. */
+    public synchronized void setSampleDuration(int sampleId, long millis) {
+        ensureSampleCapacity(sampleId);
+        durations[sampleId] = millis;
+    }
+
+    public synchronized boolean isLoaded(int sampleId) {
+        return sampleId > 0 && sampleId < loaded.length && loaded[sampleId];
+    }
+
+    /**
+     * Play a sample if it is loaded and a voice can be found for it.
+     *
+     * @return the stream id, or 0 if the sound was not played
+     */
+    public synchronized int play(int sampleId, float leftVolume, float rightVolume, int priority,
+                                 boolean loop, long nowMillis) {
+        if (!isLoaded(sampleId)) {
+            return 0;
+        }
+        if (!loop && lastPlayed[sampleId] != NEVER
+                && nowMillis - lastPlayed[sampleId] < minRepeatMillis) {
+            return 0;
+        }
+
+        releaseFinished(nowMillis);
+        int voice = findFreeVoice();
+        if (voice < 0) {
+            voice = findVictim();
+            if (priorities[voice] > priority) {
+                return 0;
+            }
+            pool.stop(streamIds[voice]);
+            streamIds[voice] = 0;
+        }
+
+        final int streamId = pool.play(sampleId, leftVolume, rightVolume, priority, loop ? -1 : 0, 1f);
+        if (streamId == 0) {
+            return 0;
+        }
+        streamIds[voice] = streamId;
+        sampleIds[voice] = sampleId;
+        priorities[voice] = priority;
+        startTimes[voice] = nowMillis;
+        looping[voice] = loop;
+        if (!loop) {
+            lastPlayed[sampleId] = nowMillis;
+        }
+        return streamId;
+    }
+
+    public synchronized void stop(int streamId) {
+        if (streamId == 0) {
+            return;
+        }
+        pool.stop(streamId);
+        for (int i = 0; i < streamIds.length; ++i) {
+            if (streamIds[i] == streamId) {
+                streamIds[i] = 0;
+            }
+        }
+    }
+
+    public synchronized int getActiveVoiceCount(long nowMillis) {
+        releaseFinished(nowMillis);
+        int count = 0;
+        for (int streamId : streamIds) {
+            if (streamId != 0) {
+                ++count;
+            }
+        }
+        return count;
+    }
+
+    private void releaseFinished(long nowMillis) {
+        for (int i = 0; i < streamIds.length; ++i) {
+            if (streamIds[i] != 0 && !looping[i] && nowMillis - startTimes[i] >= duration(sampleIds[i])) {
+                streamIds[i] = 0;
+            }
+        }
+    }
+
+    private long duration(int sampleId) {
+        return (durations[sampleId] > 0) ? durations[sampleId] : UNKNOWN_DURATION_MILLIS;
+    }
+
+    private int findFreeVoice() {
+        for (int i = 0; i < streamIds.length; ++i) {
+            if (streamIds[i] == 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private int findVictim() {
+        int victim = 0;
+        for (int i = 1; i < streamIds.length; ++i) {
+            if (priorities[i] < priorities[victim]
+                    || (priorities[i] == priorities[victim] && startTimes[i] < startTimes[victim])) {
+                victim = i;
+            }
+        }
+        return victim;
+    }
+
+    private void ensureSampleCapacity(int sampleId) {
+        if (sampleId < loaded.length) {
+            return;
+        }
+        final int oldLength = loaded.length;
+        final int newLength = Math.max(sampleId + 1, oldLength * 2);
+        loaded = Arrays.copyOf(loaded, newLength);
+        lastPlayed = Arrays.copyOf(lastPlayed, newLength);
+        durations = Arrays.copyOf(durations, newLength);
+        Arrays.fill(lastPlayed, oldLength, newLength, NEVER);
+    }
+}
@@ -13,22 +13,19 @@
  * limitations under the License.
  */
 
+package org.gearvrf.demos.util;
 
-package org.gearvrf.bondage;
-
-import android.util.Log;
+/**
+ * The subset of {@code android.media.SoundPool} that {@link VoiceManager}
+ * drives. The samples back it with a real SoundPool; a fake can be used to
+ * check which voices get allocated or stolen.
+ */
+public interface VoicePool {
 
-public class FPSCounter {
-    private static int frames = 0;
-    private static long startTimeMillis = 0;
-    private static final long interval = 10000;
+    /**
+     * @return a non-zero stream id, or 0 if the sample could not be played
+     */
+    int play(int sampleId, float leftVolume, float rightVolume, int priority, int loop, float rate);
 
-    public static void tick() {
-        ++frames;
-        if (System.currentTimeMillis() - startTimeMillis >= interval) {
-            Log.v("", "FPS : " + frames / (interval / 1000.0f));
-            frames = 0;
-            startTimeMillis = System.currentTimeMillis();
-        }
-    }
+    void stop(int streamId);
 }
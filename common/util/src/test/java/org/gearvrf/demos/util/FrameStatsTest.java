@@ -0,0 +1,218 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf.demos.util;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class FrameStatsTest {
+
+    // 64 sub-buckets per power of two
+    private static final double PRECISION = 1.0 / 64;
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    @Test
+    public void bucketsCoverEveryValueInOrder() {
+        int previous = -1;
+        for (long micros = 0; micros < (1L << 24); micros += 1 + micros / 200) {
+            int bucket = FrameStats.bucketOf(micros);
+            assertTrue(bucket >= previous);
+            assertTrue(micros + " above its bucket", micros <= FrameStats.highestInBucket(bucket));
+            if (bucket > 0) {
+                assertTrue(micros + " below its bucket", micros > FrameStats.highestInBucket(bucket - 1));
+            }
+            long width = FrameStats.highestInBucket(bucket) - (bucket > 0 ? FrameStats.highestInBucket(bucket - 1) : -1);
+            assertTrue(micros + " in too wide a bucket", width <= Math.max(1, micros * PRECISION * 2));
+            previous = bucket;
+        }
+    }
+
+    @Test
+    public void emptyStatsReportZero() {
+        FrameStats stats = new FrameStats(null, 0, FrameStats.WALL_CLOCK);
+        assertEquals(0, stats.getCount());
+        assertEquals(0, stats.getPercentileMillis(50), 0);
+        assertEquals(0, stats.getMaxMillis(), 0);
+    }
+
+    @Test
+    public void percentilesMatchTheSortedFrameTimes() {
+        Random random = new Random(43);
+        for (int run = 0; run < 20; ++run) {
+            FrameStats stats = new FrameStats(null, 0, FrameStats.WALL_CLOCK);
+            int count = 1 + random.nextInt(100000);
+            long[] frames = new long[count];
+            for (int i = 0; i < count; ++i) {
+                // mostly around 8 ms, a tail of hitches up to 200 ms
+                frames[i] = (random.nextInt(50) == 0)
+                        ? (long) (random.nextDouble() * 200e6)
+                        : (long) (8e6 + random.nextGaussian() * 1.5e6);
+                frames[i] = Math.max(0, frames[i]);
+                stats.record(frames[i]);
+            }
+            Arrays.sort(frames);
+
+            assertEquals(count, stats.getCount());
+            assertEquals(frames[count - 1] / 1e6, stats.getMaxMillis(), 1e-3);
+            for (double percent : new double[] { 50, 95, 99, 100 }) {
+                long exact = frames[(int) Math.ceil(percent / 100 * count) - 1];
+                double reported = stats.getPercentileMillis(percent);
+                // never below the exact value, at most one bucket above it
+                assertTrue(percent + ": " + reported + " < " + exact, reported * 1e6 >= exact - 1000);
+                assertTrue(percent + ": " + reported + " >> " + exact,
+                        reported * 1e6 <= exact * (1 + 2 * PRECISION) + 1000);
+            }
+        }
+    }
+
+    @Test
+    public void overBudgetCountsAreExact() {
+        FrameStats stats = new FrameStats(null, 0, FrameStats.WALL_CLOCK);
+        stats.record(FrameStats.BUDGET_90HZ_NANOS);
+        stats.record(FrameStats.BUDGET_90HZ_NANOS + 1);
+        stats.record(FrameStats.BUDGET_60HZ_NANOS);
+        stats.record(FrameStats.BUDGET_60HZ_NANOS + 1);
+        stats.record(-5);
+        assertEquals(4, stats.getCount());
+        assertEquals(3, stats.getOverBudget90());
+        assertEquals(1, stats.getOverBudget60());
+    }
+
+    @Test
+    public void tickRecordsWhatTheClockAdvanced() {
+        FakeClock clock = new FakeClock();
+        FrameStats stats = new FrameStats(null, 0, clock);
+        clock.now = 1000000;
+        stats.tick();
+        assertEquals(0, stats.getCount());
+
+        clock.now += 4000000;
+        stats.tick();
+        clock.now += 12000000;
+        stats.tick();
+        assertEquals(2, stats.getCount());
+        assertEquals(12, stats.getMaxMillis(), 1e-6);
+        assertEquals(1, stats.getOverBudget90());
+    }
+
+    @Test
+    public void unavailableClockRecordsNothing() {
+        FakeClock clock = new FakeClock();
+        FrameStats stats = new FrameStats(null, 0, clock);
+        clock.now = -1;
+        stats.tick();
+        stats.tick();
+        stats.beginFrame();
+        stats.endFrame();
+        assertEquals(0, stats.getCount());
+    }
+
+    @Test
+    public void beginAndEndTimeOneFrame() {
+        FakeClock clock = new FakeClock();
+        FrameStats stats = new FrameStats(null, 0, clock);
+        stats.beginFrame();
+        clock.now += 3000000;
+        stats.endFrame();
+        // an end without a begin is ignored
+        clock.now += 50000000;
+        stats.endFrame();
+        assertEquals(1, stats.getCount());
+        assertEquals(3, stats.getMaxMillis(), 1e-6);
+    }
+
+    @Test
+    public void flushHandsTheIntervalToTheSinkAndStartsOver() {
+        final List<String> lines = new ArrayList<String>();
+        FrameStats stats = new FrameStats(new FrameStats.Sink() {
+            @Override
+            public void write(FrameStats stats) {
+                lines.add(stats.getCount() + " " + stats.getMaxMillis());
+            }
+        }, 0, FrameStats.WALL_CLOCK);
+        stats.record(5000000);
+        stats.record(7000000);
+        stats.flush();
+        assertEquals(Arrays.asList("2 7.0"), lines);
+        assertEquals(0, stats.getCount());
+
+        // nothing recorded, nothing written
+        stats.flush();
+        assertEquals(1, lines.size());
+    }
+
+    @Test
+    public void fileSinkWritesOneCsvLinePerInterval() throws IOException {
+        File file = new File(temp.getRoot(), "frames.csv");
+        FrameStats.FileSink sink = new FrameStats.FileSink(file);
+        FrameStats stats = new FrameStats(sink, 0, FrameStats.WALL_CLOCK);
+        stats.record(20000000);
+        stats.flush();
+        stats.record(5000000);
+        stats.flush();
+        sink.close();
+        assertNull(sink.getError());
+
+        List<String> lines = new ArrayList<String>();
+        BufferedReader reader = new BufferedReader(new FileReader(file));
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines.add(line);
+            }
+        } finally {
+            reader.close();
+        }
+        assertEquals(3, lines.size());
+        assertTrue(lines.get(0).startsWith("frames,"));
+        assertTrue(lines.get(1), lines.get(1).startsWith("1,") && lines.get(1).endsWith(",20.000,1,1"));
+        assertTrue(lines.get(2), lines.get(2).endsWith(",5.000,0,0"));
+    }
+
+    @Test
+    public void fileSinkStopsAfterAnError() throws IOException {
+        FrameStats.FileSink sink = new FrameStats.FileSink(temp.newFolder("not-a-file"));
+        FrameStats stats = new FrameStats(sink, 0, FrameStats.WALL_CLOCK);
+        stats.record(1000000);
+        stats.flush();
+        assertTrue(sink.getError() != null);
+    }
+
+    private static final class FakeClock implements FrameStats.Clock {
+        long now;
+
+        @Override
+        public long nanoTime() {
+            return now;
+        }
+    }
+}
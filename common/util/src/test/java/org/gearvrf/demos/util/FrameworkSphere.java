@@ -0,0 +1,175 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf.demos.util;
+
+/**
+ * The sphere GVRSphereSceneObject builds, for comparing against on the JVM
+ * where the framework is not available: a bottom cap, the body and a top
+ * cap, every triangle with vertices of its own. Written after
+ * GVRSphereSceneObject.generateSphere, createCap and createBody.
+ */
+final class FrameworkSphere {
+    final float[] vertices;
+    final float[] normals;
+    final float[] texCoords;
+    final char[] indices;
+
+    private int vertexCount = 0;
+    private int texCoordCount = 0;
+    private int indexCount = 0;
+    private int triangleCount = 0;
+
+    FrameworkSphere(int stackNumber, int sliceNumber, boolean facingOut) {
+        int capVertexNumber = 3 * sliceNumber;
+        int bodyVertexNumber = 4 * sliceNumber * (stackNumber - 2);
+        int vertexNumber = (2 * capVertexNumber) + bodyVertexNumber;
+        int triangleNumber = (2 * capVertexNumber) + (6 * sliceNumber * (stackNumber - 2));
+
+        vertices = new float[3 * vertexNumber];
+        normals = new float[3 * vertexNumber];
+        texCoords = new float[2 * vertexNumber];
+        indices = new char[triangleNumber];
+
+        createCap(stackNumber, sliceNumber, false, facingOut);
+        createBody(stackNumber, sliceNumber, facingOut);
+        createCap(stackNumber, sliceNumber, true, facingOut);
+    }
+
+    private void createCap(int stackNumber, int sliceNumber, boolean top, boolean facingOut) {
+        float stackPercentage0;
+        float stackPercentage1;
+        if (!top) {
+            stackPercentage0 = ((float) (stackNumber - 1) / stackNumber);
+            stackPercentage1 = 1.0f;
+        } else {
+            stackPercentage0 = (1.0f / stackNumber);
+            stackPercentage1 = 0.0f;
+        }
+
+        float t0 = stackPercentage0;
+        float t1 = stackPercentage1;
+        double theta0 = stackPercentage0 * Math.PI;
+        double theta1 = stackPercentage1 * Math.PI;
+        double cosTheta0 = Math.cos(theta0);
+        double sinTheta0 = Math.sin(theta0);
+        double cosTheta1 = Math.cos(theta1);
+        double sinTheta1 = Math.sin(theta1);
+
+        for (int slice = 0; slice < sliceNumber; slice++) {
+            float slicePercentage0 = ((float) (slice) / sliceNumber);
+            float slicePercentage1 = ((float) (slice + 1) / sliceNumber);
+            double phi0 = slicePercentage0 * 2.0 * Math.PI;
+            double phi1 = slicePercentage1 * 2.0 * Math.PI;
+            float s0, s1;
+            if (facingOut) {
+                s0 = 1 - slicePercentage0;
+                s1 = 1 - slicePercentage1;
+            } else {
+                s0 = slicePercentage0;
+                s1 = slicePercentage1;
+            }
+            float s2 = (s0 + s1) / 2.0f;
+            double cosPhi0 = Math.cos(phi0);
+            double sinPhi0 = Math.sin(phi0);
+            double cosPhi1 = Math.cos(phi1);
+            double sinPhi1 = Math.sin(phi1);
+
+            vertex(sinTheta0, cosTheta0, cosPhi0, sinPhi0, facingOut, s0, t0);
+            vertex(sinTheta0, cosTheta0, cosPhi1, sinPhi1, facingOut, s1, t0);
+            vertex(sinTheta1, cosTheta1, cosPhi0, sinPhi0, facingOut, s2, t1);
+
+            if ((facingOut && top) || (!facingOut && !top)) {
+                triangle(1, 0, 2);
+            } else {
+                triangle(0, 1, 2);
+            }
+            triangleCount += 3;
+        }
+    }
+
+    private void createBody(int stackNumber, int sliceNumber, boolean facingOut) {
+        for (int stack = 1; stack < stackNumber - 1; stack++) {
+            float stackPercentage0 = ((float) (stack) / stackNumber);
+            float stackPercentage1 = ((float) (stack + 1) / stackNumber);
+
+            float t0 = stackPercentage0;
+            float t1 = stackPercentage1;
+            double theta0 = stackPercentage0 * Math.PI;
+            double theta1 = stackPercentage1 * Math.PI;
+            double cosTheta0 = Math.cos(theta0);
+            double sinTheta0 = Math.sin(theta0);
+            double cosTheta1 = Math.cos(theta1);
+            double sinTheta1 = Math.sin(theta1);
+
+            for (int slice = 0; slice < sliceNumber; slice++) {
+                float slicePercentage0 = ((float) (slice) / sliceNumber);
+                float slicePercentage1 = ((float) (slice + 1) / sliceNumber);
+                double phi0 = slicePercentage0 * 2.0 * Math.PI;
+                double phi1 = slicePercentage1 * 2.0 * Math.PI;
+                float s0, s1;
+                if (facingOut) {
+                    s0 = 1.0f - slicePercentage0;
+                    s1 = 1.0f - slicePercentage1;
+                } else {
+                    s0 = slicePercentage0;
+                    s1 = slicePercentage1;
+                }
+                double cosPhi0 = Math.cos(phi0);
+                double sinPhi0 = Math.sin(phi0);
+                double cosPhi1 = Math.cos(phi1);
+                double sinPhi1 = Math.sin(phi1);
+
+                vertex(sinTheta0, cosTheta0, cosPhi0, sinPhi0, facingOut, s0, t0);
+                vertex(sinTheta0, cosTheta0, cosPhi1, sinPhi1, facingOut, s1, t0);
+                vertex(sinTheta1, cosTheta1, cosPhi0, sinPhi0, facingOut, s0, t1);
+                vertex(sinTheta1, cosTheta1, cosPhi1, sinPhi1, facingOut, s1, t1);
+
+                if (facingOut) {
+                    triangle(0, 1, 2);
+                    triangle(2, 1, 3);
+                } else {
+                    triangle(0, 2, 1);
+                    triangle(2, 3, 1);
+                }
+                triangleCount += 4;
+            }
+        }
+    }
+
+    private void vertex(double sinTheta, double cosTheta, double cosPhi, double sinPhi,
+                        boolean facingOut, float s, float t) {
+        float x = (float) (sinTheta * cosPhi);
+        float y = (float) cosTheta;
+        float z = (float) (sinTheta * sinPhi);
+        vertices[vertexCount] = x;
+        vertices[vertexCount + 1] = y;
+        vertices[vertexCount + 2] = z;
+        normals[vertexCount] = facingOut ? x : -x;
+        normals[vertexCount + 1] = facingOut ? y : -y;
+        normals[vertexCount + 2] = facingOut ? z : -z;
+        texCoords[texCoordCount] = s;
+        texCoords[texCoordCount + 1] = t;
+        vertexCount += 3;
+        texCoordCount += 2;
+    }
+
+    private void triangle(int a, int b, int c) {
+        indices[indexCount] = (char) (triangleCount + a);
+        indices[indexCount + 1] = (char) (triangleCount + b);
+        indices[indexCount + 2] = (char) (triangleCount + c);
+        indexCount += 3;
+    }
+}
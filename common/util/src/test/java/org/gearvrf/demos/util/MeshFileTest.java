@@ -0,0 +1,152 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf.demos.util;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.CharBuffer;
+import java.nio.FloatBuffer;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class MeshFileTest {
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    private static final float[] POSITIONS = {0, 0, 0, 1, 0, 0, 0, 1, 0, 1, 1, 0};
+    private static final float[] NORMALS = {0, 0, 1, 0, 0, 1, 0, 0, 1, 0, 0, 1};
+    private static final float[] TEX_COORDS = {0, 0, 1, 0, 0, 1, 1, 1};
+    private static final char[] INDICES = {0, 1, 2, 2, 1, 3};
+
+    @Test
+    public void mapsWhatWasWritten() throws IOException {
+        File file = temp.newFile("quad.mesh");
+        MeshFile.write(file, POSITIONS, NORMALS, TEX_COORDS, INDICES);
+
+        MeshFile mesh = MeshFile.map(file);
+        assertEquals(4, mesh.getVertexCount());
+        assertEquals(6, mesh.getIndexCount());
+        assertArrayEquals(POSITIONS, toArray(mesh.getPositions()), 0);
+        assertArrayEquals(NORMALS, toArray(mesh.getNormals()), 0);
+        assertArrayEquals(TEX_COORDS, toArray(mesh.getTexCoords()), 0);
+        assertArrayEquals(INDICES, toArray(mesh.getIndices()));
+    }
+
+    @Test
+    public void viewsAreDirectSoNothingIsCopied() throws IOException {
+        File file = temp.newFile("quad.mesh");
+        MeshFile.write(file, POSITIONS, NORMALS, TEX_COORDS, INDICES);
+
+        MeshFile mesh = MeshFile.map(file);
+        assertTrue(mesh.getPositions().isDirect());
+        assertTrue(mesh.getNormals().isDirect());
+        assertTrue(mesh.getTexCoords().isDirect());
+        assertTrue(mesh.getIndices().isDirect());
+    }
+
+    @Test
+    public void eachCallGetsItsOwnPosition() throws IOException {
+        File file = temp.newFile("quad.mesh");
+        MeshFile.write(file, POSITIONS, NORMALS, TEX_COORDS, INDICES);
+
+        MeshFile mesh = MeshFile.map(file);
+        mesh.getPositions().get(new float[3]);
+        assertEquals(0, mesh.getPositions().position());
+    }
+
+    @Test
+    public void optionalAttributesMayBeMissing() throws IOException {
+        File file = temp.newFile("bare.mesh");
+        MeshFile.write(file, POSITIONS, null, null, INDICES);
+
+        MeshFile mesh = MeshFile.map(file);
+        assertNull(mesh.getNormals());
+        assertNull(mesh.getTexCoords());
+        assertArrayEquals(POSITIONS, toArray(mesh.getPositions()), 0);
+        assertArrayEquals(INDICES, toArray(mesh.getIndices()));
+    }
+
+    @Test
+    public void truncatedFileIsRejected() throws IOException {
+        File file = temp.newFile("short.mesh");
+        MeshFile.write(file, POSITIONS, NORMALS, TEX_COORDS, INDICES);
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            raf.setLength(raf.length() - 2);
+        } finally {
+            raf.close();
+        }
+
+        try {
+            MeshFile.map(file);
+            fail("truncated file was mapped");
+        } catch (IOException expected) {
+        }
+    }
+
+    @Test
+    public void foreignFileIsRejected() throws IOException {
+        File file = temp.newFile("bunny.obj");
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            raf.write("v 0 0 0\nv 1 0 0\nv 0 1 0\nf 1 2 3\n".getBytes("UTF-8"));
+        } finally {
+            raf.close();
+        }
+
+        try {
+            MeshFile.map(file);
+            fail("OBJ file was mapped");
+        } catch (IOException expected) {
+        }
+    }
+
+    @Test
+    public void keyDependsOnSourceAndSettings() throws IOException {
+        byte[] source = "v 0 0 0\n".getBytes("UTF-8");
+        byte[] edited = "v 0 0 1\n".getBytes("UTF-8");
+        String key = MeshFile.key(new ByteArrayInputStream(source), "[NO_LIGHTING]");
+
+        assertEquals(40, key.length());
+        assertEquals(key, MeshFile.key(new ByteArrayInputStream(source), "[NO_LIGHTING]"));
+        assertNotEquals(key, MeshFile.key(new ByteArrayInputStream(edited), "[NO_LIGHTING]"));
+        assertNotEquals(key, MeshFile.key(new ByteArrayInputStream(source), "[CALCULATE_SMOOTH_NORMALS]"));
+    }
+
+    private static float[] toArray(FloatBuffer buffer) {
+        float[] array = new float[buffer.remaining()];
+        buffer.get(array);
+        return array;
+    }
+
+    private static char[] toArray(CharBuffer buffer) {
+        char[] array = new char[buffer.remaining()];
+        buffer.get(array);
+        return array;
+    }
+}
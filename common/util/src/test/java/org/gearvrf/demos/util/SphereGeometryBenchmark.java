@@ -0,0 +1,83 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf.demos.util;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.Executor;
+
+/**
+ * Generation time of the shared sphere at the resolutions the samples use,
+ * against building GVRSphereSceneObject's arrays and against a cache hit.
+ * Prints the median of each; the GPU upload is not part of it.
+ */
+public class SphereGeometryBenchmark {
+
+    private static final int RUNS = 21;
+    private static final int[][] SIZES = {{18, 36}, {72, 144}, {128, 255}};
+
+    // keeps the timed work from being optimised away
+    private static volatile float blackhole;
+
+    @Test
+    public void generationTime() {
+        float sink = 0;
+        for (int[] size : SIZES) {
+            final int stacks = size[0];
+            final int slices = size[1];
+            long[] shared = new long[RUNS];
+            long[] framework = new long[RUNS];
+            long[] cached = new long[RUNS];
+            SphereGeometryCache cache = new SphereGeometryCache(new Executor() {
+                @Override
+                public void execute(Runnable command) {
+                    command.run();
+                }
+            });
+            cache.get(stacks, slices, false, SphereGeometry.UvLayout.EQUIRECTANGULAR);
+
+            for (int run = 0; run < RUNS; ++run) {
+                long start = System.nanoTime();
+                SphereGeometry sphere = SphereGeometry.generate(stacks, slices, false,
+                        SphereGeometry.UvLayout.EQUIRECTANGULAR);
+                shared[run] = System.nanoTime() - start;
+                sink += sphere.positions[run];
+
+                start = System.nanoTime();
+                FrameworkSphere reference = new FrameworkSphere(stacks, slices, false);
+                framework[run] = System.nanoTime() - start;
+                sink += reference.vertices[run];
+
+                start = System.nanoTime();
+                sphere = cache.get(stacks, slices, false, SphereGeometry.UvLayout.EQUIRECTANGULAR);
+                cached[run] = System.nanoTime() - start;
+                sink += sphere.positions[run];
+            }
+
+            Arrays.sort(shared);
+            Arrays.sort(framework);
+            Arrays.sort(cached);
+            System.out.println(String.format(Locale.US,
+                    "%dx%d: generate %.3f ms (%d vertices), GVRSphereSceneObject arrays %.3f ms (%d vertices), cache hit %.4f ms, median of %d",
+                    stacks, slices, shared[RUNS / 2] / 1e6, SphereGeometry.vertexCount(stacks, slices),
+                    framework[RUNS / 2] / 1e6, new FrameworkSphere(stacks, slices, false).vertices.length / 3,
+                    cached[RUNS / 2] / 1e6, RUNS));
+        }
+        blackhole = sink;
+    }
+}
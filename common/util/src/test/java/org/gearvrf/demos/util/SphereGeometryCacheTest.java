@@ -0,0 +1,105 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf.demos.util;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class SphereGeometryCacheTest {
+
+    private static final SphereGeometry.UvLayout LAYOUT = SphereGeometry.UvLayout.EQUIRECTANGULAR;
+
+    private QueueExecutor executor;
+    private SphereGeometryCache cache;
+
+    @Before
+    public void setUp() {
+        executor = new QueueExecutor();
+        cache = new SphereGeometryCache(executor);
+    }
+
+    @Test
+    public void eachSphereIsGeneratedOnce() {
+        SphereGeometry sphere = cache.get(18, 36, false, LAYOUT);
+        assertSame(sphere, cache.get(18, 36, false, LAYOUT));
+        assertTrue(executor.tasks.isEmpty());
+    }
+
+    @Test
+    public void everyPartOfTheKeyCounts() {
+        SphereGeometry sphere = cache.get(18, 36, false, LAYOUT);
+        assertNotSame(sphere, cache.get(19, 36, false, LAYOUT));
+        assertNotSame(sphere, cache.get(18, 37, false, LAYOUT));
+        assertNotSame(sphere, cache.get(18, 36, true, LAYOUT));
+        assertNotSame(sphere, cache.get(18, 36, false, SphereGeometry.UvLayout.EQUIRECTANGULAR_FLIPPED_V));
+        assertEquals(19, cache.get(19, 36, false, LAYOUT).stacks);
+        assertEquals(37, cache.get(18, 37, false, LAYOUT).slices);
+    }
+
+    @Test
+    public void prefetchGeneratesOnTheExecutor() {
+        cache.prefetch(18, 36, false, LAYOUT);
+        cache.prefetch(18, 36, false, LAYOUT);
+        assertEquals(1, executor.tasks.size());
+        assertTrue(cache.contains(18, 36, false, LAYOUT));
+        assertFalse(cache.contains(18, 36, true, LAYOUT));
+
+        executor.runAll();
+        SphereGeometry sphere = cache.get(18, 36, false, LAYOUT);
+        assertEquals(18, sphere.stacks);
+        assertSame(sphere, cache.get(18, 36, false, LAYOUT));
+    }
+
+    @Test
+    public void getDoesNotWaitForAPrefetchStillQueued() {
+        cache.prefetch(18, 36, false, LAYOUT);
+        SphereGeometry sphere = cache.get(18, 36, false, LAYOUT);
+        executor.runAll();
+        assertSame(sphere, cache.get(18, 36, false, LAYOUT));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void badSizeFailsTheCaller() {
+        cache.get(1, 36, false, LAYOUT);
+    }
+
+    /** Keeps the tasks until the test runs them. */
+    private static final class QueueExecutor implements Executor {
+        final List<Runnable> tasks = new ArrayList<Runnable>();
+
+        @Override
+        public void execute(Runnable task) {
+            tasks.add(task);
+        }
+
+        void runAll() {
+            for (Runnable task : tasks) {
+                task.run();
+            }
+            tasks.clear();
+        }
+    }
+}
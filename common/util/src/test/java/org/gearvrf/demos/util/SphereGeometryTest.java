@@ -0,0 +1,186 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf.demos.util;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+public class SphereGeometryTest {
+
+    @Test
+    public void trianglesAreThoseOfTheFrameworkSphere() {
+        int[][] sizes = {{2, 3}, {3, 4}, {18, 36}, {72, 144}};
+        for (int[] size : sizes) {
+            for (boolean facingOut : new boolean[] {false, true}) {
+                SphereGeometry sphere = SphereGeometry.generate(size[0], size[1], facingOut,
+                        SphereGeometry.UvLayout.EQUIRECTANGULAR);
+                FrameworkSphere expected = new FrameworkSphere(size[0], size[1], facingOut);
+                assertEquals(size[0] + "x" + size[1] + (facingOut ? " out" : " in"),
+                        triangles(expected.vertices, expected.normals, expected.texCoords, expected.indices),
+                        triangles(sphere.positions, sphere.normals, sphere.texCoords, sphere.indices));
+            }
+        }
+    }
+
+    @Test
+    public void verticesAreShared() {
+        SphereGeometry sphere = SphereGeometry.generate(72, 144, false, SphereGeometry.UvLayout.EQUIRECTANGULAR);
+        assertEquals(10583, sphere.getVertexCount());
+        assertEquals(SphereGeometry.vertexCount(72, 144), sphere.getVertexCount());
+        assertEquals(2 * 3 * 144 + 6 * 144 * 70, sphere.indices.length);
+        assertEquals(41184, new FrameworkSphere(72, 144, false).vertices.length / 3);
+        boolean[] used = new boolean[sphere.getVertexCount()];
+        for (char i : sphere.indices) {
+            used[i] = true;
+        }
+        for (int i = 0; i < used.length; ++i) {
+            assertTrue("vertex " + i + " unused", used[i]);
+        }
+    }
+
+    @Test
+    public void windingFollowsTheNormals() {
+        for (boolean facingOut : new boolean[] {false, true}) {
+            SphereGeometry sphere = SphereGeometry.generate(18, 36, facingOut, SphereGeometry.UvLayout.EQUIRECTANGULAR);
+            float[] p = sphere.positions;
+            for (int i = 0; i < sphere.indices.length; i += 3) {
+                int a = 3 * sphere.indices[i];
+                int b = 3 * sphere.indices[i + 1];
+                int c = 3 * sphere.indices[i + 2];
+                float[] u = {p[b] - p[a], p[b + 1] - p[a + 1], p[b + 2] - p[a + 2]};
+                float[] w = {p[c] - p[a], p[c + 1] - p[a + 1], p[c + 2] - p[a + 2]};
+                float nx = u[1] * w[2] - u[2] * w[1];
+                float ny = u[2] * w[0] - u[0] * w[2];
+                float nz = u[0] * w[1] - u[1] * w[0];
+                // counter-clockwise seen from the side the normals point to
+                float dot = nx * sphere.normals[a] + ny * sphere.normals[a + 1] + nz * sphere.normals[a + 2];
+                assertTrue("triangle " + i / 3 + (facingOut ? " out" : " in"), dot > 0);
+            }
+        }
+    }
+
+    @Test
+    public void imageWrapsAroundTheYAxis() {
+        SphereGeometry sphere = SphereGeometry.generate(4, 8, false, SphereGeometry.UvLayout.EQUIRECTANGULAR);
+        // equator ring: u = 0 on +X, 0.25 on +Z, 0.5 on -X and 0.75 on -Z
+        float[][] expected = {{1, 0, 0}, {0, 0, 1}, {-1, 0, 0}, {0, 0, -1}, {1, 0, 0}};
+        float[] u = {0, 0.25f, 0.5f, 0.75f, 1};
+        for (int i = 0; i < expected.length; ++i) {
+            int vertex = find(sphere, u[i], 0.5f);
+            assertArrayEquals("u = " + u[i], expected[i], position(sphere, vertex), 1e-6f);
+        }
+        assertArrayEquals(new float[] {0, 1, 0}, position(sphere, find(sphere, 0.0625f, 0)), 1e-6f);
+        assertArrayEquals(new float[] {0, -1, 0}, position(sphere, find(sphere, 0.0625f, 1)), 1e-6f);
+
+        SphereGeometry outside = SphereGeometry.generate(4, 8, true, SphereGeometry.UvLayout.EQUIRECTANGULAR);
+        assertArrayEquals(new float[] {0, 0, 1}, position(outside, find(outside, 0.75f, 0.5f)), 1e-6f);
+    }
+
+    @Test
+    public void flippedLayoutOnlyFlipsV() {
+        SphereGeometry sphere = SphereGeometry.generate(18, 36, false, SphereGeometry.UvLayout.EQUIRECTANGULAR);
+        SphereGeometry flipped = SphereGeometry.generate(18, 36, false,
+                SphereGeometry.UvLayout.EQUIRECTANGULAR_FLIPPED_V);
+        assertArrayEquals(sphere.positions, flipped.positions, 0);
+        assertArrayEquals(sphere.normals, flipped.normals, 0);
+        assertArrayEquals(sphere.indices, flipped.indices);
+        for (int i = 0; i < sphere.texCoords.length; i += 2) {
+            assertEquals(sphere.texCoords[i], flipped.texCoords[i], 0);
+            assertEquals(1 - sphere.texCoords[i + 1], flipped.texCoords[i + 1], 0);
+        }
+    }
+
+    @Test
+    public void generationIsPure() {
+        SphereGeometry first = SphereGeometry.generate(18, 36, true, SphereGeometry.UvLayout.EQUIRECTANGULAR);
+        SphereGeometry second = SphereGeometry.generate(18, 36, true, SphereGeometry.UvLayout.EQUIRECTANGULAR);
+        assertNotSame(first.positions, second.positions);
+        assertArrayEquals(first.positions, second.positions, 0);
+        assertArrayEquals(first.normals, second.normals, 0);
+        assertArrayEquals(first.texCoords, second.texCoords, 0);
+        assertArrayEquals(first.indices, second.indices);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsTooFewStacks() {
+        SphereGeometry.generate(1, 36, false, SphereGeometry.UvLayout.EQUIRECTANGULAR);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsTooFewSlices() {
+        SphereGeometry.generate(18, 2, false, SphereGeometry.UvLayout.EQUIRECTANGULAR);
+    }
+
+    @Test
+    public void rejectsMoreVerticesThanShortIndicesReach() {
+        assertEquals(65534, SphereGeometry.generate(255, 255, false,
+                SphereGeometry.UvLayout.EQUIRECTANGULAR).getVertexCount());
+        try {
+            SphereGeometry.generate(256, 255, false, SphereGeometry.UvLayout.EQUIRECTANGULAR);
+        } catch (IllegalArgumentException e) {
+            return;
+        }
+        throw new AssertionError("256 x 255 needs " + SphereGeometry.vertexCount(256, 255) + " vertices");
+    }
+
+    /**
+     * Each triangle as the text of its three corners, starting from the
+     * smallest so that the rotation does not matter but the winding does.
+     */
+    private static List<String> triangles(float[] positions, float[] normals, float[] texCoords, char[] indices) {
+        ArrayList<String> triangles = new ArrayList<String>();
+        for (int i = 0; i < indices.length; i += 3) {
+            String[] corners = new String[3];
+            for (int j = 0; j < 3; ++j) {
+                int v = indices[i + j];
+                corners[j] = positions[3 * v] + "," + positions[3 * v + 1] + "," + positions[3 * v + 2]
+                        + " n" + normals[3 * v] + "," + normals[3 * v + 1] + "," + normals[3 * v + 2]
+                        + " uv" + texCoords[2 * v] + "," + texCoords[2 * v + 1];
+            }
+            int first = 0;
+            for (int j = 1; j < 3; ++j) {
+                if (corners[j].compareTo(corners[first]) < 0) {
+                    first = j;
+                }
+            }
+            triangles.add(corners[first] + " | " + corners[(first + 1) % 3] + " | " + corners[(first + 2) % 3]);
+        }
+        Collections.sort(triangles);
+        return triangles;
+    }
+
+    private static int find(SphereGeometry sphere, float u, float v) {
+        for (int i = 0; i < sphere.getVertexCount(); ++i) {
+            if (sphere.texCoords[2 * i] == u && sphere.texCoords[2 * i + 1] == v) {
+                return i;
+            }
+        }
+        throw new AssertionError("no vertex at " + u + ", " + v);
+    }
+
+    private static float[] position(SphereGeometry sphere, int vertex) {
+        return new float[] {sphere.positions[3 * vertex], sphere.positions[3 * vertex + 1],
+                sphere.positions[3 * vertex + 2]};
+    }
+}
@@ -0,0 +1,180 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf.demos.util;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class VoiceManagerTest {
+
+    private static final int CLICK = 1;
+    private static final int HOVER = 2;
+    private static final int MUSIC = 3;
+    private static final int ALARM = 4;
+
+    private FakePool pool;
+    private VoiceManager voices;
+
+    @Before
+    public void setUp() {
+        pool = new FakePool();
+        voices = new VoiceManager(pool, 2, 80);
+        voices.setSampleDuration(CLICK, 100);
+        voices.setSampleDuration(HOVER, 300);
+        voices.setSampleDuration(MUSIC, 60000);
+        voices.setSampleDuration(ALARM, 2000);
+        for (int sample : new int[] {CLICK, HOVER, MUSIC, ALARM}) {
+            voices.onSampleLoaded(sample, true);
+        }
+    }
+
+    @Test
+    public void loadStateIsPerSample() {
+        VoiceManager fresh = new VoiceManager(pool, 2, 80);
+        fresh.onSampleLoaded(CLICK, true);
+        fresh.onSampleLoaded(HOVER, false);
+
+        assertTrue(fresh.play(CLICK, 1, 1, 1, false, 0) != 0);
+        assertEquals(0, fresh.play(HOVER, 1, 1, 1, false, 0));
+        assertEquals(0, fresh.play(MUSIC, 1, 1, 1, false, 0));
+        assertFalse(fresh.isLoaded(0));
+        assertFalse(fresh.isLoaded(1000));
+    }
+
+    @Test
+    public void identicalOneShotsAreRateLimited() {
+        assertTrue(voices.play(HOVER, 1, 1, 1, false, 0) != 0);
+        assertEquals(0, voices.play(HOVER, 1, 1, 1, false, 16));
+        assertEquals(0, voices.play(HOVER, 1, 1, 1, false, 79));
+        assertTrue(voices.play(HOVER, 1, 1, 1, false, 400) != 0);
+        assertEquals(2, pool.played.size());
+    }
+
+    @Test
+    public void oneShotKeepsItsVoiceForItsOwnLength() {
+        voices.play(CLICK, 1, 1, 1, false, 0);
+        voices.play(HOVER, 1, 1, 1, false, 0);
+        assertEquals(2, voices.getActiveVoiceCount(0));
+        assertEquals(1, voices.getActiveVoiceCount(100));
+        assertEquals(1, voices.getActiveVoiceCount(299));
+        assertEquals(0, voices.getActiveVoiceCount(300));
+        assertTrue(pool.stopped.isEmpty());
+    }
+
+    @Test
+    public void unknownLengthFallsBackToTheDefault() {
+        voices.onSampleLoaded(9, true);
+        voices.play(9, 1, 1, 1, false, 0);
+        assertEquals(1, voices.getActiveVoiceCount(VoiceManager.UNKNOWN_DURATION_MILLIS - 1));
+        assertEquals(0, voices.getActiveVoiceCount(VoiceManager.UNKNOWN_DURATION_MILLIS));
+    }
+
+    @Test
+    public void loopHoldsItsVoiceUntilStopped() {
+        int loop = voices.play(MUSIC, 1, 1, 1, true, 0);
+        assertEquals(1, voices.getActiveVoiceCount(10 * 60000));
+
+        voices.stop(loop);
+        assertEquals(0, voices.getActiveVoiceCount(10 * 60000));
+        assertEquals(Arrays.asList(loop), pool.stopped);
+    }
+
+    @Test
+    public void repeatedLoopsDoNotLeakWhenStopped() {
+        for (int i = 0; i < 100; ++i) {
+            int loop = voices.play(MUSIC, 1, 1, 1, true, i);
+            assertTrue(loop != 0);
+            voices.stop(loop);
+        }
+        assertEquals(0, voices.getActiveVoiceCount(100));
+        assertEquals(100, pool.stopped.size());
+    }
+
+    @Test
+    public void oldestLowestPriorityVoiceIsStolen() {
+        int first = voices.play(MUSIC, 1, 1, 1, true, 0);
+        int second = voices.play(ALARM, 1, 1, 1, true, 10);
+
+        int third = voices.play(CLICK, 1, 1, 1, false, 20);
+        assertTrue(third != 0);
+        assertEquals(Arrays.asList(first), pool.stopped);
+        assertEquals(2, voices.getActiveVoiceCount(20));
+
+        voices.stop(second);
+        voices.stop(third);
+    }
+
+    @Test
+    public void lowerPriorityRequestIsDroppedWhenAllVoicesAreBusy() {
+        voices.play(MUSIC, 1, 1, 5, true, 0);
+        voices.play(ALARM, 1, 1, 5, true, 0);
+
+        assertEquals(0, voices.play(CLICK, 1, 1, 1, false, 10));
+        assertTrue(pool.stopped.isEmpty());
+
+        assertTrue(voices.play(CLICK, 1, 1, 5, false, 20) != 0);
+        assertEquals(1, pool.stopped.size());
+    }
+
+    @Test
+    public void failedPlayDoesNotTakeAVoice() {
+        pool.failNext = true;
+        assertEquals(0, voices.play(CLICK, 1, 1, 1, false, 0));
+        assertEquals(0, voices.getActiveVoiceCount(0));
+        // a failed play does not count for the repeat window either
+        assertTrue(voices.play(CLICK, 1, 1, 1, false, 1) != 0);
+    }
+
+    @Test
+    public void loopFlagReachesThePool() {
+        voices.play(MUSIC, 1, 1, 1, true, 0);
+        voices.play(CLICK, 1, 1, 1, false, 0);
+        assertEquals(-1, pool.loops.get(0).intValue());
+        assertEquals(0, pool.loops.get(1).intValue());
+    }
+
+    private static final class FakePool implements VoicePool {
+        final List<Integer> played = new ArrayList<Integer>();
+        final List<Integer> loops = new ArrayList<Integer>();
+        final List<Integer> stopped = new ArrayList<Integer>();
+        boolean failNext;
+        int nextStream = 100;
+
+        @Override
+        public int play(int sampleId, float leftVolume, float rightVolume, int priority, int loop, float rate) {
+            if (failNext) {
+                failNext = false;
+                return 0;
+            }
+            played.add(sampleId);
+            loops.add(loop);
+            return nextStream++;
+        }
+
+        @Override
+        public void stop(int streamId) {
+            stopped.add(streamId);
+        }
+    }
+}
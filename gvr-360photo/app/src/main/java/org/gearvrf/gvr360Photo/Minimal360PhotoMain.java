@@ -23,7 +23,10 @@ import org.gearvrf.GVRScene;
 import org.gearvrf.GVRMain;
 import org.gearvrf.GVRTexture;
 import org.gearvrf.GVRMaterial;
-import org.gearvrf.scene_objects.GVRSphereSceneObject;
+import org.gearvrf.GVRMesh;
+import org.gearvrf.GVRSceneObject;
+import org.gearvrf.demos.gvrf.SphereMeshCache;
+import org.gearvrf.demos.util.SphereGeometry;
 
 public class Minimal360PhotoMain extends GVRMain {
 
@@ -33,13 +36,18 @@ public class Minimal360PhotoMain extends GVRMain {
         // get a handle to the scene
         GVRScene scene = gvrContext.getMainScene();
 
-        GVRSphereSceneObject sphereObject = null;
+        GVRSceneObject sphereObject = null;
+
+        // generate the sphere while the texture loads
+        SphereMeshCache.prefetch(72, 144, false, SphereGeometry.UvLayout.EQUIRECTANGULAR);
 
         // load texture
         GVRTexture texture = gvrContext.getAssetLoader().loadTexture(new GVRAndroidResource(gvrContext, R.raw.photosphere));
 
         // create a sphere scene object with the specified texture and triangles facing inward (the 'false' argument)
-        sphereObject = new GVRSphereSceneObject(gvrContext, 72, 144, false, texture);
+        GVRMesh sphereMesh = SphereMeshCache.getMesh(gvrContext, 72, 144, false,
+                SphereGeometry.UvLayout.EQUIRECTANGULAR);
+        sphereObject = new GVRSceneObject(gvrContext, sphereMesh, texture);
 
         // add the scene object to the scene graph
         scene.addSceneObject(sphereObject);
@@ -19,7 +19,8 @@ import org.gearvrf.GVRContext;
 import org.gearvrf.GVRMain;
 import org.gearvrf.GVRMesh;
 import org.gearvrf.GVRScene;
-import org.gearvrf.scene_objects.GVRSphereSceneObject;
+import org.gearvrf.demos.gvrf.SphereMeshCache;
+import org.gearvrf.demos.util.SphereGeometry;
 import org.gearvrf.scene_objects.GVRVideoSceneObject;
 import org.gearvrf.scene_objects.GVRVideoSceneObject.GVRVideoType;
 import org.gearvrf.scene_objects.GVRVideoSceneObjectPlayer;
@@ -40,8 +41,8 @@ public class Minimal360Video extends GVRMain
         scene.getMainCameraRig().getTransform().setPosition( 0.0f, 0.0f, 0.0f );
 
         // create sphere / mesh
-        GVRSphereSceneObject sphere = new GVRSphereSceneObject(gvrContext, 72, 144, false);
-        GVRMesh mesh = sphere.getRenderData().getMesh();
+        GVRMesh mesh = SphereMeshCache.getMesh(gvrContext, 72, 144, false,
+                SphereGeometry.UvLayout.EQUIRECTANGULAR);
 
         // create video scene
         GVRVideoSceneObject video = new GVRVideoSceneObject( gvrContext, mesh, mPlayer, GVRVideoType.MONO );
@@ -40,6 +40,8 @@ import org.gearvrf.GVRScene;
 import org.gearvrf.GVRSceneObject;
 import org.gearvrf.GVRTexture;
 import org.gearvrf.ZipLoader;
+import org.gearvrf.demos.android.FrameStatsAndroid;
+import org.gearvrf.demos.util.FrameStats;
 import org.gearvrf.io.GVRInputManager;
 import org.gearvrf.io.cursor3d.Cursor;
 import org.gearvrf.io.cursor3d.ICursorActivationListener;
@@ -128,10 +130,9 @@ public class CursorMain extends GVRMain {
     private GVRContext gvrContext = null;
     private GVRScene mainScene;
 
-    // FPS variables
-    private int frames = 0;
-    private long startTimeMillis = 0;
-    private final long interval = 100;
+    // Set to log percentiles of the GL thread CPU time per frame every 10 seconds
+    private static final boolean LOG_FRAME_STATS = false;
+    private final FrameStats frameStats = FrameStatsAndroid.cpuTimeToLogcat(TAG, 10);
 
     private CursorManager cursorManager;
     private final List<TextView> textViewList;
@@ -564,15 +565,8 @@ public class CursorMain extends GVRMain {
 
     @Override
     public void onStep() {
-        // tick(); uncomment for FPS
-    }
-
-    private void tick() {
-        ++frames;
-        if (System.currentTimeMillis() - startTimeMillis >= interval) {
-            Log.d(TAG, "FPS : " + frames / (interval / 1000.0f));
-            frames = 0;
-            startTimeMillis = System.currentTimeMillis();
+        if (LOG_FRAME_STATS) {
+            frameStats.tick();
         }
     }
 
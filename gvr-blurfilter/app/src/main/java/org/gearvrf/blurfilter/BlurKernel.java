@@ -0,0 +1,187 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf.blurfilter;
+
+import java.util.Locale;
+
+/**
+ * Weights and offsets of a one-dimensional Gaussian blur pass.
+ * <p>
+ * The discrete kernel has {@code 2 * radius + 1} taps. Because the blur
+ * shaders sample with bilinear filtering, two neighbouring taps i and i + 1
+ * can be read with one fetch placed between them at
+ * {@code (i * w[i] + (i + 1) * w[i + 1]) / (w[i] + w[i + 1])} and weighted by
+ * {@code w[i] + w[i + 1]}. The centre tap stays on its own, so a pass reads
+ * {@code 2 * ceil(radius / 2) + 1} texels instead of {@code 2 * radius + 1}.
+ * Pure Java, no GL involved.
+ */
+public final class BlurKernel
+{
+    /** Linear taps, centre included, that the blur shaders can take. */
+    public static final int MAX_TAPS = 8;
+    /** Largest radius whose linear taps fit in {@link #MAX_TAPS}. */
+    public static final int MAX_RADIUS = 2 * (MAX_TAPS - 1);
+
+    private final float[] mWeights;
+    private final float[] mOffsets;
+    private final float[] mLinearWeights;
+    private final float mSigma;
+
+    private BlurKernel(float[] weights, float sigma)
+    {
+        mWeights = weights;
+        mSigma = sigma;
+        int radius = weights.length - 1;
+        int taps = 1 + (radius + 1) / 2;
+        mOffsets = new float[taps];
+        mLinearWeights = new float[taps];
+        mLinearWeights[0] = weights[0];
+        for (int t = 1; t < taps; ++t)
+        {
+            int i = 2 * t - 1;
+            float w0 = weights[i];
+            float w1 = (i + 1 <= radius) ? weights[i + 1] : 0;
+            mLinearWeights[t] = w0 + w1;
+            mOffsets[t] = (w0 + w1 > 0) ? (i * w0 + (i + 1) * w1) / (w0 + w1) : i;
+        }
+    }
+
+    /** Gaussian of the given radius with sigma = radius / 2. */
+    public static BlurKernel gaussian(int radius)
+    {
+        return gaussian(radius, Math.max(radius / 2.0f, 0.5f));
+    }
+
+    /**
+     * Gaussian truncated at {@code radius} texels either side, renormalised
+     * so the weights add up to one.
+     */
+    public static BlurKernel gaussian(int radius, float sigma)
+    {
+        if ((radius < 0) || (radius > MAX_RADIUS))
+        {
+            throw new IllegalArgumentException("blur radius must be between 0 and " + MAX_RADIUS);
+        }
+        if (sigma <= 0)
+        {
+            throw new IllegalArgumentException("sigma must be positive");
+        }
+        return new BlurKernel(gaussianWeights(radius, sigma), sigma);
+    }
+
+    /**
+     * Kernel from discrete weights: the centre followed by one side, as
+     * given. Used to reproduce a hand-made kernel.
+     */
+    public static BlurKernel fromWeights(float[] halfWeights)
+    {
+        if ((halfWeights.length == 0) || (halfWeights.length - 1 > MAX_RADIUS))
+        {
+            throw new IllegalArgumentException("kernel needs between 1 and " + (MAX_RADIUS + 1) + " weights");
+        }
+        return new BlurKernel(halfWeights.clone(), 0);
+    }
+
+    /** Centre and one side of a normalised, truncated Gaussian. */
+    static float[] gaussianWeights(int radius, float sigma)
+    {
+        double[] w = new double[radius + 1];
+        double sum = 0;
+        for (int i = 0; i <= radius; ++i)
+        {
+            w[i] = Math.exp(-(i * i) / (2.0 * sigma * sigma));
+            sum += (i == 0) ? w[i] : 2 * w[i];
+        }
+        float[] weights = new float[radius + 1];
+        for (int i = 0; i <= radius; ++i)
+        {
+            weights[i] = (float) (w[i] / sum);
+        }
+        return weights;
+    }
+
+    public int getRadius()
+    {
+        return mWeights.length - 1;
+    }
+
+    /** Sigma the kernel was made with, 0 for {@link #fromWeights}. */
+    public float getSigma()
+    {
+        return mSigma;
+    }
+
+    public float getDiscreteWeight(int i)
+    {
+        return mWeights[i];
+    }
+
+    /** Linear taps on one side, centre included. */
+    public int getTapCount()
+    {
+        return mOffsets.length;
+    }
+
+    /** Offset of linear tap {@code t} in texels, 0 for the centre. */
+    public float getOffset(int t)
+    {
+        return mOffsets[t];
+    }
+
+    public float getWeight(int t)
+    {
+        return mLinearWeights[t];
+    }
+
+    /** Texture fetches per pixel of one pass with linear taps. */
+    public int getFetchesPerPixel()
+    {
+        return 2 * mOffsets.length - 1;
+    }
+
+    /** Texture fetches per pixel of one pass with the discrete taps. */
+    public int getDiscreteFetchesPerPixel()
+    {
+        return 2 * mWeights.length - 1;
+    }
+
+    /**
+     * The "float4 u_taps[MAX_TAPS]" uniform: offset in x and weight in y of
+     * each linear tap, unused taps zero.
+     */
+    public float[] toUniform()
+    {
+        float[] taps = new float[4 * MAX_TAPS];
+        for (int t = 0; t < mOffsets.length; ++t)
+        {
+            taps[4 * t] = mOffsets[t];
+            taps[4 * t + 1] = mLinearWeights[t];
+        }
+        return taps;
+    }
+
+    @Override
+    public String toString()
+    {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.US, "radius %d sigma %.2f:", getRadius(), mSigma));
+        for (int t = 0; t < mOffsets.length; ++t)
+        {
+            sb.append(String.format(Locale.US, " %.4f@%.4f", mLinearWeights[t], mOffsets[t]));
+        }
+        return sb.toString();
+    }
+}
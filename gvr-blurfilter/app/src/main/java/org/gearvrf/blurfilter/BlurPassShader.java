@@ -0,0 +1,34 @@
+package org.gearvrf.blurfilter;
+
+import org.gearvrf.GVRContext;
+import org.gearvrf.GVRShader;
+import org.gearvrf.GVRShaderData;
+import org.gearvrf.GVRShaderTemplate;
+import org.gearvrf.utility.TextFile;
+
+/**
+ * Blur pass run as a post effect on the render target, horizontally or
+ * vertically: {@code u_step} is one texel along the blur direction.
+ */
+public class BlurPassShader extends GVRShader
+{
+    private static String fragTemplate;
+    private static String vtxTemplate;
+
+    public BlurPassShader(GVRContext context)
+    {
+        super("float2 u_step int u_tapcount float4 u_taps[" + BlurKernel.MAX_TAPS + "]", "sampler2D u_texture", "float3 a_position float2 a_texcoord", GLSLESVersion.VULKAN);
+        fragTemplate = TextFile.readTextFile(context.getContext(), R.raw.gaussianblurpass);
+        vtxTemplate = TextFile.readTextFile(context.getContext(), R.raw.pos_tex);
+
+        setSegment("VertexTemplate", vtxTemplate);
+        setSegment("FragmentTemplate", fragTemplate);
+    }
+
+    protected void setMaterialDefaults(GVRShaderData material)
+    {
+        material.setVec2("u_step", 0, 1);
+        material.setInt("u_tapcount", 1);
+        material.setFloatArray("u_taps", BlurKernel.gaussian(0).toUniform());
+    }
+}
\ No newline at end of file
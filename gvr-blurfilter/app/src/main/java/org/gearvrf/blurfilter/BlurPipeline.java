@@ -0,0 +1,157 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf.blurfilter;
+
+import java.util.Locale;
+
+/**
+ * Shape of the blur: the source is box filtered into a render target
+ * {@code downsample} times smaller in each direction, then blurred there by
+ * {@code iterations} horizontal and vertical pass pairs. Downsampling first
+ * keeps every blur pass reading texels of its own resolution, so the linear
+ * taps of the kernel are exact; blurring the source directly with offsets in
+ * target texels would skip source texels and alias. Pure Java so the cost of
+ * a configuration can be worked out without a GL context.
+ */
+public final class BlurPipeline
+{
+    private final int mSourceWidth;
+    private final int mSourceHeight;
+    private final int mDownsample;
+    private final int mIterations;
+    private final BlurKernel mKernel;
+
+    public BlurPipeline(int sourceWidth, int sourceHeight, int downsample, int iterations, BlurKernel kernel)
+    {
+        if ((downsample != 1) && (downsample != 2) && (downsample != 4))
+        {
+            throw new IllegalArgumentException("downsample must be 1, 2 or 4");
+        }
+        if (iterations < 1)
+        {
+            throw new IllegalArgumentException("at least one iteration is needed");
+        }
+        mSourceWidth = sourceWidth;
+        mSourceHeight = sourceHeight;
+        mDownsample = downsample;
+        mIterations = iterations;
+        mKernel = kernel;
+    }
+
+    public BlurKernel getKernel()
+    {
+        return mKernel;
+    }
+
+    public int getDownsample()
+    {
+        return mDownsample;
+    }
+
+    public int getIterations()
+    {
+        return mIterations;
+    }
+
+    public int getTargetWidth()
+    {
+        return Math.max(1, mSourceWidth / mDownsample);
+    }
+
+    public int getTargetHeight()
+    {
+        return Math.max(1, mSourceHeight / mDownsample);
+    }
+
+    /** Passes per frame: the downsampling scene pass and the blur passes. */
+    public int getPassCount()
+    {
+        return 1 + getBlurPassCount();
+    }
+
+    /** Horizontal and vertical blur passes per frame, run as post effects. */
+    public int getBlurPassCount()
+    {
+        return 2 * mIterations;
+    }
+
+    /**
+     * Offset of the downsampling fetches from the centre of a target texel,
+     * in source texels along x and y. A target texel covers a block of
+     * {@code downsample} source texels a side: up to 2 one bilinear fetch at
+     * the centre averages the block, 4 takes four fetches one texel away,
+     * each averaging a quarter of it.
+     */
+    public float getDownsampleOffset()
+    {
+        return (mDownsample == 4) ? 1.0f : 0.0f;
+    }
+
+    /** Texture fetches per target texel of the downsampling pass. */
+    public int getDownsampleFetchesPerPixel()
+    {
+        return (mDownsample == 4) ? 4 : 1;
+    }
+
+    /** Texels read by all the passes of one frame. */
+    public long getTexelFetchesPerFrame()
+    {
+        return (long) getTargetWidth() * getTargetHeight()
+               * (getDownsampleFetchesPerPixel() + getBlurPassCount() * mKernel.getFetchesPerPixel());
+    }
+
+    /** The same with point sampling only, for comparison. */
+    public long getDiscreteTexelFetchesPerFrame()
+    {
+        return (long) getTargetWidth() * getTargetHeight()
+               * (mDownsample * mDownsample + getBlurPassCount() * mKernel.getDiscreteFetchesPerPixel());
+    }
+
+    /**
+     * Sigma of the whole chain in source texels. Variances add up: the box
+     * filter of {@code downsample} texels contributes (d * d - 1) / 12, and
+     * each Gaussian pass pair its sigma scaled up by the downsampling.
+     */
+    public float getEffectiveSigma()
+    {
+        double box = (mDownsample * mDownsample - 1) / 12.0;
+        double blur = mDownsample * mKernel.getSigma();
+        return (float) Math.sqrt(box + mIterations * blur * blur);
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format(Locale.US, "1/%d %dx%d, %d iteration(s), %d passes: %d texel fetches (%d discrete), sigma %.1f",
+                             mDownsample, getTargetWidth(), getTargetHeight(), mIterations, getPassCount(),
+                             getTexelFetchesPerFrame(), getDiscreteTexelFetchesPerFrame(), getEffectiveSigma());
+    }
+
+    /** One line per downsample factor and iteration count. */
+    public static String report(int sourceWidth, int sourceHeight, BlurKernel kernel, int maxIterations)
+    {
+        StringBuilder sb = new StringBuilder(kernel.toString());
+        for (int downsample = 1; downsample <= 4; downsample *= 2)
+        {
+            for (int iterations = 1; iterations <= maxIterations; ++iterations)
+            {
+                sb.append('\n');
+                sb.append(new BlurPipeline(sourceWidth, sourceHeight, downsample, iterations, kernel));
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,34 @@
+package org.gearvrf.blurfilter;
+
+import org.gearvrf.GVRContext;
+import org.gearvrf.GVRShader;
+import org.gearvrf.GVRShaderData;
+import org.gearvrf.GVRShaderTemplate;
+import org.gearvrf.utility.TextFile;
+
+/**
+ * First pass: box filters the camera texture into the render target, which
+ * is {@link BlurPipeline#getDownsample()} times smaller. Each target texel
+ * averages the source texels it covers with bilinear fetches placed
+ * {@link BlurPipeline#getDownsampleOffset()} source texels from its centre.
+ */
+public class DownsampleShader extends GVRShader
+{
+    private static String fragTemplate;
+    private static String vtxTemplate;
+
+    public DownsampleShader(GVRContext context)
+    {
+        super("float2 u_offset", "samplerExternalOES u_texture", "float3 a_position float2 a_texcoord", GLSLESVersion.VULKAN);
+        fragTemplate = TextFile.readTextFile(context.getContext(), R.raw.downsample);
+        vtxTemplate = TextFile.readTextFile(context.getContext(), R.raw.pos_tex);
+
+        setSegment("VertexTemplate", vtxTemplate);
+        setSegment("FragmentTemplate", fragTemplate);
+    }
+
+    protected void setMaterialDefaults(GVRShaderData material)
+    {
+        material.setVec2("u_offset", 0, 0);
+    }
+}
@@ -21,6 +21,16 @@ import org.gearvrf.utility.Log;
 
 public class TestMain extends GVRMain
 {
+    private static final String TAG = "BlurFilter";
+    // size of the camera image the blur chain starts from
+    private static final int SOURCE_SIZE = 1024;
+    // blur radius in render target texels, at most BlurKernel.MAX_RADIUS
+    private static final int BLUR_RADIUS = 6;
+    // render target is 1/DOWNSAMPLE of the source in each direction: 1, 2 or 4
+    private static final int DOWNSAMPLE = 2;
+    // horizontal + vertical pass pairs
+    private static final int ITERATIONS = 2;
+
     private GVRContext mContext;
     private GVRSwitch mSwitch;
     private GVRRenderTexture mRenderTexture;
@@ -56,6 +66,10 @@ public class TestMain extends GVRMain
         final GVRMaterial cameraMtl = cameraObject.getRenderData().getMaterial();
         final GVRTexture cameraTex = cameraMtl.getMainTexture();
         final GVRMaterial blurryMtl = createDisplayScene(scene, cameraTex);
+        final BlurPipeline blur = new BlurPipeline(SOURCE_SIZE, SOURCE_SIZE, DOWNSAMPLE, ITERATIONS,
+                                                   BlurKernel.gaussian(BLUR_RADIUS));
+        Log.d(TAG, "Blur configurations:\n%s", BlurPipeline.report(SOURCE_SIZE, SOURCE_SIZE, blur.getKernel(), 3));
+        Log.d(TAG, "Using %s", blur);
         //
         // Continuously render a scene which shows the blurred camera texture on a
         // full-screen quad.
@@ -64,7 +78,7 @@ public class TestMain extends GVRMain
         {
             public void run()
             {
-                createBlurTexture(cameraTex, blurryMtl);
+                createBlurTexture(cameraTex, blurryMtl, blur);
             }
         });
     }
@@ -76,16 +90,17 @@ public class TestMain extends GVRMain
     // The quad which will be blurred is added to the scene
     // which renders to the blurred texture - not the main scene.
     //
-    public void createBlurTexture(GVRTexture texture, final GVRMaterial material)
+    public void createBlurTexture(GVRTexture texture, final GVRMaterial material, BlurPipeline blur)
     {
         GVRScene blurScene = new GVRScene(mContext);
-        GVRSceneObject blurryQuad = createBlurScene(blurScene, texture);
+        GVRSceneObject blurryQuad = createBlurScene(blurScene, texture, blur);
         blurScene.getMainCameraRig().addChildObject(blurryQuad);
         //
         // Set up a texture to render into and a GVRRenderTarget
         // to initiate rendering into the texture every frame.
+        // The texture is smaller than the camera image when downsampling.
         //
-        mRenderTexture = new GVRRenderTexture(mContext, 1024, 1024);
+        mRenderTexture = new GVRRenderTexture(mContext, blur.getTargetWidth(), blur.getTargetHeight());
         GVRRenderTarget renderTarget = new GVRRenderTarget(mRenderTexture, blurScene);
         blurScene.getMainCameraRig().getOwnerObject().attachComponent(renderTarget);
         material.setMainTexture(mRenderTexture);
@@ -94,24 +109,36 @@ public class TestMain extends GVRMain
 
     /*
      * Create a scene object which is a full screen quad that produces a blurry version
-     * of the input texture when rendered. This quad has two render passes, each of which
-     * each of which performs a gaussian blur in a single direction.
+     * of the input texture when rendered. Rendering the quad box filters the camera
+     * texture down to the render target's resolution. The blur passes are post effects
+     * on the render target's camera, alternating horizontal and vertical, each reading
+     * the output of the pass before at the target's resolution.
      */
-    public GVRSceneObject createBlurScene(GVRScene scene, GVRTexture texture)
+    public GVRSceneObject createBlurScene(GVRScene scene, GVRTexture texture, BlurPipeline blur)
     {
         final GVRSceneObject blurryQuad = new GVRSceneObject(mContext, 2.0f, 2.0f, texture, GVRMaterial.GVRShaderType.OES.ID);
         GVRRenderData rdata = blurryQuad.getRenderData();
-        GVRMaterial horzBlurMtl = new GVRMaterial(mContext, new GVRShaderId(HorzBlurShader.class));
-        horzBlurMtl.setFloat("u_resolution", 1024.0f);
-        horzBlurMtl.setTexture("u_texture", texture);
-        rdata.setMaterial(horzBlurMtl);
+        BlurKernel kernel = blur.getKernel();
+        float[] taps = kernel.toUniform();
+        float width = blur.getTargetWidth();
+        float height = blur.getTargetHeight();
+        float offset = blur.getDownsampleOffset() / SOURCE_SIZE;
 
-        GVRMaterial vertBlurMtl = new GVRMaterial(mContext, new GVRShaderId(VertBlurShader.class));
-        GVRCamera camera = scene.getMainCameraRig().getCenterCamera();
+        GVRMaterial downsampleMtl = new GVRMaterial(mContext, new GVRShaderId(DownsampleShader.class));
+        downsampleMtl.setVec2("u_offset", offset, offset);
+        downsampleMtl.setTexture("u_texture", texture);
+        rdata.setMaterial(downsampleMtl);
 
-        vertBlurMtl.setFloat("u_resolution", 1024.0f);
-        vertBlurMtl.setTexture("u_texture", texture);
-        camera.addPostEffect(vertBlurMtl);
+        GVRCamera camera = scene.getMainCameraRig().getCenterCamera();
+        for (int pass = 0; pass < blur.getBlurPassCount(); ++pass)
+        {
+            boolean vertical = (pass % 2) != 0;
+            GVRMaterial passMtl = new GVRMaterial(mContext, new GVRShaderId(BlurPassShader.class));
+            passMtl.setVec2("u_step", vertical ? 0.0f : 1.0f / width, vertical ? 1.0f / height : 0.0f);
+            passMtl.setInt("u_tapcount", kernel.getTapCount());
+            passMtl.setFloatArray("u_taps", taps);
+            camera.addPostEffect(passMtl);
+        }
 
         blurryQuad.getTransform().setPositionZ(-0.1f);
         return blurryQuad;
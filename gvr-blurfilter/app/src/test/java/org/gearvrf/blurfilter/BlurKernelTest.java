@@ -0,0 +1,148 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf.blurfilter;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class BlurKernelTest
+{
+    @Test
+    public void weightsAddUpToOneAndFallOff()
+    {
+        for (int radius = 0; radius <= BlurKernel.MAX_RADIUS; ++radius)
+        {
+            BlurKernel kernel = BlurKernel.gaussian(radius);
+            float sum = kernel.getDiscreteWeight(0);
+            for (int i = 1; i <= radius; ++i)
+            {
+                sum += 2 * kernel.getDiscreteWeight(i);
+                assertTrue(kernel.getDiscreteWeight(i) < kernel.getDiscreteWeight(i - 1));
+            }
+            assertEquals("radius " + radius, 1.0f, sum, 1e-5f);
+
+            float linear = kernel.getWeight(0);
+            for (int t = 1; t < kernel.getTapCount(); ++t)
+            {
+                linear += 2 * kernel.getWeight(t);
+            }
+            assertEquals("radius " + radius, 1.0f, linear, 1e-5f);
+        }
+    }
+
+    @Test
+    public void linearTapsHalveTheFetches()
+    {
+        assertEquals(1, BlurKernel.gaussian(0).getFetchesPerPixel());
+        assertEquals(3, BlurKernel.gaussian(1).getFetchesPerPixel());
+        assertEquals(3, BlurKernel.gaussian(2).getFetchesPerPixel());
+        assertEquals(5, BlurKernel.gaussian(3).getFetchesPerPixel());
+        assertEquals(7, BlurKernel.gaussian(6).getFetchesPerPixel());
+        assertEquals(13, BlurKernel.gaussian(6).getDiscreteFetchesPerPixel());
+        assertEquals(BlurKernel.MAX_TAPS, BlurKernel.gaussian(BlurKernel.MAX_RADIUS).getTapCount());
+    }
+
+    @Test
+    public void linearTapsMatchTheDiscreteKernelUnderBilinearSampling()
+    {
+        Random random = new Random(48);
+        float[] signal = new float[256];
+        for (int i = 0; i < signal.length; ++i)
+        {
+            signal[i] = random.nextFloat();
+        }
+        for (int radius = 0; radius <= BlurKernel.MAX_RADIUS; ++radius)
+        {
+            BlurKernel kernel = BlurKernel.gaussian(radius);
+            for (int x = BlurKernel.MAX_RADIUS + 1; x < signal.length - BlurKernel.MAX_RADIUS - 1; ++x)
+            {
+                float discrete = kernel.getDiscreteWeight(0) * signal[x];
+                for (int i = 1; i <= radius; ++i)
+                {
+                    discrete += kernel.getDiscreteWeight(i) * (signal[x - i] + signal[x + i]);
+                }
+                float linear = kernel.getWeight(0) * signal[x];
+                for (int t = 1; t < kernel.getTapCount(); ++t)
+                {
+                    float offset = kernel.getOffset(t);
+                    linear += kernel.getWeight(t) * (lerp(signal, x + offset) + lerp(signal, x - offset));
+                }
+                assertEquals("radius " + radius + " at " + x, discrete, linear, 1e-5f);
+            }
+        }
+    }
+
+    @Test
+    public void lastTapOfAnOddRadiusSitsOnItsTexel()
+    {
+        BlurKernel kernel = BlurKernel.gaussian(3);
+        assertEquals(3, kernel.getTapCount());
+        assertEquals(3.0f, kernel.getOffset(2), 0);
+        assertEquals(kernel.getDiscreteWeight(3), kernel.getWeight(2), 0);
+        float offset = kernel.getOffset(1);
+        assertTrue(offset > 1 && offset < 2);
+    }
+
+    @Test
+    public void uniformPacksOffsetAndWeightPerTap()
+    {
+        BlurKernel kernel = BlurKernel.gaussian(6);
+        float[] taps = kernel.toUniform();
+        assertEquals(4 * BlurKernel.MAX_TAPS, taps.length);
+        for (int t = 0; t < BlurKernel.MAX_TAPS; ++t)
+        {
+            boolean used = t < kernel.getTapCount();
+            assertEquals(used ? kernel.getOffset(t) : 0, taps[4 * t], 0);
+            assertEquals(used ? kernel.getWeight(t) : 0, taps[4 * t + 1], 0);
+            assertEquals(0, taps[4 * t + 2], 0);
+            assertEquals(0, taps[4 * t + 3], 0);
+        }
+    }
+
+    @Test
+    public void handMadeWeightsAreKept()
+    {
+        BlurKernel kernel = BlurKernel.fromWeights(new float[] {0.4f, 0.2f, 0.1f});
+        assertEquals(2, kernel.getRadius());
+        assertEquals(0, kernel.getSigma(), 0);
+        assertEquals(0.3f, kernel.getWeight(1), 1e-6f);
+        assertEquals(4.0f / 3.0f, kernel.getOffset(1), 1e-6f);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void radiusBeyondTheShaderIsRejected()
+    {
+        BlurKernel.gaussian(BlurKernel.MAX_RADIUS + 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void sigmaMustBePositive()
+    {
+        BlurKernel.gaussian(3, 0);
+    }
+
+    /** Bilinear fetch at {@code x} texels, texel i sitting at i. */
+    private static float lerp(float[] signal, float x)
+    {
+        int i = (int) Math.floor(x);
+        float f = x - i;
+        return signal[i] * (1 - f) + signal[i + 1] * f;
+    }
+}
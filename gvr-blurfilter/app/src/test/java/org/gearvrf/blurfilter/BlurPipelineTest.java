@@ -0,0 +1,179 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf.blurfilter;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class BlurPipelineTest
+{
+    private static final int SOURCE = 1024;
+
+    @Test
+    public void downsamplingAveragesEverySourceTexel()
+    {
+        // stripes one texel wide are the worst case: any skipped texel shows
+        float[] stripes = new float[64];
+        for (int i = 0; i < stripes.length; ++i)
+        {
+            stripes[i] = i % 2;
+        }
+        float[] noise = new float[64];
+        Random random = new Random(48);
+        for (int i = 0; i < noise.length; ++i)
+        {
+            noise[i] = random.nextFloat();
+        }
+        for (int d = 1; d <= 4; d *= 2)
+        {
+            BlurPipeline pipeline = new BlurPipeline(SOURCE, SOURCE, d, 1, BlurKernel.gaussian(3));
+            for (float[] source : new float[][] {stripes, noise})
+            {
+                for (int j = 0; j < source.length / d; ++j)
+                {
+                    float box = 0;
+                    for (int i = 0; i < d; ++i)
+                    {
+                        box += source[d * j + i];
+                    }
+                    assertEquals("1/" + d + " texel " + j, box / d, downsample(source, pipeline, j), 1e-6f);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void downsamplingPassIsCounted()
+    {
+        BlurKernel kernel = BlurKernel.gaussian(6);
+        BlurPipeline pipeline = new BlurPipeline(SOURCE, SOURCE, 2, 2, kernel);
+        assertEquals(512, pipeline.getTargetWidth());
+        assertEquals(512, pipeline.getTargetHeight());
+        assertEquals(5, pipeline.getPassCount());
+        assertEquals(4, pipeline.getBlurPassCount());
+        assertEquals(512L * 512 * (1 + 4 * 7), pipeline.getTexelFetchesPerFrame());
+        assertEquals(512L * 512 * (4 + 4 * 13), pipeline.getDiscreteTexelFetchesPerFrame());
+
+        pipeline = new BlurPipeline(SOURCE, SOURCE, 4, 1, kernel);
+        assertEquals(256L * 256 * (4 + 2 * 7), pipeline.getTexelFetchesPerFrame());
+        assertEquals(256L * 256 * (16 + 2 * 13), pipeline.getDiscreteTexelFetchesPerFrame());
+    }
+
+    @Test
+    public void effectiveSigmaAddsTheBoxFilter()
+    {
+        BlurKernel kernel = BlurKernel.gaussian(6);
+        float sigma = kernel.getSigma();
+        assertEquals(sigma * Math.sqrt(3), new BlurPipeline(SOURCE, SOURCE, 1, 3, kernel).getEffectiveSigma(), 1e-5);
+        assertEquals(Math.sqrt(0.25 + 2 * 4 * sigma * sigma),
+                     new BlurPipeline(SOURCE, SOURCE, 2, 2, kernel).getEffectiveSigma(), 1e-5);
+        assertEquals(Math.sqrt(1.25 + 16 * sigma * sigma),
+                     new BlurPipeline(SOURCE, SOURCE, 4, 1, kernel).getEffectiveSigma(), 1e-5);
+    }
+
+    @Test
+    public void effectiveSigmaMatchesTheChainRunInOneDimension()
+    {
+        // the discrete kernel [0.25 0.5 0.25] has a variance of 0.5 target texels
+        double[] weights = {0.25, 0.5, 0.25};
+        double targetVariance = 0.5;
+        BlurKernel kernel = BlurKernel.gaussian(1, (float) Math.sqrt(targetVariance));
+        for (int d = 1; d <= 4; d *= 2)
+        {
+            for (int iterations = 1; iterations <= 3; ++iterations)
+            {
+                // spread of a source impulse around itself, averaged over
+                // where it falls in its block
+                double variance = 0;
+                for (int phase = 0; phase < d; ++phase)
+                {
+                    double[] response = new double[64];
+                    response[32] = 1;
+                    for (int i = 0; i < iterations; ++i)
+                    {
+                        response = convolve(response, weights);
+                    }
+                    for (int j = 0; j < response.length; ++j)
+                    {
+                        double x = d * (j - 32) + (d - 1) / 2.0 - phase;
+                        variance += response[j] * x * x / d;
+                    }
+                }
+                double expected = (d * d - 1) / 12.0 + iterations * d * d * targetVariance;
+                assertEquals(expected, variance, 1e-9);
+                assertEquals(Math.sqrt(expected),
+                             new BlurPipeline(SOURCE, SOURCE, d, iterations, kernel).getEffectiveSigma(), 1e-5);
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void downsampleIsOneTwoOrFour()
+    {
+        new BlurPipeline(SOURCE, SOURCE, 3, 1, BlurKernel.gaussian(2));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void oneIterationAtLeast()
+    {
+        new BlurPipeline(SOURCE, SOURCE, 2, 0, BlurKernel.gaussian(2));
+    }
+
+    /**
+     * What the downsampling shader reads for target texel {@code j} along one
+     * axis, with texel i of the source centred on i + 0.5.
+     */
+    private static float downsample(float[] source, BlurPipeline pipeline, int j)
+    {
+        int d = pipeline.getDownsample();
+        float centre = d * (j + 0.5f);
+        float offset = pipeline.getDownsampleOffset();
+        if (offset == 0)
+        {
+            assertEquals(1, pipeline.getDownsampleFetchesPerPixel());
+            return bilinear(source, centre);
+        }
+        assertEquals(4, pipeline.getDownsampleFetchesPerPixel());
+        return (bilinear(source, centre - offset) + bilinear(source, centre + offset)) / 2;
+    }
+
+    private static float bilinear(float[] source, float x)
+    {
+        float t = x - 0.5f;
+        int i = (int) Math.floor(t);
+        float f = t - i;
+        float a = source[Math.max(i, 0)];
+        float b = source[Math.min(i + 1, source.length - 1)];
+        return a * (1 - f) + b * f;
+    }
+
+    private static double[] convolve(double[] signal, double[] kernel)
+    {
+        int r = kernel.length / 2;
+        double[] out = new double[signal.length];
+        for (int i = r; i < signal.length - r; ++i)
+        {
+            for (int k = -r; k <= r; ++k)
+            {
+                out[i] += kernel[k + r] * signal[i + k];
+            }
+        }
+        return out;
+    }
+}
@@ -0,0 +1,109 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf.gvrcamera2renderscript;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+
+/**
+ * Frame buffers kept for reuse, keyed by width, height and format. An effect
+ * graph takes the output buffer of every intermediate stage from the pool and
+ * gives the stage's input back as soon as the next stage is bound to it, so a
+ * chain of any length needs only two intermediates of each kind, and
+ * rebuilding a graph reuses the buffers of the previous one. Because bound
+ * buffers are back on the free lists, graphs that run at the same time must
+ * not share a pool.
+ * Used with Renderscript allocations on the device and byte arrays headless.
+ */
+public class BufferPool<T>
+{
+    public interface Factory<T>
+    {
+        T create(int width, int height, int format);
+    }
+
+    private final Factory<T> mFactory;
+    private final HashMap<String, ArrayDeque<T>> mFree = new HashMap<String, ArrayDeque<T>>();
+    private final IdentityHashMap<T, String> mKeys = new IdentityHashMap<T, String>();
+    private int mCreated;
+    private int mReused;
+
+    public BufferPool(Factory<T> factory)
+    {
+        mFactory = factory;
+    }
+
+    /** A free buffer of the given shape, created if there is none. */
+    public synchronized T acquire(int width, int height, int format)
+    {
+        String key = key(width, height, format);
+        ArrayDeque<T> free = mFree.get(key);
+        if ((free != null) && !free.isEmpty())
+        {
+            ++mReused;
+            return free.pop();
+        }
+        T buffer = mFactory.create(width, height, format);
+        mKeys.put(buffer, key);
+        ++mCreated;
+        return buffer;
+    }
+
+    /** Give back a buffer obtained from {@link #acquire}. */
+    public synchronized void release(T buffer)
+    {
+        String key = mKeys.get(buffer);
+        if (key == null)
+        {
+            throw new IllegalArgumentException("buffer does not belong to this pool");
+        }
+        ArrayDeque<T> free = mFree.get(key);
+        if (free == null)
+        {
+            free = new ArrayDeque<T>();
+            mFree.put(key, free);
+        }
+        free.push(buffer);
+    }
+
+    /** Buffers created since the pool was made. */
+    public synchronized int getCreatedCount()
+    {
+        return mCreated;
+    }
+
+    /** Acquisitions served from the free lists. */
+    public synchronized int getReusedCount()
+    {
+        return mReused;
+    }
+
+    public synchronized int getFreeCount()
+    {
+        int count = 0;
+        for (ArrayDeque<T> free : mFree.values())
+        {
+            count += free.size();
+        }
+        return count;
+    }
+
+    private static String key(int width, int height, int format)
+    {
+        return width + "x" + height + "/" + format;
+    }
+}
@@ -4,6 +4,8 @@ import java.util.ArrayList;
 import java.util.List;
 import android.app.Activity;
 import android.content.Context;
+import android.graphics.ImageFormat;
+import android.graphics.PixelFormat;
 import android.graphics.SurfaceTexture;
 import android.hardware.camera2.CameraAccessException;
 import android.hardware.camera2.CameraCaptureSession;
@@ -21,6 +23,7 @@ import android.view.Surface;
 public class Camera2Helper {
 
 	private Activity mActivity;
+	private StreamConfigurationMap mStreamConfigurations;
 	private Size[] mAvailableSizes;
 	private Size mPreferredSize;
 	private CameraManager mCameraManager;
@@ -38,8 +41,33 @@ public class Camera2Helper {
 		mCameraManager = (CameraManager) mActivity.getSystemService(Context.CAMERA_SERVICE);
 		mCameraId = mCameraManager.getCameraIdList()[cameraIndex];
 		CameraCharacteristics characteristics = mCameraManager.getCameraCharacteristics(mCameraId);
-		StreamConfigurationMap map = characteristics.get(CameraCharacteristics.SCALER_STREAM_CONFIGURATION_MAP);
-		mAvailableSizes = map.getOutputSizes(SurfaceTexture.class);
+		mStreamConfigurations = characteristics.get(CameraCharacteristics.SCALER_STREAM_CONFIGURATION_MAP);
+		mAvailableSizes = mStreamConfigurations.getOutputSizes(SurfaceTexture.class);
+	}
+	
+	/**
+	 * Format of the frames the camera can write into a Renderscript input
+	 * allocation of the given size. YUV_420_888 when the camera lists it for
+	 * that size, which is the format camera2 defines for allocation outputs;
+	 * RGBA otherwise, for HALs that only stream their native format.
+	 */
+	public int getEffectInputFormat(Size size)
+	{
+		if (mStreamConfigurations.isOutputSupportedFor(ImageFormat.YUV_420_888))
+		{
+			Size[] yuvSizes = mStreamConfigurations.getOutputSizes(ImageFormat.YUV_420_888);
+			if (yuvSizes != null)
+			{
+				for (Size s : yuvSizes)
+				{
+					if (s.equals(size))
+					{
+						return ImageFormat.YUV_420_888;
+					}
+				}
+			}
+		}
+		return PixelFormat.RGBA_8888;
 	}
 	
 	public Size[] getOutputSizes()
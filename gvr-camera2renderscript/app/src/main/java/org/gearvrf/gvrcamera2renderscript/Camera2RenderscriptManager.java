@@ -75,7 +75,8 @@ public class Camera2RenderscriptManager extends GVRMain {
 			mEffectTexture.setDefaultBufferSize(previewSize.getWidth(), previewSize.getHeight());
 			Surface effectSurface = new Surface(mEffectTexture);
 
-			mProcessor = new RenderscriptProcessor(mRS, previewSize.getWidth(), previewSize.getHeight());
+			int inputFormat = mCameraHelper.getEffectInputFormat(previewSize);
+			mProcessor = new RenderscriptProcessor(mRS, previewSize.getWidth(), previewSize.getHeight(), inputFormat);
 			mProcessor.setOutputSurface(effectSurface);
 			mSurfaceInterim = mProcessor.getInputSurface();
 
@@ -0,0 +1,119 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf.gvrcamera2renderscript;
+
+import java.util.List;
+
+/**
+ * An effect graph run entirely by the CPU references, with the same chain
+ * resolution, buffer pooling and stage timings as the Renderscript graph.
+ * Needs no device, so a chain can be validated against the Renderscript
+ * output or benchmarked in a plain JVM.
+ */
+public class CpuEffectGraph implements FramePipeline.FrameIo
+{
+    private final int mWidth;
+    private final int mHeight;
+    private final BufferPool<byte[]> mPool;
+    private final FramePipeline mPipeline = new FramePipeline();
+    private final byte[] mInput;
+    private final byte[] mOutput;
+    private final List<Effect> mChain;
+
+    /**
+     * @param inputFormat {@link Effect#FORMAT_YUV} (NV21) or {@link Effect#FORMAT_RGBA}
+     * @param effects     the stages; a colour conversion is added for YUV input
+     */
+    public CpuEffectGraph(int width, int height, int inputFormat, List<Effect> effects)
+    {
+        mWidth = width;
+        mHeight = height;
+        mPool = new BufferPool<byte[]>(new BufferPool.Factory<byte[]>()
+        {
+            @Override
+            public byte[] create(int w, int h, int format)
+            {
+                return new byte[Effect.frameSize(format, w, h)];
+            }
+        });
+        mChain = Effect.resolve(inputFormat, effects);
+        mInput = new byte[Effect.frameSize(inputFormat, width, height)];
+        mOutput = new byte[Effect.frameSize(Effect.FORMAT_RGBA, width, height)];
+        mPipeline.setDropPolicy(FramePipeline.DropPolicy.latestOnly());
+
+        byte[] in = mInput;
+        for (int i = 0; i < mChain.size(); ++i)
+        {
+            Effect effect = mChain.get(i);
+            boolean last = (i == mChain.size() - 1);
+            byte[] out = last ? mOutput : mPool.acquire(width, height, effect.getOutputFormat());
+            addStage(effect, in, out);
+            if (in != mInput)
+            {
+                mPool.release(in);
+            }
+            in = out;
+        }
+    }
+
+    /** Run one frame through the graph; the returned array is reused. */
+    public byte[] process(byte[] frame)
+    {
+        System.arraycopy(frame, 0, mInput, 0, mInput.length);
+        mPipeline.onFrameAvailable();
+        mPipeline.processPending(this);
+        return mOutput;
+    }
+
+    public List<Effect> getChain()
+    {
+        return mChain;
+    }
+
+    public FramePipeline getPipeline()
+    {
+        return mPipeline;
+    }
+
+    public BufferPool<byte[]> getPool()
+    {
+        return mPool;
+    }
+
+    @Override
+    public void skip() { }
+
+    @Override
+    public void receive() { }
+
+    @Override
+    public void send() { }
+
+    private void addStage(final Effect effect, final byte[] in, final byte[] out)
+    {
+        mPipeline.addStage(new FramePipeline.Stage()
+        {
+            @Override
+            public String getName() { return effect.getName(); }
+
+            @Override
+            public void process()
+            {
+                effect.applyCpu(in, out, mWidth, mHeight);
+            }
+        });
+    }
+}
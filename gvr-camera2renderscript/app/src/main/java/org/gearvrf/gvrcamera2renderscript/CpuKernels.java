@@ -0,0 +1,210 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf.gvrcamera2renderscript;
+
+/**
+ * Plain Java versions of the Renderscript kernels. Pixels are RGBA_8888, four
+ * bytes per pixel in the same order as a Renderscript uchar4 allocation, so a
+ * frame can be copied out of an allocation, processed here and copied back.
+ * They are the fallback when a script cannot be created and the reference the
+ * kernels and intrinsics are checked against; results agree to within
+ * rounding, not bit for bit.
+ */
+public final class CpuKernels
+{
+    private static final float MONO_R = 0.299f;
+    private static final float MONO_G = 0.587f;
+    private static final float MONO_B = 0.114f;
+
+    private CpuKernels() { }
+
+    /** mono.rs: luminance in r, g and b, opaque alpha. */
+    public static void mono(byte[] in, byte[] out, int pixels)
+    {
+        for (int i = 0, p = 0; i < pixels; ++i, p += 4)
+        {
+            float r = (in[p] & 0xFF) / 255.0f;
+            float g = (in[p + 1] & 0xFF) / 255.0f;
+            float b = (in[p + 2] & 0xFF) / 255.0f;
+            byte y = pack(r * MONO_R + g * MONO_G + b * MONO_B);
+            out[p] = y;
+            out[p + 1] = y;
+            out[p + 2] = y;
+            out[p + 3] = (byte) 0xFF;
+        }
+    }
+
+    /**
+     * ScriptIntrinsicYuvToRGB: BT.601 video range to RGBA. The input is NV21,
+     * a full resolution Y plane followed by interleaved V and U at half
+     * resolution in both directions.
+     */
+    public static void yuvToRgb(byte[] in, byte[] out, int width, int height)
+    {
+        int chromaStride = ((width + 1) / 2) * 2;
+        int chromaStart = width * height;
+        for (int y = 0, p = 0; y < height; ++y)
+        {
+            int row = chromaStart + (y / 2) * chromaStride;
+            for (int x = 0; x < width; ++x, p += 4)
+            {
+                int c = row + (x / 2) * 2;
+                int yy = (in[y * width + x] & 0xFF) - 16;
+                int v = (in[c] & 0xFF) - 128;
+                int u = (in[c + 1] & 0xFF) - 128;
+                out[p] = clamp((yy * 298 + v * 409 + 128) >> 8);
+                out[p + 1] = clamp((yy * 298 - u * 100 - v * 208 + 128) >> 8);
+                out[p + 2] = clamp((yy * 298 + u * 516 + 128) >> 8);
+                out[p + 3] = (byte) 0xFF;
+            }
+        }
+    }
+
+    /**
+     * ScriptIntrinsicBlur: separable Gaussian with sigma = 0.4 * radius + 0.6
+     * over ceil(radius) pixels either side, edges clamped, all four channels.
+     */
+    public static void blur(byte[] in, byte[] out, int width, int height, float radius)
+    {
+        float[] weights = blurWeights(radius);
+        int r = weights.length / 2;
+        float[] rows = new float[width * height * 4];
+        for (int y = 0; y < height; ++y)
+        {
+            for (int x = 0; x < width; ++x)
+            {
+                int o = (y * width + x) * 4;
+                for (int k = -r; k <= r; ++k)
+                {
+                    int sx = Math.min(Math.max(x + k, 0), width - 1);
+                    int s = (y * width + sx) * 4;
+                    float w = weights[k + r];
+                    rows[o] += w * (in[s] & 0xFF);
+                    rows[o + 1] += w * (in[s + 1] & 0xFF);
+                    rows[o + 2] += w * (in[s + 2] & 0xFF);
+                    rows[o + 3] += w * (in[s + 3] & 0xFF);
+                }
+            }
+        }
+        for (int y = 0; y < height; ++y)
+        {
+            for (int x = 0; x < width; ++x)
+            {
+                int o = (y * width + x) * 4;
+                float r0 = 0, g0 = 0, b0 = 0, a0 = 0;
+                for (int k = -r; k <= r; ++k)
+                {
+                    int sy = Math.min(Math.max(y + k, 0), height - 1);
+                    int s = (sy * width + x) * 4;
+                    float w = weights[k + r];
+                    r0 += w * rows[s];
+                    g0 += w * rows[s + 1];
+                    b0 += w * rows[s + 2];
+                    a0 += w * rows[s + 3];
+                }
+                out[o] = pack(r0 / 255.0f);
+                out[o + 1] = pack(g0 / 255.0f);
+                out[o + 2] = pack(b0 / 255.0f);
+                out[o + 3] = pack(a0 / 255.0f);
+            }
+        }
+    }
+
+    /** Normalised Gaussian taps of the blur, 2 * ceil(radius) + 1 of them. */
+    static float[] blurWeights(float radius)
+    {
+        int r = (int) Math.ceil(radius);
+        float sigma = 0.4f * radius + 0.6f;
+        float[] weights = new float[2 * r + 1];
+        float sum = 0;
+        for (int k = -r; k <= r; ++k)
+        {
+            weights[k + r] = (float) Math.exp(-(k * k) / (2.0 * sigma * sigma));
+            sum += weights[k + r];
+        }
+        for (int k = 0; k < weights.length; ++k)
+        {
+            weights[k] /= sum;
+        }
+        return weights;
+    }
+
+    /**
+     * edge.rs: Sobel gradient magnitude of the luminance, edges clamped,
+     * written as grey with opaque alpha.
+     */
+    public static void edge(byte[] in, byte[] out, int width, int height)
+    {
+        float[] luma = new float[width * height];
+        for (int i = 0, p = 0; i < luma.length; ++i, p += 4)
+        {
+            luma[i] = ((in[p] & 0xFF) * MONO_R + (in[p + 1] & 0xFF) * MONO_G
+                    + (in[p + 2] & 0xFF) * MONO_B) / 255.0f;
+        }
+        for (int y = 0; y < height; ++y)
+        {
+            int up = Math.max(y - 1, 0) * width;
+            int mid = y * width;
+            int down = Math.min(y + 1, height - 1) * width;
+            for (int x = 0; x < width; ++x)
+            {
+                int left = Math.max(x - 1, 0);
+                int right = Math.min(x + 1, width - 1);
+                float gx = (luma[up + right] + 2 * luma[mid + right] + luma[down + right])
+                         - (luma[up + left] + 2 * luma[mid + left] + luma[down + left]);
+                float gy = (luma[down + left] + 2 * luma[down + x] + luma[down + right])
+                         - (luma[up + left] + 2 * luma[up + x] + luma[up + right]);
+                byte e = pack((float) Math.sqrt(gx * gx + gy * gy));
+                int p = (mid + x) * 4;
+                out[p] = e;
+                out[p + 1] = e;
+                out[p + 2] = e;
+                out[p + 3] = (byte) 0xFF;
+            }
+        }
+    }
+
+    /** ScriptIntrinsicLUT: one 256 entry table per colour channel, alpha kept. */
+    public static void lut(byte[] in, byte[] out, int pixels, byte[] red, byte[] green, byte[] blue)
+    {
+        for (int i = 0, p = 0; i < pixels; ++i, p += 4)
+        {
+            out[p] = red[in[p] & 0xFF];
+            out[p + 1] = green[in[p + 1] & 0xFF];
+            out[p + 2] = blue[in[p + 2] & 0xFF];
+            out[p + 3] = in[p + 3];
+        }
+    }
+
+    private static byte clamp(int value)
+    {
+        return (byte) ((value < 0) ? 0 : (value > 255) ? 255 : value);
+    }
+
+    /** rsPackColorTo8888 for one channel. */
+    static byte pack(float value)
+    {
+        if (value < 0)
+        {
+            value = 0;
+        }
+        else if (value > 1)
+        {
+            value = 1;
+        }
+        return (byte) (int) (value * 255.0f + 0.5f);
+    }
+}
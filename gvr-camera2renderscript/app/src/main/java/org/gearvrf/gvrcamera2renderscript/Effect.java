@@ -0,0 +1,221 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf.gvrcamera2renderscript;
+
+import android.graphics.ImageFormat;
+import android.graphics.PixelFormat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One stage of a camera effect graph. An effect only describes what to do;
+ * {@link RenderscriptEffects} turns it into a Renderscript stage and
+ * {@link #applyCpu} runs the {@link CpuKernels} reference of it. Effects are
+ * immutable and can be shared between graphs.
+ */
+public final class Effect
+{
+    public enum Kind
+    {
+        COLOR_CONVERT,
+        MONO,
+        BLUR,
+        EDGE,
+        LUT
+    }
+
+    /** Camera frames as delivered to a YUV allocation. */
+    public static final int FORMAT_YUV = ImageFormat.YUV_420_888;
+    /** Four bytes per pixel, the format of every stage output. */
+    public static final int FORMAT_RGBA = PixelFormat.RGBA_8888;
+
+    /** Largest radius ScriptIntrinsicBlur accepts. */
+    public static final float MAX_BLUR_RADIUS = 25.0f;
+
+    private final Kind mKind;
+    private final float mRadius;
+    private final byte[] mRed;
+    private final byte[] mGreen;
+    private final byte[] mBlue;
+
+    private Effect(Kind kind, float radius, byte[] red, byte[] green, byte[] blue)
+    {
+        mKind = kind;
+        mRadius = radius;
+        mRed = red;
+        mGreen = green;
+        mBlue = blue;
+    }
+
+    /** YUV camera frame to RGBA; only valid as the first stage. */
+    public static Effect colorConvert()
+    {
+        return new Effect(Kind.COLOR_CONVERT, 0, null, null, null);
+    }
+
+    public static Effect mono()
+    {
+        return new Effect(Kind.MONO, 0, null, null, null);
+    }
+
+    /** Gaussian blur, {@code radius} in pixels between 0 (exclusive) and 25. */
+    public static Effect blur(float radius)
+    {
+        if ((radius <= 0) || (radius > MAX_BLUR_RADIUS))
+        {
+            throw new IllegalArgumentException("blur radius must be in (0, 25], got " + radius);
+        }
+        return new Effect(Kind.BLUR, radius, null, null, null);
+    }
+
+    /** Sobel edge magnitude, in grey. */
+    public static Effect edge()
+    {
+        return new Effect(Kind.EDGE, 0, null, null, null);
+    }
+
+    /** Per-channel lookup tables of 256 entries each; alpha is passed through. */
+    public static Effect lut(byte[] red, byte[] green, byte[] blue)
+    {
+        if ((red.length != 256) || (green.length != 256) || (blue.length != 256))
+        {
+            throw new IllegalArgumentException("lookup tables need 256 entries");
+        }
+        return new Effect(Kind.LUT, 0, red.clone(), green.clone(), blue.clone());
+    }
+
+    /** Lookup table raising every colour channel to the power {@code gamma}. */
+    public static Effect gamma(float gamma)
+    {
+        byte[] table = new byte[256];
+        for (int i = 0; i < 256; ++i)
+        {
+            table[i] = CpuKernels.pack((float) Math.pow(i / 255.0, gamma));
+        }
+        return new Effect(Kind.LUT, 0, table, table, table);
+    }
+
+    public Kind getKind()
+    {
+        return mKind;
+    }
+
+    /** Stage name used in the pipeline timings. */
+    public String getName()
+    {
+        switch (mKind)
+        {
+            case COLOR_CONVERT: return "yuv-to-rgb";
+            case MONO: return "mono";
+            case BLUR: return "blur";
+            case EDGE: return "edge";
+            default: return "lut";
+        }
+    }
+
+    public float getRadius()
+    {
+        return mRadius;
+    }
+
+    /** Table entry {@code i} of the red, green or blue LUT, 0 to 255. */
+    public int getLutEntry(int channel, int i)
+    {
+        byte[] table = (channel == 0) ? mRed : (channel == 1) ? mGreen : mBlue;
+        return table[i] & 0xFF;
+    }
+
+    public int getInputFormat()
+    {
+        return (mKind == Kind.COLOR_CONVERT) ? FORMAT_YUV : FORMAT_RGBA;
+    }
+
+    public int getOutputFormat()
+    {
+        return FORMAT_RGBA;
+    }
+
+    /** Run the CPU reference on a whole frame. */
+    public void applyCpu(byte[] in, byte[] out, int width, int height)
+    {
+        switch (mKind)
+        {
+            case COLOR_CONVERT:
+                CpuKernels.yuvToRgb(in, out, width, height);
+                break;
+            case MONO:
+                CpuKernels.mono(in, out, width * height);
+                break;
+            case BLUR:
+                CpuKernels.blur(in, out, width, height, mRadius);
+                break;
+            case EDGE:
+                CpuKernels.edge(in, out, width, height);
+                break;
+            case LUT:
+                CpuKernels.lut(in, out, width * height, mRed, mGreen, mBlue);
+                break;
+        }
+    }
+
+    /** Bytes in a frame of {@code format}; YUV is counted as NV21. */
+    public static int frameSize(int format, int width, int height)
+    {
+        if (format == FORMAT_YUV)
+        {
+            return width * height + 2 * ((width + 1) / 2) * ((height + 1) / 2);
+        }
+        return width * height * 4;
+    }
+
+    /**
+     * The effects to run on frames of {@code inputFormat}: a colour conversion
+     * is put in front when the frames are YUV and the chain does not start
+     * with one. Throws if the chain is empty or a stage would get input in
+     * the wrong format.
+     */
+    public static List<Effect> resolve(int inputFormat, List<Effect> effects)
+    {
+        ArrayList<Effect> chain = new ArrayList<Effect>(effects.size() + 1);
+        if ((inputFormat == FORMAT_YUV)
+            && (effects.isEmpty() || (effects.get(0).getKind() != Kind.COLOR_CONVERT)))
+        {
+            chain.add(colorConvert());
+        }
+        chain.addAll(effects);
+        if (chain.isEmpty())
+        {
+            throw new IllegalArgumentException("an effect graph needs at least one stage");
+        }
+        int format = inputFormat;
+        for (Effect e : chain)
+        {
+            if (e.getInputFormat() != format)
+            {
+                throw new IllegalArgumentException(e.getName() + " cannot take format " + format);
+            }
+            format = e.getOutputFormat();
+        }
+        return chain;
+    }
+
+    @Override
+    public String toString()
+    {
+        return (mKind == Kind.BLUR) ? getName() + "(" + mRadius + ")" : getName();
+    }
+}
@@ -0,0 +1,235 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf.gvrcamera2renderscript;
+
+import java.util.ArrayList;
+import java.util.Locale;
+
+/**
+ * Runs camera frames through a list of named stages. Frame arrival is counted
+ * on the producer's thread; {@link #processPending} runs on the processing
+ * thread, asks the {@link DropPolicy} how many of the pending frames to work
+ * on, skips the rest and times every stage of every processed frame.
+ * Nothing here depends on Android, so the pipeline can be driven by a
+ * synthetic {@link FrameIo} in a plain JVM.
+ */
+public class FramePipeline
+{
+    /** One step of the effect; reads the previous step's output. */
+    public interface Stage
+    {
+        String getName();
+        void process();
+    }
+
+    /** Moves frames in and out of the pipeline. */
+    public interface FrameIo
+    {
+        /** Latch the next pending frame without processing it. */
+        void skip();
+        /** Latch the next pending frame as the stages' input. */
+        void receive();
+        /** Publish the output of the last stage. */
+        void send();
+    }
+
+    /** How many of the frames that piled up get processed. */
+    public static class DropPolicy
+    {
+        private final int mCapacity;
+
+        private DropPolicy(int capacity)
+        {
+            mCapacity = capacity;
+        }
+
+        /** Skip to the newest frame and process only that one. */
+        public static DropPolicy latestOnly()
+        {
+            return new DropPolicy(1);
+        }
+
+        /** Process up to {@code capacity} frames in order, dropping the oldest beyond that. */
+        public static DropPolicy boundedQueue(int capacity)
+        {
+            if (capacity < 1)
+            {
+                throw new IllegalArgumentException("capacity must be at least 1");
+            }
+            return new DropPolicy(capacity);
+        }
+
+        public int framesToProcess(int pending)
+        {
+            return Math.min(pending, mCapacity);
+        }
+
+        @Override
+        public String toString()
+        {
+            return (mCapacity == 1) ? "latest-only" : "bounded-queue(" + mCapacity + ")";
+        }
+    }
+
+    /** Accumulated timing of one stage. */
+    public static class StageTiming
+    {
+        private final String mName;
+        private long mCount;
+        private long mTotalNanos;
+        private long mMaxNanos;
+
+        StageTiming(String name)
+        {
+            mName = name;
+        }
+
+        void add(long nanos)
+        {
+            ++mCount;
+            mTotalNanos += nanos;
+            if (nanos > mMaxNanos)
+            {
+                mMaxNanos = nanos;
+            }
+        }
+
+        public String getName() { return mName; }
+        public long getCount() { return mCount; }
+        public float getAverageMillis() { return (mCount > 0) ? mTotalNanos / 1e6f / mCount : 0; }
+        public float getMaxMillis() { return mMaxNanos / 1e6f; }
+    }
+
+    private final ArrayList<Stage> mStages = new ArrayList<Stage>();
+    private final ArrayList<StageTiming> mTimings = new ArrayList<StageTiming>();
+    private DropPolicy mPolicy = DropPolicy.latestOnly();
+    private Runnable mStageBarrier;
+
+    private int mPending;
+    private long mReceived;
+    private long mDropped;
+    private long mProcessed;
+
+    public synchronized void addStage(Stage stage)
+    {
+        mStages.add(stage);
+        mTimings.add(new StageTiming(stage.getName()));
+    }
+
+    /** Remove every stage and its timing, to build a different chain. */
+    public synchronized void clearStages()
+    {
+        mStages.clear();
+        mTimings.clear();
+    }
+
+    public synchronized void setDropPolicy(DropPolicy policy)
+    {
+        mPolicy = policy;
+    }
+
+    /**
+     * Called after each stage, inside its timing. For asynchronous back ends
+     * this should wait for the queued work so stage times are real.
+     */
+    public synchronized void setStageBarrier(Runnable barrier)
+    {
+        mStageBarrier = barrier;
+    }
+
+    /** A frame arrived; may be called from any thread. */
+    public synchronized void onFrameAvailable()
+    {
+        ++mPending;
+        ++mReceived;
+    }
+
+    /**
+     * Skip and process the frames that arrived since the last call.
+     *
+     * @return number of frames processed
+     */
+    public int processPending(FrameIo io)
+    {
+        int pending;
+        int toProcess;
+        synchronized (this)
+        {
+            pending = mPending;
+            mPending = 0;
+            toProcess = mPolicy.framesToProcess(pending);
+            mDropped += pending - toProcess;
+        }
+        for (int i = toProcess; i < pending; ++i)
+        {
+            io.skip();
+        }
+        for (int i = 0; i < toProcess; ++i)
+        {
+            io.receive();
+            runStages();
+            io.send();
+            synchronized (this)
+            {
+                ++mProcessed;
+            }
+        }
+        return toProcess;
+    }
+
+    private void runStages()
+    {
+        for (int i = 0; i < mStages.size(); ++i)
+        {
+            long start = System.nanoTime();
+            mStages.get(i).process();
+            if (mStageBarrier != null)
+            {
+                mStageBarrier.run();
+            }
+            mTimings.get(i).add(System.nanoTime() - start);
+        }
+    }
+
+    public synchronized long getReceived() { return mReceived; }
+    public synchronized long getDropped() { return mDropped; }
+    public synchronized long getProcessed() { return mProcessed; }
+    public synchronized int getPending() { return mPending; }
+
+    public synchronized StageTiming getTiming(int stage)
+    {
+        return mTimings.get(stage);
+    }
+
+    public synchronized int getStageCount()
+    {
+        return mStages.size();
+    }
+
+    @Override
+    public synchronized String toString()
+    {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.US, "%s received %d dropped %d processed %d",
+                                mPolicy, mReceived, mDropped, mProcessed));
+        for (StageTiming t : mTimings)
+        {
+            sb.append(String.format(Locale.US, ", %s avg %.2f ms max %.2f ms",
+                                    t.getName(), t.getAverageMillis(), t.getMaxMillis()));
+        }
+        return sb.toString();
+    }
+}
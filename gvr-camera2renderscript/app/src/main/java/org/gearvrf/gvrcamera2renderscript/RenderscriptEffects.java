@@ -0,0 +1,178 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf.gvrcamera2renderscript;
+
+//import android.support.v8.renderscript.*;
+import android.renderscript.*;
+import android.util.Log;
+
+/**
+ * Renderscript stages for {@link Effect}s. Colour conversion, blur and LUT use
+ * the intrinsics, mono and edge the scripts in rs/. When a script cannot be
+ * created the stage copies the frame out and runs the CPU reference instead.
+ */
+public final class RenderscriptEffects
+{
+    private static final String TAG = "RenderscriptEffects";
+
+    private RenderscriptEffects() { }
+
+    /** Allocations for a {@link BufferPool}, script usage only. */
+    public static BufferPool.Factory<Allocation> allocationFactory(final RenderScript rs)
+    {
+        return new BufferPool.Factory<Allocation>()
+        {
+            @Override
+            public Allocation create(int width, int height, int format)
+            {
+                return Allocation.createTyped(rs, createType(rs, width, height, format),
+                        Allocation.USAGE_SCRIPT);
+            }
+        };
+    }
+
+    public static Type createType(RenderScript rs, int width, int height, int format)
+    {
+        Type.Builder builder;
+        if (format == Effect.FORMAT_YUV)
+        {
+            builder = new Type.Builder(rs, Element.U8_4(rs));
+            builder.setYuvFormat(format);
+        }
+        else
+        {
+            builder = new Type.Builder(rs, Element.RGBA_8888(rs));
+        }
+        builder.setX(width);
+        builder.setY(height);
+        return builder.create();
+    }
+
+    /** A stage running {@code effect} from {@code in} to {@code out}. */
+    public static FramePipeline.Stage createStage(RenderScript rs, final Effect effect,
+                                                  final Allocation in, final Allocation out,
+                                                  final int width, final int height)
+    {
+        try
+        {
+            return createScriptStage(rs, effect, in, out, width, height);
+        }
+        catch (RSRuntimeException e)
+        {
+            if (effect.getKind() == Effect.Kind.COLOR_CONVERT)
+            {
+                throw e;
+            }
+            Log.e(TAG, effect.getName() + " script unavailable, using the CPU kernel: " + e.getMessage());
+        }
+        return new FramePipeline.Stage()
+        {
+            private final byte[] mIn = new byte[width * height * 4];
+            private final byte[] mOut = new byte[width * height * 4];
+
+            @Override
+            public String getName() { return effect.getName() + "-cpu"; }
+
+            @Override
+            public void process()
+            {
+                in.copyTo(mIn);
+                effect.applyCpu(mIn, mOut, width, height);
+                out.copyFrom(mOut);
+            }
+        };
+    }
+
+    private static FramePipeline.Stage createScriptStage(RenderScript rs, final Effect effect,
+                                                         final Allocation in, final Allocation out,
+                                                         int width, int height)
+    {
+        switch (effect.getKind())
+        {
+            case COLOR_CONVERT:
+            {
+                final ScriptIntrinsicYuvToRGB script = ScriptIntrinsicYuvToRGB.create(rs, Element.U8_4(rs));
+                script.setInput(in);
+                return new ScriptStage(effect)
+                {
+                    @Override
+                    public void process() { script.forEach(out); }
+                };
+            }
+            case MONO:
+            {
+                final ScriptC_mono script = new ScriptC_mono(rs);
+                return new ScriptStage(effect)
+                {
+                    @Override
+                    public void process() { script.forEach_root(in, out); }
+                };
+            }
+            case BLUR:
+            {
+                final ScriptIntrinsicBlur script = ScriptIntrinsicBlur.create(rs, Element.U8_4(rs));
+                script.setRadius(effect.getRadius());
+                script.setInput(in);
+                return new ScriptStage(effect)
+                {
+                    @Override
+                    public void process() { script.forEach(out); }
+                };
+            }
+            case EDGE:
+            {
+                final ScriptC_edge script = new ScriptC_edge(rs);
+                script.set_gIn(in);
+                script.set_gWidth(width);
+                script.set_gHeight(height);
+                return new ScriptStage(effect)
+                {
+                    @Override
+                    public void process() { script.forEach_root(out); }
+                };
+            }
+            default:
+            {
+                final ScriptIntrinsicLUT script = ScriptIntrinsicLUT.create(rs, Element.U8_4(rs));
+                for (int i = 0; i < 256; ++i)
+                {
+                    script.setRed(i, effect.getLutEntry(0, i));
+                    script.setGreen(i, effect.getLutEntry(1, i));
+                    script.setBlue(i, effect.getLutEntry(2, i));
+                    script.setAlpha(i, i);
+                }
+                return new ScriptStage(effect)
+                {
+                    @Override
+                    public void process() { script.forEach(in, out); }
+                };
+            }
+        }
+    }
+
+    private static abstract class ScriptStage implements FramePipeline.Stage
+    {
+        private final String mName;
+
+        ScriptStage(Effect effect)
+        {
+            mName = effect.getName();
+        }
+
+        @Override
+        public String getName() { return mName; }
+    }
+}
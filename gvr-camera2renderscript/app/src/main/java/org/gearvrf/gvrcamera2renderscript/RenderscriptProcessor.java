@@ -1,7 +1,5 @@
 package org.gearvrf.gvrcamera2renderscript;
 
-import android.graphics.ImageFormat;
-import android.os.Build;
 import android.os.Handler;
 import android.os.HandlerThread;
 //import android.support.v8.renderscript.*;
@@ -9,63 +7,75 @@ import android.renderscript.*;
 import android.util.Log;
 import android.view.Surface;
 
+import java.util.Collections;
+import java.util.List;
+
 public class RenderscriptProcessor 
 {
+    private static final String TAG = "RenderscriptProcessor";
+    // frames between two log lines of pipeline statistics
+    private static final int STATS_INTERVAL = 300;
+
+    private final RenderScript mRS;
+    private final int mWidth;
+    private final int mHeight;
+    private final int mInputFormat;
+    private final BufferPool<Allocation> mPool;
+
     private Allocation mInputAllocation;
-    private Allocation mInterAllocation;
     private Allocation mOutputAllocation;
 
     private HandlerThread mProcessingThread;
     private Handler mProcessingHandler;
 
-    private ScriptC_mono mScript;
-    private ScriptIntrinsicYuvToRGB mScriptIntrinsic;
     public ProcessingTask mTask;
+    private final FramePipeline mPipeline = new FramePipeline();
     
-    private boolean mNeedYuvConversion = false;
-    
-    public RenderscriptProcessor(RenderScript rs, int width, int height)
+    /**
+     * Mono effect on camera frames of {@code inputFormat}, the format
+     * {@link Camera2Helper#getEffectInputFormat} negotiated for the size.
+     */
+    public RenderscriptProcessor(RenderScript rs, int width, int height, int inputFormat)
     {
-        String model = Build.MODEL;
-        Log.d("MODEL", model);
-        if (model.contains("SM-N920") || model.contains("SM-G920") || model.contains("SM-G925") || model.contains("SM-G928")
-                || model.contains("SM-G93") || model.contains("SM-N9208") || model.contains("SM-G95") || model.contains("SM-N95")) {
-            mNeedYuvConversion = true;
-        }
-
-        Type.Builder yuvTypeBuilder = new Type.Builder(rs, Element.U8_4(rs));
-        yuvTypeBuilder.setX(width);
-        yuvTypeBuilder.setY(height);
-        yuvTypeBuilder.setYuvFormat(ImageFormat.YUV_420_888);
-        
-        Type.Builder rgbTypeBuilder = new Type.Builder(rs, Element.RGBA_8888(rs));
-        rgbTypeBuilder.setX(width);
-        rgbTypeBuilder.setY(height);
-        
-        if( mNeedYuvConversion )
-        {
-            mInputAllocation = Allocation.createTyped(rs, yuvTypeBuilder.create(),
-                    Allocation.USAGE_IO_INPUT | Allocation.USAGE_SCRIPT);
-
-            mInterAllocation = Allocation.createTyped(rs, rgbTypeBuilder.create(),
-                    Allocation.USAGE_SCRIPT);
+        this(rs, width, height, inputFormat, Collections.singletonList(Effect.mono()),
+             FramePipeline.DropPolicy.latestOnly());
+    }
 
-            mScriptIntrinsic = ScriptIntrinsicYuvToRGB.create(rs, Element.U8_4(rs));
-        } else {
-            mInputAllocation = Allocation.createTyped(rs, rgbTypeBuilder.create(),
-                    Allocation.USAGE_IO_INPUT | Allocation.USAGE_SCRIPT);
-        }
-        
-        mOutputAllocation = Allocation.createTyped(rs, rgbTypeBuilder.create(),
+    /**
+     * @param inputFormat {@link Effect#FORMAT_YUV} or {@link Effect#FORMAT_RGBA};
+     *                    YUV frames get a colour conversion in front of the effects
+     */
+    public RenderscriptProcessor(final RenderScript rs, int width, int height, int inputFormat,
+                                 List<Effect> effects, FramePipeline.DropPolicy policy)
+    {
+        mRS = rs;
+        mWidth = width;
+        mHeight = height;
+        mInputFormat = inputFormat;
+        mPool = new BufferPool<Allocation>(RenderscriptEffects.allocationFactory(rs));
+        Log.d(TAG, "camera input format " + inputFormat + ", " + width + "x" + height);
+
+        mInputAllocation = Allocation.createTyped(rs, RenderscriptEffects.createType(rs, width, height, inputFormat),
+                Allocation.USAGE_IO_INPUT | Allocation.USAGE_SCRIPT);
+        mOutputAllocation = Allocation.createTyped(rs, RenderscriptEffects.createType(rs, width, height, Effect.FORMAT_RGBA),
                 Allocation.USAGE_IO_OUTPUT | Allocation.USAGE_SCRIPT);
 
-        mScript = new ScriptC_mono(rs);
+        buildGraph(effects);
+        mPipeline.setDropPolicy(policy);
+        mPipeline.setStageBarrier(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                rs.finish();
+            }
+        });
         
         mProcessingThread = new HandlerThread("EffectProcessor");
         mProcessingThread.start();
         mProcessingHandler = new Handler(mProcessingThread.getLooper());
 
-        mTask = new ProcessingTask(mInputAllocation, mNeedYuvConversion);
+        mTask = new ProcessingTask(mInputAllocation);
     }
     
     public void release()
@@ -82,16 +92,55 @@ public class RenderscriptProcessor
     public void setOutputSurface(Surface output) {
         mOutputAllocation.setSurface(output);
     }
+
+    /** Frame counters and stage timings. */
+    public FramePipeline getPipeline() {
+        return mPipeline;
+    }
+
+    /**
+     * Replace the effect chain. The new graph is built on the processing
+     * thread between two frames and reuses the pooled intermediates.
+     */
+    public void setEffects(final List<Effect> effects) {
+        Effect.resolve(mInputFormat, effects);
+        mProcessingHandler.post(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                buildGraph(effects);
+            }
+        });
+    }
+
+    private void buildGraph(List<Effect> effects)
+    {
+        List<Effect> chain = Effect.resolve(mInputFormat, effects);
+        mPipeline.clearStages();
+        Allocation in = mInputAllocation;
+        for (int i = 0; i < chain.size(); ++i)
+        {
+            Effect effect = chain.get(i);
+            boolean last = (i == chain.size() - 1);
+            Allocation out = last ? mOutputAllocation
+                                  : mPool.acquire(mWidth, mHeight, effect.getOutputFormat());
+            mPipeline.addStage(RenderscriptEffects.createStage(mRS, effect, in, out, mWidth, mHeight));
+            if (in != mInputAllocation)
+            {
+                mPool.release(in);
+            }
+            in = out;
+        }
+        Log.d(TAG, "effects " + chain + ", " + mPool.getCreatedCount() + " intermediate allocations");
+    }
     
-    class ProcessingTask implements Runnable, Allocation.OnBufferAvailableListener {
-        private int mPendingFrames = 0;
+    class ProcessingTask implements Runnable, Allocation.OnBufferAvailableListener, FramePipeline.FrameIo {
         private Allocation mInputAllocation;
-        private boolean mNeedYuvConversion;
 
-        public ProcessingTask(Allocation input, boolean needYuvConversion) {
+        public ProcessingTask(Allocation input) {
             mInputAllocation = input;
             mInputAllocation.setOnBufferAvailableListener(this);
-            mNeedYuvConversion = needYuvConversion;
         }
 
         public void release()
@@ -102,37 +151,37 @@ public class RenderscriptProcessor
         @Override
         public void onBufferAvailable(Allocation a) {
             synchronized(this) {
-                mPendingFrames++;
+                mPipeline.onFrameAvailable();
                 mProcessingHandler.post(this);
             }
         }
 
         @Override
         public void run() {
-            // Find out how many frames have arrived
-            int pendingFrames;
             synchronized(this) {
-                pendingFrames = mPendingFrames;
-                mPendingFrames = 0;
                 mProcessingHandler.removeCallbacks(this);
             }
 
-            // Get to newest input
-            for (int i = 0; i < pendingFrames; i++) {
-                mInputAllocation.ioReceive();
+            // The drop policy decides how many of the arrived frames are processed
+            long before = mPipeline.getProcessed();
+            mPipeline.processPending(this);
+            if (mPipeline.getProcessed() / STATS_INTERVAL != before / STATS_INTERVAL) {
+                Log.d(TAG, mPipeline.toString());
             }
+        }
 
-            if( mNeedYuvConversion )
-            {
-                mScriptIntrinsic.setInput(mInputAllocation);
-                mScriptIntrinsic.forEach(mInterAllocation);
+        @Override
+        public void skip() {
+            mInputAllocation.ioReceive();
+        }
 
-                mScript.forEach_root(mInterAllocation, mOutputAllocation);
-            }
-            else {
-                mScript.forEach_root(mInputAllocation, mOutputAllocation);
-            }
+        @Override
+        public void receive() {
+            mInputAllocation.ioReceive();
+        }
 
+        @Override
+        public void send() {
             mOutputAllocation.ioSend();
         }
     }
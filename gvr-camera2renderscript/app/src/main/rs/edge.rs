@@ -0,0 +1,44 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+#pragma version(1)
+#pragma rs java_package_name(org.gearvrf.gvrcamera2renderscript)
+
+// Sobel gradient magnitude of the luminance, edges clamped.
+// CpuKernels.edge is the Java reference.
+
+rs_allocation gIn;
+int gWidth;
+int gHeight;
+
+const static float3 gMonoMult = {0.299f, 0.587f, 0.114f};
+
+static float luma(int x, int y) {
+    x = clamp(x, 0, gWidth - 1);
+    y = clamp(y, 0, gHeight - 1);
+    float4 f4 = rsUnpackColor8888(rsGetElementAt_uchar4(gIn, x, y));
+    return dot(f4.rgb, gMonoMult);
+}
+
+uchar4 __attribute__((kernel)) root(uint32_t x, uint32_t y) {
+    int ix = x;
+    int iy = y;
+    float gx = (luma(ix + 1, iy - 1) + 2.0f * luma(ix + 1, iy) + luma(ix + 1, iy + 1))
+             - (luma(ix - 1, iy - 1) + 2.0f * luma(ix - 1, iy) + luma(ix - 1, iy + 1));
+    float gy = (luma(ix - 1, iy + 1) + 2.0f * luma(ix, iy + 1) + luma(ix + 1, iy + 1))
+             - (luma(ix - 1, iy - 1) + 2.0f * luma(ix, iy - 1) + luma(ix + 1, iy - 1));
+    float e = clamp(sqrt(gx * gx + gy * gy), 0.0f, 1.0f);
+    return rsPackColorTo8888(e, e, e, 1.0f);
+}
@@ -0,0 +1,160 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf.gvrcamera2renderscript;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class CpuEffectGraphTest
+{
+    private static final int WIDTH = 16;
+    private static final int HEIGHT = 12;
+
+    @Test
+    public void yuvInputGetsOneColourConversionInFront()
+    {
+        List<Effect> chain = Effect.resolve(Effect.FORMAT_YUV, Arrays.asList(Effect.mono()));
+        assertEquals(Arrays.asList(Effect.Kind.COLOR_CONVERT, Effect.Kind.MONO), kinds(chain));
+
+        chain = Effect.resolve(Effect.FORMAT_YUV, Arrays.asList(Effect.colorConvert(), Effect.edge()));
+        assertEquals(Arrays.asList(Effect.Kind.COLOR_CONVERT, Effect.Kind.EDGE), kinds(chain));
+
+        chain = Effect.resolve(Effect.FORMAT_YUV, Collections.<Effect>emptyList());
+        assertEquals(Arrays.asList(Effect.Kind.COLOR_CONVERT), kinds(chain));
+
+        chain = Effect.resolve(Effect.FORMAT_RGBA, Arrays.asList(Effect.blur(2), Effect.mono()));
+        assertEquals(Arrays.asList(Effect.Kind.BLUR, Effect.Kind.MONO), kinds(chain));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void emptyRgbaChainIsRejected()
+    {
+        Effect.resolve(Effect.FORMAT_RGBA, Collections.<Effect>emptyList());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void colourConversionAfterRgbaIsRejected()
+    {
+        Effect.resolve(Effect.FORMAT_YUV, Arrays.asList(Effect.mono(), Effect.colorConvert()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void blurRadiusIsChecked()
+    {
+        Effect.blur(Effect.MAX_BLUR_RADIUS + 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void lutSizeIsChecked()
+    {
+        Effect.lut(new byte[256], new byte[256], new byte[255]);
+    }
+
+    @Test
+    public void graphMatchesTheKernelsRunByHand()
+    {
+        byte[] frame = new byte[Effect.frameSize(Effect.FORMAT_YUV, WIDTH, HEIGHT)];
+        new Random(47).nextBytes(frame);
+        CpuEffectGraph graph = new CpuEffectGraph(WIDTH, HEIGHT, Effect.FORMAT_YUV,
+                Arrays.asList(Effect.blur(1.5f), Effect.gamma(0.5f), Effect.edge()));
+
+        int pixels = WIDTH * HEIGHT;
+        byte[] rgb = new byte[4 * pixels];
+        byte[] blurred = new byte[4 * pixels];
+        byte[] lit = new byte[4 * pixels];
+        byte[] edges = new byte[4 * pixels];
+        CpuKernels.yuvToRgb(frame, rgb, WIDTH, HEIGHT);
+        CpuKernels.blur(rgb, blurred, WIDTH, HEIGHT, 1.5f);
+        byte[] table = new byte[256];
+        for (int i = 0; i < 256; ++i)
+        {
+            table[i] = CpuKernels.pack((float) Math.pow(i / 255.0, 0.5));
+        }
+        CpuKernels.lut(blurred, lit, pixels, table, table, table);
+        CpuKernels.edge(lit, edges, WIDTH, HEIGHT);
+
+        assertArrayEquals(edges, graph.process(frame));
+        // a second frame reuses the buffers without leaking the first into it
+        byte[] other = frame.clone();
+        Arrays.fill(other, 0, pixels, (byte) 16);
+        Arrays.fill(other, pixels, other.length, (byte) 128);
+        byte[] out = graph.process(other);
+        for (int p = 0; p < out.length; p += 4)
+        {
+            assertEquals(0, out[p]);
+        }
+    }
+
+    @Test
+    public void intermediateBuffersPingPong()
+    {
+        CpuEffectGraph graph = new CpuEffectGraph(WIDTH, HEIGHT, Effect.FORMAT_RGBA,
+                Arrays.asList(Effect.mono(), Effect.blur(1), Effect.edge(), Effect.blur(3), Effect.mono()));
+        // four intermediate outputs, the last stage writes the output array
+        assertEquals(2, graph.getPool().getCreatedCount());
+        assertEquals(2, graph.getPool().getReusedCount());
+
+        CpuEffectGraph single = new CpuEffectGraph(WIDTH, HEIGHT, Effect.FORMAT_RGBA,
+                Arrays.asList(Effect.mono()));
+        assertEquals(0, single.getPool().getCreatedCount());
+    }
+
+    @Test
+    public void everyFrameIsProcessedAndTimed()
+    {
+        CpuEffectGraph graph = new CpuEffectGraph(WIDTH, HEIGHT, Effect.FORMAT_RGBA,
+                Arrays.asList(Effect.mono(), Effect.edge()));
+        byte[] frame = new byte[Effect.frameSize(Effect.FORMAT_RGBA, WIDTH, HEIGHT)];
+        byte[] first = graph.process(frame);
+        for (int i = 1; i < 10; ++i)
+        {
+            assertSame(first, graph.process(frame));
+        }
+        FramePipeline pipeline = graph.getPipeline();
+        assertEquals(10, pipeline.getProcessed());
+        assertEquals(0, pipeline.getDropped());
+        assertEquals(2, pipeline.getStageCount());
+        assertEquals("mono", pipeline.getTiming(0).getName());
+        assertEquals("edge", pipeline.getTiming(1).getName());
+        assertEquals(10, pipeline.getTiming(1).getCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void poolRejectsForeignBuffers()
+    {
+        CpuEffectGraph graph = new CpuEffectGraph(WIDTH, HEIGHT, Effect.FORMAT_RGBA,
+                Arrays.asList(Effect.mono()));
+        graph.getPool().release(new byte[4]);
+    }
+
+    private static List<Effect.Kind> kinds(List<Effect> chain)
+    {
+        Effect.Kind[] kinds = new Effect.Kind[chain.size()];
+        for (int i = 0; i < kinds.length; ++i)
+        {
+            kinds[i] = chain.get(i).getKind();
+        }
+        return Arrays.asList(kinds);
+    }
+}
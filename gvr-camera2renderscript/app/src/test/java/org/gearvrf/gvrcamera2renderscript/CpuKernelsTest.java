@@ -0,0 +1,260 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf.gvrcamera2renderscript;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class CpuKernelsTest
+{
+    @Test
+    public void packRoundsAndClamps()
+    {
+        assertEquals(0, CpuKernels.pack(-0.5f) & 0xFF);
+        assertEquals(0, CpuKernels.pack(0.0f) & 0xFF);
+        assertEquals(128, CpuKernels.pack(0.5f) & 0xFF);
+        assertEquals(255, CpuKernels.pack(1.0f) & 0xFF);
+        assertEquals(255, CpuKernels.pack(7.0f) & 0xFF);
+        for (int i = 0; i < 256; ++i)
+        {
+            assertEquals(i, CpuKernels.pack(i / 255.0f) & 0xFF);
+        }
+    }
+
+    @Test
+    public void monoWeightsTheChannelsLikeMonoRs()
+    {
+        byte[] in = rgba(255, 255, 255, 0,
+                         0, 0, 0, 0,
+                         255, 0, 0, 10,
+                         0, 255, 0, 20,
+                         0, 0, 255, 30);
+        byte[] out = new byte[in.length];
+        CpuKernels.mono(in, out, 5);
+        assertArrayEquals(rgba(255, 255, 255, 255,
+                               0, 0, 0, 255,
+                               76, 76, 76, 255,
+                               150, 150, 150, 255,
+                               29, 29, 29, 255), out);
+    }
+
+    @Test
+    public void monoOnlyTouchesTheGivenPixels()
+    {
+        byte[] in = rgba(100, 100, 100, 100, 200, 200, 200, 200);
+        byte[] out = rgba(1, 2, 3, 4, 5, 6, 7, 8);
+        CpuKernels.mono(in, out, 1);
+        assertArrayEquals(rgba(100, 100, 100, 255, 5, 6, 7, 8), out);
+    }
+
+    @Test
+    public void monoMayWorkInPlace()
+    {
+        byte[] frame = rgba(10, 200, 40, 0);
+        byte[] copy = new byte[frame.length];
+        CpuKernels.mono(frame.clone(), copy, 1);
+        CpuKernels.mono(frame, frame, 1);
+        assertArrayEquals(copy, frame);
+    }
+
+    @Test
+    public void yuvToRgbUsesVideoRangeBt601()
+    {
+        // 2x2 pixels share one V, U pair
+        byte[] black = rgba(16, 16, 16, 16, 128, 128);
+        byte[] white = rgba(235, 235, 235, 235, 128, 128);
+        byte[] red = rgba(81, 81, 81, 81, 240, 90);
+        byte[] out = new byte[16];
+
+        CpuKernels.yuvToRgb(black, out, 2, 2);
+        assertArrayEquals(rgba(0, 0, 0, 255, 0, 0, 0, 255, 0, 0, 0, 255, 0, 0, 0, 255), out);
+        CpuKernels.yuvToRgb(white, out, 2, 2);
+        assertArrayEquals(rgba(255, 255, 255, 255, 255, 255, 255, 255,
+                               255, 255, 255, 255, 255, 255, 255, 255), out);
+        CpuKernels.yuvToRgb(red, out, 2, 2);
+        assertArrayEquals(rgba(255, 0, 0, 255, 255, 0, 0, 255, 255, 0, 0, 255, 255, 0, 0, 255), out);
+    }
+
+    @Test
+    public void yuvToRgbReadsChromaAtHalfResolution()
+    {
+        // 3x3: chroma rows are 2 pairs wide, the odd column and row use the last pair
+        byte[] in = new byte[Effect.frameSize(Effect.FORMAT_YUV, 3, 3)];
+        assertEquals(9 + 8, in.length);
+        for (int i = 0; i < 9; ++i)
+        {
+            in[i] = (byte) 81;
+        }
+        byte[] chroma = rgba(128, 128, 240, 90, 240, 90, 128, 128);
+        System.arraycopy(chroma, 0, in, 9, chroma.length);
+        byte[] out = new byte[9 * 4];
+        CpuKernels.yuvToRgb(in, out, 3, 3);
+
+        int[] expectRed = {0, 0, 1, 0, 0, 1, 1, 1, 0};
+        for (int i = 0; i < 9; ++i)
+        {
+            int r = out[4 * i] & 0xFF;
+            int g = out[4 * i + 1] & 0xFF;
+            assertEquals("pixel " + i, (expectRed[i] == 1) ? 255 : g, r);
+            assertEquals(255, out[4 * i + 3] & 0xFF);
+        }
+    }
+
+    @Test
+    public void blurWeightsAreNormalisedAndSymmetric()
+    {
+        for (float radius : new float[] {0.5f, 1.0f, 2.5f, 8.0f, 25.0f})
+        {
+            float[] weights = CpuKernels.blurWeights(radius);
+            int r = (int) Math.ceil(radius);
+            assertEquals(2 * r + 1, weights.length);
+            float sum = 0;
+            for (int k = 0; k < weights.length; ++k)
+            {
+                sum += weights[k];
+                assertEquals(weights[k], weights[weights.length - 1 - k], 0);
+                if (k > 0 && k <= r)
+                {
+                    assertTrue(weights[k] > weights[k - 1]);
+                }
+            }
+            assertEquals(1.0f, sum, 1e-5f);
+        }
+    }
+
+    @Test
+    public void blurKeepsAFlatFrameFlat()
+    {
+        byte[] in = new byte[7 * 5 * 4];
+        for (int p = 0; p < in.length; p += 4)
+        {
+            in[p] = (byte) 10;
+            in[p + 1] = (byte) 100;
+            in[p + 2] = (byte) 200;
+            in[p + 3] = (byte) 255;
+        }
+        byte[] out = new byte[in.length];
+        CpuKernels.blur(in, out, 7, 5, 3.0f);
+        assertArrayEquals(in, out);
+    }
+
+    @Test
+    public void blurSpreadsAPointAsTheOuterProductOfItsWeights()
+    {
+        int size = 11;
+        int c = size / 2;
+        byte[] in = new byte[size * size * 4];
+        int p = (c * size + c) * 4;
+        for (int i = 0; i < 4; ++i)
+        {
+            in[p + i] = (byte) 255;
+        }
+        byte[] out = new byte[in.length];
+        float radius = 2.0f;
+        CpuKernels.blur(in, out, size, size, radius);
+
+        float[] w = CpuKernels.blurWeights(radius);
+        int r = w.length / 2;
+        for (int y = 0; y < size; ++y)
+        {
+            for (int x = 0; x < size; ++x)
+            {
+                int dx = x - c;
+                int dy = y - c;
+                float expected = (Math.abs(dx) <= r && Math.abs(dy) <= r) ? w[dx + r] * w[dy + r] : 0;
+                int o = (y * size + x) * 4;
+                for (int i = 0; i < 4; ++i)
+                {
+                    assertEquals(x + "," + y, CpuKernels.pack(expected) & 0xFF, out[o + i] & 0xFF);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void edgeIsZeroOnAFlatFrameAndFourTimesTheStepOnAnEdge()
+    {
+        int width = 6;
+        int height = 3;
+        int step = 26;
+        byte[] in = new byte[width * height * 4];
+        for (int y = 0; y < height; ++y)
+        {
+            for (int x = 3; x < width; ++x)
+            {
+                int p = (y * width + x) * 4;
+                in[p] = in[p + 1] = in[p + 2] = (byte) step;
+            }
+        }
+        byte[] out = new byte[in.length];
+        CpuKernels.edge(in, out, width, height);
+
+        int onEdge = CpuKernels.pack(4 * step / 255.0f) & 0xFF;
+        for (int y = 0; y < height; ++y)
+        {
+            for (int x = 0; x < width; ++x)
+            {
+                int p = (y * width + x) * 4;
+                int expected = (x == 2 || x == 3) ? onEdge : 0;
+                assertEquals(x + "," + y, expected, out[p] & 0xFF);
+                assertEquals(out[p], out[p + 1]);
+                assertEquals(out[p], out[p + 2]);
+                assertEquals(255, out[p + 3] & 0xFF);
+            }
+        }
+    }
+
+    @Test
+    public void lutMapsEachChannelAndKeepsAlpha()
+    {
+        byte[] red = new byte[256];
+        byte[] green = new byte[256];
+        byte[] blue = new byte[256];
+        for (int i = 0; i < 256; ++i)
+        {
+            red[i] = (byte) (255 - i);
+            green[i] = (byte) (i / 2);
+            blue[i] = (byte) 7;
+        }
+        Random random = new Random(47);
+        byte[] in = new byte[64 * 4];
+        random.nextBytes(in);
+        byte[] out = new byte[in.length];
+        CpuKernels.lut(in, out, 64, red, green, blue);
+        for (int p = 0; p < in.length; p += 4)
+        {
+            assertEquals(255 - (in[p] & 0xFF), out[p] & 0xFF);
+            assertEquals((in[p + 1] & 0xFF) / 2, out[p + 1] & 0xFF);
+            assertEquals(7, out[p + 2]);
+            assertEquals(in[p + 3], out[p + 3]);
+        }
+    }
+
+    static byte[] rgba(int... values)
+    {
+        byte[] bytes = new byte[values.length];
+        for (int i = 0; i < values.length; ++i)
+        {
+            bytes[i] = (byte) values[i];
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,197 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf.gvrcamera2renderscript;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class FramePipelineTest
+{
+    private FramePipeline pipeline;
+    private List<String> log;
+    private FramePipeline.FrameIo io;
+
+    @Before
+    public void setUp()
+    {
+        pipeline = new FramePipeline();
+        log = new ArrayList<String>();
+        io = new FramePipeline.FrameIo()
+        {
+            @Override
+            public void skip() { log.add("skip"); }
+
+            @Override
+            public void receive() { log.add("receive"); }
+
+            @Override
+            public void send() { log.add("send"); }
+        };
+        pipeline.addStage(stage("a"));
+        pipeline.addStage(stage("b"));
+    }
+
+    @Test
+    public void latestOnlySkipsToTheNewestFrame()
+    {
+        arrive(5);
+        assertEquals(1, pipeline.processPending(io));
+        assertEquals(Arrays.asList("skip", "skip", "skip", "skip", "receive", "a", "b", "send"), log);
+        assertEquals(5, pipeline.getReceived());
+        assertEquals(4, pipeline.getDropped());
+        assertEquals(1, pipeline.getProcessed());
+        assertEquals(0, pipeline.getPending());
+    }
+
+    @Test
+    public void boundedQueueDropsOnlyTheOldestBeyondItsCapacity()
+    {
+        pipeline.setDropPolicy(FramePipeline.DropPolicy.boundedQueue(3));
+        arrive(5);
+        assertEquals(3, pipeline.processPending(io));
+        assertEquals(Arrays.asList("skip", "skip",
+                                   "receive", "a", "b", "send",
+                                   "receive", "a", "b", "send",
+                                   "receive", "a", "b", "send"), log);
+        assertEquals(2, pipeline.getDropped());
+        assertEquals(3, pipeline.getProcessed());
+
+        log.clear();
+        arrive(2);
+        assertEquals(2, pipeline.processPending(io));
+        assertEquals(2, pipeline.getDropped());
+        assertEquals(7, pipeline.getReceived());
+        assertEquals(5, pipeline.getProcessed());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void boundedQueueNeedsRoomForAFrame()
+    {
+        FramePipeline.DropPolicy.boundedQueue(0);
+    }
+
+    @Test
+    public void nothingPendingDoesNothing()
+    {
+        assertEquals(0, pipeline.processPending(io));
+        assertTrue(log.isEmpty());
+        assertEquals(0, pipeline.getTiming(0).getCount());
+    }
+
+    @Test
+    public void everyStageIsTimedWithItsBarrier()
+    {
+        pipeline.setStageBarrier(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                log.add("barrier");
+                sleep(2);
+            }
+        });
+        for (int frame = 0; frame < 3; ++frame)
+        {
+            arrive(1);
+            pipeline.processPending(io);
+        }
+        assertEquals(Arrays.asList("receive", "a", "barrier", "b", "barrier", "send"), log.subList(0, 6));
+        assertEquals(2, pipeline.getStageCount());
+        for (int i = 0; i < 2; ++i)
+        {
+            FramePipeline.StageTiming timing = pipeline.getTiming(i);
+            assertEquals(3, timing.getCount());
+            assertTrue(timing.getAverageMillis() >= 2);
+            assertTrue(timing.getMaxMillis() >= timing.getAverageMillis());
+        }
+        assertEquals("a", pipeline.getTiming(0).getName());
+        assertEquals("b", pipeline.getTiming(1).getName());
+    }
+
+    @Test
+    public void clearedStagesAreNotRun()
+    {
+        pipeline.clearStages();
+        pipeline.addStage(stage("c"));
+        arrive(1);
+        pipeline.processPending(io);
+        assertEquals(Arrays.asList("receive", "c", "send"), log);
+        assertEquals(1, pipeline.getStageCount());
+    }
+
+    @Test
+    public void framesMayArriveFromAnotherThread() throws InterruptedException
+    {
+        Thread producer = new Thread(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                arrive(10000);
+            }
+        });
+        producer.start();
+        long processed = 0;
+        while (producer.isAlive())
+        {
+            processed += pipeline.processPending(io);
+        }
+        producer.join();
+        processed += pipeline.processPending(io);
+        assertEquals(10000, pipeline.getReceived());
+        assertEquals(processed, pipeline.getProcessed());
+        assertEquals(10000, pipeline.getProcessed() + pipeline.getDropped());
+    }
+
+    private void arrive(int frames)
+    {
+        for (int i = 0; i < frames; ++i)
+        {
+            pipeline.onFrameAvailable();
+        }
+    }
+
+    private FramePipeline.Stage stage(final String name)
+    {
+        return new FramePipeline.Stage()
+        {
+            @Override
+            public String getName() { return name; }
+
+            @Override
+            public void process() { log.add(name); }
+        };
+    }
+
+    private static void sleep(long millis)
+    {
+        try
+        {
+            Thread.sleep(millis);
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -24,6 +24,7 @@ import org.gearvrf.GVRMesh;
 import org.gearvrf.GVRRenderData;
 import org.gearvrf.GVRScene;
 import org.gearvrf.GVRSceneObject;
+import org.gearvrf.demos.gvrf.MeshCache;
 
 import java.io.IOException;
 import java.util.EnumSet;
@@ -60,9 +61,7 @@ public class SampleMain extends GVRMain {
 
         try {
             EnumSet<GVRImportSettings> settings = GVRImportSettings.getRecommendedSettingsWith(EnumSet.of(NO_LIGHTING));
-            GVRMesh mesh = gvrContext.getAssetLoader().loadMesh(
-                    new GVRAndroidResource(gvrContext, "bunny.obj"),
-                    settings);
+            GVRMesh mesh = MeshCache.loadMesh(gvrContext, "bunny.obj", settings);
 
             final int OBJECTS_CNT = 8;
             for (int x=-OBJECTS_CNT; x<=OBJECTS_CNT; ++x) {
@@ -95,20 +95,10 @@ public class MainActivity extends GVRActivity
         if ((event.getSource() & InputDevice.SOURCE_JOYSTICK) == InputDevice.SOURCE_JOYSTICK
                 && event.getAction() == MotionEvent.ACTION_MOVE) {
 
-            // Process all historical movement samples in the batch
-            final int historySize = event.getHistorySize();
-
             GamepadInput.input(event);
 
-            // Process the movements starting from the
-            // earliest historical position in the batch
-            for (int i = 0; i < historySize; i++) {
-                // Process the event at historical position i
-                GamepadInput.processJoystickInput(event, i);
-            }
-
-            // Process the current movement sample in the batch (position -1)
-            handled = GamepadInput.processJoystickInput(event, -1);
+            // Filters all historical movement samples in the batch in one pass
+            handled = GamepadInput.processJoystickInput(event);
 
             if (handled) {
                 return true;
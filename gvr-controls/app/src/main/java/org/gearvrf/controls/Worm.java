@@ -17,7 +17,6 @@ package org.gearvrf.controls;
 
 import android.view.MotionEvent;
 
-import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
 import org.gearvrf.GVRCameraRig;
 import org.gearvrf.GVRContext;
 import org.gearvrf.GVRSceneObject;
@@ -39,6 +38,8 @@ import org.gearvrf.controls.util.RenderingOrder;
 import org.gearvrf.controls.util.Util;
 import org.gearvrf.io.GVRTouchPadGestureListener;
 
+import java.util.ArrayList;
+
 public class Worm extends GVRSceneObject {
 
     private static final float SHADOW_END_OFFSET = 0.801f;
@@ -73,6 +74,9 @@ public class Worm extends GVRSceneObject {
     private WormShadow shadowMiddle;
     private WormShadow shadowEnd;
 
+    private final ArrayList<Apple> nearbyApples = new ArrayList<Apple>();
+    private final float[] cameraVectorPosition = new float[3];
+
     public enum MovementDirection {
         Up, Right, Down, Left
     }
@@ -168,11 +172,11 @@ public class Worm extends GVRSceneObject {
 
         if (!ScaleWorm.animPlaying) {
 
-            if (MathUtils.distance(wormParent, middle) > CHAIN_DISTANCE_HEAD_MIDDLE
-                    * middle.getTransform().getScaleX()) {
+            float minDistance = CHAIN_DISTANCE_HEAD_MIDDLE * middle.getTransform().getScaleX();
+            if (MathUtils.distanceSquared(wormParent, middle) > minDistance * minDistance) {
 
                 float chainSpeed = CHAIN_SPEED_HEAD_MIDDLE
-                        * (float) Util.distance(wormParent.getTransform(), getGVRContext()
+                        * MathUtils.distance(wormParent.getTransform(), getGVRContext()
                         .getMainScene().getMainCameraRig().getTransform());
 
                 middle.getTransform().setRotationByAxis(
@@ -194,11 +198,11 @@ public class Worm extends GVRSceneObject {
                 middle.getTransform().setPosition(newX, newY, newZ);
             }
 
-            if (MathUtils.distance(middle, end) > CHAIN_DISTANCE_MIDDLE_END
-                    * end.getTransform().getScaleX()) {
+            minDistance = CHAIN_DISTANCE_MIDDLE_END * end.getTransform().getScaleX();
+            if (MathUtils.distanceSquared(middle, end) > minDistance * minDistance) {
 
                 float chainSpeed = CHAIN_SPEED_MIDDLE_END
-                        * (float) Util.distance(wormParent.getTransform(), getGVRContext()
+                        * MathUtils.distance(wormParent.getTransform(), getGVRContext()
                         .getMainScene().getMainCameraRig().getTransform());
 
                 middle.getTransform().setRotationByAxis(
@@ -260,7 +264,7 @@ public class Worm extends GVRSceneObject {
                 cameraObject.getTransform())
                 + movement;
         float[] newPosition = Util.calculatePointBetweenTwoObjects(cameraObject.getTransform(),
-                wormParent.getTransform(), distance);
+                wormParent.getTransform(), distance, cameraVectorPosition);
 
         if (movement < 0
                 && MathUtils.distance(cameraObject.getTransform(), newPosition) < Constants.MIN_WORM_MOVE_DISTANCE)
@@ -325,19 +329,24 @@ public class Worm extends GVRSceneObject {
 
     public void checkWormEatingApple(GVRContext gvrContext) {
 
-        Vector3D wormPosition = new Vector3D(wormParent.getTransform().getPositionX(), head
-                .getParent()
-                .getTransform().getPositionY(), wormParent.getTransform().getPositionZ());
+        float wormX = wormParent.getTransform().getPositionX();
+        float wormY = head.getParent().getTransform().getPositionY();
+        float wormZ = wormParent.getTransform().getPositionZ();
+        float eatDistanceSquared = DISTANCE_TO_EAT_APPLE * DISTANCE_TO_EAT_APPLE;
 
-        for (Apple a : Apple.appleList) {
-            Vector3D applePosition = new Vector3D(a.getTransform().getPositionX(), a.getTransform()
-                    .getPositionY(), a.getTransform().getPositionZ());
+        // the grid only knows the floor position, check the full distance here
+        Apple.appleGrid.query(wormX, wormZ, DISTANCE_TO_EAT_APPLE, nearbyApples);
+        for (int i = 0, count = nearbyApples.size(); i < count; ++i) {
+            Apple a = nearbyApples.get(i);
 
-            if (Vector3D.distance(applePosition, wormPosition) < DISTANCE_TO_EAT_APPLE) {
+            if (MathUtils.distanceSquared(a.getTransform().getPositionX(),
+                    a.getTransform().getPositionY(), a.getTransform().getPositionZ(),
+                    wormX, wormY, wormZ) < eatDistanceSquared) {
 
                 a.resetPosition(gvrContext);
             }
         }
+        nearbyApples.clear();
     }
 
     public void animateWormByTouchPad() {
@@ -15,28 +15,17 @@
 
 package org.gearvrf.controls.input;
 
-public class Button {
-
-    protected boolean down;
-    protected boolean up;
-    protected boolean pressed;
-
-    public boolean isDown() {
-        return down;
-    }
-
-    public boolean isUp() {
-        return up;
-    }
-
-    public boolean isPressed() {
-        return pressed;
-    }
+/**
+ * Smoothing stage for a single joystick axis.
+ */
+public interface AxisFilter {
 
-    protected void replicateValues(Button button) {
-        this.down = button.down;
-        this.up = button.up;
-        this.pressed = button.pressed;
-    }
+    /**
+     * @param value         new sample
+     * @param timestampNanos time of the sample
+     * @return the filtered value
+     */
+    float filter(float value, long timestampNanos);
 
+    void reset();
 }
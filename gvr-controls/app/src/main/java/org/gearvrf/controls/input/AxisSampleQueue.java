@@ -0,0 +1,87 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf.controls.input;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fixed-size ring of timestamped axis sets, handed from one producer thread
+ * to one consumer thread without locks or allocation. When the consumer falls
+ * behind, new samples are dropped rather than overwriting unread ones.
+ */
+public final class AxisSampleQueue {
+
+    /** Returned by {@link #poll(float[])} when the queue is empty. */
+    public static final long EMPTY = Long.MIN_VALUE;
+
+    private final int axisCount;
+    private final int mask;
+    private final long[] times;
+    private final float[] values;
+
+    // next slot to write, advanced by the producer only
+    private final AtomicLong head = new AtomicLong();
+    // next slot to read, advanced by the consumer only
+    private final AtomicLong tail = new AtomicLong();
+
+    /**
+     * @param axisCount values per sample
+     * @param capacity  samples held at most, a power of two
+     */
+    public AxisSampleQueue(int axisCount, int capacity) {
+        if (capacity <= 0 || (capacity & (capacity - 1)) != 0) {
+            throw new IllegalArgumentException("capacity must be a power of two");
+        }
+        this.axisCount = axisCount;
+        mask = capacity - 1;
+        times = new long[capacity];
+        values = new float[capacity * axisCount];
+    }
+
+    /**
+     * Producer side: append a copy of {@code sample}.
+     *
+     * @return false if the queue is full and the sample was dropped
+     */
+    public boolean offer(long timestampNanos, float[] sample) {
+        final long h = head.get();
+        if (h - tail.get() > mask) {
+            return false;
+        }
+        final int slot = (int) (h & mask);
+        times[slot] = timestampNanos;
+        System.arraycopy(sample, 0, values, slot * axisCount, axisCount);
+        head.lazySet(h + 1);
+        return true;
+    }
+
+    /**
+     * Consumer side: copy the oldest sample into {@code out} and remove it.
+     *
+     * @return its timestamp, or {@link #EMPTY}
+     */
+    public long poll(float[] out) {
+        final long t = tail.get();
+        if (t == head.get()) {
+            return EMPTY;
+        }
+        final int slot = (int) (t & mask);
+        final long time = times[slot];
+        System.arraycopy(values, slot * axisCount, out, 0, axisCount);
+        tail.lazySet(t + 1);
+        return time;
+    }
+}
@@ -0,0 +1,51 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf.controls.input;
+
+/**
+ * Exponential moving average. {@code alpha} is the weight of a new sample:
+ * 1 passes samples through, values close to 0 smooth heavily.
+ */
+public class ExponentialFilter implements AxisFilter {
+
+    private final float alpha;
+    private boolean primed;
+    private float value;
+
+    public ExponentialFilter(float alpha) {
+        if (alpha <= 0 || alpha > 1) {
+            throw new IllegalArgumentException("alpha must be in (0, 1]");
+        }
+        this.alpha = alpha;
+    }
+
+    @Override
+    public float filter(float sample, long timestampNanos) {
+        if (!primed) {
+            value = sample;
+            primed = true;
+        } else {
+            value += alpha * (sample - value);
+        }
+        return value;
+    }
+
+    @Override
+    public void reset() {
+        primed = false;
+        value = 0;
+    }
+}
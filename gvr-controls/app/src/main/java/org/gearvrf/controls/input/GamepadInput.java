@@ -15,187 +15,191 @@
 
 package org.gearvrf.controls.input;
 
-import android.view.InputDevice;
+import android.os.SystemClock;
 import android.view.KeyEvent;
 import android.view.MotionEvent;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 
 public final class GamepadInput {
 
-    private static GamepadMap newGamepadMap = new GamepadMap();
-
-    private static GamepadMap oldGamepadMap = new GamepadMap();
+    // axis slots in the shared state, raw values first, then dead-zoned ones
+    private static final int AXIS_X = 0;
+    private static final int AXIS_Y = 1;
+    private static final int AXIS_HAT_X = 2;
+    private static final int AXIS_HAT_Y = 3;
+    private static final int AXIS_RX = 4;
+    private static final int AXIS_RY = 5;
+    private static final int CENTERED = 6;
+    private static final int AXIS_COUNT = 2 * CENTERED;
+
+    private static final GamepadMap gamepadMap = new GamepadMap();
+
+    private static final GamepadState state = new GamepadState(AXIS_COUNT);
+
+    // Every joystick sample, dead-zoned on the event thread, on its way to
+    // the smoothing on the frame thread. Room for a few frames of 1 kHz input.
+    private static final AxisSampleQueue joystickSamples = new AxisSampleQueue(CENTERED, 128);
+
+    // Google refers to the second analog stick as z/rz, the Samsung Gamepad
+    // refers to it as RX/RY.
+    private static final JoystickFilter joystickFilter = new JoystickFilter(
+            new int[] {
+                    MotionEvent.AXIS_X, MotionEvent.AXIS_Y,
+                    MotionEvent.AXIS_HAT_X, MotionEvent.AXIS_HAT_Y,
+                    MotionEvent.AXIS_RX, MotionEvent.AXIS_RY
+            }, joystickSamples);
+
+    // Smoothing for the centered axes, in slot order, owned by the frame
+    // thread. The analog sticks are smoothed; the hat is digital and only
+    // needs its dead zone.
+    private static final JoystickAxis[] centeredAxes = new JoystickAxis[] {
+            stickAxis(), stickAxis(),
+            new JoystickAxis(null), new JoystickAxis(null),
+            stickAxis(), stickAxis()
+    };
+    private static final float[] joystickSample = new float[CENTERED];
+
+    // key code -> button index in the state bitmask, -1 if not mapped
+    private static final int[] buttonIndex = new int[KeyEvent.getMaxKeyCode() + 1];
+
+    static {
+        Arrays.fill(buttonIndex, -1);
+        for (int i = 0; i < gamepadMap.buttonsKeyCode.size(); ++i) {
+            buttonIndex[gamepadMap.buttonsKeyCode.get(i)] = i;
+        }
+    }
 
+    /**
+     * Publish the input received since the last frame. Called once per frame
+     * from the GL thread before any of the getters.
+     */
     public static void process() {
-
-        newGamepadMap.resetIntermadiateState();
-
-        for (Integer key : oldGamepadMap.buttonsKeyCode) {
-            Button oldButton = oldGamepadMap.buttons.get(key);
-            Button newButton = newGamepadMap.buttons.get(key);
-
-            updateIntermiteStates(newButton, oldButton);
+        long time;
+        while ((time = joystickSamples.poll(joystickSample)) != AxisSampleQueue.EMPTY) {
+            for (int i = 0; i < CENTERED; ++i) {
+                centeredAxes[i].update(joystickSample[i], time);
+            }
         }
-    }
 
-    private static void updateIntermiteStates(Button newButton, Button oldButton) {
+        final GamepadState.Snapshot frame = state.swap();
 
-        if (oldButton.pressed != newButton.pressed) {
-            newButton.down = newButton.pressed;
-            newButton.up = !newButton.pressed;
+        // A stick held still sends no events, so feed the held value once per
+        // frame as well; otherwise the smoothed value would stop short of it.
+        final long now = SystemClock.uptimeMillis() * 1000000L;
+        for (int i = 0; i < CENTERED; ++i) {
+            centeredAxes[i].update(frame.getAxis(CENTERED + i), now);
         }
-
-        oldButton.replicateValues(newButton);
     }
 
     public static void input(MotionEvent event) {
 
-        newGamepadMap.axisX = event.getAxisValue(MotionEvent.AXIS_X);
-        newGamepadMap.axisY = event.getAxisValue(MotionEvent.AXIS_Y);
-        newGamepadMap.axisHatX = event.getAxisValue(MotionEvent.AXIS_HAT_X);
-        newGamepadMap.axisHatY = event.getAxisValue(MotionEvent.AXIS_HAT_Y);
-        newGamepadMap.axisRX = event.getAxisValue(MotionEvent.AXIS_RX);
-        newGamepadMap.axisRY = event.getAxisValue(MotionEvent.AXIS_RY);
+        state.beginAxes();
+        state.setAxis(AXIS_X, event.getAxisValue(MotionEvent.AXIS_X));
+        state.setAxis(AXIS_Y, event.getAxisValue(MotionEvent.AXIS_Y));
+        state.setAxis(AXIS_HAT_X, event.getAxisValue(MotionEvent.AXIS_HAT_X));
+        state.setAxis(AXIS_HAT_Y, event.getAxisValue(MotionEvent.AXIS_HAT_Y));
+        state.setAxis(AXIS_RX, event.getAxisValue(MotionEvent.AXIS_RX));
+        state.setAxis(AXIS_RY, event.getAxisValue(MotionEvent.AXIS_RY));
+        state.endAxes();
 
     }
 
     public static void input(KeyEvent event) {
 
+        final int index = indexOf(event.getKeyCode());
+        if (index < 0) {
+            return;
+        }
         if (event.getAction() == KeyEvent.ACTION_DOWN) {
-            newGamepadMap.buttons.get(event.getKeyCode()).pressed = true;
+            state.setButton(index, true);
 
         }
         if (event.getAction() == KeyEvent.ACTION_UP) {
-            newGamepadMap.buttons.get(event.getKeyCode()).pressed = false;
+            state.setButton(index, false);
 
         }
 
     }
 
     public static boolean getKeyDown(int key) {
-        return newGamepadMap.buttons.get(key).down;
+        final int index = indexOf(key);
+        return index >= 0 && state.front().isDown(index);
     }
 
     public static boolean getKeyUp(int key) {
-        return newGamepadMap.buttons.get(key).up;
+        final int index = indexOf(key);
+        return index >= 0 && state.front().isUp(index);
     }
 
     public static boolean getKey(int key) {
-        return newGamepadMap.buttons.get(key).pressed;
+        final int index = indexOf(key);
+        return index >= 0 && state.front().isPressed(index);
     }
 
-    public static Button getButton(int key) {
-        return newGamepadMap.buttons.get(key);
+    private static JoystickAxis stickAxis() {
+        return new JoystickAxis(new OneEuroFilter(1.0f, 0.5f, 1.0f));
     }
 
-    // getCenteredAxis() and some other code are referenced from:
-    // https://developer.android.com/training/game-controllers/controller-input.html
-    private static float getCenteredAxis(MotionEvent event, InputDevice device,
-                                         int axis, int historyPos) {
-        final InputDevice.MotionRange range = device.getMotionRange(axis,
-                event.getSource());
-
-        // A joystick at rest does not always report an absolute position of
-        // (0,0). Use the getFlat() method to determine the range of values
-        // bounding the joystick axis center.
-        if (range != null) {
-            final float flat = range.getFlat();
-            final float value = historyPos < 0 ? event.getAxisValue(axis)
-                    : event.getHistoricalAxisValue(axis, historyPos);
-
-            // Ignore axis values that are within the 'flat' region of the
-            // joystick axis center.
-            if (Math.abs(value) > flat) {
-                return value;
-            }
-        }
-        return 0;
+    private static int indexOf(int keyCode) {
+        return keyCode >= 0 && keyCode < buttonIndex.length ? buttonIndex[keyCode] : -1;
     }
 
-    public static boolean processJoystickInput(MotionEvent event, int historyPos) {
-
-        InputDevice mInputDevice = event.getDevice();
-
-        // Calculate the horizontal distance to move by
-        // using the input value from one of these physical controls:
-        // the left control stick, hat axis, or the right control stick.
-        float x = getCenteredAxis(event, mInputDevice, MotionEvent.AXIS_X,
-                historyPos);
-        float hatx = getCenteredAxis(event, mInputDevice,
-                MotionEvent.AXIS_HAT_X, historyPos);
-
-        // Google refers to the second analog x axis as z,
-        // the Samsung Gamepad refers to is as RX.
-        float rx = getCenteredAxis(event, mInputDevice, MotionEvent.AXIS_RX,
-                historyPos);
-
-        // Calculate the vertical distance to move by
-        // using the input value from one of these physical controls:
-        // the left control stick, hat switch, or the right control stick.
-        float y = getCenteredAxis(event, mInputDevice, MotionEvent.AXIS_Y,
-                historyPos);
+    /**
+     * Run every sample of a batched joystick event through the dead zone,
+     * queue them for smoothing in {@link #process()} and publish the newest
+     * dead-zoned axes.
+     */
+    public static boolean processJoystickInput(MotionEvent event) {
 
-        float haty = getCenteredAxis(event, mInputDevice,
-                MotionEvent.AXIS_HAT_Y, historyPos);
-
-        // Google refers to the second analog y axis as rz,
-        // the Samsung Gamepad refers to is as RY.
-        float ry = getCenteredAxis(event, mInputDevice, MotionEvent.AXIS_RY,
-                historyPos);
-
-        newGamepadMap.centeredAxisX = x;
-        newGamepadMap.centeredAxisY = y;
-
-        newGamepadMap.centeredAxisHatX = hatx;
-        newGamepadMap.centeredAxisHatY = haty;
+        if (!joystickFilter.process(event)) {
+            return false;
+        }
 
-        newGamepadMap.centeredAxisRX = rx;
-        newGamepadMap.centeredAxisRY = ry;
+        state.beginAxes();
+        for (int i = 0; i < CENTERED; ++i) {
+            state.setAxis(CENTERED + i, joystickFilter.getValue(i));
+        }
+        state.endAxes();
 
         return true;
     }
 
     public static float getAxis(int axis) {
-        switch (axis) {
-            case MotionEvent.AXIS_X:
-                return newGamepadMap.axisX;
-            case MotionEvent.AXIS_Y:
-                return newGamepadMap.axisY;
-            case MotionEvent.AXIS_HAT_X:
-                return newGamepadMap.axisHatX;
-            case MotionEvent.AXIS_HAT_Y:
-                return newGamepadMap.axisHatY;
-            case MotionEvent.AXIS_RX:
-                return newGamepadMap.axisRX;
-            case MotionEvent.AXIS_RY:
-                return newGamepadMap.axisRY;
-            default:
-                return 0f;
-        }
+        final int slot = axisSlot(axis);
+        return slot < 0 ? 0f : state.front().getAxis(slot);
     }
 
+    /**
+     * @return the dead-zoned and smoothed value of {@code axis}; GL thread only
+     */
     public static float getCenteredAxis(int axis) {
+        final int slot = axisSlot(axis);
+        return slot < 0 ? 0f : centeredAxes[slot].getValue();
+    }
+
+    private static int axisSlot(int axis) {
         switch (axis) {
             case MotionEvent.AXIS_X:
-                return newGamepadMap.centeredAxisX;
+                return AXIS_X;
             case MotionEvent.AXIS_Y:
-                return newGamepadMap.centeredAxisY;
+                return AXIS_Y;
             case MotionEvent.AXIS_HAT_X:
-                return newGamepadMap.centeredAxisHatX;
+                return AXIS_HAT_X;
             case MotionEvent.AXIS_HAT_Y:
-                return newGamepadMap.centeredAxisHatY;
+                return AXIS_HAT_Y;
             case MotionEvent.AXIS_RX:
-                return newGamepadMap.centeredAxisRX;
+                return AXIS_RX;
             case MotionEvent.AXIS_RY:
-                return newGamepadMap.centeredAxisRY;
+                return AXIS_RY;
             default:
-                return 0f;
+                return -1;
         }
     }
 
     public static ArrayList<Integer> getKeyCodeMap() {
-        return newGamepadMap.buttonsKeyCode;
+        return gamepadMap.buttonsKeyCode;
     }
 
 }
\ No newline at end of file
@@ -16,7 +16,6 @@ t use this file except in compliance with the License.
 
 package org.gearvrf.controls.input;
 
-import android.util.SparseArray;
 import android.view.KeyEvent;
 
 import java.util.ArrayList;
@@ -38,22 +37,7 @@ public class GamepadMap {
     public static final int KEYCODE_BUTTON_SELECT = KeyEvent.KEYCODE_BUTTON_SELECT;
     public static final int KEYCODE_BUTTON_START = KeyEvent.KEYCODE_BUTTON_START;
 
-    public float axisX;
-    public float axisY;
-    public float axisHatX;
-    public float axisHatY;
-    public float axisRX;
-    public float axisRY;
-
-    public float centeredAxisX;
-    public float centeredAxisY;
-    public float centeredAxisHatX;
-    public float centeredAxisHatY;
-    public float centeredAxisRX;
-    public float centeredAxisRY;
-
     protected ArrayList<Integer> buttonsKeyCode;
-    public SparseArray<Button> buttons = new SparseArray<Button>();
 
     public GamepadMap() {
         super();
@@ -64,11 +48,6 @@ public class GamepadMap {
 
         populateKeys();
 
-        for (int i : buttonsKeyCode) {
-            buttons.append(i, new Button());
-
-        }
-
     }
 
     private void populateKeys() {
@@ -92,16 +71,6 @@ public class GamepadMap {
 
     }
 
-    public void resetIntermadiateState() {
-
-        for (Integer key : buttonsKeyCode) {
-            Button button = buttons.get(key);
-            button.down = false;
-            button.up = false;
-        }
-
-    }
-
 }
 
 
@@ -0,0 +1,194 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf.controls.input;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Gamepad state shared between the thread delivering input events and the
+ * frame thread, without locks and without allocating per event.
+ * <p>
+ * The event side writes into a back buffer: button states are bits of an
+ * {@link AtomicLong}, and presses or releases since the last frame are
+ * accumulated in two more bitmasks so a tap shorter than a frame is not lost.
+ * Axis values are published under a sequence counter, so the frame thread
+ * always copies a set of axes that came from the same event. Axis writes must
+ * come from a single thread; button writes may come from any thread.
+ * <p>
+ * Once per frame {@link #swap()} folds the back buffer into the front
+ * {@link Snapshot}, which stays unchanged until the next swap.
+ */
+public final class GamepadState {
+
+    public static final int MAX_BUTTONS = 64;
+
+    // back buffer, written by the event thread
+    private final AtomicLong pressed = new AtomicLong();
+    private final AtomicLong pressEdges = new AtomicLong();
+    private final AtomicLong releaseEdges = new AtomicLong();
+    private final AtomicIntegerArray axes;
+    private final AtomicInteger axisSequence = new AtomicInteger();
+
+    // front buffer, owned by the frame thread
+    private final Snapshot front;
+    private long previousPressed;
+
+    public GamepadState(int axisCount) {
+        axes = new AtomicIntegerArray(axisCount);
+        front = new Snapshot(axisCount);
+    }
+
+    /**
+     * Record a button change. Repeated downs of a held button are ignored.
+     */
+    public void setButton(int index, boolean down) {
+        final long bit = bit(index);
+        long current;
+        long updated;
+        do {
+            current = pressed.get();
+            updated = down ? current | bit : current & ~bit;
+            if (updated == current) {
+                return;
+            }
+        } while (!pressed.compareAndSet(current, updated));
+
+        orBits(down ? pressEdges : releaseEdges, bit);
+    }
+
+    /**
+     * Start publishing a set of axis values; pair with {@link #endAxes()}.
+     */
+    public void beginAxes() {
+        axisSequence.incrementAndGet();
+    }
+
+    public void setAxis(int index, float value) {
+        axes.set(index, Float.floatToRawIntBits(value));
+    }
+
+    public void endAxes() {
+        axisSequence.incrementAndGet();
+    }
+
+    /**
+     * Publish the back buffer as the new front snapshot. Call once per frame
+     * from the frame thread.
+     */
+    public Snapshot swap() {
+        final long current = pressed.get();
+        final long presses = pressEdges.getAndSet(0);
+        final long releases = releaseEdges.getAndSet(0);
+
+        front.pressed = current;
+        front.down = (current & ~previousPressed) | presses;
+        front.up = (previousPressed & ~current) | releases;
+        previousPressed = current;
+
+        final float[] values = front.axes;
+        int sequence;
+        do {
+            sequence = axisSequence.get();
+            if ((sequence & 1) != 0) {
+                // a writer is in the middle of an update
+                Thread.yield();
+                continue;
+            }
+            for (int i = 0; i < values.length; ++i) {
+                values[i] = Float.intBitsToFloat(axes.get(i));
+            }
+        } while ((sequence & 1) != 0 || axisSequence.get() != sequence);
+
+        ++front.frame;
+        return front;
+    }
+
+    public Snapshot front() {
+        return front;
+    }
+
+    private static long bit(int index) {
+        if (index < 0 || index >= MAX_BUTTONS) {
+            throw new IllegalArgumentException("button index out of range: " + index);
+        }
+        return 1L << index;
+    }
+
+    private static void orBits(AtomicLong target, long bits) {
+        long current;
+        do {
+            current = target.get();
+        } while (!target.compareAndSet(current, current | bits));
+    }
+
+    /**
+     * Gamepad state as of the last {@link GamepadState#swap()}.
+     */
+    public static final class Snapshot {
+        private long pressed;
+        private long down;
+        private long up;
+        private long frame;
+        private final float[] axes;
+
+        private Snapshot(int axisCount) {
+            axes = new float[axisCount];
+        }
+
+        public boolean isPressed(int index) {
+            return (pressed & bit(index)) != 0;
+        }
+
+        /**
+         * @return true if the button went down since the previous frame
+         */
+        public boolean isDown(int index) {
+            return (down & bit(index)) != 0;
+        }
+
+        /**
+         * @return true if the button went up since the previous frame
+         */
+        public boolean isUp(int index) {
+            return (up & bit(index)) != 0;
+        }
+
+        public long getPressedBits() {
+            return pressed;
+        }
+
+        public long getDownBits() {
+            return down;
+        }
+
+        public long getUpBits() {
+            return up;
+        }
+
+        public float getAxis(int index) {
+            return axes[index];
+        }
+
+        /**
+         * @return number of swaps so far
+         */
+        public long getFrame() {
+            return frame;
+        }
+    }
+}
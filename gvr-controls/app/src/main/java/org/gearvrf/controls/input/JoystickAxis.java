@@ -0,0 +1,76 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf.controls.input;
+
+/**
+ * Smoothing for one joystick axis, run on the frame thread. It is fed every
+ * dead-zoned sample, and once per frame the value currently held, so the
+ * output keeps converging while the stick rests and sends no events.
+ */
+public class JoystickAxis {
+
+    // outputs this close to the input snap to it, so a held stick reaches
+    // exactly full deflection instead of creeping towards it
+    private static final float SNAP_EPSILON = 1e-3f;
+
+    private final AxisFilter filter;
+    private float value;
+
+    /**
+     * @param filter smoothing stage, or null to pass samples through
+     */
+    public JoystickAxis(AxisFilter filter) {
+        this.filter = filter;
+    }
+
+    /**
+     * Zero values inside the dead zone and rescale the rest so that the edge of
+     * the dead zone maps to 0 and full deflection still maps to 1.
+     */
+    public static float applyDeadZone(float value, float flat) {
+        final float magnitude = Math.abs(value);
+        if (magnitude <= flat) {
+            return 0;
+        }
+        if (flat >= 1) {
+            return Math.signum(value);
+        }
+        final float scaled = Math.min(1, (magnitude - flat) / (1 - flat));
+        return value < 0 ? -scaled : scaled;
+    }
+
+    /**
+     * @param centered sample that already went through {@link #applyDeadZone}
+     */
+    public float update(float centered, long timestampNanos) {
+        value = filter != null ? filter.filter(centered, timestampNanos) : centered;
+        if (Math.abs(value - centered) < SNAP_EPSILON) {
+            value = centered;
+        }
+        return value;
+    }
+
+    public float getValue() {
+        return value;
+    }
+
+    public void reset() {
+        value = 0;
+        if (filter != null) {
+            filter.reset();
+        }
+    }
+}
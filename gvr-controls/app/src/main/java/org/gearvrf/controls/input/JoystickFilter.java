@@ -0,0 +1,122 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf.controls.input;
+
+import android.util.SparseArray;
+import android.view.InputDevice;
+import android.view.MotionEvent;
+
+import java.util.Arrays;
+
+/**
+ * Event-thread half of the joystick filtering. All historical samples of a
+ * batched {@link MotionEvent} go through the dead zone in order and are queued
+ * for the {@link JoystickAxis} smoothing on the frame thread, so nothing is
+ * dropped between frames. The motion ranges of each device are looked up once
+ * instead of per sample.
+ */
+public class JoystickFilter {
+
+    private static final float NO_RANGE = -1;
+
+    private final int[] axes;
+    private final AxisSampleQueue samples;
+    // dead-zoned values of the newest sample
+    private final float[] latest;
+
+    // device id -> flat of each axis, NO_RANGE if the device lacks the axis
+    private final SparseArray<float[]> flats = new SparseArray<float[]>();
+
+    /**
+     * @param axes    MotionEvent axis constants to track
+     * @param samples receives one dead-zoned value per axis for every sample,
+     *                in the same order as {@code axes}
+     */
+    public JoystickFilter(int[] axes, AxisSampleQueue samples) {
+        this.axes = axes;
+        this.samples = samples;
+        latest = new float[axes.length];
+    }
+
+    /**
+     * Queue every sample of {@code event}, oldest first.
+     *
+     * @return false if the event did not come from a known input device
+     */
+    public boolean process(MotionEvent event) {
+        final float[] flat = getFlats(event);
+        if (flat == null) {
+            return false;
+        }
+
+        final int historySize = event.getHistorySize();
+        for (int h = 0; h <= historySize; ++h) {
+            final boolean current = h == historySize;
+            final long time = (current ? event.getEventTime()
+                    : event.getHistoricalEventTime(h)) * 1000000L;
+
+            for (int i = 0; i < axes.length; ++i) {
+                if (flat[i] == NO_RANGE) {
+                    continue;
+                }
+                final float value = current ? event.getAxisValue(axes[i])
+                        : event.getHistoricalAxisValue(axes[i], h);
+                latest[i] = JoystickAxis.applyDeadZone(value, flat[i]);
+            }
+            // if the frame thread stalls the queue fills up; the held value
+            // read through getValue() still gets there
+            samples.offer(time, latest);
+        }
+        return true;
+    }
+
+    /**
+     * @return the dead-zoned value of the i-th axis after the last event
+     */
+    public float getValue(int i) {
+        return latest[i];
+    }
+
+    /**
+     * Forget cached motion ranges, e.g. when a device is disconnected.
+     */
+    public void onDeviceChanged(int deviceId) {
+        flats.remove(deviceId);
+        Arrays.fill(latest, 0);
+    }
+
+    private float[] getFlats(MotionEvent event) {
+        final int deviceId = event.getDeviceId();
+        float[] flat = flats.get(deviceId);
+        if (flat != null) {
+            return flat;
+        }
+
+        final InputDevice device = event.getDevice();
+        if (device == null) {
+            return null;
+        }
+        flat = new float[axes.length];
+        for (int i = 0; i < axes.length; ++i) {
+            // A joystick at rest does not always report an absolute position of
+            // (0,0). getFlat() bounds the values around the axis center.
+            InputDevice.MotionRange range = device.getMotionRange(axes[i], event.getSource());
+            flat[i] = range != null ? range.getFlat() : NO_RANGE;
+        }
+        flats.put(deviceId, flat);
+        return flat;
+    }
+}
@@ -0,0 +1,82 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf.controls.input;
+
+/**
+ * One Euro filter (Casiez, Roussel and Vogel, CHI 2012): a low-pass filter
+ * whose cutoff frequency rises with the speed of the signal, so a resting
+ * stick is steady while fast flicks keep little lag.
+ */
+public class OneEuroFilter implements AxisFilter {
+
+    private final float minCutoff;
+    private final float beta;
+    private final float derivateCutoff;
+
+    private boolean primed;
+    private long lastTimestamp;
+    private float value;
+    private float derivate;
+
+    /**
+     * @param minCutoff      cutoff frequency in Hz when the stick is still
+     * @param beta           how fast the cutoff grows with speed
+     * @param derivateCutoff cutoff frequency in Hz used to smooth the speed
+     */
+    public OneEuroFilter(float minCutoff, float beta, float derivateCutoff) {
+        this.minCutoff = minCutoff;
+        this.beta = beta;
+        this.derivateCutoff = derivateCutoff;
+    }
+
+    @Override
+    public float filter(float sample, long timestampNanos) {
+        if (!primed) {
+            primed = true;
+            lastTimestamp = timestampNanos;
+            value = sample;
+            derivate = 0;
+            return value;
+        }
+
+        // samples can arrive older than the last per-frame update; keep the
+        // clock monotonic instead of stepping it back
+        final float dt = (timestampNanos - lastTimestamp) / 1e9f;
+        if (dt <= 0) {
+            return value;
+        }
+        lastTimestamp = timestampNanos;
+
+        final float sampleDerivate = (sample - value) / dt;
+        derivate += smoothingFactor(dt, derivateCutoff) * (sampleDerivate - derivate);
+
+        final float cutoff = minCutoff + beta * Math.abs(derivate);
+        value += smoothingFactor(dt, cutoff) * (sample - value);
+        return value;
+    }
+
+    @Override
+    public void reset() {
+        primed = false;
+        value = 0;
+        derivate = 0;
+    }
+
+    private static float smoothingFactor(float dt, float cutoff) {
+        final float tau = 1.0f / (2.0f * (float) Math.PI * cutoff);
+        return 1.0f / (1.0f + tau / dt);
+    }
+}
@@ -46,6 +46,7 @@ import org.gearvrf.controls.interpolators.QuadOut;
 import org.gearvrf.controls.shaders.ColorSwapShader;
 import org.gearvrf.controls.util.Constants;
 import org.gearvrf.controls.util.RenderingOrder;
+import org.gearvrf.controls.util.SpatialHash;
 import org.gearvrf.controls.util.Util;
 
 import java.util.ArrayList;
@@ -60,6 +61,8 @@ public class Apple extends GVRSceneObject {
     private final static float MAX_APPLES_DISTANCE = 1.5f;
     private final static float CAMERA_DIRECTION_THREASHOLD = 0.75f;
     public static ArrayList<Apple> appleList = new ArrayList<Apple>();
+    // floor positions of the apples in appleList, for proximity queries
+    public static SpatialHash<Apple> appleGrid = new SpatialHash<Apple>(MAX_APPLES_DISTANCE);
     public Star star;
     private WormShadow shadow;
 
@@ -71,6 +74,8 @@ public class Apple extends GVRSceneObject {
 
     public static Motion motion = Motion.Linear;
 
+    private static final ArrayList<Apple> scratchApples = new ArrayList<Apple>();
+
     public Apple(GVRContext gvrContext) {
         super(gvrContext);
         this.getTransform().setScale(APPLE_SCALE, APPLE_SCALE, APPLE_SCALE);
@@ -111,6 +116,11 @@ public class Apple extends GVRSceneObject {
 
     public static void addApple(Apple apple) {
         appleList.add(apple);
+        apple.updateGridPosition();
+    }
+
+    private void updateGridPosition() {
+        appleGrid.update(this, getTransform().getPositionX(), getTransform().getPositionZ());
     }
 
     public static float[] getColor(GVRContext gvrContext) {
@@ -207,6 +217,9 @@ public class Apple extends GVRSceneObject {
         star.playMoveAnimation(gvrContext, this);
         setApplePositionInsideFrustum(gvrContext);
         this.getTransform().setPositionY(Constants.APPLE_INICIAL_YPOS);
+        if (appleGrid.contains(this)) {
+            updateGridPosition();
+        }
         playAnimation(gvrContext);
 
     }
@@ -221,7 +234,10 @@ public class Apple extends GVRSceneObject {
                 .getPositionZ());
         if (Vector3D.distance(pos, wormPos) < MAX_APPLES_DISTANCE)
             return false;
-        for (Apple a : appleList) {
+        ArrayList<Apple> nearby = scratchApples;
+        appleGrid.query((float) pos.getX(), (float) pos.getZ(), MAX_APPLES_DISTANCE, nearby);
+        for (int i = 0, count = nearby.size(); i < count; ++i) {
+            Apple a = nearby.get(i);
 
             if (a == this)
                 continue;
@@ -231,11 +247,12 @@ public class Apple extends GVRSceneObject {
             float distance = (float) Vector3D.distance(pos, iteratedApple);
 
             if (distance < MAX_APPLES_DISTANCE) {
-
+                nearby.clear();
                 return false;
             }
 
         }
+        nearby.clear();
         return true;
     }
 
@@ -256,10 +273,12 @@ public class Apple extends GVRSceneObject {
 
         }
         else {
-            if (!appleList.contains(this)) {
+            if (!appleGrid.contains(this)) {
                 addApple(this);
                 shadow.getTransform().setPosition((float) instanceApple.getX(), -0.9999f, (float) instanceApple.getZ());
                 getGVRContext().getMainScene().addSceneObject(shadow);
+            } else {
+                updateGridPosition();
             }
         }
     }
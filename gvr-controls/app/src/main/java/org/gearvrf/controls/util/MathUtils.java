@@ -15,61 +15,55 @@
 
 package org.gearvrf.controls.util;
 
-import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
 import org.gearvrf.GVRCameraRig;
 import org.gearvrf.GVRSceneObject;
 import org.gearvrf.GVRTransform;
 
+/**
+ * Vector and quaternion helpers used by the per-frame worm and apple logic.
+ * None of the methods taking an {@code out} array allocate; compare squared
+ * distances against squared thresholds where possible to skip the square root.
+ */
 public class MathUtils {
 
-    public static float distance(GVRSceneObject obj1, GVRSceneObject obj2) {
+    public static float distanceSquared(float x1, float y1, float z1, float x2, float y2, float z2) {
+        float dx = x1 - x2;
+        float dy = y1 - y2;
+        float dz = z1 - z2;
+        return dx * dx + dy * dy + dz * dz;
+    }
 
-        Vector3D v1 = new Vector3D(obj1.getTransform().getPositionX(),
-                obj1.getTransform().getPositionY(),
-                obj1.getTransform().getPositionZ());
+    public static float distanceSquared(GVRTransform obj1, GVRTransform obj2) {
+        return distanceSquared(obj1.getPositionX(), obj1.getPositionY(), obj1.getPositionZ(),
+                obj2.getPositionX(), obj2.getPositionY(), obj2.getPositionZ());
+    }
 
-        Vector3D v2 = new Vector3D(obj2.getTransform().getPositionX(),
-                obj2.getTransform().getPositionY(),
-                obj2.getTransform().getPositionZ());
+    public static float distanceSquared(GVRSceneObject obj1, GVRSceneObject obj2) {
+        return distanceSquared(obj1.getTransform(), obj2.getTransform());
+    }
 
-        return (float) Vector3D.distance(v1, v2);
+    public static float distance(GVRSceneObject obj1, GVRSceneObject obj2) {
+        return (float) Math.sqrt(distanceSquared(obj1, obj2));
     }
 
     public static float[] direction(GVRTransform origin, GVRTransform dest) {
+        return direction(origin, dest, new float[3]);
+    }
 
-        float[] dir = new float[3];
-
-        dir[0] = (dest.getPositionX() - origin.getPositionX());
-        dir[1] = (dest.getPositionY() - origin.getPositionY());
-        dir[2] = (dest.getPositionZ() - origin.getPositionZ());
-        return dir;
-
+    public static float[] direction(GVRTransform origin, GVRTransform dest, float[] out) {
+        out[0] = (dest.getPositionX() - origin.getPositionX());
+        out[1] = (dest.getPositionY() - origin.getPositionY());
+        out[2] = (dest.getPositionZ() - origin.getPositionZ());
+        return out;
     }
 
     public static float distance(GVRTransform obj1, GVRTransform obj2) {
-
-        Vector3D v1 = new Vector3D(obj1.getPositionX(),
-                obj1.getPositionY(),
-                obj1.getPositionZ());
-
-        Vector3D v2 = new Vector3D(obj2.getPositionX(),
-                obj2.getPositionY(),
-                obj2.getPositionZ());
-
-        return (float) Vector3D.distance(v1, v2);
+        return (float) Math.sqrt(distanceSquared(obj1, obj2));
     }
 
     public static float distance(GVRTransform obj1, float[] obj2) {
-
-        Vector3D v1 = new Vector3D(obj1.getPositionX(),
-                obj1.getPositionY(),
-                obj1.getPositionZ());
-
-        Vector3D v2 = new Vector3D(obj2[0],
-                obj2[1],
-                obj2[2]);
-
-        return (float) Vector3D.distance(v1, v2);
+        return (float) Math.sqrt(distanceSquared(obj1.getPositionX(), obj1.getPositionY(),
+                obj1.getPositionZ(), obj2[0], obj2[1], obj2[2]));
     }
 
     public static float getYRotationAngle(GVRSceneObject rotatingObject, GVRSceneObject targetObject) {
@@ -89,90 +83,92 @@ public class MathUtils {
 
     public static float[] rotateDirection(float[] rotation, float[] point)
     {
-        float num = rotation[0] * 2f;
-        float num2 = rotation[1] * 2f;
-        float num3 = rotation[2] * 2f;
-        float num4 = rotation[0] * num;
-        float num5 = rotation[1] * num2;
-        float num6 = rotation[2] * num3;
-        float num7 = rotation[0] * num2;
-        float num8 = rotation[0] * num3;
-        float num9 = rotation[1] * num3;
-        float num10 = rotation[3] * num;
-        float num11 = rotation[3] * num2;
-        float num12 = rotation[3] * num3;
-        float[] result = new float[3];
-        result[0] = (1f - (num5 + num6)) * point[0] + (num7 - num12) * point[1] + (num8 + num11)
-                * point[2];
-        result[1] = (num7 + num12) * point[0] + (1f - (num4 + num6)) * point[1] + (num9 - num10)
-                * point[2];
-        result[2] = (num8 - num11) * point[0] + (num9 + num10) * point[1] + (1f - (num4 + num5))
-                * point[2];
-        return result;
+        return rotateDirection(rotation[0], rotation[1], rotation[2], rotation[3], point,
+                new float[3]);
+    }
+
+    public static float[] rotateDirection(float[] rotation, float[] point, float[] out)
+    {
+        return rotateDirection(rotation[0], rotation[1], rotation[2], rotation[3], point, out);
     }
 
     public static float[] rotateDirection(GVRTransform rotationQuat, float[] point)
     {
-        float[] rotation = new float[4];
-        rotation[0] = rotationQuat.getRotationX();
-        rotation[1] = rotationQuat.getRotationY();
-        rotation[2] = rotationQuat.getRotationZ();
-        rotation[3] = rotationQuat.getRotationW();
-
-        float num = rotation[0] * 2f;
-        float num2 = rotation[1] * 2f;
-        float num3 = rotation[2] * 2f;
-        float num4 = rotation[0] * num;
-        float num5 = rotation[1] * num2;
-        float num6 = rotation[2] * num3;
-        float num7 = rotation[0] * num2;
-        float num8 = rotation[0] * num3;
-        float num9 = rotation[1] * num3;
-        float num10 = rotation[3] * num;
-        float num11 = rotation[3] * num2;
-        float num12 = rotation[3] * num3;
-        float[] result = new float[3];
-        result[0] = (1f - (num5 + num6)) * point[0] + (num7 - num12) * point[1] + (num8 + num11)
-                * point[2];
-        result[1] = (num7 + num12) * point[0] + (1f - (num4 + num6)) * point[1] + (num9 - num10)
-                * point[2];
-        result[2] = (num8 - num11) * point[0] + (num9 + num10) * point[1] + (1f - (num4 + num5))
-                * point[2];
-        return result;
+        return rotateDirection(rotationQuat, point, new float[3]);
+    }
+
+    public static float[] rotateDirection(GVRTransform rotationQuat, float[] point, float[] out)
+    {
+        return rotateDirection(rotationQuat.getRotationX(), rotationQuat.getRotationY(),
+                rotationQuat.getRotationZ(), rotationQuat.getRotationW(), point, out);
+    }
+
+    /**
+     * Rotate {@code point} by the quaternion (x, y, z, w) and store the result
+     * in {@code out}, which may be the same array as {@code point}.
+     */
+    public static float[] rotateDirection(float x, float y, float z, float w, float[] point,
+            float[] out)
+    {
+        float num = x * 2f;
+        float num2 = y * 2f;
+        float num3 = z * 2f;
+        float num4 = x * num;
+        float num5 = y * num2;
+        float num6 = z * num3;
+        float num7 = x * num2;
+        float num8 = x * num3;
+        float num9 = y * num3;
+        float num10 = w * num;
+        float num11 = w * num2;
+        float num12 = w * num3;
+        float px = point[0];
+        float py = point[1];
+        float pz = point[2];
+        out[0] = (1f - (num5 + num6)) * px + (num7 - num12) * py + (num8 + num11) * pz;
+        out[1] = (num7 + num12) * px + (1f - (num4 + num6)) * py + (num9 - num10) * pz;
+        out[2] = (num8 - num11) * px + (num9 + num10) * py + (1f - (num4 + num5)) * pz;
+        return out;
     }
 
     public static float[] quaternionMultiply(float[] lhs, float[] rhs)
     {
+        return quaternionMultiply(lhs, rhs, new float[4]);
+    }
 
-        float[] quat = new float[4];
-        quat[0] = lhs[3] * rhs[0] + lhs[0] * rhs[3] + lhs[1] * rhs[2] - lhs[2] * rhs[1];
-        quat[1] = lhs[3] * rhs[1] + lhs[1] * rhs[3] + lhs[2] * rhs[0] - lhs[0] * rhs[2];
-        quat[2] = lhs[3] * rhs[2] + lhs[2] * rhs[3] + lhs[0] * rhs[1] - lhs[1] * rhs[0];
-        quat[3] = lhs[3] * rhs[3] - lhs[0] * rhs[0] - lhs[1] * rhs[1] - lhs[2] * rhs[2];
-        return quat;
+    /**
+     * Multiply two (x, y, z, w) quaternions into {@code out}, which may alias
+     * either operand.
+     */
+    public static float[] quaternionMultiply(float[] lhs, float[] rhs, float[] out)
+    {
+        return quaternionMultiply(lhs[0], lhs[1], lhs[2], lhs[3],
+                rhs[0], rhs[1], rhs[2], rhs[3], out);
     }
 
     public static float[] quaternionMultiply(GVRTransform quat1, GVRTransform quat2)
     {
+        return quaternionMultiply(quat1, quat2, new float[4]);
+    }
+
+    public static float[] quaternionMultiply(GVRTransform quat1, GVRTransform quat2, float[] out)
+    {
+        return quaternionMultiply(quat1.getRotationX(), quat1.getRotationY(),
+                quat1.getRotationZ(), quat1.getRotationW(),
+                quat2.getRotationX(), quat2.getRotationY(),
+                quat2.getRotationZ(), quat2.getRotationW(), out);
+    }
+
+    private static float[] quaternionMultiply(float lx, float ly, float lz, float lw,
+            float rx, float ry, float rz, float rw, float[] out)
+    {
+        out[0] = lw * rx + lx * rw + ly * rz - lz * ry;
+        out[1] = lw * ry + ly * rw + lz * rx - lx * rz;
+        out[2] = lw * rz + lz * rw + lx * ry - ly * rx;
+        out[3] = lw * rw - lx * rx - ly * ry - lz * rz;
+        return out;
+    }
 
-        float[] lhs = new float[4];
-        lhs[0] = quat1.getRotationX();
-        lhs[1] = quat1.getRotationY();
-        lhs[2] = quat1.getRotationZ();
-        lhs[3] = quat1.getRotationW();
-        float[] rhs = new float[4];
-        rhs[0] = quat2.getRotationX();
-        rhs[1] = quat2.getRotationY();
-        rhs[2] = quat2.getRotationZ();
-        rhs[3] = quat2.getRotationW();
-        float[] quat = new float[4];
-        quat[0] = lhs[3] * rhs[0] + lhs[0] * rhs[3] + lhs[1] * rhs[2] - lhs[2] * rhs[1];
-        quat[1] = lhs[3] * rhs[1] + lhs[1] * rhs[3] + lhs[2] * rhs[0] - lhs[0] * rhs[2];
-        quat[2] = lhs[3] * rhs[2] + lhs[2] * rhs[3] + lhs[0] * rhs[1] - lhs[1] * rhs[0];
-        quat[3] = lhs[3] * rhs[3] - lhs[0] * rhs[0] - lhs[1] * rhs[1] - lhs[2] * rhs[2];
-        return quat;
-    }
-    
     public static float getYAngleEuler(GVRSceneObject object) {
 
         // xAngle = atan2(2*y*w - 2*x*z, 1 - 2*y*y - 2*z*z) //GVRF y
@@ -0,0 +1,154 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf.controls.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+/**
+ * Uniform grid on the XZ plane for objects lying on the floor. Items are
+ * bucketed by cell, so a radius query only looks at the cells overlapping the
+ * query circle and its cost does not grow with the total number of items.
+ * Membership and moves are constant time.
+ */
+public class SpatialHash<T> {
+
+    private static final class Entry<T> {
+        final T item;
+        float x;
+        float z;
+        long cell;
+
+        Entry(T item) {
+            this.item = item;
+        }
+    }
+
+    private final float cellSize;
+    private final HashMap<Long, ArrayList<Entry<T>>> cells = new HashMap<Long, ArrayList<Entry<T>>>();
+    private final IdentityHashMap<T, Entry<T>> entries = new IdentityHashMap<T, Entry<T>>();
+
+    public SpatialHash(float cellSize) {
+        if (cellSize <= 0) {
+            throw new IllegalArgumentException("cellSize must be positive");
+        }
+        this.cellSize = cellSize;
+    }
+
+    public boolean contains(T item) {
+        return entries.containsKey(item);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Insert {@code item} at (x, z), or move it there if it is already present.
+     */
+    public void update(T item, float x, float z) {
+        Entry<T> entry = entries.get(item);
+        final long cell = cellKey(cellIndex(x), cellIndex(z));
+
+        if (entry == null) {
+            entry = new Entry<T>(item);
+            entries.put(item, entry);
+            bucket(cell).add(entry);
+        } else if (entry.cell != cell) {
+            removeFromBucket(entry);
+            bucket(cell).add(entry);
+        }
+        entry.x = x;
+        entry.z = z;
+        entry.cell = cell;
+    }
+
+    public void remove(T item) {
+        Entry<T> entry = entries.remove(item);
+        if (entry != null) {
+            removeFromBucket(entry);
+        }
+    }
+
+    public void clear() {
+        entries.clear();
+        cells.clear();
+    }
+
+    /**
+     * Add every item whose XZ position lies within {@code radius} of (x, z) to
+     * {@code out}. {@code out} is not cleared first.
+     */
+    public List<T> query(float x, float z, float radius, List<T> out) {
+        final float radiusSquared = radius * radius;
+        final int minX = cellIndex(x - radius);
+        final int maxX = cellIndex(x + radius);
+        final int minZ = cellIndex(z - radius);
+        final int maxZ = cellIndex(z + radius);
+
+        for (int cx = minX; cx <= maxX; ++cx) {
+            for (int cz = minZ; cz <= maxZ; ++cz) {
+                ArrayList<Entry<T>> bucket = cells.get(cellKey(cx, cz));
+                if (bucket == null) {
+                    continue;
+                }
+                for (int i = 0, count = bucket.size(); i < count; ++i) {
+                    Entry<T> entry = bucket.get(i);
+                    float dx = entry.x - x;
+                    float dz = entry.z - z;
+                    if (dx * dx + dz * dz <= radiusSquared) {
+                        out.add(entry.item);
+                    }
+                }
+            }
+        }
+        return out;
+    }
+
+    private int cellIndex(float coordinate) {
+        return (int) Math.floor(coordinate / cellSize);
+    }
+
+    private static long cellKey(int cx, int cz) {
+        return ((long) cx << 32) | (cz & 0xffffffffL);
+    }
+
+    private ArrayList<Entry<T>> bucket(long cell) {
+        ArrayList<Entry<T>> bucket = cells.get(cell);
+        if (bucket == null) {
+            bucket = new ArrayList<Entry<T>>(4);
+            cells.put(cell, bucket);
+        }
+        return bucket;
+    }
+
+    private void removeFromBucket(Entry<T> entry) {
+        ArrayList<Entry<T>> bucket = cells.get(entry.cell);
+        if (bucket == null) {
+            return;
+        }
+        // swap-remove, order inside a cell does not matter
+        int index = bucket.indexOf(entry);
+        int last = bucket.size() - 1;
+        bucket.set(index, bucket.get(last));
+        bucket.remove(last);
+        if (bucket.isEmpty()) {
+            cells.remove(entry.cell);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf.controls.input;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class AxisSampleQueueTest {
+
+    @Test(expected = IllegalArgumentException.class)
+    public void capacityMustBeAPowerOfTwo() {
+        new AxisSampleQueue(2, 6);
+    }
+
+    @Test
+    public void samplesComeOutInOrder() {
+        AxisSampleQueue queue = new AxisSampleQueue(2, 4);
+        float[] out = new float[2];
+        assertEquals(AxisSampleQueue.EMPTY, queue.poll(out));
+
+        float[] sample = {0.25f, -0.5f};
+        assertTrue(queue.offer(10, sample));
+        // the queue keeps a copy
+        sample[0] = 1;
+        assertTrue(queue.offer(20, sample));
+
+        assertEquals(10, queue.poll(out));
+        assertArrayEquals(new float[] {0.25f, -0.5f}, out, 0);
+        assertEquals(20, queue.poll(out));
+        assertArrayEquals(new float[] {1, -0.5f}, out, 0);
+        assertEquals(AxisSampleQueue.EMPTY, queue.poll(out));
+    }
+
+    @Test
+    public void fullQueueDropsNewSamples() {
+        AxisSampleQueue queue = new AxisSampleQueue(1, 2);
+        float[] out = new float[1];
+        assertTrue(queue.offer(1, new float[] {1}));
+        assertTrue(queue.offer(2, new float[] {2}));
+        assertFalse(queue.offer(3, new float[] {3}));
+
+        assertEquals(1, queue.poll(out));
+        assertTrue(queue.offer(4, new float[] {4}));
+        assertEquals(2, queue.poll(out));
+        assertEquals(4, queue.poll(out));
+        assertEquals(4, out[0], 0);
+    }
+
+    /**
+     * One event thread and one frame thread; every sample that was accepted
+     * must come out once, whole and in order.
+     */
+    @Test(timeout = 30000)
+    public void producerAndConsumerRunConcurrently() throws InterruptedException {
+        final int axisCount = 6;
+        final int samples = 1000000;
+        final AxisSampleQueue queue = new AxisSampleQueue(axisCount, 64);
+        final AtomicReference<String> failure = new AtomicReference<String>();
+        final long[] accepted = new long[1];
+
+        Thread producer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                float[] sample = new float[axisCount];
+                for (int i = 1; i <= samples; ++i) {
+                    for (int axis = 0; axis < axisCount; ++axis) {
+                        sample[axis] = i;
+                    }
+                    if (queue.offer(i, sample)) {
+                        ++accepted[0];
+                    }
+                }
+            }
+        }, "joystick events");
+
+        producer.start();
+        float[] out = new float[axisCount];
+        long polled = 0;
+        long last = 0;
+        boolean producerDone = false;
+        while (true) {
+            long time = queue.poll(out);
+            if (time == AxisSampleQueue.EMPTY) {
+                if (producerDone) {
+                    break;
+                }
+                // once the producer is seen finished, drain what it left
+                producerDone = !producer.isAlive();
+                continue;
+            }
+            ++polled;
+            if (time <= last) {
+                failure.compareAndSet(null, "sample " + time + " after " + last);
+            }
+            last = time;
+            for (int axis = 0; axis < axisCount; ++axis) {
+                if (out[axis] != time) {
+                    failure.compareAndSet(null, "torn sample " + time + ": axis " + axis
+                            + " = " + out[axis]);
+                }
+            }
+        }
+        producer.join();
+
+        assertNull(failure.get());
+        assertEquals(accepted[0], polled);
+        assertTrue(polled > 0);
+    }
+}
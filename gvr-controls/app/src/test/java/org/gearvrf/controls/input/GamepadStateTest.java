@@ -0,0 +1,153 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf.controls.input;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class GamepadStateTest {
+
+    @Test
+    public void heldButtonReportsDownOnce() {
+        GamepadState state = new GamepadState(0);
+        state.setButton(3, true);
+        state.setButton(3, true);
+
+        GamepadState.Snapshot frame = state.swap();
+        assertTrue(frame.isPressed(3));
+        assertTrue(frame.isDown(3));
+        assertFalse(frame.isUp(3));
+
+        frame = state.swap();
+        assertTrue(frame.isPressed(3));
+        assertFalse(frame.isDown(3));
+
+        state.setButton(3, false);
+        frame = state.swap();
+        assertFalse(frame.isPressed(3));
+        assertTrue(frame.isUp(3));
+        assertEquals(3, frame.getFrame());
+    }
+
+    @Test
+    public void tapShorterThanAFrameIsNotLost() {
+        GamepadState state = new GamepadState(0);
+        state.setButton(0, true);
+        state.setButton(0, false);
+
+        GamepadState.Snapshot frame = state.swap();
+        assertFalse(frame.isPressed(0));
+        assertTrue(frame.isDown(0));
+        assertTrue(frame.isUp(0));
+
+        frame = state.swap();
+        assertFalse(frame.isDown(0));
+        assertFalse(frame.isUp(0));
+    }
+
+    @Test
+    public void frontStaysUnchangedUntilTheNextSwap() {
+        GamepadState state = new GamepadState(2);
+        state.beginAxes();
+        state.setAxis(0, 0.25f);
+        state.setAxis(1, -0.5f);
+        state.endAxes();
+        state.setButton(1, true);
+        GamepadState.Snapshot frame = state.swap();
+
+        state.beginAxes();
+        state.setAxis(0, 1);
+        state.endAxes();
+        state.setButton(1, false);
+
+        assertEquals(0.25f, frame.getAxis(0), 0);
+        assertEquals(-0.5f, frame.getAxis(1), 0);
+        assertTrue(frame.isPressed(1));
+
+        state.swap();
+        assertEquals(1, frame.getAxis(0), 0);
+        assertFalse(frame.isPressed(1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void buttonIndexIsChecked() {
+        new GamepadState(0).setButton(GamepadState.MAX_BUTTONS, true);
+    }
+
+    /**
+     * The event thread publishes axis sets whose values are all equal while
+     * the frame thread swaps as fast as it can; every swap must see one
+     * complete set, never a mix of two.
+     */
+    @Test(timeout = 30000)
+    public void swapNeverSeesATornAxisSet() throws InterruptedException {
+        final int axisCount = 12;
+        final int writes = 2000000;
+        final GamepadState state = new GamepadState(axisCount);
+        final AtomicBoolean done = new AtomicBoolean();
+        final AtomicReference<String> failure = new AtomicReference<String>();
+        final CountDownLatch started = new CountDownLatch(1);
+
+        Thread writer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                started.countDown();
+                for (int i = 1; i <= writes; ++i) {
+                    state.beginAxes();
+                    for (int axis = 0; axis < axisCount; ++axis) {
+                        state.setAxis(axis, i);
+                    }
+                    state.endAxes();
+                    state.setButton(i % 8, (i & 8) != 0);
+                }
+                done.set(true);
+            }
+        }, "gamepad events");
+
+        writer.start();
+        started.await();
+        long swaps = 0;
+        float last = 0;
+        while (!done.get() && failure.get() == null) {
+            GamepadState.Snapshot frame = state.swap();
+            ++swaps;
+            float first = frame.getAxis(0);
+            for (int axis = 1; axis < axisCount; ++axis) {
+                if (frame.getAxis(axis) != first) {
+                    failure.set("torn set at swap " + swaps + ": axis 0 = " + first
+                            + ", axis " + axis + " = " + frame.getAxis(axis));
+                }
+            }
+            if (first < last) {
+                failure.set("axes went back from " + last + " to " + first);
+            }
+            last = first;
+        }
+        writer.join();
+
+        assertNull(failure.get());
+        assertEquals(writes, state.swap().getAxis(axisCount - 1), 0);
+        assertTrue("the frame thread never overlapped the writer", swaps > 1);
+    }
+}
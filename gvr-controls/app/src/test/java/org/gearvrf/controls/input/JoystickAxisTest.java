@@ -0,0 +1,131 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf.controls.input;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Drives the stick smoothing the way GamepadInput.process() does: the queued
+ * event samples first, then the held value once per frame.
+ */
+public class JoystickAxisTest {
+
+    private static final long MILLIS = 1000000L;
+    private static final long FRAME = 16 * MILLIS;
+
+    @Test
+    public void deadZoneRescalesToTheFullRange() {
+        assertEquals(0, JoystickAxis.applyDeadZone(0.1f, 0.2f), 0);
+        assertEquals(0, JoystickAxis.applyDeadZone(-0.2f, 0.2f), 0);
+        assertEquals(0.5f, JoystickAxis.applyDeadZone(0.6f, 0.2f), 1e-6f);
+        assertEquals(-1, JoystickAxis.applyDeadZone(-1, 0.2f), 0);
+        assertEquals(1, JoystickAxis.applyDeadZone(1.2f, 0.2f), 0);
+        assertEquals(0.1f, JoystickAxis.applyDeadZone(0.1f, 0), 0);
+    }
+
+    @Test
+    public void heldFullDeflectionReachesOne() {
+        // within about a third of a second of the flick
+        assertEquals(1, afterFlick(1, 20), 0);
+        assertEquals(-1, afterFlick(-1, 20), 0);
+    }
+
+    @Test
+    public void flickWithoutPerFrameUpdatesStopsShort() {
+        JoystickAxis axis = stick();
+        long time = rest(axis);
+        for (float sample : new float[] {0.3f, 0.8f, 1}) {
+            time += 8 * MILLIS;
+            axis.update(sample, time);
+        }
+        // this is all the worm saw before: never >= 1, so it never moved
+        assertTrue(axis.getValue() < 0.9f);
+    }
+
+    @Test
+    public void restingStickJitterIsDamped() {
+        JoystickAxis axis = stick();
+        Random random = new Random(32);
+        long time = 0;
+        float min = Float.MAX_VALUE;
+        float max = -Float.MAX_VALUE;
+        for (int i = 0; i < 500; ++i) {
+            time += 4 * MILLIS;
+            axis.update(0.5f + 0.02f * (random.nextFloat() - 0.5f), time);
+            if (i > 250) {
+                min = Math.min(min, axis.getValue());
+                max = Math.max(max, axis.getValue());
+            }
+        }
+        assertTrue("output jitter " + (max - min), max - min < 0.005f);
+        assertEquals(0.5f, axis.getValue(), 0.01f);
+    }
+
+    @Test
+    public void lateSamplesDoNotStepTheClockBack() {
+        OneEuroFilter filter = new OneEuroFilter(1.0f, 0.5f, 1.0f);
+        filter.filter(0, 0);
+        float afterFrame = filter.filter(1, 100 * MILLIS);
+        // an event batched before the frame but drained after it
+        assertEquals(afterFrame, filter.filter(0, 90 * MILLIS), 0);
+        // the next step is measured from the frame, not from the late sample
+        OneEuroFilter reference = new OneEuroFilter(1.0f, 0.5f, 1.0f);
+        reference.filter(0, 0);
+        reference.filter(1, 100 * MILLIS);
+        assertEquals(reference.filter(1, 116 * MILLIS), filter.filter(1, 116 * MILLIS), 0);
+    }
+
+    @Test
+    public void hatPassesThrough() {
+        JoystickAxis hat = new JoystickAxis(null);
+        assertEquals(-1, hat.update(-1, 0), 0);
+        assertEquals(0, hat.update(0, FRAME), 0);
+    }
+
+    private static float afterFlick(float target, int frames) {
+        JoystickAxis axis = stick();
+        long time = rest(axis);
+        for (float sample : new float[] {0.3f, 0.8f, 1}) {
+            time += 8 * MILLIS;
+            axis.update(sample * target, time);
+        }
+        // the stick is held; only the frames keep feeding the held value
+        for (int frame = 0; frame < frames; ++frame) {
+            time += FRAME;
+            axis.update(target, time);
+        }
+        return axis.getValue();
+    }
+
+    private static long rest(JoystickAxis axis) {
+        long time = 0;
+        for (int frame = 0; frame < 30; ++frame) {
+            time += FRAME;
+            axis.update(0, time);
+        }
+        return time;
+    }
+
+    private static JoystickAxis stick() {
+        // same settings as GamepadInput uses for the analog sticks
+        return new JoystickAxis(new OneEuroFilter(1.0f, 0.5f, 1.0f));
+    }
+}
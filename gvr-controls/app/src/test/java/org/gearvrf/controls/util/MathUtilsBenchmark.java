@@ -0,0 +1,157 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf.controls.util;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Locale;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Time and heap allocation per call of the per-frame vector math, the
+ * overloads writing into an {@code out} array against the ones returning a
+ * new array. Prints the median ns/op and bytes/op of each.
+ * <p>
+ * A GVRTransform needs the native library, so only the float[] overloads
+ * run here; the transform ones read the transform and then share the same
+ * code. Util.calculatePointBetweenTwoObjects only takes transforms and is
+ * left out for the same reason.
+ */
+public class MathUtilsBenchmark {
+
+    private static final int RUNS = 21;
+    private static final int OPS = 100000;
+
+    // every result is stored here, so that neither path can keep its array
+    // off the heap; the volatile one keeps the sums from being optimised away
+    private static float[] lastResult;
+    private static volatile float blackhole;
+
+    private interface Op {
+        float run(int i, float[] out);
+    }
+
+    private static final float[] ROTATION = {0.1f, 0.7f, 0.1f, 0.7f};
+
+    private static final Op ROTATE_ALLOCATING = new Op() {
+        @Override
+        public float run(int i, float[] out) {
+            out[0] = i;
+            float[] result = MathUtils.rotateDirection(ROTATION, out);
+            lastResult = result;
+            return result[0];
+        }
+    };
+
+    private static final Op ROTATE_INTO = new Op() {
+        @Override
+        public float run(int i, float[] out) {
+            out[0] = i;
+            float[] result = MathUtils.rotateDirection(ROTATION, out, out);
+            lastResult = result;
+            return result[0];
+        }
+    };
+
+    private static final Op MULTIPLY_ALLOCATING = new Op() {
+        @Override
+        public float run(int i, float[] out) {
+            out[3] = i;
+            float[] result = MathUtils.quaternionMultiply(ROTATION, out);
+            lastResult = result;
+            return result[3];
+        }
+    };
+
+    private static final Op MULTIPLY_INTO = new Op() {
+        @Override
+        public float run(int i, float[] out) {
+            out[3] = i;
+            float[] result = MathUtils.quaternionMultiply(ROTATION, out, out);
+            lastResult = result;
+            return result[3];
+        }
+    };
+
+    @Test
+    public void outOverloadsDoNotAllocate() {
+        // warm up every path before measuring
+        for (Op op : new Op[] {ROTATE_ALLOCATING, ROTATE_INTO, MULTIPLY_ALLOCATING, MULTIPLY_INTO}) {
+            measure(op);
+        }
+        double[] rotateAllocating = measure(ROTATE_ALLOCATING);
+        double[] rotateInto = measure(ROTATE_INTO);
+        double[] multiplyAllocating = measure(MULTIPLY_ALLOCATING);
+        double[] multiplyInto = measure(MULTIPLY_INTO);
+
+        print("rotateDirection", rotateAllocating, rotateInto);
+        print("quaternionMultiply", multiplyAllocating, multiplyInto);
+
+        if (allocatedBytes() >= 0) {
+            assertTrue("rotateDirection into out allocates", rotateInto[1] < 1);
+            assertTrue("quaternionMultiply into out allocates", multiplyInto[1] < 1);
+            assertTrue(rotateAllocating[1] >= 16);
+            assertTrue(multiplyAllocating[1] >= 16);
+        }
+    }
+
+    /** Median ns/op and bytes/op of {@code op} over {@link #RUNS} runs. */
+    private static double[] measure(Op op) {
+        long[] nanos = new long[RUNS];
+        long[] bytes = new long[RUNS];
+        float[] out = {0, 1, 0, 1};
+        float sink = 0;
+        for (int run = 0; run < RUNS; ++run) {
+            long allocated = allocatedBytes();
+            long start = System.nanoTime();
+            for (int i = 0; i < OPS; ++i) {
+                sink += op.run(i, out);
+                out[0] = 0;
+                out[1] = 1;
+                out[2] = 0;
+                out[3] = 1;
+            }
+            nanos[run] = System.nanoTime() - start;
+            bytes[run] = allocatedBytes() - allocated;
+        }
+        blackhole = sink;
+        Arrays.sort(nanos);
+        Arrays.sort(bytes);
+        return new double[] {(double) nanos[RUNS / 2] / OPS, (double) bytes[RUNS / 2] / OPS};
+    }
+
+    private static void print(String name, double[] allocating, double[] into) {
+        System.out.println(String.format(Locale.US,
+                "%s: new array %.1f ns/op %.1f bytes/op, out array %.1f ns/op %.1f bytes/op, median of %d x %d",
+                name, allocating[0], allocating[1], into[0], into[1], RUNS, OPS));
+    }
+
+    /** Bytes this thread has allocated so far, or -1 if the JVM cannot tell. */
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (!(threads instanceof com.sun.management.ThreadMXBean)) {
+            return -1;
+        }
+        com.sun.management.ThreadMXBean sunThreads = (com.sun.management.ThreadMXBean) threads;
+        if (!sunThreads.isThreadAllocatedMemorySupported() || !sunThreads.isThreadAllocatedMemoryEnabled()) {
+            return -1;
+        }
+        return sunThreads.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}
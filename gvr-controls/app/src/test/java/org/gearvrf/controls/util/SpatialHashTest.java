@@ -0,0 +1,227 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf.controls.util;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SpatialHashTest {
+
+    private static final class Item {
+        final int id;
+        float x;
+        float z;
+
+        Item(int id, float x, float z) {
+            this.id = id;
+            this.x = x;
+            this.z = z;
+        }
+    }
+
+    private static final Comparator<Item> BY_ID = new Comparator<Item>() {
+        @Override
+        public int compare(Item a, Item b) {
+            return a.id - b.id;
+        }
+    };
+
+    @Test(expected = IllegalArgumentException.class)
+    public void cellSizeMustBePositive() {
+        new SpatialHash<Item>(0);
+    }
+
+    @Test
+    public void insertMoveAndRemove() {
+        SpatialHash<Item> grid = new SpatialHash<Item>(1);
+        Item item = new Item(0, 0.5f, 0.5f);
+
+        grid.update(item, item.x, item.z);
+        assertTrue(grid.contains(item));
+        assertEquals(1, grid.size());
+
+        grid.update(item, 10.5f, -3.5f);
+        assertEquals(1, grid.size());
+        assertTrue(grid.query(0.5f, 0.5f, 1, new ArrayList<Item>()).isEmpty());
+        assertEquals(1, grid.query(10.5f, -3.5f, 0.1f, new ArrayList<Item>()).size());
+
+        grid.remove(item);
+        assertFalse(grid.contains(item));
+        assertEquals(0, grid.size());
+        assertTrue(grid.query(10.5f, -3.5f, 5, new ArrayList<Item>()).isEmpty());
+
+        // removing twice is harmless
+        grid.remove(item);
+    }
+
+    @Test
+    public void queryReachesAcrossCellsAndNegativeCoordinates() {
+        SpatialHash<Item> grid = new SpatialHash<Item>(1);
+        Item west = new Item(0, -0.05f, 0);
+        Item east = new Item(1, 0.05f, 0);
+        Item far = new Item(2, -2.5f, -2.5f);
+        grid.update(west, west.x, west.z);
+        grid.update(east, east.x, east.z);
+        grid.update(far, far.x, far.z);
+
+        List<Item> found = grid.query(0, 0, 0.1f, new ArrayList<Item>());
+        Collections.sort(found, BY_ID);
+        assertEquals(2, found.size());
+        assertEquals(west, found.get(0));
+        assertEquals(east, found.get(1));
+
+        assertEquals(1, grid.query(-2.4f, -2.4f, 0.2f, new ArrayList<Item>()).size());
+    }
+
+    @Test
+    public void matchesBruteForceOnRandomLayouts() {
+        Random random = new Random(30);
+        for (int layout = 0; layout < 50; ++layout) {
+            float cellSize = 0.25f + 4 * random.nextFloat();
+            float extent = 1 + 40 * random.nextFloat();
+            SpatialHash<Item> grid = new SpatialHash<Item>(cellSize);
+            List<Item> items = new ArrayList<Item>();
+            int count = random.nextInt(300);
+            for (int i = 0; i < count; ++i) {
+                Item item = new Item(i, coordinate(random, extent), coordinate(random, extent));
+                items.add(item);
+                grid.update(item, item.x, item.z);
+            }
+
+            for (int step = 0; step < 100; ++step) {
+                // move or remove a few items between queries, like the apples do
+                if (!items.isEmpty() && random.nextBoolean()) {
+                    Item item = items.get(random.nextInt(items.size()));
+                    if (random.nextInt(4) == 0) {
+                        items.remove(item);
+                        grid.remove(item);
+                    } else {
+                        item.x = coordinate(random, extent);
+                        item.z = coordinate(random, extent);
+                        grid.update(item, item.x, item.z);
+                    }
+                }
+
+                float x = coordinate(random, extent);
+                float z = coordinate(random, extent);
+                float radius = 3 * random.nextFloat();
+                List<Item> found = grid.query(x, z, radius, new ArrayList<Item>());
+                List<Item> expected = bruteForce(items, x, z, radius);
+                Collections.sort(found, BY_ID);
+                assertEquals(expected, found);
+            }
+            assertEquals(items.size(), grid.size());
+        }
+    }
+
+    /**
+     * Queries at a constant apple density, so each query finds about the same
+     * number of apples, and compares with the linear scan it replaced.
+     */
+    @Test
+    public void queryTimeStaysFlatAsApplesAreAdded() {
+        final float radius = 0.5f;
+        final float density = 0.5f;
+        final int queries = 20000;
+        Random random = new Random(10);
+        float[] gridNanos = new float[4];
+        int run = 0;
+
+        for (int count = 10; count <= 10000; count *= 10) {
+            float extent = (float) Math.sqrt(count / density) / 2;
+            SpatialHash<Item> grid = new SpatialHash<Item>(radius);
+            List<Item> items = new ArrayList<Item>();
+            for (int i = 0; i < count; ++i) {
+                Item item = new Item(i, coordinate(random, extent), coordinate(random, extent));
+                items.add(item);
+                grid.update(item, item.x, item.z);
+            }
+            float[] xs = new float[queries];
+            float[] zs = new float[queries];
+            for (int i = 0; i < queries; ++i) {
+                xs[i] = coordinate(random, extent);
+                zs[i] = coordinate(random, extent);
+            }
+
+            ArrayList<Item> scratch = new ArrayList<Item>();
+            long hits = 0;
+            long gridTime = Long.MAX_VALUE;
+            long scanTime = Long.MAX_VALUE;
+            for (int repeat = 0; repeat < 5; ++repeat) {
+                long start = System.nanoTime();
+                for (int i = 0; i < queries; ++i) {
+                    hits += grid.query(xs[i], zs[i], radius, scratch).size();
+                    scratch.clear();
+                }
+                gridTime = Math.min(gridTime, System.nanoTime() - start);
+
+                start = System.nanoTime();
+                for (int i = 0; i < queries; ++i) {
+                    hits -= bruteForceCount(items, xs[i], zs[i], radius);
+                }
+                scanTime = Math.min(scanTime, System.nanoTime() - start);
+            }
+            assertEquals(0, hits);
+
+            gridNanos[run++] = (float) gridTime / queries;
+            System.out.println(String.format(Locale.US,
+                    "%5d apples: spatial hash %.0f ns/query, linear scan %.0f ns/query",
+                    count, (float) gridTime / queries, (float) scanTime / queries));
+        }
+        // generous bound against noise; the linear scan grows by 1000x here
+        assertTrue(gridNanos[3] < 10 * gridNanos[0]);
+    }
+
+    private static float coordinate(Random random, float extent) {
+        return (2 * random.nextFloat() - 1) * extent;
+    }
+
+    private static List<Item> bruteForce(List<Item> items, float x, float z, float radius) {
+        List<Item> found = new ArrayList<Item>();
+        for (Item item : items) {
+            float dx = item.x - x;
+            float dz = item.z - z;
+            if (dx * dx + dz * dz <= radius * radius) {
+                found.add(item);
+            }
+        }
+        Collections.sort(found, BY_ID);
+        return found;
+    }
+
+    private static int bruteForceCount(List<Item> items, float x, float z, float radius) {
+        int count = 0;
+        for (int i = 0, size = items.size(); i < size; ++i) {
+            Item item = items.get(i);
+            float dx = item.x - x;
+            float dz = item.z - z;
+            if (dx * dx + dz * dz <= radius * radius) {
+                ++count;
+            }
+        }
+        return count;
+    }
+}
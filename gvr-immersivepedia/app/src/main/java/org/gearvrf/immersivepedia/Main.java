@@ -21,6 +21,7 @@ import android.view.MotionEvent;
 import org.gearvrf.GVRContext;
 import org.gearvrf.GVRMain;
 import org.gearvrf.GVRScene;
+import org.gearvrf.immersivepedia.dinosaur.DinosaurFactory;
 import org.gearvrf.immersivepedia.focus.FocusableController;
 import org.gearvrf.immersivepedia.focus.PickHandler;
 import org.gearvrf.immersivepedia.input.TouchPadInput;
@@ -45,6 +46,8 @@ public class Main extends GVRMain {
     @Override
     public void onInit(final GVRContext gvrContext) throws Throwable {
         mGvrContext = gvrContext;
+        // start decoding the dinosaurs while the audio and menu are set up
+        DinosaurFactory.getInstance(gvrContext);
 
         AudioClip.getInstance(gvrContext.getContext());
         mediaPlayer = MediaPlayer.create(gvrContext.getContext(),
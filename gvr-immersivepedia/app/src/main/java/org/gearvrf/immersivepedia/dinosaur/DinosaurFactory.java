@@ -15,18 +15,38 @@
 
 package org.gearvrf.immersivepedia.dinosaur;
 
+import android.os.Trace;
+import android.util.Log;
+
 import org.gearvrf.GVRAndroidResource;
 import org.gearvrf.GVRContext;
 import org.gearvrf.GVRImportSettings;
 import org.gearvrf.GVRMesh;
 import org.gearvrf.GVRTexture;
+import org.gearvrf.demos.gvrf.MeshCache;
 import org.gearvrf.immersivepedia.R;
 import org.gearvrf.immersivepedia.focus.FocusableSceneObject;
 
 import java.util.EnumSet;
-
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Loads the four dinosaurs in two stages. Meshes and textures are decoded in
+ * parallel on a worker pool; each {@link Dinosaur} is then assembled on a
+ * separate thread and published as a {@link Future}, so a scene only waits for
+ * the dinosaur it is about to show.
+ */
 public class DinosaurFactory {
 
+    private static final String TAG = "DinosaurFactory";
+    private static final int LOADER_THREADS = Math.max(2, Runtime.getRuntime().availableProcessors() - 1);
+
     private static final int NEGATIVE_DEGRES_90 = 90;
     private static float adujstRelative = 1f; // default = 1 (close as possible)
     private static float adjustAbsolute = 3f; // default = 0 (close as possible)
@@ -49,18 +69,37 @@ public class DinosaurFactory {
     EnumSet<GVRImportSettings> settings = GVRImportSettings
             .getRecommendedSettingsWith(additionalSettings);
 
-    private Dinosaur styracosaurus;
-    private Dinosaur ankylosaurus;
-    private Dinosaur apatosaurus;
-    private Dinosaur tRex;
+    // Asset stage: one task per mesh or texture. These tasks never wait on
+    // other futures, so the pool cannot starve itself.
+    private final ExecutorService assetExecutor;
+    // Assembly stage: waits on the asset futures and builds the scene objects.
+    private final ExecutorService assemblyExecutor;
+
+    // Every dinosaur shares the same base and ground textures.
+    private final Future<GVRTexture> baseTexture;
+    private final Future<GVRTexture> groundTexture;
+
+    private final Future<Dinosaur> styracosaurus;
+    private final Future<Dinosaur> ankylosaurus;
+    private final Future<Dinosaur> apatosaurus;
+    private final Future<Dinosaur> tRex;
 
     private DinosaurFactory(GVRContext gvrContext) {
         this.gvrContext = gvrContext;
-        styracosaurus = createStyrocosaurus();
+        assetExecutor = Executors.newFixedThreadPool(LOADER_THREADS, new LoaderThreadFactory("dino-asset"));
+        assemblyExecutor = Executors.newSingleThreadExecutor(new LoaderThreadFactory("dino-assembly"));
+
+        baseTexture = loadTexture("base_tex_diffuse", R.drawable.base_tex_diffuse);
+        groundTexture = loadTexture("ground_tex_diffuse", R.raw.ground_tex_diffuse);
+
+        // Submitted in the order the scenes usually need them.
+        tRex = createTRex();
         ankylosaurus = createAnkylosaurus();
+        styracosaurus = createStyrocosaurus();
         apatosaurus = createApatosaurus();
-        tRex = createTRex();
 
+        assetExecutor.shutdown();
+        assemblyExecutor.shutdown();
     }
 
     public static synchronized DinosaurFactory getInstance(GVRContext gvrContext) {
@@ -70,78 +109,140 @@ public class DinosaurFactory {
         return instance;
     }
 
-    private Dinosaur createDinosauros(int dinoMeshId, int dinoTextureId, int baseMeshId, int groundMeshId) {
-
-        FocusableSceneObject dino = createDinosaur(dinoMeshId, dinoTextureId);
-
-        FocusableSceneObject base = createDinosaurBase(baseMeshId);
-        FocusableSceneObject ground = createDinosaurGround(groundMeshId);
+    private Future<Dinosaur> createDinosauros(final String name, int dinoMeshId, int dinoTextureId,
+                                              int baseMeshId, int groundMeshId) {
+        final Future<GVRMesh> dinoMesh = loadMesh(name + "_mesh", dinoMeshId);
+        final Future<GVRTexture> dinoTexture = loadTexture(name + "_tex_diffuse", dinoTextureId);
+        final Future<GVRMesh> baseMesh = loadMesh(name + "_base_mesh", baseMeshId);
+        final Future<GVRMesh> groundMesh = loadMesh(name + "_ground_mesh", groundMeshId);
+
+        return assemblyExecutor.submit(new Callable<Dinosaur>() {
+            @Override
+            public Dinosaur call() throws Exception {
+                final long start = System.nanoTime();
+                Trace.beginSection("assemble " + name);
+                try {
+                    FocusableSceneObject dino = new FocusableSceneObject(gvrContext,
+                            dinoMesh.get(), dinoTexture.get());
+                    FocusableSceneObject base = new FocusableSceneObject(gvrContext,
+                            baseMesh.get(), baseTexture.get());
+                    FocusableSceneObject ground = new FocusableSceneObject(gvrContext,
+                            groundMesh.get(), groundTexture.get());
+
+                    return new Dinosaur(gvrContext, dino, base, ground);
+                } finally {
+                    Trace.endSection();
+                    logTiming("assemble " + name, start);
+                }
+            }
+        });
+    }
 
-        return new Dinosaur(gvrContext, dino, base, ground);
+    private Future<GVRMesh> loadMesh(final String name, final int meshId) {
+        return assetExecutor.submit(new Callable<GVRMesh>() {
+            @Override
+            public GVRMesh call() throws Exception {
+                final long start = System.nanoTime();
+                Trace.beginSection("mesh " + name);
+                try {
+                    return MeshCache.loadMesh(gvrContext, meshId, settings);
+                } finally {
+                    Trace.endSection();
+                    logTiming("mesh " + name, start);
+                }
+            }
+        });
     }
 
-    private FocusableSceneObject createDinosaur(int dinoMeshId, int dinoTextureId) {
-        GVRMesh baseMesh = gvrContext.getAssetLoader().loadMesh(new GVRAndroidResource(gvrContext, dinoMeshId), settings);
-        GVRTexture baseTexture = gvrContext.getAssetLoader().loadTexture(new GVRAndroidResource(gvrContext, dinoTextureId));
-        final FocusableSceneObject dino = new FocusableSceneObject(gvrContext, baseMesh, baseTexture);
+    private Future<GVRTexture> loadTexture(final String name, final int textureId) {
+        return assetExecutor.submit(new Callable<GVRTexture>() {
+            @Override
+            public GVRTexture call() throws Exception {
+                final long start = System.nanoTime();
+                Trace.beginSection("texture " + name);
+                try {
+                    return gvrContext.getAssetLoader().loadTexture(new GVRAndroidResource(gvrContext, textureId));
+                } finally {
+                    Trace.endSection();
+                    logTiming("texture " + name, start);
+                }
+            }
+        });
+    }
 
-        return dino;
+    private static void logTiming(String section, long startNanos) {
+        Log.d(TAG, section + " took " + (System.nanoTime() - startNanos) / 1000000.0f + " ms on "
+                + Thread.currentThread().getName());
     }
 
-    private FocusableSceneObject createDinosaurBase(int baseMeshId) {
-        GVRMesh baseMesh = gvrContext.getAssetLoader().loadMesh(new GVRAndroidResource(gvrContext, baseMeshId), settings);
-        GVRTexture baseTexture = gvrContext.getAssetLoader().loadTexture(new GVRAndroidResource(gvrContext, R.drawable.base_tex_diffuse));
-        FocusableSceneObject dinosaurBase = new FocusableSceneObject(gvrContext, baseMesh, baseTexture);
-        return dinosaurBase;
+    private static Dinosaur await(Future<Dinosaur> dinosaur) {
+        final long start = System.nanoTime();
+        try {
+            return dinosaur.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        } finally {
+            logTiming("await", start);
+        }
     }
 
-    private FocusableSceneObject createDinosaurGround(int groundMesh) {
+    private static final class LoaderThreadFactory implements ThreadFactory {
+        private final String prefix;
+        private final AtomicInteger count = new AtomicInteger();
 
-        GVRMesh mesh = gvrContext.getAssetLoader().loadMesh(new GVRAndroidResource(gvrContext, groundMesh), settings);
-        GVRTexture groundTexture = gvrContext.getAssetLoader().loadTexture(new GVRAndroidResource(gvrContext, R.raw.ground_tex_diffuse));
-        final FocusableSceneObject dinosaurGround = new FocusableSceneObject(gvrContext, mesh, groundTexture);
+        LoaderThreadFactory(String prefix) {
+            this.prefix = prefix;
+        }
 
-        return dinosaurGround;
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, prefix + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
     }
 
-    private Dinosaur createStyrocosaurus() {
-        return createDinosauros(
+    private Future<Dinosaur> createStyrocosaurus() {
+        return createDinosauros("styracosaurus",
                 R.raw.styracosaurus_mesh, R.raw.styracosaurus_tex_diffuse,
                 R.raw.styracosaurus_base_mesh, R.raw.styracosaurus_ground_mesh);
     }
 
-    private Dinosaur createAnkylosaurus() {
-        return createDinosauros(
+    private Future<Dinosaur> createAnkylosaurus() {
+        return createDinosauros("ankylosaurus",
                 R.raw.ankylosaurus_mesh, R.raw.ankyosaurus_tex_diffuse,
                 R.raw.ankylosaurus_base_mesh, R.raw.ankylosaurus_ground_mesh);
     }
 
-    private Dinosaur createApatosaurus() {
-        return createDinosauros(
+    private Future<Dinosaur> createApatosaurus() {
+        return createDinosauros("apatosaurus",
                 R.raw.apatosaurus_mesh, R.raw.apatosaurus_tex_diffuse,
                 R.raw.apatosaurus_base_mesh, R.raw.apatosaurus_ground_mesh);
     }
 
-    private Dinosaur createTRex() {
-        return createDinosauros(
+    private Future<Dinosaur> createTRex() {
+        return createDinosauros("trex",
                 R.raw.trex_mesh, R.raw.trex_tex_diffuse,
                 R.raw.trex_base_mesh, R.raw.trex_ground_mesh);
     }
 
     public Dinosaur getStyracosaurus() {
-        return styracosaurus;
+        return await(styracosaurus);
     }
 
     public Dinosaur getAnkylosaurus() {
-        return ankylosaurus;
+        return await(ankylosaurus);
     }
 
     public Dinosaur getApatosaurus() {
-        return apatosaurus;
+        return await(apatosaurus);
     }
 
     public Dinosaur getTRex() {
-        return tRex;
+        return await(tRex);
     }
 
 }
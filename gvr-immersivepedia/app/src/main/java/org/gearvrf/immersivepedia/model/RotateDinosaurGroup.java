@@ -146,7 +146,7 @@ public class RotateDinosaurGroup extends GVRSceneObject implements
     private void stopAnimation() {
         gvrContext.getAnimationEngine().stop(animation);
         AudioClip.getInstance(getGVRContext().getContext())
-                .pauseSound(streamID);
+                .stopSound(streamID);
         animation = null;
         isPlayed = false;
     }
@@ -53,7 +53,7 @@ public class Totem extends FocusableSceneObject implements FocusListener {
             public void onClick() {
                 if (loadComponent != null && loadComponent.isLoading()) {
                     loadComponent.finishLoadComponent();
-                    AudioClip.getInstance(getGVRContext().getContext()).pauseSound(streamIDTotem);
+                    AudioClip.getInstance(getGVRContext().getContext()).stopSound(streamIDTotem);
                 }
             }
         });
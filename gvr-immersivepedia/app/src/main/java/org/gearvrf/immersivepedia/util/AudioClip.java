@@ -17,19 +17,20 @@ package org.gearvrf.immersivepedia.util;
 
 import android.content.Context;
 import android.media.AudioManager;
-import android.media.SoundPool;
-import android.media.SoundPool.OnLoadCompleteListener;
 
+import org.gearvrf.demos.android.SoundPoolVoices;
+import org.gearvrf.demos.util.VoiceManager;
 import org.gearvrf.immersivepedia.R;
 
 public class AudioClip {
 
+    private static final int MAX_VOICES = 10;
+    // ignore identical one-shots fired again within this window, e.g. hover sounds
+    private static final long MIN_REPEAT_MILLIS = 80;
+
     private static AudioClip instance;
-    private boolean loaded = false;
-    private int priority;
+    private final SoundPoolVoices voices;
 
-    private Context context;
-    private SoundPool soundPool;
     private static int uiImageCloseSoundID;
     private static int uiImageOpenSoundID;
     private static int uiLoadingSoundID;
@@ -43,71 +44,52 @@ public class AudioClip {
 
     public static synchronized AudioClip getInstance(Context androidContext) {
         if (instance == null) {
-            instance = new AudioClip(10, AudioManager.STREAM_MUSIC, 0, androidContext);
+            instance = new AudioClip(MAX_VOICES, AudioManager.STREAM_MUSIC, androidContext);
         }
         return instance;
     }
 
-    private AudioClip(int maxStreams, int streamType, int srcQuality, Context context) {
-
-        this.context = context;
-
-        soundPool = new SoundPool(maxStreams, streamType, srcQuality);
-        soundPool.setOnLoadCompleteListener(new OnLoadCompleteListener() {
-            @Override
-            public void onLoadComplete(SoundPool soundPool, int sampleId, int status) {
-                loaded = true;
-            }
-        });
-
+    private AudioClip(int maxStreams, int streamType, Context context) {
+        voices = new SoundPoolVoices(context, maxStreams, streamType, MIN_REPEAT_MILLIS);
         loadinSounds();
-
     }
 
     public int playSound(int soundID, float leftVolume, float rightVolume) {
-        int streamID = 0;
-        if (loaded) {
-            streamID = soundPool.play(soundID, leftVolume, rightVolume, 1, 0, 1f);
-            priority = priority++;
-        }
+        return playSound(soundID, leftVolume, rightVolume, VoiceManager.DEFAULT_PRIORITY);
+    }
 
-        return streamID;
+    public int playSound(int soundID, float leftVolume, float rightVolume, int priority) {
+        return voices.play(soundID, leftVolume, rightVolume, priority, false);
     }
 
     public int playLoop(int soundID, float leftVolume, float rightVolume) {
-        int streamID = 0;
-        if (loaded) {
-            streamID = soundPool.play(soundID, leftVolume, rightVolume, 1, -1, 1f);
-            priority = priority++;
-        }
-        return streamID;
+        return playLoop(soundID, leftVolume, rightVolume, VoiceManager.DEFAULT_PRIORITY);
     }
 
-    public void pauseSound(int streamID) {
-        // If the stream is not playing (e.g. is stopped or was previously paused), calling this function will have no effect.
-        soundPool.pause(streamID);
+    public int playLoop(int soundID, float leftVolume, float rightVolume, int priority) {
+        return voices.play(soundID, leftVolume, rightVolume, priority, true);
     }
 
     public void stopSound(int streamID) {
         // If the stream is not playing, it will have no effect.
-        soundPool.stop(streamID);
+        voices.stop(streamID);
     }
 
     public void autoPause() {
-        soundPool.autoPause();
+        voices.autoPause();
     }
 
     private void loadinSounds() {
-        uiImageCloseSoundID = soundPool.load(context, R.raw.sfx_ui_image_close_4_1, 1);
-        uiImageOpenSoundID = soundPool.load(context, R.raw.sfx_ui_image_open_4_1, 1);
-        uiLoadingSoundID = soundPool.load(context, R.raw.sfx_ui_loading_1, 1);
-        uiMenuHoverSoundID = soundPool.load(context, R.raw.sfx_ui_menu_hover_2_2, 1);
-        uiMenuSelectSoundID = soundPool.load(context, R.raw.sfx_ui_menu_select_1_1, 1);
-        uiMenuSelectWrongSoundID = soundPool.load(context, R.raw.sfx_ui_menu_select_wrong_1_1, 1);
-        uiRotateSoundID = soundPool.load(context, R.raw.sfx_ui_rotate_1_1, 1);
-        uiTextAppearSoundID = soundPool.load(context, R.raw.sfx_text_appear_4_1, 1);
-        uiTextDisappearSoundID = soundPool.load(context, R.raw.sfx_text_disappear_4_1, 1);
-        uiLoopRotateSoundID = soundPool.load(context, R.raw.loop_rotate, 1);
+        uiImageCloseSoundID = voices.load(R.raw.sfx_ui_image_close_4_1);
+        uiImageOpenSoundID = voices.load(R.raw.sfx_ui_image_open_4_1);
+        uiLoadingSoundID = voices.load(R.raw.sfx_ui_loading_1);
+        uiMenuHoverSoundID = voices.load(R.raw.sfx_ui_menu_hover_2_2);
+        uiMenuSelectSoundID = voices.load(R.raw.sfx_ui_menu_select_1_1);
+        uiMenuSelectWrongSoundID = voices.load(R.raw.sfx_ui_menu_select_wrong_1_1);
+        uiRotateSoundID = voices.load(R.raw.sfx_ui_rotate_1_1);
+        uiTextAppearSoundID = voices.load(R.raw.sfx_text_appear_4_1);
+        uiTextDisappearSoundID = voices.load(R.raw.sfx_text_disappear_4_1);
+        uiLoopRotateSoundID = voices.load(R.raw.loop_rotate);
     }
 
     public static int getUIImageCloseSoundID() {
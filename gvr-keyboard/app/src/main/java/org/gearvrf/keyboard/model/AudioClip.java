@@ -17,20 +17,20 @@ package org.gearvrf.keyboard.model;
 
 import android.content.Context;
 import android.media.AudioManager;
-import android.media.SoundPool;
-import android.media.SoundPool.OnLoadCompleteListener;
 
+import org.gearvrf.demos.android.SoundPoolVoices;
+import org.gearvrf.demos.util.VoiceManager;
 import org.gearvrf.keyboard.R;
 
 public class AudioClip {
 
+    private static final int MAX_VOICES = 10;
+    // ignore identical one-shots fired again within this window
+    private static final long MIN_REPEAT_MILLIS = 80;
+
     private static AudioClip instance;
-    private boolean plays = false;
-    private boolean loaded = false;
-    private int priority;
+    private final SoundPoolVoices voices;
 
-    private Context context;
-    private SoundPool soundPool;
     private static int keyEnterSoundID;
     private static int keyHoverSoundID;
     private static int exceptionSoundID;
@@ -42,70 +42,47 @@ public class AudioClip {
 
     public static synchronized AudioClip getInstance(Context androidContext) {
         if (instance == null) {
-            instance = new AudioClip(10, AudioManager.STREAM_MUSIC, 0, androidContext);
+            instance = new AudioClip(MAX_VOICES, AudioManager.STREAM_MUSIC, androidContext);
         }
         return instance;
     }
 
-    private AudioClip(int maxStreams, int streamType, int srcQuality, Context context) {
-
-        this.context = context;
-
-        soundPool = new SoundPool(maxStreams, streamType, srcQuality);
-        soundPool.setOnLoadCompleteListener(new OnLoadCompleteListener() {
-            @Override
-            public void onLoadComplete(SoundPool soundPool, int sampleId, int status) {
-                loaded = true;
-            }
-        });
-
+    private AudioClip(int maxStreams, int streamType, Context context) {
+        voices = new SoundPoolVoices(context, maxStreams, streamType, MIN_REPEAT_MILLIS);
         loadinSounds();
-
     }
 
     public void playSound(int soundID, float leftVolume, float rightVolume) {
-
-        if (loaded) {
-            soundPool.play(soundID, leftVolume, rightVolume, 1, 0, 1f);
-            priority = priority++;
-            plays = true;
-        }
+        playSound(soundID, leftVolume, rightVolume, VoiceManager.DEFAULT_PRIORITY);
     }
 
-    public void playLoop(int soundID, float leftVolume, float rightVolume) {
+    public void playSound(int soundID, float leftVolume, float rightVolume, int priority) {
+        voices.play(soundID, leftVolume, rightVolume, priority, false);
+    }
 
-        if (loaded) {
-            soundPool.play(soundID, leftVolume, rightVolume, 1, -1, 1f);
-            priority = priority++;
-            plays = true;
-        }
+    /** @return the stream id to stop the loop with */
+    public int playLoop(int soundID, float leftVolume, float rightVolume) {
+        return playLoop(soundID, leftVolume, rightVolume, VoiceManager.DEFAULT_PRIORITY);
     }
 
-    public void pauseSound(int soundID) {
-        if (plays) {
-            soundPool.pause(soundID);
-            soundID = soundPool.load(context, soundID, priority);
-            plays = false;
-        }
+    public int playLoop(int soundID, float leftVolume, float rightVolume, int priority) {
+        return voices.play(soundID, leftVolume, rightVolume, priority, true);
     }
 
-    public void stopSound(int soundID) {
-        if (plays) {
-            soundPool.stop(soundID);
-            soundID = soundPool.load(context, soundID, priority);
-            plays = false;
-        }
+    public void stopSound(int streamID) {
+        // If the stream is not playing, it will have no effect.
+        voices.stop(streamID);
     }
 
     private void loadinSounds() {
-        keyEnterSoundID = soundPool.load(context, R.raw.key_enter_sound, 1);
-        keyHoverSoundID = soundPool.load(context, R.raw.key_hover_sound, 1);
-        exceptionSoundID = soundPool.load(context, R.raw.exception_sound, 1);
-        selectionSoundID = soundPool.load(context, R.raw.selection_sound, 1);
-        snapSoundID = soundPool.load(context, R.raw.snap_sound, 1);
-        sucessSoundID = soundPool.load(context, R.raw.sucess_sound, 1);
-        spinnerSoundID = soundPool.load(context, R.raw.spinner_audio, 1);
-        wrongSoundID = soundPool.load(context, R.raw.wrong_sound, 1);
+        keyEnterSoundID = voices.load(R.raw.key_enter_sound);
+        keyHoverSoundID = voices.load(R.raw.key_hover_sound);
+        exceptionSoundID = voices.load(R.raw.exception_sound);
+        selectionSoundID = voices.load(R.raw.selection_sound);
+        snapSoundID = voices.load(R.raw.snap_sound);
+        sucessSoundID = voices.load(R.raw.sucess_sound);
+        spinnerSoundID = voices.load(R.raw.spinner_audio);
+        wrongSoundID = voices.load(R.raw.wrong_sound);
     }
 
     public static int getKeyEnterSoundID() {
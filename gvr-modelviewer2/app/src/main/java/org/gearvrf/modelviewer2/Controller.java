@@ -13,7 +13,9 @@ import org.gearvrf.GVRRenderPass;
 import org.gearvrf.GVRScene;
 import org.gearvrf.GVRSceneObject;
 import org.gearvrf.GVRShaderId;
+import org.gearvrf.GVRTexture;
 import org.gearvrf.GVRTransform;
+import org.gearvrf.IAssetEvents;
 import org.gearvrf.animation.GVRAnimation;
 import org.gearvrf.animation.GVRRepeatMode;
 import org.gearvrf.animation.GVRRotationByAxisAnimation;
@@ -29,6 +31,9 @@ import org.joml.Vector4f;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
 
 public class Controller {
     private static final String TAG = "GVRModelViewer2";
@@ -52,6 +57,13 @@ public class Controller {
     private Model currentDisplayedModel;
     public boolean currentModelFlag = false;
     private GVRAnimation currentAnimation;
+    // Estimated vertex and texture bytes of the models kept loaded
+    private static final long MODEL_CACHE_BYTES = 192L * 1024 * 1024;
+    private ModelCache<Model> modelCache;
+    private ExecutorService prefetchExecutor;
+    private ExecutorService importExecutor;
+    private volatile ModelImport currentImport;
+    private volatile ModelImport lastImport;
 
     // Variables related to Banner
     private Banner oBannerCount;
@@ -76,7 +88,72 @@ public class Controller {
     public Controller(GVRActivity activity, GVRContext context) {
         this.activity = activity;
         this.context = context;
-    }
+        modelCache = new ModelCache<Model>(MODEL_CACHE_BYTES, new ModelCache.Evictor<Model>() {
+            @Override
+            public void evict(Model model) {
+                synchronized (model) {
+                    // a concurrent load may have put it back already
+                    if (!modelCache.contains(model)) {
+                        model.unload(Controller.this.context);
+                    }
+                }
+            }
+        });
+        prefetchExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "ModelPrefetch");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        importExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "ModelImport");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        context.getEventReceiver().addListener(assetEvents);
+    }
+
+    /**
+     * Textures finish loading after the model was prepared and put in the
+     * cache; count them once they are all in.
+     */
+    private final IAssetEvents assetEvents = new IAssetEvents() {
+        @Override
+        public void onAssetLoaded(GVRContext context, GVRSceneObject root, String filePath, String errors) {
+            if ((root == null) || (aModel == null)) {
+                return;
+            }
+            for (Model m : aModel) {
+                long bytes = m.refreshEstimatedBytes(root);
+                if (bytes >= 0) {
+                    // outside the model's lock: resizing may evict and lock other models
+                    modelCache.resize(m, bytes);
+                    return;
+                }
+            }
+        }
+
+        @Override
+        public void onModelLoaded(GVRContext context, GVRSceneObject model, String filePath) {
+        }
+
+        @Override
+        public void onTextureLoaded(GVRContext context, GVRTexture texture, String filePath) {
+        }
+
+        @Override
+        public void onModelError(GVRContext context, String error, String filePath) {
+        }
+
+        @Override
+        public void onTextureError(GVRContext context, String error, String filePath) {
+        }
+    };
 
     void initializeController() {
         loadDefaultSkyBoxList();
@@ -294,14 +371,18 @@ public class Controller {
             oBannerLoading = new Banner(context, "Loading", 10, Color.BLUE, defaultCenterPosition
                     .x, defaultCenterPosition.y, defaultCenterPosition.z);
         }
-        room.addSceneObject(oBannerLoading.getBanner());
+        if (oBannerLoading.getBanner().getParent() == null) {
+            room.addSceneObject(oBannerLoading.getBanner());
+        }
     }
 
     void removeLoadingInRoom(GVRScene room) {
         if (oBannerLoading == null) {
             return;
         }
-        room.removeSceneObject(oBannerLoading.getBanner());
+        if (oBannerLoading.getBanner().getParent() != null) {
+            room.removeSceneObject(oBannerLoading.getBanner());
+        }
     }
     // END Banner Feature
 
@@ -550,33 +631,184 @@ public class Controller {
         return listOfModels;
     }
 
-    void setModelWithIndex(int index, GVRScene room) {
+    /** Load the models either side of {@code index} in the background. */
+    private void prefetchNeighbours(int index) {
+        int count = aModel.size();
+        if (count < 2) {
+            return;
+        }
+        final Model next = aModel.get((index + 1) % count);
+        final Model previous = aModel.get((index + count - 1) % count);
+        for (final Model m : new Model[]{next, previous}) {
+            prefetchExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    if (modelCache.contains(m)) {
+                        return;
+                    }
+                    final boolean wasLoaded = m.isLoaded();
+                    final long start = System.nanoTime();
+                    if (!m.parse(context)) {
+                        return;
+                    }
+                    final long parseNanos = System.nanoTime() - start;
+                    // preparing attaches components, which is GL thread work
+                    context.runOnGlThread(new Runnable() {
+                        @Override
+                        public void run() {
+                            cacheModel(m, wasLoaded, parseNanos);
+                        }
+                    });
+                }
+            });
+            if (next == previous) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Show the model at {@code index}. The file is parsed on the import
+     * thread and finished on the GL thread while the loading banner stays
+     * up; picking another model before it is ready cancels this import.
+     * May be called from any thread: the switch itself runs on the GL
+     * thread, in order with the imports it cancels and shows.
+     */
+    void setModelWithIndex(final int index, final GVRScene room) {
+        context.runOnGlThread(new Runnable() {
+            @Override
+            public void run() {
+                switchModel(index, room);
+            }
+        });
+    }
+
+    /** GL thread: take the current model out and start importing the next one. */
+    private void switchModel(final int index, final GVRScene room) {
+        if (currentImport != null) {
+            currentImport.cancel();
+        }
         if (currentDisplayedModel != null) {
             room.removeSceneObject(currentDisplayedModel.getModel(context));
+            modelCache.unpin(currentDisplayedModel);
+            currentDisplayedModel = null;
+            currentModelFlag = false;
         }
 
         displayLoadingInRoom(room);
-        GVRSceneObject tempModelSO = aModel.get(index).getModel(context);
+        final Model selected = aModel.get(index);
+        final ModelImport job = new ModelImport(selected.getModelName());
+        currentImport = job;
+        modelCache.pin(selected);
+        importExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                parseModel(job, selected, index, room);
+            }
+        });
+    }
+
+    /** Import thread: read the file, then hand over to the GL thread. */
+    private void parseModel(final ModelImport job, final Model m, final int index, final GVRScene room) {
+        if (!job.moveTo(ModelImport.State.PARSING)) {
+            endImport(job, m, room);
+            return;
+        }
+        modelCache.get(m);
+        final boolean wasLoaded = m.isLoaded();
+        final long start = System.nanoTime();
+        if (!m.parse(context)) {
+            job.fail("cannot read " + m.getModelName());
+            endImport(job, m, room);
+            return;
+        }
+        final long parseNanos = System.nanoTime() - start;
+        if (!job.moveTo(ModelImport.State.UPLOADING)) {
+            // skipped: still cache it like a prefetched model, on the GL thread
+            context.runOnGlThread(new Runnable() {
+                @Override
+                public void run() {
+                    cacheModel(m, wasLoaded, parseNanos);
+                    endImport(job, m, room);
+                }
+            });
+            return;
+        }
+        context.runOnGlThread(new Runnable() {
+            @Override
+            public void run() {
+                GVRSceneObject so = cacheModel(m, wasLoaded, parseNanos);
+                if (so == null) {
+                    job.fail("cannot read " + m.getModelName());
+                } else if (job.moveTo(ModelImport.State.READY)) {
+                    showModel(m, so, room);
+                    prefetchNeighbours(index);
+                }
+                endImport(job, m, room);
+            }
+        });
+    }
+
+    /**
+     * GL thread: prepare the parsed model, loading it first if it was
+     * evicted since, and account for it in the cache, which may evict other
+     * models to make room.
+     */
+    private GVRSceneObject cacheModel(Model m, boolean wasLoaded, long parseNanos) {
+        GVRSceneObject so;
+        long bytes;
+        long loadNanos;
+        synchronized (m) {
+            long start = System.nanoTime();
+            so = m.getModel(context);
+            loadNanos = parseNanos + System.nanoTime() - start;
+            bytes = m.getEstimatedBytes();
+        }
+        // outside the model's lock: putting may evict and lock other models
+        if ((so != null) && !modelCache.contains(m)) {
+            modelCache.put(m, bytes, wasLoaded ? -1 : loadNanos);
+            // the textures may have come in between, with nothing to resize yet
+            modelCache.resize(m, m.getEstimatedBytes());
+        }
+        return so;
+    }
+
+    private void showModel(Model m, GVRSceneObject tempModelSO, GVRScene room) {
+        tempModelSO.getTransform().setPosition(defaultCenterPosition.x, defaultCenterPosition
+                .y, defaultCenterPosition.z);
+        room.addSceneObject(tempModelSO);
+        enableDisableLightOnModel(tempModelSO, oLightFlag);
 
         Log.d(TAG, "Loading Done");
-        if (tempModelSO != null) {
-            tempModelSO.getTransform().setPosition(defaultCenterPosition.x, defaultCenterPosition
-                    .y, defaultCenterPosition.z);
-            room.addSceneObject(tempModelSO);
-            enableDisableLightOnModel(tempModelSO, oLightFlag);
+        currentDisplayedModel = m;
+        currentModelFlag = true;
+    }
 
-            removeLoadingInRoom(room);
-            Log.d(TAG, "Loading Done");
-            currentDisplayedModel = aModel.get(index);
-            currentModelFlag = true;
-        } else {
+    /** Bookkeeping once an import reached a final state. */
+    private void endImport(ModelImport job, Model m, GVRScene room) {
+        if (job.getState() != ModelImport.State.READY) {
+            modelCache.unpin(m);
+        }
+        if (job.getState() == ModelImport.State.FAILED) {
             Log.d(TAG, "Loading Error");
         }
-        removeLoadingInRoom(room);
+        if (job == currentImport) {
+            removeLoadingInRoom(room);
+        }
+        lastImport = job;
+        Log.d(TAG, "Import " + job);
+        Log.d(TAG, "Model cache " + modelCache);
+    }
+
+    /** Phase timings of the last import that finished, or null. */
+    ModelImport getLastImport() {
+        return lastImport;
     }
 
     void onScrollOverModel(GVRCollider holder, float scrollValue) {
-        if (null != currentDisplayedModel && currentDisplayedModel.getModel(context).getCollider() == holder) {
+        if (null != currentDisplayedModel && currentDisplayedModel.hasCollider(holder)) {
+                // precise picking from now on, the bounding sphere got us here
+                currentDisplayedModel.usePreciseColliders(context);
                 Log.d(TAG, "Angle mover applied");
                 if (scrollValue > 0)
                     new GVRRotationByAxisAnimation(currentDisplayedModel.getModel
@@ -17,12 +17,16 @@ package org.gearvrf.modelviewer2;
 
 import android.util.Log;
 
+import org.gearvrf.GVRCollider;
 import org.gearvrf.GVRContext;
+import org.gearvrf.GVRImage;
 import org.gearvrf.GVRMaterial;
+import org.gearvrf.GVRMesh;
 import org.gearvrf.GVRMeshCollider;
 import org.gearvrf.GVRRenderData;
 import org.gearvrf.GVRSceneObject;
 import org.gearvrf.GVRSphereCollider;
+import org.gearvrf.GVRTexture;
 import org.gearvrf.animation.GVRAnimation;
 import org.gearvrf.scene_objects.GVRModelSceneObject;
 import org.gearvrf.util.BoundingBoxCreator;
@@ -30,6 +34,7 @@ import org.joml.Vector3f;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
 
 public class Model {
@@ -40,6 +45,9 @@ public class Model {
     ArrayList<GVRMaterial> originalMaterial;
     List<GVRAnimation> animation;
     private float currentZoom = 0;
+    private long estimatedBytes = 0;
+    private boolean prepared = false;
+    private boolean preciseColliders = false;
 
 
     private static final String TAG = "Model";
@@ -61,24 +69,46 @@ public class Model {
         }
     }
 
-    private void loadModel(GVRContext context) {
+    /**
+     * Read the file into scene objects. Slow for big models and does not
+     * need the GL thread.
+     *
+     * @return false if the file could not be loaded
+     */
+    synchronized boolean parse(GVRContext context) {
+        if (model != null) {
+            return true;
+        }
         try {
             Log.d(TAG, "Absent so loading" + name);
             model = context.getAssetLoader().loadModel("sd:" + location);
         } catch (IOException e) {
             e.printStackTrace();
             Log.e(TAG, "Unable to load model");
-            return;
+            return false;
         }
+        prepared = false;
+        return true;
+    }
 
+    /**
+     * Scale, collider, material snapshot and animations of the parsed
+     * model; done once, on the thread that is going to show it.
+     */
+    synchronized void prepare(GVRContext context) {
+        if ((model == null) || prepared) {
+            return;
+        }
         GVRSceneObject.BoundingVolume bv = model.getBoundingVolume();
-        model.attachComponent(new GVRMeshCollider(context, true));
-
-        // Adding Pointee to Model
-        bv = model.getBoundingVolume();
         float originalRadius = bv.radius;
         Log.i(TAG, "Radius" + Float.toString(originalRadius));
 
+        // Adding Pointee to Model: a sphere around the bounds, in the model's
+        // own coordinates; the mesh collider is only built when needed
+        GVRSphereCollider collider = new GVRSphereCollider(context);
+        collider.setRadius(bv.center.length() + originalRadius);
+        model.attachComponent(collider);
+
         // TODO Scale Appropriately
         if (originalRadius > 7.0f || originalRadius < 5.0f) {
             float scaleFactor = 7 / originalRadius;
@@ -91,19 +121,151 @@ public class Model {
         // Load Animations
         animation = model.getAnimations();
         Log.i(TAG, "Animation" + Integer.toString(animation.size()));
+
+        estimatedBytes = estimateBytes(model);
+        Log.i(TAG, "Estimated size " + Long.toString(estimatedBytes / 1024) + " KB");
+        prepared = true;
+    }
+
+    /**
+     * Estimate the size again once {@code root}, the model's scene object,
+     * has all its textures; they are still loading when it is prepared.
+     *
+     * @return the new estimate, or -1 if {@code root} is not this prepared model
+     */
+    synchronized long refreshEstimatedBytes(GVRSceneObject root) {
+        if ((model == null) || (model != root) || !prepared) {
+            return -1;
+        }
+        estimatedBytes = estimateBytes(model);
+        Log.i(TAG, "Estimated size with textures " + Long.toString(estimatedBytes / 1024) + " KB");
+        return estimatedBytes;
+    }
+
+    /**
+     * Replace the bounding sphere by a collider on every part of the model
+     * that has a mesh, tested against its triangles rather than its bounds,
+     * the first time picking has to follow the model's shape.
+     */
+    public synchronized void usePreciseColliders(GVRContext context) {
+        if ((model == null) || preciseColliders) {
+            return;
+        }
+        model.detachComponent(GVRCollider.getComponentType());
+        ArrayList<GVRRenderData> rdata = model.getAllComponents(GVRRenderData.getComponentType());
+        for (GVRRenderData r : rdata) {
+            GVRSceneObject owner = r.getOwnerObject();
+            if ((r.getMesh() != null) && (owner.getCollider() == null)) {
+                owner.attachComponent(new GVRMeshCollider(context, false));
+            }
+        }
+        preciseColliders = true;
+    }
+
+    /** Whether {@code collider} is on the model or one of its parts. */
+    public synchronized boolean hasCollider(GVRCollider collider) {
+        if ((model == null) || (collider == null)) {
+            return false;
+        }
+        for (GVRSceneObject so = collider.getOwnerObject(); so != null; so = so.getParent()) {
+            if (so == model) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Vertex, index and texture bytes of the loaded model. Each mesh counts
+     * its positions, normals, texture coordinates and 16-bit indices; each
+     * distinct texture counts four bytes per texel plus a third for mipmaps.
+     * Textures still loading count as nothing, see {@link #refreshEstimatedBytes}.
+     */
+    static long estimateBytes(GVRSceneObject root) {
+        long bytes = 0;
+        IdentityHashMap<Object, Boolean> seen = new IdentityHashMap<Object, Boolean>();
+        ArrayList<GVRRenderData> rdata = root.getAllComponents(GVRRenderData.getComponentType());
+        for (GVRRenderData r : rdata) {
+            GVRMesh mesh = r.getMesh();
+            if ((mesh != null) && (seen.put(mesh, Boolean.TRUE) == null)) {
+                bytes += arrayBytes(mesh.getVertices()) + arrayBytes(mesh.getNormals())
+                        + arrayBytes(mesh.getTexCoords());
+                char[] indices = mesh.getIndices();
+                if (indices != null) {
+                    bytes += 2L * indices.length;
+                }
+            }
+            GVRMaterial material = r.getMaterial();
+            if (material == null) {
+                continue;
+            }
+            for (String name : material.getTextureNames()) {
+                GVRTexture texture = material.getTexture(name);
+                if ((texture == null) || (seen.put(texture, Boolean.TRUE) != null)) {
+                    continue;
+                }
+                GVRImage image = texture.getImage();
+                if (image != null) {
+                    bytes += 4L * image.getWidth() * image.getHeight() * 4 / 3;
+                }
+            }
+        }
+        return bytes;
+    }
+
+    private static long arrayBytes(float[] array) {
+        return (array != null) ? 4L * array.length : 0;
     }
 
-    public List<GVRAnimation> getAnimationsList() {
+    public synchronized List<GVRAnimation> getAnimationsList() {
         return animation;
     }
 
-    public GVRSceneObject getModel(GVRContext context) {
-        if (model == null) {
-            loadModel(context);
+    /** The model, loading it from the SD card on this thread if it is not resident. */
+    public synchronized GVRSceneObject getModel(GVRContext context) {
+        if (parse(context)) {
+            prepare(context);
         }
         return model;
     }
 
+    public synchronized boolean isLoaded() {
+        return (model != null) && prepared;
+    }
+
+    /** Size estimate of the resident model, 0 when it is not loaded. */
+    public synchronized long getEstimatedBytes() {
+        return isLoaded() ? estimatedBytes : 0;
+    }
+
+    /**
+     * Drop the loaded model. Its animations are stopped and it is taken out
+     * of the scene graph; GVRf frees the meshes and textures, on the GPU and
+     * natively, once nothing references their Java objects.
+     */
+    public synchronized void unload(GVRContext context) {
+        if (model == null) {
+            return;
+        }
+        Log.d(TAG, "Unloading " + name);
+        if (animation != null) {
+            for (GVRAnimation a : animation) {
+                context.getAnimationEngine().stop(a);
+            }
+        }
+        GVRSceneObject parent = model.getParent();
+        if (parent != null) {
+            parent.removeChildObject(model);
+        }
+        model = null;
+        prepared = false;
+        preciseColliders = false;
+        originalMaterial = null;
+        animation = null;
+        estimatedBytes = 0;
+        currentZoom = 0;
+    }
+
     public float getCurrentZoom() {
         return currentZoom;
     }
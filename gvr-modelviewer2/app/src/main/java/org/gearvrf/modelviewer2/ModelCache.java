@@ -0,0 +1,212 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf.modelviewer2;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Bookkeeping for the loaded models: which are resident, how many bytes each
+ * is estimated to take, and in which order they were last used. When the
+ * total goes over the budget the least recently used entries that are not
+ * pinned are handed to the {@link Evictor}, which unloads them. The most
+ * recently used entry is never evicted, so one larger than the whole budget
+ * is still kept; everything else is evicted to make room for it.
+ * <p>
+ * Only keys and sizes live here, so the policy works with synthetic sizes
+ * and no GL context. The evictor is called outside the cache's lock.
+ */
+public class ModelCache<K> {
+
+    public interface Evictor<K> {
+        void evict(K key);
+    }
+
+    private final long maxBytes;
+    private final Evictor<K> evictor;
+    private final LinkedHashMap<K, Long> entries = new LinkedHashMap<K, Long>(16, 0.75f, true);
+    private final HashMap<K, Integer> pinned = new HashMap<K, Integer>();
+    private long residentBytes;
+    private K mostRecent;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long loads;
+    private long totalLoadNanos;
+    private long maxLoadNanos;
+
+    public ModelCache(long maxBytes, Evictor<K> evictor) {
+        this.maxBytes = maxBytes;
+        this.evictor = evictor;
+    }
+
+    /**
+     * Look up a model the user asked for. Counts a hit and makes the entry
+     * the most recently used, or counts a miss.
+     */
+    public synchronized boolean get(K key) {
+        if (entries.get(key) != null) {
+            mostRecent = key;
+            ++hits;
+            return true;
+        }
+        ++misses;
+        return false;
+    }
+
+    /** Whether the model is resident, without touching the statistics or the order. */
+    public synchronized boolean contains(K key) {
+        return entries.containsKey(key);
+    }
+
+    /**
+     * Record a model that was just loaded and evict what no longer fits.
+     *
+     * @param loadNanos time the load took, for the latency statistics, or
+     *                  negative if the model was not loaded just now
+     */
+    public void put(K key, long bytes, long loadNanos) {
+        ArrayList<K> evicted;
+        synchronized (this) {
+            Long old = entries.put(key, bytes);
+            if (old != null) {
+                residentBytes -= old;
+            }
+            residentBytes += bytes;
+            mostRecent = key;
+            if (loadNanos >= 0) {
+                ++loads;
+                totalLoadNanos += loadNanos;
+                maxLoadNanos = Math.max(maxLoadNanos, loadNanos);
+            }
+            evicted = trim();
+        }
+        notifyEvicted(evicted);
+    }
+
+    /**
+     * Change the size of a resident model, e.g. once its textures have
+     * loaded, and evict what no longer fits. Neither counts as a use nor
+     * changes the order; does nothing if the model is not resident.
+     */
+    public void resize(K key, long bytes) {
+        ArrayList<K> evicted;
+        synchronized (this) {
+            Map.Entry<K, Long> entry = null;
+            // entries.get() would make it the most recently used
+            for (Map.Entry<K, Long> e : entries.entrySet()) {
+                if (e.getKey().equals(key)) {
+                    entry = e;
+                    break;
+                }
+            }
+            if (entry == null) {
+                return;
+            }
+            residentBytes += bytes - entry.getValue();
+            entry.setValue(bytes);
+            evicted = trim();
+        }
+        notifyEvicted(evicted);
+    }
+
+    /**
+     * Keep the model resident whatever the budget, e.g. while it is displayed
+     * or being imported. Pins are counted; each needs its own {@link #unpin}.
+     */
+    public synchronized void pin(K key) {
+        Integer count = pinned.get(key);
+        pinned.put(key, (count != null) ? count + 1 : 1);
+    }
+
+    /** Drop one pin, evicting if the model became evictable and the cache is over budget. */
+    public void unpin(K key) {
+        ArrayList<K> evicted;
+        synchronized (this) {
+            Integer count = pinned.get(key);
+            if ((count == null) || (count <= 1)) {
+                pinned.remove(key);
+            } else {
+                pinned.put(key, count - 1);
+            }
+            evicted = trim();
+        }
+        notifyEvicted(evicted);
+    }
+
+    private ArrayList<K> trim() {
+        ArrayList<K> evicted = new ArrayList<K>();
+        Iterator<Map.Entry<K, Long>> it = entries.entrySet().iterator();
+        while ((residentBytes > maxBytes) && it.hasNext()) {
+            Map.Entry<K, Long> e = it.next();
+            K key = e.getKey();
+            if (pinned.containsKey(key) || key.equals(mostRecent)) {
+                continue;
+            }
+            residentBytes -= e.getValue();
+            it.remove();
+            evicted.add(key);
+            ++evictions;
+        }
+        return evicted;
+    }
+
+    private void notifyEvicted(ArrayList<K> evicted) {
+        for (K key : evicted) {
+            evictor.evict(key);
+        }
+    }
+
+    public synchronized long getResidentBytes() {
+        return residentBytes;
+    }
+
+    public synchronized int getResidentCount() {
+        return entries.size();
+    }
+
+    public synchronized long getEvictionCount() {
+        return evictions;
+    }
+
+    /** Fraction of {@link #get} calls that found the model resident. */
+    public synchronized float getHitRate() {
+        long requests = hits + misses;
+        return (requests > 0) ? (float) hits / requests : 0;
+    }
+
+    public synchronized float getAverageLoadMillis() {
+        return (loads > 0) ? totalLoadNanos / 1e6f / loads : 0;
+    }
+
+    public synchronized float getMaxLoadMillis() {
+        return maxLoadNanos / 1e6f;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format(Locale.US,
+                "models %d resident %.1f / %.1f MB, hit rate %.0f%% (%d/%d), %d evicted, load avg %.0f ms max %.0f ms",
+                entries.size(), residentBytes / 1048576.0f, maxBytes / 1048576.0f,
+                getHitRate() * 100, hits, hits + misses, evictions,
+                getAverageLoadMillis(), getMaxLoadMillis());
+    }
+}
@@ -0,0 +1,157 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf.modelviewer2;
+
+import java.util.Locale;
+
+/**
+ * Progress of one model import. An import is queued, parsed on a worker
+ * thread, then finished on the GL thread (bounds, collider, materials) and
+ * added to the scene:
+ * <pre>
+ * QUEUED -> PARSING -> UPLOADING -> READY
+ *              |           |
+ *              +-----------+-----> FAILED
+ * </pre>
+ * Any state that is not final can go to CANCELLED, which is how the import
+ * learns that the user picked another model. The time spent in each state
+ * is kept. Thread safe; no Android dependencies.
+ */
+public class ModelImport {
+
+    public enum State {
+        QUEUED,
+        PARSING,
+        UPLOADING,
+        READY,
+        FAILED,
+        CANCELLED;
+
+        public boolean isFinal() {
+            return (this == READY) || (this == FAILED) || (this == CANCELLED);
+        }
+    }
+
+    private final String name;
+    private State state = State.QUEUED;
+    private final long[] enteredAt = new long[State.values().length];
+    private final long[] leftAt = new long[State.values().length];
+    private String error;
+
+    public ModelImport(String name) {
+        this.name = name;
+        enteredAt[State.QUEUED.ordinal()] = System.nanoTime();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public synchronized boolean isCancelled() {
+        return state == State.CANCELLED;
+    }
+
+    /**
+     * Move to the next state of a running import.
+     *
+     * @return false if the import was cancelled in the meantime
+     * @throws IllegalStateException if the transition is not in the diagram
+     */
+    public synchronized boolean moveTo(State next) {
+        if (state == State.CANCELLED) {
+            return false;
+        }
+        if (!canMove(state, next)) {
+            throw new IllegalStateException(name + ": cannot go from " + state + " to " + next);
+        }
+        enter(next);
+        return true;
+    }
+
+    /** Mark the import failed, keeping the reason. */
+    public synchronized boolean fail(String reason) {
+        error = reason;
+        return moveTo(State.FAILED);
+    }
+
+    /**
+     * Stop the import at the next state change.
+     *
+     * @return false if it had already finished
+     */
+    public synchronized boolean cancel() {
+        if (state.isFinal()) {
+            return false;
+        }
+        enter(State.CANCELLED);
+        return true;
+    }
+
+    public synchronized String getError() {
+        return error;
+    }
+
+    static boolean canMove(State from, State to) {
+        switch (from) {
+            case QUEUED:
+                return (to == State.PARSING) || (to == State.CANCELLED);
+            case PARSING:
+                return (to == State.UPLOADING) || (to == State.FAILED) || (to == State.CANCELLED);
+            case UPLOADING:
+                return (to == State.READY) || (to == State.FAILED) || (to == State.CANCELLED);
+            default:
+                return false;
+        }
+    }
+
+    private void enter(State next) {
+        long now = System.nanoTime();
+        leftAt[state.ordinal()] = now;
+        enteredAt[next.ordinal()] = now;
+        state = next;
+    }
+
+    /**
+     * Time spent in {@code phase}, up to now if the import is still in it,
+     * 0 if it never got there.
+     */
+    public synchronized float getPhaseMillis(State phase) {
+        int i = phase.ordinal();
+        if (enteredAt[i] == 0) {
+            return 0;
+        }
+        long end = (phase == state) ? System.nanoTime() : leftAt[i];
+        return (end - enteredAt[i]) / 1e6f;
+    }
+
+    /** Time from queueing to the final state, or to now. */
+    public synchronized float getTotalMillis() {
+        long end = state.isFinal() ? enteredAt[state.ordinal()] : System.nanoTime();
+        return (end - enteredAt[State.QUEUED.ordinal()]) / 1e6f;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format(Locale.US, "%s %s: queued %.0f ms, parsing %.0f ms, uploading %.0f ms, total %.0f ms%s",
+                name, state, getPhaseMillis(State.QUEUED), getPhaseMillis(State.PARSING),
+                getPhaseMillis(State.UPLOADING), getTotalMillis(),
+                (error != null) ? " (" + error + ")" : "");
+    }
+}
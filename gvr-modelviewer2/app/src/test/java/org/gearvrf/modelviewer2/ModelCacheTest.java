@@ -0,0 +1,158 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf.modelviewer2;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ModelCacheTest {
+
+    private static final long MB = 1024 * 1024;
+
+    private List<String> evicted;
+    private ModelCache<String> cache;
+
+    @Before
+    public void setUp() {
+        evicted = new ArrayList<String>();
+        cache = new ModelCache<String>(100 * MB, new ModelCache.Evictor<String>() {
+            @Override
+            public void evict(String key) {
+                // called outside the lock, so the cache can be asked again
+                assertFalse(cache.contains(key));
+                evicted.add(key);
+            }
+        });
+    }
+
+    @Test
+    public void leastRecentlyUsedGoesFirst() {
+        cache.put("a", 40 * MB, 0);
+        cache.put("b", 40 * MB, 0);
+        assertTrue(cache.get("a"));
+        cache.put("c", 40 * MB, 0);
+
+        assertEquals(Arrays.asList("b"), evicted);
+        assertEquals(80 * MB, cache.getResidentBytes());
+        assertEquals(2, cache.getResidentCount());
+        assertTrue(cache.contains("a"));
+        assertTrue(cache.contains("c"));
+        assertEquals(1, cache.getEvictionCount());
+    }
+
+    @Test
+    public void pinnedModelsStayOverBudget() {
+        cache.put("shown", 60 * MB, 0);
+        cache.pin("shown");
+        cache.put("next", 60 * MB, 0);
+        assertTrue(evicted.isEmpty());
+        assertEquals(120 * MB, cache.getResidentBytes());
+
+        // pins are counted
+        cache.pin("shown");
+        cache.unpin("shown");
+        assertTrue(evicted.isEmpty());
+        cache.unpin("shown");
+        assertEquals(Arrays.asList("shown"), evicted);
+        assertEquals(60 * MB, cache.getResidentBytes());
+    }
+
+    @Test
+    public void modelLargerThanTheBudgetIsKeptAlone() {
+        cache.put("a", 10 * MB, 0);
+        cache.put("b", 10 * MB, 0);
+        cache.put("huge", 300 * MB, 0);
+        assertEquals(Arrays.asList("a", "b"), evicted);
+        assertEquals(1, cache.getResidentCount());
+        assertTrue(cache.contains("huge"));
+    }
+
+    @Test
+    public void texturesLoadingLaterAreCounted() {
+        // prepared with only the meshes counted
+        cache.put("a", 5 * MB, 0);
+        cache.put("b", 5 * MB, 0);
+        cache.put("c", 5 * MB, 0);
+        assertEquals(15 * MB, cache.getResidentBytes());
+
+        // b's textures come in
+        cache.resize("b", 70 * MB);
+        assertEquals(80 * MB, cache.getResidentBytes());
+        assertTrue(evicted.isEmpty());
+
+        // then a's; a is the least recently used, so it is the one to go
+        cache.resize("a", 40 * MB);
+        assertEquals(Arrays.asList("a"), evicted);
+        assertEquals(75 * MB, cache.getResidentBytes());
+    }
+
+    @Test
+    public void resizeDoesNotCountAsAUse() {
+        cache.put("a", 30 * MB, 0);
+        cache.put("b", 30 * MB, 0);
+        cache.put("c", 30 * MB, 0);
+        cache.resize("a", 31 * MB);
+        assertEquals(0, cache.getHitRate(), 0);
+
+        cache.put("d", 30 * MB, 0);
+        // a is still the oldest
+        assertEquals(Arrays.asList("a"), evicted);
+    }
+
+    @Test
+    public void resizeOfAModelNotResidentIsIgnored() {
+        cache.put("a", 10 * MB, 0);
+        cache.resize("gone", 500 * MB);
+        assertEquals(10 * MB, cache.getResidentBytes());
+        assertFalse(cache.contains("gone"));
+        assertTrue(evicted.isEmpty());
+    }
+
+    @Test
+    public void shrinkingFreesBudget() {
+        cache.put("a", 50 * MB, 0);
+        cache.put("b", 50 * MB, 0);
+        cache.resize("a", 10 * MB);
+        cache.put("c", 40 * MB, 0);
+        assertTrue(evicted.isEmpty());
+        assertEquals(100 * MB, cache.getResidentBytes());
+    }
+
+    @Test
+    public void hitsMissesAndLoadTimesAreCounted() {
+        assertFalse(cache.get("a"));
+        cache.put("a", MB, 20000000L);
+        assertTrue(cache.get("a"));
+        assertTrue(cache.get("a"));
+        assertFalse(cache.get("b"));
+        cache.put("b", MB, 40000000L);
+        // already loaded, not timed
+        cache.put("b", MB, -1);
+
+        assertEquals(0.5f, cache.getHitRate(), 1e-6f);
+        assertEquals(30, cache.getAverageLoadMillis(), 1e-3f);
+        assertEquals(40, cache.getMaxLoadMillis(), 1e-3f);
+        assertEquals(2 * MB, cache.getResidentBytes());
+    }
+}
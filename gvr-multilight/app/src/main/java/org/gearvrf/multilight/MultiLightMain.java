@@ -27,6 +27,8 @@ import org.gearvrf.GVRMain;
 import org.gearvrf.GVRSpotLight;
 import org.gearvrf.GVRTexture;
 import org.gearvrf.GVRTransform;
+import org.gearvrf.demos.android.FrameStatsAndroid;
+import org.gearvrf.demos.util.FrameStats;
 import org.gearvrf.scene_objects.GVRModelSceneObject;
 import org.joml.Quaternionf;
 
@@ -65,10 +67,12 @@ public class MultiLightMain extends GVRMain {
     }
 
     private double theta = 0;
+    // GL thread CPU time per frame, logged every 10 seconds
+    private final FrameStats mFrameStats = FrameStatsAndroid.cpuTimeToLogcat("multilight", 10);
 
     @Override
     public void onStep() {
-        FPSCounter.tick();
+        mFrameStats.tick();
         theta += 0.005;
         if (theta >= Math.PI / 4)
             theta = -Math.PI / 4;
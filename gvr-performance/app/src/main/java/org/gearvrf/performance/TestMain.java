@@ -23,11 +23,13 @@ import org.gearvrf.GVRCamera;
 import org.gearvrf.GVRCameraRig;
 import org.gearvrf.GVRContext;
 import org.gearvrf.GVRImportSettings;
+import org.gearvrf.GVRMesh;
 import org.gearvrf.GVRScene;
 import org.gearvrf.GVRSceneObject;
 import org.gearvrf.GVRTexture;
 import org.gearvrf.ZipLoader;
 import org.gearvrf.GVRMain;
+import org.gearvrf.demos.gvrf.MeshCache;
 
 import org.gearvrf.animation.GVRAnimationEngine;
 import org.gearvrf.animation.GVRRepeatMode;
@@ -91,14 +93,14 @@ public class TestMain extends GVRMain {
             });
 
             int numTextures = textures.size();
+            EnumSet<GVRImportSettings> settings = GVRImportSettings.getRecommendedSettingsWith(EnumSet.of(NO_LIGHTING));
+            // every bunny shares one mesh, imported once and cached across launches
+            GVRMesh mesh = MeshCache.loadMesh(gvrContext, "bunny.obj", settings);
             for (int i = 0; i < numberOfBunnies; ++i) {
 
                 GVRSceneObject bunny;
-                EnumSet<GVRImportSettings> settings = GVRImportSettings.getRecommendedSettingsWith(EnumSet.of(NO_LIGHTING));
                 // we assume that the mesh and the textures are valid
-                bunny = new GVRSceneObject(gvrContext,
-                        gvrContext.getAssetLoader().loadMesh(new GVRAndroidResource(gvrContext,
-                                "bunny.obj"), settings), textures.get(i % numTextures));
+                bunny = new GVRSceneObject(gvrContext, mesh, textures.get(i % numTextures));
 
                 Random random = new Random();
 
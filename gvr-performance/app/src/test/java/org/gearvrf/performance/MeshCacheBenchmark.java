@@ -0,0 +1,490 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf.performance;
+
+import org.gearvrf.demos.util.MeshFile;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Compares the two ways a sample gets a mesh: parsing the source file and
+ * generating smooth normals, as on a cache miss, against what MeshCache does
+ * on every later launch, hashing the source for the key and mapping the
+ * cache file. The mapped data is read once in full because the GPU upload
+ * reads it too.
+ * <p>
+ * The miss is a proxy. GVRf imports through assimp, which is native and
+ * cannot run on the JVM, so the source is parsed here by a minimal reader of
+ * the same file, with the same area-weighted pass CALCULATE_SMOOTH_NORMALS
+ * does. The times show what the cache skips, not what assimp takes on a
+ * device. The assets are gvr-performance's bunny.obj and the four dinosaurs
+ * immersivepedia imports with CALCULATE_SMOOTH_NORMALS.
+ */
+public class MeshCacheBenchmark {
+
+    private static final File BUNNY = new File("src/main/assets/bunny.obj");
+    private static final File DINOSAURS = new File("../../gvr-immersivepedia/app/src/main/res/raw");
+    private static final File[] ASSETS = {
+            BUNNY,
+            new File(DINOSAURS, "trex_mesh.fbx"),
+            new File(DINOSAURS, "ankylosaurus_mesh.fbx"),
+            new File(DINOSAURS, "apatosaurus_mesh.fbx"),
+            new File(DINOSAURS, "styracosaurus_mesh.fbx")
+    };
+    private static final String SETTINGS = "[CALCULATE_SMOOTH_NORMALS]";
+    private static final int RUNS = 15;
+
+    // keeps the timed work from being optimised away
+    private static volatile float blackhole;
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    @Test
+    public void parseVersusMappedCache() throws IOException {
+        // warm up both paths before timing
+        for (File asset : ASSETS) {
+            measure(asset, false);
+        }
+        for (File asset : ASSETS) {
+            measure(asset, true);
+        }
+    }
+
+    private void measure(File asset, boolean print) throws IOException {
+        ParsedMesh parsed = ParsedMesh.parse(asset);
+        File file = new File(temp.getRoot(), asset.getName() + ".mesh");
+        MeshFile.write(file, parsed.positions, parsed.normals, parsed.texCoords, parsed.indices);
+
+        MeshFile mapped = MeshFile.map(file);
+        assertArrayEquals(parsed.positions, toArray(mapped.getPositions()), 0);
+        assertArrayEquals(parsed.normals, toArray(mapped.getNormals()), 0);
+        assertArrayEquals(parsed.texCoords, toArray(mapped.getTexCoords()), 0);
+        assertArrayEquals(parsed.indices, toArray(mapped.getIndices()));
+
+        long[] parseNanos = new long[RUNS];
+        long[] mapNanos = new long[RUNS];
+        float sink = 0;
+        for (int run = 0; run < RUNS; ++run) {
+            long start = System.nanoTime();
+            ParsedMesh mesh = ParsedMesh.parse(asset);
+            parseNanos[run] = System.nanoTime() - start;
+            sink += mesh.normals[run];
+
+            start = System.nanoTime();
+            sink += MeshFile.key(new FileInputStream(asset), SETTINGS).charAt(0);
+            sink += touch(MeshFile.map(file));
+            mapNanos[run] = System.nanoTime() - start;
+        }
+
+        blackhole = sink;
+        Arrays.sort(parseNanos);
+        Arrays.sort(mapNanos);
+        float parseMillis = parseNanos[RUNS / 2] / 1e6f;
+        float mapMillis = mapNanos[RUNS / 2] / 1e6f;
+        if (print) {
+            System.out.println(String.format(Locale.US,
+                    "%s, %d vertices, %d indices: parse + smooth normals %.2f ms, key + mapped cache %.2f ms (%.0fx), median of %d",
+                    asset.getName(), mapped.getVertexCount(), mapped.getIndexCount(), parseMillis, mapMillis,
+                    parseMillis / mapMillis, RUNS));
+        }
+    }
+
+    @Test
+    public void parserKeepsEveryTriangle() throws IOException {
+        ParsedMesh mesh = ParsedMesh.parse(BUNNY);
+        int faces = 0;
+        BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(BUNNY), "UTF-8"));
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith("f ")) {
+                    faces += line.trim().split("\\s+").length - 3;
+                }
+            }
+        } finally {
+            reader.close();
+        }
+        assertEquals(3 * faces, mesh.indices.length);
+    }
+
+    @Test
+    public void fbxReaderKeepsEveryTriangle() throws IOException {
+        File trex = new File(DINOSAURS, "trex_mesh.fbx");
+        FbxGeometry geometry = FbxGeometry.read(trex);
+        int triangles = 0;
+        int corners = 0;
+        for (int index : geometry.polygonVertexIndex) {
+            ++corners;
+            if (index < 0) {
+                triangles += corners - 2;
+                corners = 0;
+            }
+        }
+        assertEquals(0, corners);
+        assertEquals(geometry.polygonVertexIndex.length, geometry.uvIndex.length);
+
+        ParsedMesh mesh = ParsedMesh.parse(trex);
+        assertEquals(3 * triangles, mesh.indices.length);
+        // every stored position is a corner of some polygon
+        boolean[] used = new boolean[geometry.vertices.length / 3];
+        for (int[] corner : mesh.corners) {
+            used[corner[0]] = true;
+        }
+        for (int i = 0; i < used.length; ++i) {
+            assertTrue("position " + i + " unused", used[i]);
+        }
+        for (float n : mesh.normals) {
+            assertTrue(!Float.isNaN(n));
+        }
+    }
+
+    private static float touch(MeshFile mesh) {
+        float sum = 0;
+        FloatBuffer positions = mesh.getPositions();
+        while (positions.hasRemaining()) {
+            sum += positions.get();
+        }
+        FloatBuffer normals = mesh.getNormals();
+        while (normals.hasRemaining()) {
+            sum += normals.get();
+        }
+        FloatBuffer texCoords = mesh.getTexCoords();
+        while (texCoords.hasRemaining()) {
+            sum += texCoords.get();
+        }
+        CharBuffer indices = mesh.getIndices();
+        while (indices.hasRemaining()) {
+            sum += indices.get();
+        }
+        return sum;
+    }
+
+    private static float[] toArray(FloatBuffer buffer) {
+        float[] array = new float[buffer.remaining()];
+        buffer.get(array);
+        return array;
+    }
+
+    private static char[] toArray(CharBuffer buffer) {
+        char[] array = new char[buffer.remaining()];
+        buffer.get(array);
+        return array;
+    }
+
+    /**
+     * Triangulated mesh with one vertex per distinct position/uv pair and
+     * normals regenerated by area-weighted averaging of the face normals
+     * around each position, like CALCULATE_SMOOTH_NORMALS.
+     */
+    static final class ParsedMesh {
+        float[] positions;
+        float[] normals;
+        float[] texCoords;
+        char[] indices;
+
+        private final ArrayList<int[]> corners = new ArrayList<int[]>();
+        private final HashMap<Long, Integer> vertexOf = new HashMap<Long, Integer>();
+        private final ArrayList<Integer> faceVertices = new ArrayList<Integer>();
+
+        static ParsedMesh parse(File file) throws IOException {
+            return file.getName().endsWith(".fbx") ? parseFbx(file) : parseObj(file);
+        }
+
+        /** Minimal OBJ reader: positions, uvs and faces. */
+        static ParsedMesh parseObj(File obj) throws IOException {
+            FloatList v = new FloatList();
+            FloatList vt = new FloatList();
+            ParsedMesh mesh = new ParsedMesh();
+
+            BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(obj), "UTF-8"));
+            try {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    String[] parts = line.trim().split("\\s+");
+                    if (parts[0].equals("v")) {
+                        v.add(Float.parseFloat(parts[1]), Float.parseFloat(parts[2]), Float.parseFloat(parts[3]));
+                    } else if (parts[0].equals("vt")) {
+                        vt.add(Float.parseFloat(parts[1]), Float.parseFloat(parts[2]));
+                    } else if (parts[0].equals("f")) {
+                        int[] face = new int[parts.length - 1];
+                        for (int i = 1; i < parts.length; ++i) {
+                            String[] refs = parts[i].split("/");
+                            int p = Integer.parseInt(refs[0]) - 1;
+                            int t = (refs.length > 1 && !refs[1].isEmpty()) ? Integer.parseInt(refs[1]) - 1 : -1;
+                            face[i - 1] = mesh.vertex(p, t);
+                        }
+                        mesh.face(face, face.length);
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+            mesh.finish(v.values, v.size / 3, vt.values);
+            return mesh;
+        }
+
+        /** Positions, polygons and uvs of the first geometry of a binary FBX. */
+        static ParsedMesh parseFbx(File fbx) throws IOException {
+            FbxGeometry geometry = FbxGeometry.read(fbx);
+            ParsedMesh mesh = new ParsedMesh();
+            int[] face = new int[16];
+            int n = 0;
+            for (int k = 0; k < geometry.polygonVertexIndex.length; ++k) {
+                int index = geometry.polygonVertexIndex[k];
+                // the last corner of each polygon is stored as ~index
+                int p = index < 0 ? ~index : index;
+                if (n == face.length) {
+                    face = Arrays.copyOf(face, 2 * n);
+                }
+                face[n++] = mesh.vertex(p, geometry.uvIndex[k]);
+                if (index < 0) {
+                    mesh.face(face, n);
+                    n = 0;
+                }
+            }
+            mesh.finish(toFloats(geometry.vertices), geometry.vertices.length / 3, toFloats(geometry.uv));
+            return mesh;
+        }
+
+        private int vertex(int p, int t) {
+            long key = ((long) p << 32) | (t & 0xffffffffL);
+            Integer vertex = vertexOf.get(key);
+            if (vertex == null) {
+                vertex = corners.size();
+                vertexOf.put(key, vertex);
+                corners.add(new int[] {p, t});
+            }
+            return vertex;
+        }
+
+        private void face(int[] face, int n) {
+            for (int i = 2; i < n; ++i) {
+                faceVertices.add(face[0]);
+                faceVertices.add(face[i - 1]);
+                faceVertices.add(face[i]);
+            }
+        }
+
+        private void finish(float[] v, int positionCount, float[] vt) {
+            int count = corners.size();
+            positions = new float[3 * count];
+            texCoords = new float[2 * count];
+            for (int i = 0; i < count; ++i) {
+                int p = corners.get(i)[0];
+                int t = corners.get(i)[1];
+                System.arraycopy(v, 3 * p, positions, 3 * i, 3);
+                if (t >= 0) {
+                    System.arraycopy(vt, 2 * t, texCoords, 2 * i, 2);
+                }
+            }
+            indices = new char[faceVertices.size()];
+            for (int i = 0; i < indices.length; ++i) {
+                indices[i] = (char) (int) faceVertices.get(i);
+            }
+            normals = smoothNormals(v, positionCount, corners, indices);
+        }
+
+        private static float[] smoothNormals(float[] v, int positionCount, ArrayList<int[]> corners,
+                                             char[] indices) {
+            float[] sums = new float[3 * positionCount];
+            for (int i = 0; i < indices.length; i += 3) {
+                int a = 3 * corners.get(indices[i])[0];
+                int b = 3 * corners.get(indices[i + 1])[0];
+                int c = 3 * corners.get(indices[i + 2])[0];
+                float ux = v[b] - v[a], uy = v[b + 1] - v[a + 1], uz = v[b + 2] - v[a + 2];
+                float wx = v[c] - v[a], wy = v[c + 1] - v[a + 1], wz = v[c + 2] - v[a + 2];
+                float nx = uy * wz - uz * wy, ny = uz * wx - ux * wz, nz = ux * wy - uy * wx;
+                for (int p : new int[] {a, b, c}) {
+                    sums[p] += nx;
+                    sums[p + 1] += ny;
+                    sums[p + 2] += nz;
+                }
+            }
+            float[] normals = new float[3 * corners.size()];
+            for (int i = 0; i < corners.size(); ++i) {
+                int p = 3 * corners.get(i)[0];
+                float length = (float) Math.sqrt(sums[p] * sums[p] + sums[p + 1] * sums[p + 1] + sums[p + 2] * sums[p + 2]);
+                if (length > 0) {
+                    normals[3 * i] = sums[p] / length;
+                    normals[3 * i + 1] = sums[p + 1] / length;
+                    normals[3 * i + 2] = sums[p + 2] / length;
+                }
+            }
+            return normals;
+        }
+
+        private static float[] toFloats(double[] values) {
+            float[] floats = new float[values.length];
+            for (int i = 0; i < values.length; ++i) {
+                floats[i] = (float) values[i];
+            }
+            return floats;
+        }
+    }
+
+    /**
+     * The arrays of the first Geometry node of a binary FBX file: Vertices,
+     * PolygonVertexIndex and the UV and UVIndex of its LayerElementUV, which
+     * the dinosaurs map by polygon vertex. Other nodes are skipped.
+     */
+    static final class FbxGeometry {
+        private static final String MAGIC = "Kaydara FBX Binary  ";
+        private static final int HEADER_BYTES = 27;
+
+        double[] vertices;
+        int[] polygonVertexIndex;
+        double[] uv;
+        int[] uvIndex;
+
+        private final ByteBuffer data;
+        private final boolean wideOffsets;
+
+        private FbxGeometry(ByteBuffer data) {
+            this.data = data;
+            // 7.5 and later store node offsets and sizes in 64 bits
+            wideOffsets = data.getInt(23) >= 7500;
+        }
+
+        static FbxGeometry read(File fbx) throws IOException {
+            byte[] bytes = new byte[(int) fbx.length()];
+            RandomAccessFile file = new RandomAccessFile(fbx, "r");
+            try {
+                file.readFully(bytes);
+            } finally {
+                file.close();
+            }
+            if (!new String(bytes, 0, MAGIC.length(), "US-ASCII").equals(MAGIC)) {
+                throw new IOException(fbx.getName() + " is not a binary FBX file");
+            }
+            FbxGeometry geometry = new FbxGeometry(ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN));
+            geometry.readNodes(HEADER_BYTES, bytes.length);
+            if (geometry.vertices == null || geometry.polygonVertexIndex == null || geometry.uvIndex == null) {
+                throw new IOException(fbx.getName() + " has no geometry with uvs");
+            }
+            return geometry;
+        }
+
+        private void readNodes(int offset, int end) throws IOException {
+            final int headerBytes = wideOffsets ? 25 : 13;
+            while (offset + headerBytes <= end) {
+                long endOffset = wideOffsets ? data.getLong(offset) : data.getInt(offset) & 0xffffffffL;
+                if (endOffset == 0) {
+                    return;
+                }
+                long propertyBytes = wideOffsets ? data.getLong(offset + 16) : data.getInt(offset + 8) & 0xffffffffL;
+                int nameLength = data.get(offset + headerBytes - 1) & 0xff;
+                String name = new String(data.array(), offset + headerBytes, nameLength, "US-ASCII");
+                int properties = offset + headerBytes + nameLength;
+                int children = properties + (int) propertyBytes;
+
+                if (name.equals("Objects") || name.equals("LayerElementUV")) {
+                    readNodes(children, (int) endOffset);
+                } else if (name.equals("Geometry")) {
+                    if (vertices == null) {
+                        readNodes(children, (int) endOffset);
+                    }
+                } else if (name.equals("Vertices")) {
+                    vertices = readDoubles(properties);
+                } else if (name.equals("PolygonVertexIndex")) {
+                    polygonVertexIndex = readInts(properties);
+                } else if (name.equals("UV")) {
+                    uv = readDoubles(properties);
+                } else if (name.equals("UVIndex")) {
+                    uvIndex = readInts(properties);
+                }
+                offset = (int) endOffset;
+            }
+        }
+
+        private double[] readDoubles(int property) throws IOException {
+            ByteBuffer values = readArray(property, 'd', 8);
+            double[] array = new double[values.remaining() / 8];
+            values.asDoubleBuffer().get(array);
+            return array;
+        }
+
+        private int[] readInts(int property) throws IOException {
+            ByteBuffer values = readArray(property, 'i', 4);
+            int[] array = new int[values.remaining() / 4];
+            values.asIntBuffer().get(array);
+            return array;
+        }
+
+        /** The elements of an array property, inflated if stored compressed. */
+        private ByteBuffer readArray(int property, char type, int elementBytes) throws IOException {
+            if (data.get(property) != type) {
+                throw new IOException("expected an array of type " + type + " at " + property);
+            }
+            int length = data.getInt(property + 1);
+            int encoding = data.getInt(property + 5);
+            int storedBytes = data.getInt(property + 9);
+            int start = property + 13;
+            byte[] values = new byte[length * elementBytes];
+            if (encoding == 0) {
+                System.arraycopy(data.array(), start, values, 0, values.length);
+            } else {
+                Inflater inflater = new Inflater();
+                try {
+                    inflater.setInput(data.array(), start, storedBytes);
+                    if (inflater.inflate(values) != values.length) {
+                        throw new IOException("short compressed array at " + property);
+                    }
+                } catch (DataFormatException e) {
+                    throw new IOException(e);
+                } finally {
+                    inflater.end();
+                }
+            }
+            return ByteBuffer.wrap(values).order(ByteOrder.LITTLE_ENDIAN);
+        }
+    }
+
+    private static final class FloatList {
+        float[] values = new float[1024];
+        int size;
+
+        void add(float... more) {
+            if (size + more.length > values.length) {
+                values = Arrays.copyOf(values, Math.max(2 * values.length, size + more.length));
+            }
+            System.arraycopy(more, 0, values, size, more.length);
+            size += more.length;
+        }
+    }
+}